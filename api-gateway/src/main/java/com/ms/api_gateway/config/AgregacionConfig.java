@@ -0,0 +1,40 @@
+package com.ms.api_gateway.config;
+
+import com.ms.api_gateway.filter.LimiteTasaGatewayFilterFactory;
+import com.ms.api_gateway.handler.DetallePrestamoHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import java.time.Duration;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+
+@Configuration
+public class AgregacionConfig {
+
+    @Bean
+    public DetallePrestamoHandler detallePrestamoHandler(WebClient.Builder builder,
+                                                         ReactorLoadBalancerExchangeFilterFunction balanceador,
+                                                         @Value("${gateway.agregacion.timeout:2s}") Duration timeout) {
+        return new DetallePrestamoHandler(builder.filter(balanceador).build(), timeout);
+    }
+
+    @Bean
+    @ConfigurationProperties("gateway.agregacion.limite-tasa")
+    public LimiteTasaGatewayFilterFactory.Config limiteTasaAgregacion() {
+        return new LimiteTasaGatewayFilterFactory.Config();
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> rutasAgregadas(DetallePrestamoHandler handler, LimiteTasaGatewayFilterFactory limiteTasa,
+                                                         LimiteTasaGatewayFilterFactory.Config limiteTasaAgregacion) {
+        return RouterFunctions.route(GET("/biblioteca/prestamos/{id}/detalle"), handler::detalle)
+                .filter(limiteTasa.filtroRuta(limiteTasaAgregacion));
+    }
+}
@@ -9,12 +9,14 @@ import java.util.Map;
 @Component
 public class GatewayErrorAttributes extends DefaultErrorAttributes {
 
+    public static final String NOMBRE_API = "API Gateway Biblioteca";
+
     @Override
     public Map<String, Object> getErrorAttributes(ServerRequest request, ErrorAttributeOptions options) {
         Map<String, Object> errorAttributes = super.getErrorAttributes(request, options);
 
         errorAttributes.put("mensaje", "El microservicio solicitado no está disponible.");
-        errorAttributes.put("api", "API Gateway Biblioteca");
+        errorAttributes.put("api", NOMBRE_API);
         errorAttributes.remove("requestId");
 
         return errorAttributes;
@@ -0,0 +1,80 @@
+package com.ms.api_gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class CacheRespuestas {
+
+    public record RespuestaCacheada(HttpStatusCode estado, MediaType tipoContenido, String etag,
+                                    String cacheControl, List<String> vary, byte[] cuerpo) {
+    }
+
+    static final class Region {
+        private final Cache<String, RespuestaCacheada> entradas;
+        private final Cache<String, Set<String>> variaciones;
+        private final AtomicLong version = new AtomicLong();
+
+        private Region(Duration ttl, long tamanioMaximo) {
+            this.entradas = Caffeine.newBuilder()
+                    .expireAfterWrite(ttl)
+                    .maximumSize(tamanioMaximo)
+                    .build();
+            this.variaciones = Caffeine.newBuilder()
+                    .expireAfterWrite(ttl)
+                    .maximumSize(tamanioMaximo)
+                    .build();
+        }
+
+        RespuestaCacheada obtener(String clave) {
+            return entradas.getIfPresent(clave);
+        }
+
+        Set<String> variaciones(String recurso) {
+            Set<String> encabezados = variaciones.getIfPresent(recurso);
+            return encabezados != null ? encabezados : Set.of();
+        }
+
+        void registrarVariaciones(String recurso, Set<String> encabezados) {
+            variaciones.put(recurso, Set.copyOf(encabezados));
+        }
+
+        long version() {
+            return version.get();
+        }
+
+        void guardar(String clave, RespuestaCacheada respuesta, long versionLeida) {
+            if (version.get() == versionLeida) {
+                entradas.put(clave, respuesta);
+            }
+        }
+
+        void invalidar() {
+            version.incrementAndGet();
+            entradas.invalidateAll();
+            variaciones.invalidateAll();
+        }
+    }
+
+    private final Map<String, Region> regiones = new ConcurrentHashMap<>();
+
+    Region region(String nombre, Duration ttl, long tamanioMaximo) {
+        return regiones.computeIfAbsent(nombre, clave -> new Region(ttl, tamanioMaximo));
+    }
+
+    public void invalidar(String nombre) {
+        Region region = regiones.get(nombre);
+        if (region != null) {
+            region.invalidar();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.ms.api_gateway.filter;
+
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class CacheRespuestasGatewayFilterFactory extends AbstractGatewayFilterFactory<CacheRespuestasGatewayFilterFactory.Config> {
+
+    static final String ENCABEZADO_CACHE = "X-Cache";
+
+    private final CacheRespuestas cache;
+
+    public CacheRespuestasGatewayFilterFactory(CacheRespuestas cache) {
+        super(Config.class);
+        this.cache = cache;
+    }
+
+    @Data
+    public static class Config {
+        private String region;
+        private boolean cachear = true;
+        private Duration ttl = Duration.ofSeconds(30);
+        private long tamanioMaximo = 1000;
+        private int tamanioMaximoCuerpo = 1024 * 1024;
+        private List<String> invalida;
+        private List<String> variaPor = List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_LANGUAGE);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("region", "ttl", "tamanioMaximo");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        CacheRespuestas.Region region = config.isCachear()
+                ? cache.region(config.getRegion(), config.getTtl(), config.getTamanioMaximo())
+                : null;
+        List<String> regionesInvalidadas = config.getInvalida() != null ? config.getInvalida() : List.of(config.getRegion());
+
+        return (exchange, chain) -> {
+            HttpMethod metodo = exchange.getRequest().getMethod();
+            if (HttpMethod.GET.equals(metodo) && region != null) {
+                return responderDesdeCache(exchange, chain, region, config);
+            }
+            if (HttpMethod.GET.equals(metodo) || HttpMethod.HEAD.equals(metodo) || HttpMethod.OPTIONS.equals(metodo)) {
+                return chain.filter(exchange);
+            }
+            regionesInvalidadas.forEach(cache::invalidar);
+            return chain.filter(exchange).doFinally(senal -> regionesInvalidadas.forEach(cache::invalidar));
+        };
+    }
+
+    private Mono<Void> responderDesdeCache(ServerWebExchange exchange, GatewayFilterChain chain,
+                                           CacheRespuestas.Region region, Config config) {
+        ServerHttpRequest request = exchange.getRequest();
+        String recurso = request.getURI().getRawPath() + (request.getURI().getRawQuery() != null ? "?" + request.getURI().getRawQuery() : "");
+        List<String> etagsCliente = request.getHeaders().getIfNoneMatch();
+        Set<String> variaPor = encabezadosVariables(config.getVariaPor(), region.variaciones(recurso));
+
+        CacheRespuestas.RespuestaCacheada cacheada = region.obtener(clave(recurso, request.getHeaders(), variaPor));
+        if (cacheada != null) {
+            return escribir(exchange.getResponse(), cacheada, etagsCliente, "HIT");
+        }
+
+        long version = region.version();
+        int tamanioMaximoCuerpo = config.getTamanioMaximoCuerpo();
+        ServerHttpResponse original = exchange.getResponse();
+        ServerHttpResponseDecorator capturadora = new ServerHttpResponseDecorator(original) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> cuerpo) {
+                if (!HttpStatus.OK.equals(getStatusCode()) || !esCacheable(getHeaders())) {
+                    return super.writeWith(cuerpo);
+                }
+                long longitud = getHeaders().getContentLength();
+                if (longitud > tamanioMaximoCuerpo) {
+                    getHeaders().set(ENCABEZADO_CACHE, "BYPASS");
+                    return super.writeWith(cuerpo);
+                }
+                AtomicLong leidos = new AtomicLong();
+                Flux<List<DataBuffer>> bloques = Flux.<DataBuffer>from(cuerpo)
+                        .bufferUntil(buffer -> leidos.addAndGet(buffer.readableByteCount()) > tamanioMaximoCuerpo);
+                return bloques.switchOnFirst((primero, todos) -> {
+                    if (primero.isOnError() || leidos.get() > tamanioMaximoCuerpo) {
+                        getHeaders().set(ENCABEZADO_CACHE, "BYPASS");
+                        return super.writeWith(todos.concatMapIterable(bloque -> bloque));
+                    }
+                    byte[] bytes = unir(primero.hasValue() ? primero.get() : List.of());
+                    return escribir(getDelegate(), guardar(bytes), etagsCliente, "MISS");
+                }).then();
+            }
+
+            private CacheRespuestas.RespuestaCacheada guardar(byte[] bytes) {
+                HttpHeaders headers = getHeaders();
+                CacheRespuestas.RespuestaCacheada respuesta = new CacheRespuestas.RespuestaCacheada(
+                        getStatusCode(), headers.getContentType(), calcularEtag(bytes),
+                        headers.getCacheControl(), List.copyOf(headers.getVary()), bytes);
+                Set<String> variaRespuesta = encabezadosVariables(List.of(), respuesta.vary());
+                region.registrarVariaciones(recurso, variaRespuesta);
+                String clave = clave(recurso, request.getHeaders(), encabezadosVariables(config.getVariaPor(), variaRespuesta));
+                region.guardar(clave, respuesta, version);
+                return respuesta;
+            }
+        };
+        return chain.filter(exchange.mutate().response(capturadora).build());
+    }
+
+    private static boolean esCacheable(HttpHeaders headers) {
+        if (headers.getVary().contains("*")) {
+            return false;
+        }
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            return true;
+        }
+        String directivas = cacheControl.toLowerCase(Locale.ROOT);
+        return !directivas.contains("no-store") && !directivas.contains("private");
+    }
+
+    private static Set<String> encabezadosVariables(Collection<String> configurados, Collection<String> vary) {
+        Set<String> encabezados = new TreeSet<>();
+        configurados.forEach(encabezado -> encabezados.add(encabezado.toLowerCase(Locale.ROOT)));
+        vary.forEach(encabezado -> encabezados.add(encabezado.trim().toLowerCase(Locale.ROOT)));
+        return encabezados;
+    }
+
+    private static String clave(String recurso, HttpHeaders headers, Set<String> variaPor) {
+        StringBuilder clave = new StringBuilder(recurso);
+        for (String encabezado : variaPor) {
+            clave.append('|').append(encabezado).append('=').append(String.join(",", headers.getOrEmpty(encabezado)));
+        }
+        return clave.toString();
+    }
+
+    private static byte[] unir(List<DataBuffer> buffers) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (DataBuffer buffer : buffers) {
+            byte[] parte = new byte[buffer.readableByteCount()];
+            buffer.read(parte);
+            DataBufferUtils.release(buffer);
+            bytes.writeBytes(parte);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Mono<Void> escribir(ServerHttpResponse response, CacheRespuestas.RespuestaCacheada respuesta,
+                                       List<String> etagsCliente, String resultadoCache) {
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(respuesta.etag());
+        headers.set(ENCABEZADO_CACHE, resultadoCache);
+        if (respuesta.cacheControl() != null) {
+            headers.setCacheControl(respuesta.cacheControl());
+        }
+        if (!respuesta.vary().isEmpty()) {
+            headers.setVary(respuesta.vary());
+        }
+        if (coincide(etagsCliente, respuesta.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+        response.setStatusCode(respuesta.estado());
+        headers.setContentType(respuesta.tipoContenido());
+        headers.setContentLength(respuesta.cuerpo().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(respuesta.cuerpo())));
+    }
+
+    private static boolean coincide(List<String> etagsCliente, String etag) {
+        return etagsCliente.contains("*") || etagsCliente.contains(etag) || etagsCliente.contains("W/" + etag);
+    }
+
+    private static String calcularEtag(byte[] cuerpo) {
+        return "\"" + DigestUtils.md5DigestAsHex(cuerpo) + "\"";
+    }
+}
@@ -0,0 +1,36 @@
+package com.ms.api_gateway.filter;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+final class CubetaTokens {
+
+    record Resultado(boolean permitido, long tokensRestantes, long esperaNanos) {
+    }
+
+    private record Estado(double tokens, long instante) {
+    }
+
+    private final double capacidad;
+    private final double tokensPorNano;
+    private final AtomicReference<Estado> estado;
+
+    CubetaTokens(long capacidad, double reposicionPorSegundo, long ahora) {
+        this.capacidad = capacidad;
+        this.tokensPorNano = reposicionPorSegundo / 1_000_000_000.0;
+        this.estado = new AtomicReference<>(new Estado(capacidad, ahora));
+    }
+
+    Resultado consumir(long ahora) {
+        while (true) {
+            Estado actual = estado.get();
+            long instante = Math.max(ahora, actual.instante());
+            double disponibles = Math.min(capacidad, actual.tokens() + (instante - actual.instante()) * tokensPorNano);
+            if (disponibles < 1) {
+                return new Resultado(false, 0, (long) Math.ceil((1 - disponibles) / tokensPorNano));
+            }
+            if (estado.compareAndSet(actual, new Estado(disponibles - 1, instante))) {
+                return new Resultado(true, (long) (disponibles - 1), 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.ms.api_gateway.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ms.api_gateway.config.GatewayErrorAttributes;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+@Component
+public class LimiteTasaGatewayFilterFactory extends AbstractGatewayFilterFactory<LimiteTasaGatewayFilterFactory.Config> {
+
+    static final String ENCABEZADO_RESTANTES = "X-RateLimit-Remaining";
+    static final String ENCABEZADO_REENVIADO = "X-Forwarded-For";
+
+    private final ObjectMapper objectMapper;
+    private final LongSupplier reloj;
+
+    @Data
+    public static class Config {
+        private long capacidad = 20;
+        private double reposicionPorSegundo = 10;
+        private String encabezadoCliente = "X-Client-Id";
+        private List<String> proxiesConfiables = List.of();
+        private long clientesMaximos = 100_000;
+        private Duration inactividad = Duration.ofMinutes(10);
+    }
+
+    @Autowired
+    public LimiteTasaGatewayFilterFactory(ObjectMapper objectMapper) {
+        this(objectMapper, System::nanoTime);
+    }
+
+    LimiteTasaGatewayFilterFactory(ObjectMapper objectMapper, LongSupplier reloj) {
+        super(Config.class);
+        this.objectMapper = objectMapper;
+        this.reloj = reloj;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("capacidad", "reposicionPorSegundo");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Cache<String, CubetaTokens> cubetas = cubetas(config);
+
+        return (exchange, chain) -> {
+            CubetaTokens.Resultado resultado = consumir(cubetas, config, exchange);
+            if (resultado.permitido()) {
+                return chain.filter(exchange);
+            }
+            return rechazar(exchange, reintentarEnSegundos(resultado));
+        };
+    }
+
+    public HandlerFilterFunction<ServerResponse, ServerResponse> filtroRuta(Config config) {
+        Cache<String, CubetaTokens> cubetas = cubetas(config);
+
+        return (request, next) -> {
+            CubetaTokens.Resultado resultado = consumir(cubetas, config, request.exchange());
+            if (resultado.permitido()) {
+                return next.handle(request);
+            }
+            long reintentarEnSegundos = reintentarEnSegundos(resultado);
+            return ServerResponse.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(reintentarEnSegundos))
+                    .header(ENCABEZADO_RESTANTES, "0")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(cuerpoError(request.exchange(), reintentarEnSegundos));
+        };
+    }
+
+    private static Cache<String, CubetaTokens> cubetas(Config config) {
+        return Caffeine.newBuilder()
+                .maximumSize(config.getClientesMaximos())
+                .expireAfterAccess(config.getInactividad())
+                .build();
+    }
+
+    private CubetaTokens.Resultado consumir(Cache<String, CubetaTokens> cubetas, Config config, ServerWebExchange exchange) {
+        String cliente = identificarCliente(exchange.getRequest(), config);
+        long ahora = reloj.getAsLong();
+        CubetaTokens.Resultado resultado = cubetas
+                .get(cliente, clave -> new CubetaTokens(config.getCapacidad(), config.getReposicionPorSegundo(), ahora))
+                .consumir(ahora);
+        if (resultado.permitido()) {
+            exchange.getResponse().getHeaders().set(ENCABEZADO_RESTANTES, Long.toString(resultado.tokensRestantes()));
+        }
+        return resultado;
+    }
+
+    private static long reintentarEnSegundos(CubetaTokens.Resultado resultado) {
+        return Math.max(1, (long) Math.ceil(resultado.esperaNanos() / (double) TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    static String identificarCliente(ServerHttpRequest request, Config config) {
+        InetSocketAddress remota = request.getRemoteAddress();
+        String ipRemota = remota != null && remota.getAddress() != null ? remota.getAddress().getHostAddress() : "desconocida";
+        if (!config.getProxiesConfiables().contains(ipRemota)) {
+            return "ip:" + ipRemota;
+        }
+        String idCliente = request.getHeaders().getFirst(config.getEncabezadoCliente());
+        if (idCliente != null && !idCliente.isBlank()) {
+            return "cliente:" + idCliente;
+        }
+        return "ip:" + ipOriginal(request.getHeaders().getOrEmpty(ENCABEZADO_REENVIADO), config.getProxiesConfiables(), ipRemota);
+    }
+
+    private static String ipOriginal(List<String> reenviadoPara, List<String> proxiesConfiables, String ipRemota) {
+        List<String> saltos = reenviadoPara.stream()
+                .flatMap(valor -> Arrays.stream(valor.split(",")))
+                .map(String::trim)
+                .filter(salto -> !salto.isEmpty())
+                .toList();
+        for (int i = saltos.size() - 1; i >= 0; i--) {
+            if (!proxiesConfiables.contains(saltos.get(i))) {
+                return saltos.get(i);
+            }
+        }
+        return ipRemota;
+    }
+
+    private Mono<Void> rechazar(ServerWebExchange exchange, long reintentarEnSegundos) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(reintentarEnSegundos));
+        response.getHeaders().set(ENCABEZADO_RESTANTES, "0");
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        try {
+            byte[] cuerpo = objectMapper.writeValueAsBytes(cuerpoError(exchange, reintentarEnSegundos));
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(cuerpo)));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+
+    private static Map<String, Object> cuerpoError(ServerWebExchange exchange, long reintentarEnSegundos) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("timestamp", new Date());
+        error.put("path", exchange.getRequest().getPath().value());
+        error.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        error.put("error", HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+        error.put("mensaje", "Se superó el límite de peticiones. Intente nuevamente en " + reintentarEnSegundos + " s.");
+        error.put("api", GatewayErrorAttributes.NOMBRE_API);
+        return error;
+    }
+}
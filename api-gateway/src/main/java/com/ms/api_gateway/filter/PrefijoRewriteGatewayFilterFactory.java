@@ -0,0 +1,51 @@
+package com.ms.api_gateway.filter;
+
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
+
+@Component
+public class PrefijoRewriteGatewayFilterFactory extends AbstractGatewayFilterFactory<PrefijoRewriteGatewayFilterFactory.Config> {
+
+    @Data
+    public static class Config {
+        private String desde;
+        private String hacia;
+    }
+
+    public PrefijoRewriteGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("desde", "hacia");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String desde = config.getDesde();
+        String hacia = config.getHacia();
+        int longitudDesde = desde.length();
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String ruta = request.getURI().getRawPath();
+            if (!ruta.startsWith(desde) || (ruta.length() > longitudDesde && ruta.charAt(longitudDesde) != '/')) {
+                return chain.filter(exchange);
+            }
+            addOriginalRequestUrl(exchange, request.getURI());
+            ServerHttpRequest reescrita = request.mutate()
+                    .path(ruta.length() == longitudDesde ? hacia : hacia.concat(ruta.substring(longitudDesde)))
+                    .build();
+            exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, reescrita.getURI());
+            return chain.filter(exchange.mutate().request(reescrita).build());
+        };
+    }
+}
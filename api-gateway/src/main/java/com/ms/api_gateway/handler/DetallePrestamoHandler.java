@@ -0,0 +1,72 @@
+package com.ms.api_gateway.handler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+
+public class DetallePrestamoHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(DetallePrestamoHandler.class);
+
+    static final String URL_PRESTAMO = "http://ms-prestamos/api/prestamos/{id}?enriquecido=false";
+    static final String URL_USUARIO = "http://ms-usuarios/api/usuarios/{id}";
+    static final String URL_LIBRO = "http://ms-libros/api/libros/{id}";
+
+    private final WebClient webClient;
+    private final Duration timeout;
+
+    public DetallePrestamoHandler(WebClient webClient, Duration timeout) {
+        this.webClient = webClient;
+        this.timeout = timeout;
+    }
+
+    public Mono<ServerResponse> detalle(ServerRequest request) {
+        String id = request.pathVariable("id");
+
+        return webClient.get().uri(URL_PRESTAMO, id)
+                .retrieve()
+                .bodyToMono(ObjectNode.class)
+                .timeout(timeout)
+                .onErrorMap(error -> !(error instanceof WebClientResponseException),
+                        error -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "ms-prestamos no disponible", error))
+                .flatMap(this::completar)
+                .flatMap(detalle -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(detalle))
+                .onErrorResume(WebClientResponseException.class, error -> ServerResponse.status(error.getStatusCode())
+                        .headers(headers -> headers.setContentType(error.getHeaders().getContentType()))
+                        .bodyValue(error.getResponseBodyAsString()));
+    }
+
+    private Mono<ObjectNode> completar(ObjectNode prestamo) {
+        Mono<JsonNode> usuario = consultar("ms-usuarios", URL_USUARIO, prestamo.path("idUsuario").asText());
+        Mono<JsonNode> libro = consultar("ms-libros", URL_LIBRO, prestamo.path("idLibro").asText());
+
+        return Mono.zip(usuario, libro).map(partes -> {
+            prestamo.set("usuario", partes.getT1());
+            prestamo.set("libro", partes.getT2());
+            return prestamo;
+        });
+    }
+
+    private Mono<JsonNode> consultar(String microservicio, String url, String id) {
+        return webClient.get().uri(url, id)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(timeout)
+                .onErrorResume(error -> {
+                    log.warn("No se pudo obtener el recurso {} de {}: {}", id, microservicio, error.getMessage());
+                    return Mono.empty();
+                })
+                .defaultIfEmpty(NullNode.getInstance());
+    }
+}
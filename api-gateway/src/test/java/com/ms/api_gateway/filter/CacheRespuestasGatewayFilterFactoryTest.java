@@ -0,0 +1,195 @@
+package com.ms.api_gateway.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Pruebas del filtro de caché de respuestas del Gateway")
+class CacheRespuestasGatewayFilterFactoryTest {
+
+    private CacheRespuestas cache;
+    private CacheRespuestasGatewayFilterFactory factory;
+    private GatewayFilter filtroLibros;
+    private AtomicInteger llamadasBackend;
+    private GatewayFilterChain backend;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CacheRespuestas();
+        factory = new CacheRespuestasGatewayFilterFactory(cache);
+        CacheRespuestasGatewayFilterFactory.Config config = new CacheRespuestasGatewayFilterFactory.Config();
+        config.setRegion("libros");
+        filtroLibros = factory.apply(config);
+
+        llamadasBackend = new AtomicInteger();
+        backend = exchange -> {
+            llamadasBackend.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            byte[] cuerpo = "[{\"id\":1,\"titulo\":\"Rayuela\"}]".getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(cuerpo)));
+        };
+    }
+
+    private MockServerWebExchange get(String ruta, String ifNoneMatch) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(ruta);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    @Test
+    @DisplayName("Test caché: la segunda lectura se responde sin llegar al backend")
+    void testSegundaLecturaDesdeCache() {
+        MockServerWebExchange primera = get("/api/libros", null);
+        filtroLibros.filter(primera, backend).block();
+        MockServerWebExchange segunda = get("/api/libros", null);
+        filtroLibros.filter(segunda, backend).block();
+
+        assertEquals(1, llamadasBackend.get());
+        assertEquals("MISS", primera.getResponse().getHeaders().getFirst(CacheRespuestasGatewayFilterFactory.ENCABEZADO_CACHE));
+        assertEquals("HIT", segunda.getResponse().getHeaders().getFirst(CacheRespuestasGatewayFilterFactory.ENCABEZADO_CACHE));
+        assertEquals(primera.getResponse().getHeaders().getETag(), segunda.getResponse().getHeaders().getETag());
+        assertEquals("[{\"id\":1,\"titulo\":\"Rayuela\"}]", segunda.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    @DisplayName("Test caché: con If-None-Match coincidente responde 304 sin cuerpo")
+    void testIfNoneMatchResponde304() {
+        MockServerWebExchange primera = get("/api/libros/1", null);
+        filtroLibros.filter(primera, backend).block();
+        String etag = primera.getResponse().getHeaders().getETag();
+
+        MockServerWebExchange condicional = get("/api/libros/1", etag);
+        filtroLibros.filter(condicional, backend).block();
+
+        assertNotNull(etag);
+        assertEquals(HttpStatus.NOT_MODIFIED, condicional.getResponse().getStatusCode());
+        assertEquals(etag, condicional.getResponse().getHeaders().getETag());
+        assertEquals("", condicional.getResponse().getBodyAsString().defaultIfEmpty("").block());
+    }
+
+    @Test
+    @DisplayName("Test caché: una escritura invalida la región y la siguiente lectura vuelve al backend")
+    void testEscrituraInvalidaRegion() {
+        filtroLibros.filter(get("/api/libros", null), backend).block();
+
+        CacheRespuestasGatewayFilterFactory.Config configPrestamos = new CacheRespuestasGatewayFilterFactory.Config();
+        configPrestamos.setCachear(false);
+        configPrestamos.setInvalida(List.of("libros"));
+        GatewayFilter filtroPrestamos = factory.apply(configPrestamos);
+        filtroPrestamos.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/api/prestamos")),
+                exchange -> exchange.getResponse().setComplete()).block();
+
+        filtroLibros.filter(get("/api/libros", null), backend).block();
+
+        assertEquals(2, llamadasBackend.get());
+    }
+
+    @Test
+    @DisplayName("Test caché: las respuestas con error no se guardan")
+    void testErroresNoSeCachean() {
+        GatewayFilterChain backendCaido = exchange -> {
+            llamadasBackend.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return exchange.getResponse().setComplete();
+        };
+
+        filtroLibros.filter(get("/api/libros/9", null), backendCaido).block();
+        filtroLibros.filter(get("/api/libros/9", null), backendCaido).block();
+
+        assertEquals(2, llamadasBackend.get());
+    }
+
+    @Test
+    @DisplayName("Test caché: las lecturas con distinto Accept no comparten la entrada")
+    void testAcceptDistintoNoCompartido() {
+        filtroLibros.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/libros")
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)), backend).block();
+        MockServerWebExchange xml = MockServerWebExchange.from(MockServerHttpRequest.get("/api/libros")
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_XML_VALUE));
+        filtroLibros.filter(xml, backend).block();
+
+        assertEquals(2, llamadasBackend.get());
+        assertEquals("MISS", xml.getResponse().getHeaders().getFirst(CacheRespuestasGatewayFilterFactory.ENCABEZADO_CACHE));
+    }
+
+    @Test
+    @DisplayName("Test caché: respeta el Vary del backend y repite Cache-Control y Vary en los aciertos")
+    void testVaryYCacheControlDelBackend() {
+        GatewayFilterChain backendPorInquilino = exchange -> {
+            llamadasBackend.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            response.getHeaders().setCacheControl("max-age=30");
+            response.getHeaders().setVary(List.of("X-Inquilino"));
+            byte[] cuerpo = ("{\"inquilino\":\"" + exchange.getRequest().getHeaders().getFirst("X-Inquilino") + "\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(cuerpo)));
+        };
+
+        filtroLibros.filter(conInquilino("a"), backendPorInquilino).block();
+        MockServerWebExchange repetida = conInquilino("a");
+        filtroLibros.filter(repetida, backendPorInquilino).block();
+        MockServerWebExchange otroInquilino = conInquilino("b");
+        filtroLibros.filter(otroInquilino, backendPorInquilino).block();
+
+        assertEquals(2, llamadasBackend.get());
+        assertEquals("HIT", repetida.getResponse().getHeaders().getFirst(CacheRespuestasGatewayFilterFactory.ENCABEZADO_CACHE));
+        assertEquals("max-age=30", repetida.getResponse().getHeaders().getCacheControl());
+        assertEquals(List.of("X-Inquilino"), repetida.getResponse().getHeaders().getVary());
+        assertEquals("{\"inquilino\":\"b\"}", otroInquilino.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    @DisplayName("Test caché: las respuestas no-store no se guardan")
+    void testNoStoreNoSeCachea() {
+        GatewayFilterChain backendNoStore = exchange -> {
+            exchange.getResponse().getHeaders().setCacheControl("no-store");
+            return backend.filter(exchange);
+        };
+
+        filtroLibros.filter(get("/api/libros/3", null), backendNoStore).block();
+        filtroLibros.filter(get("/api/libros/3", null), backendNoStore).block();
+
+        assertEquals(2, llamadasBackend.get());
+    }
+
+    @Test
+    @DisplayName("Test caché: los cuerpos que superan el tamaño máximo pasan sin guardarse")
+    void testCuerpoGrandePasaSinCachear() {
+        CacheRespuestasGatewayFilterFactory.Config config = new CacheRespuestasGatewayFilterFactory.Config();
+        config.setRegion("grandes");
+        config.setTamanioMaximoCuerpo(10);
+        GatewayFilter filtroGrandes = factory.apply(config);
+
+        MockServerWebExchange primera = get("/api/libros", null);
+        filtroGrandes.filter(primera, backend).block();
+        filtroGrandes.filter(get("/api/libros", null), backend).block();
+
+        assertEquals(2, llamadasBackend.get());
+        assertEquals("BYPASS", primera.getResponse().getHeaders().getFirst(CacheRespuestasGatewayFilterFactory.ENCABEZADO_CACHE));
+        assertEquals("[{\"id\":1,\"titulo\":\"Rayuela\"}]", primera.getResponse().getBodyAsString().block());
+    }
+
+    private MockServerWebExchange conInquilino(String inquilino) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/libros/1").header("X-Inquilino", inquilino));
+    }
+}
@@ -0,0 +1,176 @@
+package com.ms.api_gateway.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Pruebas del filtro de límite de tasa del Gateway")
+class LimiteTasaGatewayFilterFactoryTest {
+
+    private static final String PROXY = "10.0.0.1";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private AtomicLong reloj;
+    private GatewayFilter filtro;
+    private AtomicInteger llamadasBackend;
+    private GatewayFilterChain backend;
+
+    @BeforeEach
+    void setUp() {
+        reloj = new AtomicLong(0);
+        LimiteTasaGatewayFilterFactory factory = new LimiteTasaGatewayFilterFactory(objectMapper, reloj::get);
+        LimiteTasaGatewayFilterFactory.Config config = new LimiteTasaGatewayFilterFactory.Config();
+        config.setCapacidad(2);
+        config.setReposicionPorSegundo(0.5);
+        config.setProxiesConfiables(List.of(PROXY));
+        filtro = factory.apply(config);
+
+        llamadasBackend = new AtomicInteger();
+        backend = exchange -> {
+            llamadasBackend.incrementAndGet();
+            return exchange.getResponse().setComplete();
+        };
+    }
+
+    private MockServerWebExchange peticion(String ip) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/prestamos").remoteAddress(direccion(ip)));
+    }
+
+    private MockServerWebExchange peticion(String ip, String idCliente) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/prestamos")
+                .remoteAddress(direccion(ip))
+                .header("X-Client-Id", idCliente));
+    }
+
+    private static InetSocketAddress direccion(String ip) {
+        return new InetSocketAddress(ip, 40000);
+    }
+
+    @Test
+    @DisplayName("Test límite: al agotar la cubeta responde 429 con Retry-After y el cuerpo de error del Gateway")
+    void testExcesoResponde429() throws Exception {
+        filtro.filter(peticion("192.168.1.10"), backend).block();
+        filtro.filter(peticion("192.168.1.10"), backend).block();
+        MockServerWebExchange rechazada = peticion("192.168.1.10");
+        filtro.filter(rechazada, backend).block();
+
+        assertEquals(2, llamadasBackend.get());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rechazada.getResponse().getStatusCode());
+        assertEquals("2", rechazada.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        JsonNode cuerpo = objectMapper.readTree(rechazada.getResponse().getBodyAsString().block());
+        assertEquals(429, cuerpo.get("status").asInt());
+        assertEquals("/api/prestamos", cuerpo.get("path").asText());
+        assertEquals("API Gateway Biblioteca", cuerpo.get("api").asText());
+        assertTrue(cuerpo.has("mensaje"));
+    }
+
+    @Test
+    @DisplayName("Test límite: los tokens se reponen con el paso del tiempo")
+    void testReposicionDeTokens() {
+        filtro.filter(peticion("192.168.1.10"), backend).block();
+        filtro.filter(peticion("192.168.1.10"), backend).block();
+
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        MockServerWebExchange repuesta = peticion("192.168.1.10");
+        filtro.filter(repuesta, backend).block();
+
+        assertEquals(3, llamadasBackend.get());
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, repuesta.getResponse().getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Test límite: cada cliente tiene su propia cubeta")
+    void testCubetasPorCliente() {
+        filtro.filter(peticion("192.168.1.10"), backend).block();
+        filtro.filter(peticion("192.168.1.10"), backend).block();
+        MockServerWebExchange otroCliente = peticion("192.168.1.20");
+        filtro.filter(otroCliente, backend).block();
+
+        assertEquals(3, llamadasBackend.get());
+        assertEquals("1", otroCliente.getResponse().getHeaders().getFirst(LimiteTasaGatewayFilterFactory.ENCABEZADO_RESTANTES));
+    }
+
+    @Test
+    @DisplayName("Test límite: un cliente directo no obtiene cubetas nuevas rotando X-Client-Id")
+    void testEncabezadoIgnoradoSinProxyConfiable() {
+        filtro.filter(peticion("192.168.1.10", "app-1"), backend).block();
+        filtro.filter(peticion("192.168.1.10", "app-2"), backend).block();
+        MockServerWebExchange rotada = peticion("192.168.1.10", "app-3");
+        filtro.filter(rotada, backend).block();
+
+        assertEquals(2, llamadasBackend.get());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rotada.getResponse().getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Test límite: detrás de un proxy confiable se usa el X-Client-Id que este reenvía")
+    void testEncabezadoDesdeProxyConfiable() {
+        filtro.filter(peticion(PROXY, "app-1"), backend).block();
+        filtro.filter(peticion(PROXY, "app-1"), backend).block();
+        MockServerWebExchange otroCliente = peticion(PROXY, "app-2");
+        filtro.filter(otroCliente, backend).block();
+
+        assertEquals(3, llamadasBackend.get());
+        assertEquals("1", otroCliente.getResponse().getHeaders().getFirst(LimiteTasaGatewayFilterFactory.ENCABEZADO_RESTANTES));
+    }
+
+    @Test
+    @DisplayName("Test límite: detrás de un proxy confiable se identifica la IP original de X-Forwarded-For")
+    void testIpOriginalDesdeProxyConfiable() {
+        LimiteTasaGatewayFilterFactory.Config config = new LimiteTasaGatewayFilterFactory.Config();
+        config.setProxiesConfiables(List.of(PROXY));
+        MockServerHttpRequest request = MockServerHttpRequest.get("/api/prestamos")
+                .remoteAddress(direccion(PROXY))
+                .header(LimiteTasaGatewayFilterFactory.ENCABEZADO_REENVIADO, "1.2.3.4, 203.0.113.7, " + PROXY)
+                .build();
+
+        assertEquals("ip:203.0.113.7", LimiteTasaGatewayFilterFactory.identificarCliente(request, config));
+    }
+
+    @Test
+    @DisplayName("Test límite: las rutas funcionales también responden 429 al agotar la cubeta")
+    void testFiltroRutaFuncional() {
+        LimiteTasaGatewayFilterFactory factory = new LimiteTasaGatewayFilterFactory(objectMapper, reloj::get);
+        LimiteTasaGatewayFilterFactory.Config config = new LimiteTasaGatewayFilterFactory.Config();
+        config.setCapacidad(1);
+        config.setReposicionPorSegundo(0.5);
+        HandlerFilterFunction<ServerResponse, ServerResponse> filtroRuta = factory.filtroRuta(config);
+        HandlerFunction<ServerResponse> handler = request -> {
+            llamadasBackend.incrementAndGet();
+            return ServerResponse.ok().build();
+        };
+
+        ServerResponse permitida = filtroRuta.filter(solicitud("192.168.1.10"), handler).block();
+        ServerResponse rechazada = filtroRuta.filter(solicitud("192.168.1.10"), handler).block();
+
+        assertEquals(1, llamadasBackend.get());
+        assertEquals(HttpStatus.OK, permitida.statusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rechazada.statusCode());
+        assertEquals("2", rechazada.headers().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    private ServerRequest solicitud(String ip) {
+        return ServerRequest.create(peticion(ip), HandlerStrategies.withDefaults().messageReaders());
+    }
+}
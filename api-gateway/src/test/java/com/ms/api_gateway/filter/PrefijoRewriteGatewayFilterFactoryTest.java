@@ -0,0 +1,67 @@
+package com.ms.api_gateway.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+
+@DisplayName("Pruebas del filtro de reescritura por prefijo del Gateway")
+class PrefijoRewriteGatewayFilterFactoryTest {
+
+    private GatewayFilter filtro;
+
+    @BeforeEach
+    void setUp() {
+        PrefijoRewriteGatewayFilterFactory.Config config = new PrefijoRewriteGatewayFilterFactory.Config();
+        config.setDesde("/biblioteca/libros");
+        config.setHacia("/api/libros");
+        filtro = new PrefijoRewriteGatewayFilterFactory().apply(config);
+    }
+
+    private ServerWebExchange filtrar(String ruta) {
+        AtomicReference<ServerWebExchange> recibido = new AtomicReference<>();
+        filtro.filter(MockServerWebExchange.from(MockServerHttpRequest.get(ruta)), exchange -> {
+            recibido.set(exchange);
+            return exchange.getResponse().setComplete();
+        }).block();
+        return recibido.get();
+    }
+
+    @Test
+    @DisplayName("Test reescritura: reemplaza el prefijo conservando el resto de la ruta y la consulta")
+    void testReemplazaPrefijo() {
+        ServerWebExchange exchange = filtrar("/biblioteca/libros/buscar?q=rayuela&pagina=1");
+
+        assertEquals("/api/libros/buscar", exchange.getRequest().getURI().getRawPath());
+        assertEquals("q=rayuela&pagina=1", exchange.getRequest().getURI().getRawQuery());
+        assertEquals(exchange.getRequest().getURI(), exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR));
+    }
+
+    @Test
+    @DisplayName("Test reescritura: la ruta exacta del prefijo se reescribe a la raíz del destino")
+    void testRutaExacta() {
+        assertEquals("/api/libros", filtrar("/biblioteca/libros").getRequest().getURI().getRawPath());
+    }
+
+    @Test
+    @DisplayName("Test reescritura: conserva los caracteres codificados de la ruta")
+    void testConservaCodificacion() {
+        URI uri = filtrar("/biblioteca/libros/buscar%20avanzada").getRequest().getURI();
+
+        assertEquals("/api/libros/buscar%20avanzada", uri.getRawPath());
+    }
+
+    @Test
+    @DisplayName("Test reescritura: no modifica rutas que solo comparten el comienzo del prefijo")
+    void testNoReescribePrefijoParcial() {
+        assertEquals("/biblioteca/librosviejos", filtrar("/biblioteca/librosviejos").getRequest().getURI().getRawPath());
+    }
+}
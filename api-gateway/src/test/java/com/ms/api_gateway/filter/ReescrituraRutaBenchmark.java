@@ -0,0 +1,66 @@
+package com.ms.api_gateway.filter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.RewritePathGatewayFilterFactory;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReescrituraRutaBenchmark {
+
+    private static final String RUTA = "/biblioteca/libros/buscar";
+
+    private GatewayFilter regex;
+    private GatewayFilter prefijo;
+    private MockServerHttpRequest request;
+
+    @Setup
+    public void setUp() {
+        regex = new RewritePathGatewayFilterFactory().apply(config -> config
+                .setRegexp("/biblioteca/libros(?<segment>/?.*)")
+                .setReplacement("/api/libros${segment}"));
+
+        PrefijoRewriteGatewayFilterFactory.Config config = new PrefijoRewriteGatewayFilterFactory.Config();
+        config.setDesde("/biblioteca/libros");
+        config.setHacia("/api/libros");
+        prefijo = new PrefijoRewriteGatewayFilterFactory().apply(config);
+
+        request = MockServerHttpRequest.get(RUTA).build();
+    }
+
+    @Benchmark
+    public void rewritePathRegex(Blackhole blackhole) {
+        regex.filter(MockServerWebExchange.from(request), consumidor(blackhole)).block();
+    }
+
+    @Benchmark
+    public void prefijoRewrite(Blackhole blackhole) {
+        prefijo.filter(MockServerWebExchange.from(request), consumidor(blackhole)).block();
+    }
+
+    private static GatewayFilterChain consumidor(Blackhole blackhole) {
+        return exchange -> {
+            blackhole.consume(exchange.getRequest().getURI());
+            return Mono.empty();
+        };
+    }
+}
@@ -0,0 +1,130 @@
+package com.ms.api_gateway.handler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+
+@DisplayName("Pruebas de la agregación del detalle de préstamos en el Gateway")
+class DetallePrestamoHandlerTest {
+
+    private static final Duration DEMORA_REMOTA = Duration.ofMillis(200);
+
+    private final Map<String, Respuesta> respuestas = new ConcurrentHashMap<>();
+    private final Map<String, Duration> demoras = new ConcurrentHashMap<>();
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private final AtomicInteger maximoEnCurso = new AtomicInteger();
+    private WebTestClient cliente;
+
+    @BeforeEach
+    void setUp() {
+        respuestas.put("ms-prestamos", json(HttpStatus.OK, "{\"id\":1,\"idUsuario\":7,\"idLibro\":10,\"estado\":\"CONFIRMADO\"}"));
+        respuestas.put("ms-usuarios", json(HttpStatus.OK, "{\"id\":7,\"nombreCompleto\":\"Juan Perez\"}"));
+        respuestas.put("ms-libros", json(HttpStatus.OK, "{\"id\":10,\"titulo\":\"Rayuela\"}"));
+
+        ExchangeFunction backend = request -> Mono.defer(() -> {
+            maximoEnCurso.accumulateAndGet(enCurso.incrementAndGet(), Math::max);
+            return Mono.delay(demoras.getOrDefault(request.url().getHost(), DEMORA_REMOTA)).then(Mono.fromSupplier(() -> respuesta(request)));
+        }).doFinally(senal -> enCurso.decrementAndGet());
+
+        DetallePrestamoHandler handler = new DetallePrestamoHandler(
+                WebClient.builder().exchangeFunction(backend).build(), Duration.ofSeconds(1));
+        cliente = WebTestClient.bindToRouterFunction(
+                RouterFunctions.route(GET("/biblioteca/prestamos/{id}/detalle"), handler::detalle)).build();
+    }
+
+    private record Respuesta(HttpStatus status, MediaType tipo, String cuerpo) {
+    }
+
+    private ClientResponse respuesta(ClientRequest request) {
+        Respuesta respuesta = respuestas.get(request.url().getHost());
+        if (respuesta == null) {
+            throw new IllegalStateException("Sin respuesta para " + request.url());
+        }
+        return ClientResponse.create(respuesta.status())
+                .header(HttpHeaders.CONTENT_TYPE, respuesta.tipo().toString())
+                .body(respuesta.cuerpo())
+                .build();
+    }
+
+    private static Respuesta json(HttpStatus status, String cuerpo) {
+        return new Respuesta(status, MediaType.APPLICATION_JSON, cuerpo);
+    }
+
+    @Test
+    @DisplayName("Test detalle: combina préstamo, usuario y libro consultando usuario y libro en paralelo")
+    void testDetalleCombinaRespuestasEnParalelo() {
+        cliente.get().uri("/biblioteca/prestamos/1/detalle").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.estado").isEqualTo("CONFIRMADO")
+                .jsonPath("$.usuario.nombreCompleto").isEqualTo("Juan Perez")
+                .jsonPath("$.libro.titulo").isEqualTo("Rayuela");
+
+        assertEquals(2, maximoEnCurso.get());
+    }
+
+    @Test
+    @DisplayName("Test detalle: la latencia es la del préstamo más la mayor entre usuario y libro, no la suma")
+    void testLatenciaPrestamoMasMaximoDeLosDemas() {
+        demoras.put("ms-prestamos", Duration.ofMillis(100));
+        demoras.put("ms-usuarios", Duration.ofMillis(600));
+        demoras.put("ms-libros", Duration.ofMillis(500));
+
+        long inicio = System.nanoTime();
+        cliente.get().uri("/biblioteca/prestamos/1/detalle").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.usuario.id").isEqualTo(7)
+                .jsonPath("$.libro.id").isEqualTo(10);
+        long transcurrido = Duration.ofNanos(System.nanoTime() - inicio).toMillis();
+
+        assertTrue(transcurrido >= 700, "Duró " + transcurrido + " ms, menos que préstamo + max(usuario, libro)");
+        assertTrue(transcurrido < 1100, "Duró " + transcurrido + " ms, cerca de la suma secuencial de 1200 ms");
+    }
+
+    @Test
+    @DisplayName("Test detalle: si un microservicio secundario falla responde igual con ese dato en null")
+    void testDetalleParcialSiFallaUnServicio() {
+        respuestas.put("ms-libros", json(HttpStatus.SERVICE_UNAVAILABLE, "{}"));
+
+        cliente.get().uri("/biblioteca/prestamos/1/detalle").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.usuario.id").isEqualTo(7)
+                .jsonPath("$.libro").doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Test detalle: propaga el 404 de ms-prestamos sin consultar los demás servicios")
+    void testPrestamoInexistentePropaga404() {
+        respuestas.put("ms-prestamos", new Respuesta(HttpStatus.NOT_FOUND, MediaType.TEXT_PLAIN, "El prestamo con ID 1 no existe"));
+        respuestas.remove("ms-usuarios");
+        respuestas.remove("ms-libros");
+
+        cliente.get().uri("/biblioteca/prestamos/1/detalle").exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_PLAIN)
+                .expectBody(String.class).isEqualTo("El prestamo con ID 1 no existe");
+
+        assertEquals(1, maximoEnCurso.get());
+    }
+}
@@ -0,0 +1,57 @@
+package com.ms.balanceo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class BalanceadorLatencia implements ReactorServiceInstanceLoadBalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceadorLatencia.class);
+
+    private final String servicio;
+    private final ObjectProvider<ServiceInstanceListSupplier> proveedorInstancias;
+    private final RegistroLatencias registro;
+
+    public BalanceadorLatencia(String servicio, ObjectProvider<ServiceInstanceListSupplier> proveedorInstancias,
+                               RegistroLatencias registro) {
+        this.servicio = servicio;
+        this.proveedorInstancias = proveedorInstancias;
+        this.registro = registro;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier instancias = proveedorInstancias.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return instancias.get(request).next().map(this::elegir);
+    }
+
+    Response<ServiceInstance> elegir(List<ServiceInstance> instancias) {
+        if (instancias.isEmpty()) {
+            log.warn("No hay instancias disponibles de {}", servicio);
+            return new EmptyResponse();
+        }
+        if (instancias.size() == 1) {
+            return new DefaultResponse(instancias.get(0));
+        }
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        int primera = azar.nextInt(instancias.size());
+        int segunda = azar.nextInt(instancias.size() - 1);
+        if (segunda >= primera) {
+            segunda++;
+        }
+        ServiceInstance a = instancias.get(primera);
+        ServiceInstance b = instancias.get(segunda);
+        return new DefaultResponse(registro.puntaje(b) < registro.puntaje(a) ? b : a);
+    }
+}
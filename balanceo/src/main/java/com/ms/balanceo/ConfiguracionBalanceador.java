@@ -0,0 +1,29 @@
+package com.ms.balanceo;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import java.util.Locale;
+
+public class ConfiguracionBalanceador {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> balanceador(Environment environment,
+                                                            LoadBalancerClientFactory loadBalancerClientFactory,
+                                                            RegistroLatencias registro) {
+        String servicio = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        ObjectProvider<ServiceInstanceListSupplier> instancias = loadBalancerClientFactory.getLazyProvider(servicio, ServiceInstanceListSupplier.class);
+        String porDefecto = environment.getProperty("balanceo.estrategia.default", "round-robin");
+        String estrategia = environment.getProperty("balanceo.estrategia." + servicio.toLowerCase(Locale.ROOT), porDefecto);
+
+        if (EstrategiaBalanceo.desde(estrategia) == EstrategiaBalanceo.LATENCIA) {
+            return new BalanceadorLatencia(servicio, instancias, registro);
+        }
+        return new RoundRobinLoadBalancer(instancias, servicio);
+    }
+}
@@ -0,0 +1,55 @@
+package com.ms.balanceo;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EstadisticasInstancia {
+
+    static final double PENALIZACION_SIN_DATOS = Long.MAX_VALUE >> 16;
+
+    private final double decaimientoNanos;
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private double latenciaEwmaNanos;
+    private long ultimaMuestra;
+
+    public EstadisticasInstancia(long decaimientoNanos, long ahora) {
+        this.decaimientoNanos = decaimientoNanos;
+        this.ultimaMuestra = ahora;
+    }
+
+    public void iniciar() {
+        enCurso.incrementAndGet();
+    }
+
+    public synchronized void finalizar(long latenciaNanos, long ahora) {
+        enCurso.updateAndGet(valor -> Math.max(0, valor - 1));
+        double peso = peso(ahora);
+        latenciaEwmaNanos = latenciaNanos > latenciaEwmaNanos
+                ? latenciaNanos
+                : latenciaEwmaNanos * peso + latenciaNanos * (1 - peso);
+        ultimaMuestra = Math.max(ultimaMuestra, ahora);
+    }
+
+    public synchronized double puntaje(long ahora) {
+        int pendientes = enCurso.get();
+        if (latenciaEwmaNanos == 0) {
+            return pendientes == 0 ? 0 : PENALIZACION_SIN_DATOS + pendientes;
+        }
+        return decaer(ahora) * (pendientes + 1);
+    }
+
+    public int getEnCurso() {
+        return enCurso.get();
+    }
+
+    public synchronized double getLatenciaEwmaNanos() {
+        return latenciaEwmaNanos;
+    }
+
+    private double decaer(long ahora) {
+        return latenciaEwmaNanos * peso(ahora);
+    }
+
+    private double peso(long ahora) {
+        return Math.exp(-Math.max(0, ahora - ultimaMuestra) / decaimientoNanos);
+    }
+}
@@ -0,0 +1,12 @@
+package com.ms.balanceo;
+
+import java.util.Locale;
+
+public enum EstrategiaBalanceo {
+    ROUND_ROBIN,
+    LATENCIA;
+
+    public static EstrategiaBalanceo desde(String valor) {
+        return valueOf(valor.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
@@ -0,0 +1,93 @@
+package com.ms.balanceo;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+@Component
+public class RegistroLatencias implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final Cache<String, EstadisticasInstancia> estadisticas;
+    private final long decaimientoNanos;
+    private final long penalizacionFalloNanos;
+    private final LongSupplier reloj;
+
+    @Autowired
+    public RegistroLatencias(@Value("${balanceo.latencia.decaimiento:10s}") Duration decaimiento,
+                             @Value("${balanceo.latencia.penalizacion-fallo:2s}") Duration penalizacionFallo) {
+        this(decaimiento, penalizacionFallo, System::nanoTime);
+    }
+
+    RegistroLatencias(Duration decaimiento, Duration penalizacionFallo, LongSupplier reloj) {
+        this.estadisticas = Caffeine.newBuilder().expireAfterAccess(Duration.ofMinutes(10)).build();
+        this.decaimientoNanos = decaimiento.toNanos();
+        this.penalizacionFalloNanos = penalizacionFallo.toNanos();
+        this.reloj = reloj;
+    }
+
+    public double puntaje(ServiceInstance instancia) {
+        return de(instancia).puntaje(reloj.getAsLong());
+    }
+
+    public EstadisticasInstancia de(ServiceInstance instancia) {
+        return estadisticas.get(clave(instancia), ignorada -> new EstadisticasInstancia(decaimientoNanos, reloj.getAsLong()));
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (request.getContext() instanceof TimedRequestContext contexto) {
+            contexto.setRequestStartTime(reloj.getAsLong());
+        }
+        if (lbResponse != null && lbResponse.hasServer()) {
+            de(lbResponse.getServer()).iniciar();
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        long ahora = reloj.getAsLong();
+        long latencia = 0;
+        if (completionContext.getLoadBalancerRequest() != null
+                && completionContext.getLoadBalancerRequest().getContext() instanceof TimedRequestContext contexto
+                && contexto.getRequestStartTime() != 0) {
+            latencia = ahora - contexto.getRequestStartTime();
+        }
+        if (esFallo(completionContext)) {
+            latencia = Math.max(latencia, penalizacionFalloNanos);
+        }
+        de(lbResponse.getServer()).finalizar(latencia, ahora);
+    }
+
+    private static boolean esFallo(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            return true;
+        }
+        return completionContext.getClientResponse() instanceof ResponseData respuesta
+                && respuesta.getHttpStatus() != null
+                && respuesta.getHttpStatus().is5xxServerError();
+    }
+
+    private static String clave(ServiceInstance instancia) {
+        return instancia.getServiceId().toLowerCase(Locale.ROOT) + "@" + instancia.getHost() + ":" + instancia.getPort();
+    }
+}
@@ -0,0 +1,154 @@
+package com.ms.balanceo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultRequestContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.LinkedMultiValueMap;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("Pruebas del balanceador por latencia (EWMA + dos opciones)")
+class BalanceadorLatenciaTest {
+
+    private final ServiceInstance rapida = new DefaultServiceInstance("libros-1", "ms-libros", "10.0.0.1", 8081, false);
+    private final ServiceInstance lenta = new DefaultServiceInstance("libros-2", "ms-libros", "10.0.0.2", 8081, false);
+    private final ServiceInstance otra = new DefaultServiceInstance("libros-3", "ms-libros", "10.0.0.3", 8081, false);
+
+    private AtomicLong reloj;
+    private RegistroLatencias registro;
+    private BalanceadorLatencia balanceador;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        reloj = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+        registro = new RegistroLatencias(Duration.ofSeconds(10), Duration.ofSeconds(2), reloj::get);
+        balanceador = new BalanceadorLatencia("ms-libros", mock(ObjectProvider.class), registro);
+    }
+
+    private void llamada(ServiceInstance instancia, long latenciaMs, CompletionContext.Status estado) {
+        Request<Object> request = new DefaultRequest<>(new DefaultRequestContext());
+        Response<ServiceInstance> respuesta = new DefaultResponse(instancia);
+        registro.onStartRequest(request, respuesta);
+        reloj.addAndGet(TimeUnit.MILLISECONDS.toNanos(latenciaMs));
+        registro.onComplete(new CompletionContext<>(estado, request, respuesta, null));
+    }
+
+    private void calentar(int rondas) {
+        for (int i = 0; i < rondas; i++) {
+            llamada(rapida, 10, CompletionContext.Status.SUCCESS);
+            llamada(lenta, 300, CompletionContext.Status.SUCCESS);
+            llamada(otra, 12, CompletionContext.Status.SUCCESS);
+        }
+    }
+
+    private int elecciones(List<ServiceInstance> instancias, ServiceInstance buscada, int intentos) {
+        int cantidad = 0;
+        for (int i = 0; i < intentos; i++) {
+            if (balanceador.elegir(instancias).getServer() == buscada) {
+                cantidad++;
+            }
+        }
+        return cantidad;
+    }
+
+    @Test
+    @DisplayName("Test balanceo: una réplica degradada no recibe tráfico mientras haya otras más rápidas")
+    void testEvitaReplicaDegradada() {
+        calentar(20);
+
+        assertEquals(0, elecciones(List.of(rapida, lenta, otra), lenta, 1000));
+        assertEquals(1000, elecciones(List.of(rapida, lenta), rapida, 1000));
+    }
+
+    @Test
+    @DisplayName("Test balanceo: con igual latencia prefiere la instancia con menos peticiones en curso")
+    void testPrefiereMenosPeticionesEnCurso() {
+        llamada(rapida, 10, CompletionContext.Status.SUCCESS);
+        llamada(otra, 10, CompletionContext.Status.SUCCESS);
+        for (int i = 0; i < 3; i++) {
+            registro.onStartRequest(new DefaultRequest<>(new DefaultRequestContext()), new DefaultResponse(rapida));
+        }
+
+        assertEquals(3, registro.de(rapida).getEnCurso());
+        assertSame(otra, balanceador.elegir(List.of(rapida, otra)).getServer());
+    }
+
+    @Test
+    @DisplayName("Test balanceo: un fallo se registra como la latencia de penalización")
+    void testFalloPenalizaInstancia() {
+        llamada(rapida, 10, CompletionContext.Status.SUCCESS);
+        llamada(otra, 5, CompletionContext.Status.FAILED);
+
+        assertTrue(registro.de(otra).getLatenciaEwmaNanos() >= TimeUnit.SECONDS.toNanos(2));
+        assertSame(rapida, balanceador.elegir(List.of(rapida, otra)).getServer());
+    }
+
+    @Test
+    @DisplayName("Test balanceo: una respuesta 5xx del microservicio cuenta como fallo")
+    void testRespuesta5xxPenalizaInstancia() {
+        llamada(rapida, 10, CompletionContext.Status.SUCCESS);
+        Request<Object> request = new DefaultRequest<>(new DefaultRequestContext());
+        Response<ServiceInstance> respuesta = new DefaultResponse(otra);
+        registro.onStartRequest(request, respuesta);
+        ResponseData error = new ResponseData(HttpStatus.SERVICE_UNAVAILABLE, new HttpHeaders(), new LinkedMultiValueMap<>(), null);
+        registro.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, respuesta, error));
+
+        assertTrue(registro.de(otra).getLatenciaEwmaNanos() >= TimeUnit.SECONDS.toNanos(2));
+        assertSame(rapida, balanceador.elegir(List.of(rapida, otra)).getServer());
+    }
+
+    @Test
+    @DisplayName("Test balanceo: la penalización decae y la réplica inactiva vuelve a probarse")
+    void testReplicaInactivaSeRecupera() {
+        calentar(5);
+        for (int i = 0; i < 400; i++) {
+            llamada(rapida, 100, CompletionContext.Status.SUCCESS);
+        }
+
+        assertSame(lenta, balanceador.elegir(List.of(rapida, lenta)).getServer());
+    }
+
+    @Test
+    @DisplayName("Test balanceo: una instancia sin datos con peticiones en curso no acapara el tráfico")
+    void testInstanciaNuevaSinDatos() {
+        llamada(rapida, 10, CompletionContext.Status.SUCCESS);
+        ServiceInstance nueva = new DefaultServiceInstance("libros-4", "ms-libros", "10.0.0.4", 8081, false);
+
+        assertSame(nueva, balanceador.elegir(List.of(rapida, nueva)).getServer());
+
+        registro.onStartRequest(new DefaultRequest<>(new DefaultRequestContext()), new DefaultResponse(nueva));
+        assertSame(rapida, balanceador.elegir(List.of(rapida, nueva)).getServer());
+    }
+
+    @Test
+    @DisplayName("Test balanceo: devuelve la única instancia o una respuesta vacía")
+    void testCasosTriviales() {
+        assertSame(rapida, balanceador.elegir(List.of(rapida)).getServer());
+        assertFalse(balanceador.elegir(List.of()).hasServer());
+    }
+
+    @Test
+    @DisplayName("Test estrategia: acepta los nombres configurables por servicio")
+    void testEstrategiaDesdePropiedad() {
+        assertEquals(EstrategiaBalanceo.ROUND_ROBIN, EstrategiaBalanceo.desde("round-robin"));
+        assertEquals(EstrategiaBalanceo.LATENCIA, EstrategiaBalanceo.desde(" Latencia "));
+    }
+}
@@ -0,0 +1,144 @@
+package com.ms.benchmarks;
+
+import com.ms.prestamos.cache.CacheRecursosRemotos;
+import com.ms.prestamos.cache.LimitePrestamosUsuario;
+import com.ms.prestamos.client.ILibroClient;
+import com.ms.prestamos.client.IUsuarioClient;
+import com.ms.prestamos.dto.LibroDTO;
+import com.ms.prestamos.dto.PrestamoDTO;
+import com.ms.prestamos.dto.ResultadoStockDTO;
+import com.ms.prestamos.dto.UsuarioDTO;
+import com.ms.prestamos.estadisticas.EstadisticasPrestamos;
+import com.ms.prestamos.mapper.PrestamoMapper;
+import com.ms.prestamos.mapper.ReservaMapper;
+import com.ms.prestamos.model.EstadoPrestamo;
+import com.ms.prestamos.model.Prestamo;
+import com.ms.prestamos.outbox.DespachadorOutbox;
+import com.ms.prestamos.outbox.OutboxPrestamos;
+import com.ms.prestamos.repository.IClaveIdempotenciaRepository;
+import com.ms.prestamos.repository.IEventoOutboxRepository;
+import com.ms.prestamos.repository.IPrestamoRepository;
+import com.ms.prestamos.repository.IReservaRepository;
+import com.ms.prestamos.reserva.ColaReservas;
+import com.ms.prestamos.reserva.NotificadorReservas;
+import com.ms.prestamos.service.PrestamoService;
+import com.ms.prestamos.vencimiento.ProcesoVencimientos;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+final class DatosBenchmark {
+
+    static final int CANTIDAD_USUARIOS = 200;
+    static final int CANTIDAD_LIBROS = 500;
+
+    private DatosBenchmark() {
+    }
+
+    static Prestamo prestamo(long id) {
+        return new Prestamo(id, 1 + id % CANTIDAD_USUARIOS, 1 + id % CANTIDAD_LIBROS,
+                LocalDate.of(2025, 3, 1).plusDays(id % 365), null, LocalDate.of(2025, 3, 15).plusDays(id % 365),
+                EstadoPrestamo.CONFIRMADO, false);
+    }
+
+    static List<Prestamo> prestamos(int cantidad) {
+        List<Prestamo> prestamos = new ArrayList<>(cantidad);
+        for (long id = 1; id <= cantidad; id++) {
+            prestamos.add(prestamo(id));
+        }
+        return prestamos;
+    }
+
+    static UsuarioDTO usuario(Long id) {
+        return new UsuarioDTO(id, "Usuario " + id, "usuario" + id + "@mail.com", true);
+    }
+
+    static LibroDTO libro(Long id) {
+        return new LibroDTO(id, "Libro " + id, "Autor " + id, String.format("978%010d", id), 5);
+    }
+
+    static PrestamoDTO prestamoEnriquecido(long id) {
+        Prestamo prestamo = prestamo(id);
+        return new PrestamoDTO(prestamo.getId(), prestamo.getIdUsuario(), prestamo.getIdLibro(),
+                usuario(prestamo.getIdUsuario()), libro(prestamo.getIdLibro()),
+                prestamo.getFechaPrestamo(), prestamo.getFechaDevolucion(), prestamo.getFechaVencimiento(),
+                prestamo.getEstado(), prestamo.isVencido());
+    }
+
+    static IPrestamoRepository repositorio(List<Prestamo> prestamos) {
+        return (IPrestamoRepository) Proxy.newProxyInstance(IPrestamoRepository.class.getClassLoader(),
+                new Class<?>[]{IPrestamoRepository.class},
+                (proxy, metodo, argumentos) -> {
+                    if (metodo.getName().equals("findAll") && (argumentos == null || argumentos.length == 0)) {
+                        return prestamos;
+                    }
+                    throw new UnsupportedOperationException(metodo.getName());
+                });
+    }
+
+    static PrestamoService prestamoService(List<Prestamo> prestamos, ExecutorService executor, CacheRecursosRemotos cache) {
+        IPrestamoRepository repositorio = repositorio(prestamos);
+        ILibroClient libroClient = libroClient();
+        LimitePrestamosUsuario limite = new LimitePrestamosUsuario(repositorio, Integer.MAX_VALUE);
+        ProcesoVencimientos vencimientos = new ProcesoVencimientos(repositorio, 14, 1000);
+        EstadisticasPrestamos estadisticas = new EstadisticasPrestamos(repositorio, limite, executor, 1, 50_000, 10, 30);
+        ColaReservas colaReservas = new ColaReservas(sinUso(IReservaRepository.class), repositorio, sinUso(IUsuarioClient.class),
+                new ReservaMapper(), limite, vencimientos, estadisticas, new NotificadorReservas());
+        OutboxPrestamos outbox = new OutboxPrestamos(repositorio, sinUso(IEventoOutboxRepository.class),
+                sinUso(IClaveIdempotenciaRepository.class), limite, estadisticas, colaReservas);
+        DespachadorOutbox despachador = new DespachadorOutbox(sinUso(IEventoOutboxRepository.class), outbox, colaReservas, libroClient,
+                cache, new SimpleMeterRegistry(), 100, 10, Duration.ofSeconds(30), Duration.ofSeconds(1), Duration.ofMinutes(5));
+        return new PrestamoService(repositorio, usuarioClient(), libroClient, new PrestamoMapper(), executor, cache,
+                outbox, despachador, limite, vencimientos);
+    }
+
+    private static <T> T sinUso(Class<T> tipo) {
+        return tipo.cast(Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo},
+                (proxy, metodo, argumentos) -> {
+                    throw new UnsupportedOperationException(metodo.getName());
+                }));
+    }
+
+    static IUsuarioClient usuarioClient() {
+        return new IUsuarioClient() {
+            @Override
+            public UsuarioDTO getUsuarioById(Long id) {
+                return usuario(id);
+            }
+
+            @Override
+            public List<UsuarioDTO> getUsuariosByIds(Collection<Long> ids) {
+                return ids.stream().map(DatosBenchmark::usuario).toList();
+            }
+        };
+    }
+
+    static ILibroClient libroClient() {
+        return new ILibroClient() {
+            @Override
+            public LibroDTO getLibroById(Long id) {
+                return libro(id);
+            }
+
+            @Override
+            public List<LibroDTO> getLibrosByIds(Collection<Long> ids) {
+                return ids.stream().map(DatosBenchmark::libro).toList();
+            }
+
+            @Override
+            public ResultadoStockDTO reservarEjemplar(Long id, String claveOperacion) {
+                return new ResultadoStockDTO(id, true, 4);
+            }
+
+            @Override
+            public ResultadoStockDTO liberarEjemplar(Long id, String claveOperacion) {
+                return new ResultadoStockDTO(id, true, 5);
+            }
+        };
+    }
+}
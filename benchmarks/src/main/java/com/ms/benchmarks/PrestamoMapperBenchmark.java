@@ -0,0 +1,46 @@
+package com.ms.benchmarks;
+
+import com.ms.prestamos.dto.PrestamoDTO;
+import com.ms.prestamos.mapper.PrestamoMapper;
+import com.ms.prestamos.model.Prestamo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrestamoMapperBenchmark {
+
+    private PrestamoMapper mapper;
+    private Prestamo prestamo;
+    private PrestamoDTO prestamoDTO;
+
+    @Setup
+    public void setUp() {
+        mapper = new PrestamoMapper();
+        prestamo = DatosBenchmark.prestamo(42L);
+        prestamoDTO = DatosBenchmark.prestamoEnriquecido(42L);
+    }
+
+    @Benchmark
+    public PrestamoDTO toDTO() {
+        return mapper.toDTO(prestamo);
+    }
+
+    @Benchmark
+    public Prestamo toEntity() {
+        return mapper.toEntity(prestamoDTO);
+    }
+}
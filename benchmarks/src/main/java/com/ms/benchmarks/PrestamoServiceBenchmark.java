@@ -0,0 +1,76 @@
+package com.ms.benchmarks;
+
+import com.ms.prestamos.cache.CacheRecursosRemotos;
+import com.ms.prestamos.dto.PrestamoDTO;
+import com.ms.prestamos.model.Prestamo;
+import com.ms.prestamos.service.PrestamoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrestamoServiceBenchmark {
+
+    @Param({"100", "1000"})
+    private int cantidad;
+
+    private List<Prestamo> prestamos;
+    private ExecutorService executor;
+    private PrestamoService serviceCacheCaliente;
+    private PrestamoService serviceCacheFria;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        prestamos = DatosBenchmark.prestamos(cantidad);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        serviceCacheCaliente = nuevoService();
+        serviceCacheCaliente.getAll();
+    }
+
+    @Setup(Level.Invocation)
+    public void vaciarCache() {
+        serviceCacheFria = nuevoService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public List<PrestamoDTO> getAllCacheCaliente() {
+        return serviceCacheCaliente.getAll();
+    }
+
+    @Benchmark
+    public List<PrestamoDTO> getAllCacheFria() {
+        return serviceCacheFria.getAll();
+    }
+
+    private PrestamoService nuevoService() {
+        CacheRecursosRemotos cache = new CacheRecursosRemotos(DatosBenchmark.usuarioClient(), DatosBenchmark.libroClient(),
+                new SimpleMeterRegistry(), 10_000, Duration.ofMinutes(10));
+        return DatosBenchmark.prestamoService(prestamos, executor, cache);
+    }
+}
@@ -0,0 +1,111 @@
+package com.ms.benchmarks;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeMap;
+
+public final class VerificadorRegresiones {
+
+    private static final String TOLERANCIAS = "/umbrales.properties";
+
+    private VerificadorRegresiones() {
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        double toleranciaPorDefecto = Double.parseDouble(System.getProperty("benchmarks.tolerancia", "0.20"));
+        String registrar = System.getProperty("benchmarks.registrar");
+        Path lineaBase = Path.of(System.getProperty("benchmarks.linea-base", "target/linea-base.properties"));
+        Properties tolerancias = cargarTolerancias();
+        Properties referencia = registrar == null ? cargarLineaBase(lineaBase) : null;
+
+        Options opciones = new OptionsBuilder()
+                .include(VerificadorRegresiones.class.getPackageName() + ".*Benchmark")
+                .build();
+        Collection<RunResult> resultados = new Runner(opciones).run();
+
+        TreeMap<String, Double> puntajes = new TreeMap<>();
+        resultados.forEach(resultado -> puntajes.put(clave(resultado), resultado.getPrimaryResult().getScore()));
+
+        if (registrar != null) {
+            registrarLineaBase(Path.of(registrar), puntajes);
+            return;
+        }
+
+        List<String> regresiones = new ArrayList<>();
+        puntajes.forEach((clave, puntaje) -> {
+            String base = referencia.getProperty(clave);
+            if (base == null) {
+                System.out.printf("[SIN LINEA BASE] %s: %.1f ops/s%n", clave, puntaje);
+                return;
+            }
+            double tolerancia = Double.parseDouble(tolerancias.getProperty(clave, String.valueOf(toleranciaPorDefecto)));
+            double minimo = Double.parseDouble(base) * (1 - tolerancia);
+            String estado = puntaje < minimo ? "REGRESION" : "OK";
+            System.out.printf("[%s] %s: %.1f ops/s (línea base %s, mínimo %.1f)%n", estado, clave, puntaje, base, minimo);
+            if (puntaje < minimo) {
+                regresiones.add(clave);
+            }
+        });
+
+        if (!regresiones.isEmpty()) {
+            System.err.println("Se detectaron regresiones de rendimiento en: " + String.join(", ", regresiones));
+            System.exit(1);
+        }
+    }
+
+    private static String clave(RunResult resultado) {
+        String benchmark = resultado.getParams().getBenchmark();
+        StringBuilder clave = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1));
+        for (String parametro : resultado.getParams().getParamsKeys()) {
+            clave.append('[').append(parametro).append('=').append(resultado.getParams().getParam(parametro)).append(']');
+        }
+        return clave.toString();
+    }
+
+    private static Properties cargarTolerancias() throws IOException {
+        Properties tolerancias = new Properties();
+        try (InputStream entrada = VerificadorRegresiones.class.getResourceAsStream(TOLERANCIAS)) {
+            if (entrada != null) {
+                tolerancias.load(entrada);
+            }
+        }
+        return tolerancias;
+    }
+
+    private static Properties cargarLineaBase(Path origen) throws IOException {
+        if (!Files.exists(origen)) {
+            throw new IllegalStateException("No existe la línea base " + origen.toAbsolutePath()
+                    + ". Registrala primero en esta misma máquina con -Dbenchmarks.registrar=" + origen);
+        }
+        Properties lineaBase = new Properties();
+        try (InputStream entrada = Files.newInputStream(origen)) {
+            lineaBase.load(entrada);
+        }
+        return lineaBase;
+    }
+
+    private static void registrarLineaBase(Path destino, TreeMap<String, Double> puntajes) throws IOException {
+        if (destino.getParent() != null) {
+            Files.createDirectories(destino.getParent());
+        }
+        try (Writer salida = Files.newBufferedWriter(destino)) {
+            for (var puntaje : puntajes.entrySet()) {
+                salida.write(puntaje.getKey().replace("=", "\\=")
+                        + "=" + Math.round(puntaje.getValue()) + System.lineSeparator());
+            }
+        }
+        System.out.println("Línea base registrada en " + destino.toAbsolutePath());
+    }
+}
@@ -0,0 +1,19 @@
+package com.ms.carga;
+
+public final class ArnesCarga {
+
+    private ArnesCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionCarga configuracion = ConfiguracionCarga.desdeArgumentos(args);
+        try (PilaLocal pila = configuracion.arrancarPila() ? PilaLocal.arrancar(configuracion.raizProyecto()) : null) {
+            ReporteCarga reporte = new GeneradorCarga(configuracion).ejecutar();
+            reporte.imprimir(System.out);
+            if (configuracion.reporte() != null) {
+                reporte.guardarCsv(configuracion.reporte());
+                System.out.println("Reporte CSV guardado en " + configuracion.reporte().toAbsolutePath());
+            }
+        }
+    }
+}
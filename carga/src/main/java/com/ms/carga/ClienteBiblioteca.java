@@ -0,0 +1,45 @@
+package com.ms.carga;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+final class ClienteBiblioteca {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final String ENCABEZADO_CLIENTE = "X-Client-Id";
+
+    private final URI base;
+    private final HttpClient http;
+
+    ClienteBiblioteca(URI base, ExecutorService executor) {
+        this.base = base;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(TIMEOUT)
+                .executor(executor)
+                .build();
+    }
+
+    HttpResponse<String> get(String ruta, String idCliente) throws IOException, InterruptedException {
+        return http.send(peticion(ruta, idCliente).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    HttpResponse<String> post(String ruta, String cuerpoJson, String idCliente) throws IOException, InterruptedException {
+        HttpRequest.BodyPublisher cuerpo = cuerpoJson == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(cuerpoJson);
+        return http.send(peticion(ruta, idCliente).header("Content-Type", "application/json").POST(cuerpo).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder peticion(String ruta, String idCliente) {
+        return HttpRequest.newBuilder(URI.create(base.toString() + ruta))
+                .timeout(TIMEOUT)
+                .header(ENCABEZADO_CLIENTE, idCliente);
+    }
+}
@@ -0,0 +1,74 @@
+package com.ms.carga;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+public record ConfiguracionCarga(URI objetivo,
+                                 boolean arrancarPila,
+                                 Path raizProyecto,
+                                 int rps,
+                                 Duration duracion,
+                                 Duration calentamiento,
+                                 Map<Operacion, Integer> mezcla,
+                                 int usuarios,
+                                 int libros,
+                                 long semilla,
+                                 Path reporte) {
+
+    public static ConfiguracionCarga desdeArgumentos(String[] args) {
+        Map<String, String> valores = new HashMap<>();
+        for (String argumento : args) {
+            if (!argumento.startsWith("--") || !argumento.contains("=")) {
+                throw new IllegalArgumentException("Argumento inválido: " + argumento + ". Use --clave=valor.");
+            }
+            int separador = argumento.indexOf('=');
+            valores.put(argumento.substring(2, separador), argumento.substring(separador + 1));
+        }
+
+        ConfiguracionCarga configuracion = new ConfiguracionCarga(
+                URI.create(valores.getOrDefault("objetivo", "http://localhost:8080/biblioteca")),
+                Boolean.parseBoolean(valores.getOrDefault("arrancar-pila", "true")),
+                Path.of(valores.getOrDefault("raiz", "..")).toAbsolutePath().normalize(),
+                Integer.parseInt(valores.getOrDefault("rps", "50")),
+                duracion(valores.getOrDefault("duracion", "60s")),
+                duracion(valores.getOrDefault("calentamiento", "10s")),
+                mezcla(valores.getOrDefault("mezcla", "prestamo:3,devolucion:2,catalogo:5")),
+                Integer.parseInt(valores.getOrDefault("usuarios", "200")),
+                Integer.parseInt(valores.getOrDefault("libros", "500")),
+                Long.parseLong(valores.getOrDefault("semilla", "42")),
+                valores.containsKey("reporte") ? Path.of(valores.get("reporte")) : null);
+
+        if (configuracion.rps() <= 0 || configuracion.usuarios() <= 0 || configuracion.libros() <= 0) {
+            throw new IllegalArgumentException("rps, usuarios y libros deben ser mayores a cero.");
+        }
+        return configuracion;
+    }
+
+    private static Duration duracion(String valor) {
+        return Duration.parse("PT" + valor.toUpperCase(Locale.ROOT));
+    }
+
+    private static Map<Operacion, Integer> mezcla(String valor) {
+        Map<Operacion, Integer> mezcla = new EnumMap<>(Operacion.class);
+        for (String parte : valor.split(",")) {
+            String[] operacionPeso = parte.split(":");
+            if (operacionPeso.length != 2) {
+                throw new IllegalArgumentException("Mezcla inválida: " + parte + ". Use operacion:peso.");
+            }
+            int peso = Integer.parseInt(operacionPeso[1].trim());
+            if (peso < 0) {
+                throw new IllegalArgumentException("El peso de " + operacionPeso[0] + " no puede ser negativo.");
+            }
+            mezcla.put(Operacion.valueOf(operacionPeso[0].trim().toUpperCase(Locale.ROOT)), peso);
+        }
+        if (mezcla.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("La mezcla debe tener al menos una operación con peso positivo.");
+        }
+        return mezcla;
+    }
+}
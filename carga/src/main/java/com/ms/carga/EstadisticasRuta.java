@@ -0,0 +1,45 @@
+package com.ms.carga;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+final class EstadisticasRuta {
+
+    record Resumen(long peticiones, long errores, double throughput, double p50Ms, double p99Ms, double maximoMs) {
+
+        double tasaError() {
+            return peticiones == 0 ? 0 : (double) errores / peticiones;
+        }
+    }
+
+    private long[] latencias = new long[1024];
+    private int cantidad;
+    private long errores;
+
+    synchronized void registrar(long latenciaNanos, boolean exitosa) {
+        if (cantidad == latencias.length) {
+            latencias = Arrays.copyOf(latencias, cantidad * 2);
+        }
+        latencias[cantidad++] = latenciaNanos;
+        if (!exitosa) {
+            errores++;
+        }
+    }
+
+    synchronized Resumen resumir(Duration medicion) {
+        long[] ordenadas = Arrays.copyOf(latencias, cantidad);
+        Arrays.sort(ordenadas);
+        double segundos = medicion.toNanos() / 1_000_000_000.0;
+        return new Resumen(cantidad, errores, (cantidad - errores) / segundos,
+                percentil(ordenadas, 0.50), percentil(ordenadas, 0.99),
+                ordenadas.length == 0 ? 0 : ordenadas[ordenadas.length - 1] / 1_000_000.0);
+    }
+
+    private static double percentil(long[] ordenadas, double percentil) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(percentil * ordenadas.length) - 1;
+        return ordenadas[Math.max(indice, 0)] / 1_000_000.0;
+    }
+}
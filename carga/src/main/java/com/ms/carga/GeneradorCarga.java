@@ -0,0 +1,170 @@
+package com.ms.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+final class GeneradorCarga {
+
+    private static final String[] PALABRAS = {"historia", "ciencia", "novela", "poesia", "viaje", "misterio", "cocina", "arte"};
+    private static final int TAMANIO_LOTE_ALTA = 500;
+
+    private final ConfiguracionCarga configuracion;
+    private final ObjectMapper json = new ObjectMapper();
+    private final Random aleatorio;
+    private final List<Long> idsUsuarios = new ArrayList<>();
+    private final List<Long> idsLibros = new ArrayList<>();
+    private final ConcurrentLinkedQueue<Long> prestamosAbiertos = new ConcurrentLinkedQueue<>();
+    private final int pesoTotal;
+
+    GeneradorCarga(ConfiguracionCarga configuracion) {
+        this.configuracion = configuracion;
+        this.aleatorio = new Random(configuracion.semilla());
+        this.pesoTotal = configuracion.mezcla().values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    ReporteCarga ejecutar() throws IOException, InterruptedException {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            ClienteBiblioteca cliente = new ClienteBiblioteca(configuracion.objetivo(), executor);
+            sembrar(cliente);
+
+            System.out.printf("Calentamiento de %d s a %d req/s...%n", configuracion.calentamiento().toSeconds(), configuracion.rps());
+            generar(cliente, configuracion.calentamiento(), new ConcurrentHashMap<>());
+
+            System.out.printf("Medición de %d s a %d req/s...%n", configuracion.duracion().toSeconds(), configuracion.rps());
+            Map<String, EstadisticasRuta> estadisticas = new ConcurrentHashMap<>();
+            generar(cliente, configuracion.duracion(), estadisticas);
+            return new ReporteCarga(estadisticas, configuracion.duracion());
+        }
+    }
+
+    private void sembrar(ClienteBiblioteca cliente) throws IOException, InterruptedException {
+        String corrida = Long.toString(System.currentTimeMillis());
+        for (int desde = 0; desde < configuracion.usuarios(); desde += TAMANIO_LOTE_ALTA) {
+            ArrayNode lote = json.createArrayNode();
+            for (int i = desde; i < Math.min(desde + TAMANIO_LOTE_ALTA, configuracion.usuarios()); i++) {
+                lote.addObject()
+                        .put("nombreCompleto", "Usuario de carga " + i)
+                        .put("email", "carga" + corrida + "-" + i + "@mail.com")
+                        .put("isActivo", true);
+            }
+            idsUsuarios.addAll(crearLote(cliente, "/usuarios/lote", lote));
+        }
+        for (int desde = 0; desde < configuracion.libros(); desde += TAMANIO_LOTE_ALTA) {
+            ArrayNode lote = json.createArrayNode();
+            for (int i = desde; i < Math.min(desde + TAMANIO_LOTE_ALTA, configuracion.libros()); i++) {
+                lote.addObject()
+                        .put("titulo", PALABRAS[i % PALABRAS.length] + " " + i)
+                        .put("autor", "Autor de carga " + (i % 50))
+                        .put("isbn", "C" + corrida + String.format("%05d", i))
+                        .put("ejemplaresDisponibles", 1_000_000);
+            }
+            idsLibros.addAll(crearLote(cliente, "/libros/lote", lote));
+        }
+        System.out.printf("Datos sembrados: %d usuarios y %d libros.%n", idsUsuarios.size(), idsLibros.size());
+    }
+
+    private List<Long> crearLote(ClienteBiblioteca cliente, String ruta, ArrayNode lote) throws IOException, InterruptedException {
+        HttpResponse<String> respuesta = cliente.post(ruta, json.writeValueAsString(lote), "carga-siembra");
+        if (respuesta.statusCode() != 201) {
+            throw new IllegalStateException("No se pudieron sembrar los datos en " + ruta + ": "
+                    + respuesta.statusCode() + " " + respuesta.body());
+        }
+        List<Long> ids = new ArrayList<>();
+        json.readTree(respuesta.body()).forEach(id -> ids.add(id.asLong()));
+        return ids;
+    }
+
+    private void generar(ClienteBiblioteca cliente, Duration duracion, Map<String, EstadisticasRuta> estadisticas) {
+        long intervaloNanos = 1_000_000_000L / configuracion.rps();
+        long duracionNanos = duracion.toNanos();
+        try (ExecutorService peticiones = Executors.newVirtualThreadPerTaskExecutor()) {
+            long inicio = System.nanoTime();
+            for (long i = 0; i * intervaloNanos < duracionNanos; i++) {
+                long programada = inicio + i * intervaloNanos;
+                LockSupport.parkNanos(programada - System.nanoTime());
+                Peticion peticion = siguientePeticion();
+                peticiones.submit(() -> ejecutar(cliente, peticion, programada, estadisticas));
+            }
+        }
+    }
+
+    private Peticion siguientePeticion() {
+        Long idUsuario = elegir(idsUsuarios);
+        String cliente = "usuario-" + idUsuario;
+        Operacion operacion = elegirOperacion();
+        if (operacion == Operacion.DEVOLUCION) {
+            Long idPrestamo = prestamosAbiertos.poll();
+            if (idPrestamo != null) {
+                return new Peticion(cliente, operacion, "POST", "/prestamos/{id}/devolver", "/prestamos/" + idPrestamo + "/devolver", null);
+            }
+            operacion = Operacion.PRESTAMO;
+        }
+        if (operacion == Operacion.PRESTAMO) {
+            String cuerpo = "{\"idUsuario\": " + idUsuario + ", \"idLibro\": " + elegir(idsLibros) + "}";
+            return new Peticion(cliente, operacion, "POST", "/prestamos", "/prestamos", cuerpo);
+        }
+        return switch (aleatorio.nextInt(3)) {
+            case 0 -> new Peticion(cliente, operacion, "GET", "/libros/buscar", "/libros/buscar?q=" + PALABRAS[aleatorio.nextInt(PALABRAS.length)], null);
+            case 1 -> new Peticion(cliente, operacion, "GET", "/libros/{id}", "/libros/" + elegir(idsLibros), null);
+            default -> new Peticion(cliente, operacion, "GET", "/prestamos/pagina", "/prestamos/pagina?tamanio=20", null);
+        };
+    }
+
+    private Operacion elegirOperacion() {
+        int valor = aleatorio.nextInt(pesoTotal);
+        for (Map.Entry<Operacion, Integer> entrada : configuracion.mezcla().entrySet()) {
+            valor -= entrada.getValue();
+            if (valor < 0) {
+                return entrada.getKey();
+            }
+        }
+        throw new IllegalStateException("Mezcla de operaciones vacía.");
+    }
+
+    private Long elegir(List<Long> ids) {
+        return ids.get(aleatorio.nextInt(ids.size()));
+    }
+
+    private void ejecutar(ClienteBiblioteca cliente, Peticion peticion, long programada, Map<String, EstadisticasRuta> estadisticas) {
+        boolean exitosa;
+        try {
+            HttpResponse<String> respuesta = peticion.metodo().equals("POST")
+                    ? cliente.post(peticion.ruta(), peticion.cuerpo(), peticion.cliente())
+                    : cliente.get(peticion.ruta(), peticion.cliente());
+            exitosa = respuesta.statusCode() / 100 == 2;
+            if (exitosa && peticion.operacion() == Operacion.PRESTAMO) {
+                registrarPrestamo(respuesta.body());
+            }
+        } catch (IOException e) {
+            exitosa = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long latencia = System.nanoTime() - programada;
+        estadisticas.computeIfAbsent(peticion.metodo() + " " + peticion.plantilla(), clave -> new EstadisticasRuta()).registrar(latencia, exitosa);
+    }
+
+    private void registrarPrestamo(String cuerpo) throws IOException {
+        JsonNode prestamo = json.readTree(cuerpo);
+        if ("CONFIRMADO".equals(prestamo.path("estado").asText())) {
+            prestamosAbiertos.add(prestamo.get("id").asLong());
+        }
+    }
+
+    private record Peticion(String cliente, Operacion operacion, String metodo, String plantilla, String ruta, String cuerpo) {
+    }
+}
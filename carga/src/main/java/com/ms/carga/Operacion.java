@@ -0,0 +1,7 @@
+package com.ms.carga;
+
+public enum Operacion {
+    PRESTAMO,
+    DEVOLUCION,
+    CATALOGO
+}
@@ -0,0 +1,159 @@
+package com.ms.carga;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+final class PilaLocal implements AutoCloseable {
+
+    private static final Duration ESPERA_MAXIMA = Duration.ofMinutes(3);
+    private static final String LANZADOR_BOOT = "org.springframework.boot.loader.launch.PropertiesLauncher";
+    private static final List<String> REGISTRO_RAPIDO = List.of(
+            "--eureka.client.service-url.defaultZone=http://localhost:8761/eureka",
+            "--eureka.client.registry-fetch-interval-seconds=5",
+            "--eureka.instance.lease-renewal-interval-in-seconds=5");
+
+    private final Path raiz;
+    private final Path logs;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final List<Process> procesos = new ArrayList<>();
+
+    private PilaLocal(Path raiz, Path logs) {
+        this.raiz = raiz;
+        this.logs = logs;
+    }
+
+    static PilaLocal arrancar(Path raiz) throws IOException, InterruptedException {
+        PilaLocal pila = new PilaLocal(raiz, raiz.resolve("carga/target/logs"));
+        Files.createDirectories(pila.logs);
+        try {
+            pila.lanzar("eureka", List.of());
+            pila.esperar("eureka", "http://localhost:8761/eureka/apps");
+
+            pila.lanzarConH2("usuarios");
+            pila.lanzarConH2("libros");
+            pila.lanzarConH2("prestamos", "--prestamos.limite.max-abiertos-por-usuario=" + Integer.MAX_VALUE);
+            pila.esperar("ms-usuarios", "http://localhost:8083/api/usuarios?ids=0");
+            pila.esperar("ms-libros", "http://localhost:8081/api/libros?ids=0");
+            pila.esperar("ms-prestamos", "http://localhost:8082/api/prestamos/pagina?tamanio=1");
+
+            pila.lanzar("api-gateway", REGISTRO_RAPIDO);
+            pila.esperar("gateway -> ms-usuarios", "http://localhost:8080/biblioteca/usuarios?ids=0");
+            pila.esperar("gateway -> ms-libros", "http://localhost:8080/biblioteca/libros?ids=0");
+            pila.esperar("gateway -> ms-prestamos", "http://localhost:8080/biblioteca/prestamos/pagina?tamanio=1");
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            pila.close();
+            throw e;
+        }
+        System.out.println("Pila local lista. Logs en " + pila.logs);
+        return pila;
+    }
+
+    private void lanzarConH2(String modulo, String... extra) throws IOException {
+        List<String> argumentos = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + modulo + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"));
+        argumentos.addAll(REGISTRO_RAPIDO);
+        argumentos.addAll(List.of(extra));
+
+        List<String> comando = new ArrayList<>(List.of(
+                java(), "-Dloader.path=" + jarH2(), "-cp", jarEjecutable(modulo).toString(), LANZADOR_BOOT));
+        comando.addAll(argumentos);
+        iniciar(modulo, comando);
+    }
+
+    private void lanzar(String modulo, List<String> argumentos) throws IOException {
+        List<String> comando = new ArrayList<>(List.of(java(), "-jar", jarEjecutable(modulo).toString()));
+        comando.addAll(argumentos);
+        iniciar(modulo, comando);
+    }
+
+    private void iniciar(String modulo, List<String> comando) throws IOException {
+        System.out.println("Arrancando " + modulo + "...");
+        Process proceso = new ProcessBuilder(comando)
+                .redirectErrorStream(true)
+                .redirectOutput(logs.resolve(modulo + ".log").toFile())
+                .start();
+        procesos.add(proceso);
+    }
+
+    private void esperar(String nombre, String url) throws InterruptedException {
+        long limite = System.nanoTime() + ESPERA_MAXIMA.toNanos();
+        HttpRequest sonda = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(5)).GET().build();
+        while (System.nanoTime() < limite) {
+            procesos.stream().filter(proceso -> !proceso.isAlive()).findAny().ifPresent(proceso -> {
+                throw new IllegalStateException("Un proceso de la pila terminó inesperadamente. Revise los logs en " + logs);
+            });
+            if (responde(sonda)) {
+                System.out.println(nombre + " disponible.");
+                return;
+            }
+            TimeUnit.SECONDS.sleep(1);
+        }
+        throw new IllegalStateException(nombre + " no estuvo disponible en " + ESPERA_MAXIMA.toSeconds() + " s. Revise los logs en " + logs);
+    }
+
+    private boolean responde(HttpRequest sonda) throws InterruptedException {
+        try {
+            return http.send(sonda, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private Path jarEjecutable(String modulo) throws IOException {
+        Path target = raiz.resolve(modulo).resolve("target");
+        if (!Files.isDirectory(target)) {
+            throw new IllegalStateException("No se encontró " + target + ". Ejecute 'mvn package -DskipTests' en " + modulo + ".");
+        }
+        try (Stream<Path> archivos = Files.list(target)) {
+            return archivos
+                    .filter(archivo -> archivo.getFileName().toString().endsWith(".jar"))
+                    .max(Comparator.comparing((Path archivo) -> archivo.getFileName().toString().endsWith("-exec.jar")))
+                    .orElseThrow(() -> new IllegalStateException("No hay un jar ejecutable en " + target + ". Ejecute 'mvn package -DskipTests' en " + modulo + "."));
+        }
+    }
+
+    private static String jarH2() {
+        try {
+            return Path.of(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("No se pudo ubicar el driver de H2.", e);
+        }
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    @Override
+    public void close() {
+        for (int i = procesos.size() - 1; i >= 0; i--) {
+            Process proceso = procesos.get(i);
+            proceso.destroy();
+            try {
+                if (!proceso.waitFor(10, TimeUnit.SECONDS)) {
+                    proceso.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                proceso.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        procesos.clear();
+    }
+}
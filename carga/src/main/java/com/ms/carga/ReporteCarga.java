@@ -0,0 +1,43 @@
+package com.ms.carga;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+final class ReporteCarga {
+
+    private final Map<String, EstadisticasRuta.Resumen> rutas = new TreeMap<>();
+    private final Duration medicion;
+
+    ReporteCarga(Map<String, EstadisticasRuta> estadisticas, Duration medicion) {
+        this.medicion = medicion;
+        estadisticas.forEach((ruta, estadistica) -> rutas.put(ruta, estadistica.resumir(medicion)));
+    }
+
+    void imprimir(PrintStream salida) {
+        salida.printf(Locale.ROOT, "%nResultados (%d s medidos)%n", medicion.toSeconds());
+        salida.printf(Locale.ROOT, "%-40s %10s %8s %10s %10s %10s %10s%n",
+                "Ruta", "Peticiones", "Error %", "Req/s", "p50 ms", "p99 ms", "Máx ms");
+        rutas.forEach((ruta, resumen) -> salida.printf(Locale.ROOT, "%-40s %10d %8.2f %10.1f %10.1f %10.1f %10.1f%n",
+                ruta, resumen.peticiones(), resumen.tasaError() * 100, resumen.throughput(),
+                resumen.p50Ms(), resumen.p99Ms(), resumen.maximoMs()));
+    }
+
+    void guardarCsv(Path destino) throws IOException {
+        try (Writer salida = Files.newBufferedWriter(destino)) {
+            salida.write("ruta,peticiones,errores,tasa_error,throughput,p50_ms,p99_ms,maximo_ms" + System.lineSeparator());
+            for (Map.Entry<String, EstadisticasRuta.Resumen> ruta : rutas.entrySet()) {
+                EstadisticasRuta.Resumen resumen = ruta.getValue();
+                salida.write(String.format(Locale.ROOT, "\"%s\",%d,%d,%.4f,%.2f,%.2f,%.2f,%.2f%n",
+                        ruta.getKey(), resumen.peticiones(), resumen.errores(), resumen.tasaError(),
+                        resumen.throughput(), resumen.p50Ms(), resumen.p99Ms(), resumen.maximoMs()));
+            }
+        }
+    }
+}
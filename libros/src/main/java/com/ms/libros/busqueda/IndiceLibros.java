@@ -0,0 +1,303 @@
+package com.ms.libros.busqueda;
+
+import com.ms.libros.model.Libro;
+import com.ms.libros.repository.ILibroRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+@Component
+public class IndiceLibros {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceLibros.class);
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{Alnum}]+");
+    private static final int TAMANIO_LOTE_CARGA = 5000;
+    private static final int LONGITUD_MINIMA_PREFIJO = 2;
+    private static final int LONGITUD_MINIMA_TOLERANCIA = 4;
+    private static final int MAX_TERMINOS_POR_PREFIJO = 200;
+    private static final double PESO_EXACTO = 3.0;
+    private static final double PESO_PREFIJO = 2.0;
+    private static final double PESO_APROXIMADO = 1.0;
+    private static final double PESO_TITULO = 2.0;
+    private static final double PESO_AUTOR = 1.0;
+    private static final Comparator<Map.Entry<Long, Double>> RELEVANCIA =
+            Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.<Long, Double>comparingByKey());
+
+    private final ILibroRepository repository;
+    private final ConcurrentSkipListMap<String, Set<Long>> terminos = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Set<String>> variantesPorBorrado = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, DocumentoIndexado> documentos = new ConcurrentHashMap<>();
+    private final Set<Long> modificadosDuranteCarga = new HashSet<>();
+    private volatile boolean cargado;
+
+    @Autowired
+    public IndiceLibros(ILibroRepository repository) {
+        this.repository = repository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        long inicio = System.currentTimeMillis();
+        Slice<Libro> pagina;
+        long ultimoId = 0L;
+        do {
+            pagina = repository.findByIdGreaterThanOrderByIdAsc(ultimoId, PageRequest.ofSize(TAMANIO_LOTE_CARGA));
+            pagina.forEach(this::indexarDesdeCarga);
+            if (pagina.hasContent()) {
+                ultimoId = pagina.getContent().get(pagina.getNumberOfElements() - 1).getId();
+            }
+        } while (pagina.hasNext());
+        finalizarCarga();
+        log.info("Índice de búsqueda cargado con {} libros en {} ms", documentos.size(), System.currentTimeMillis() - inicio);
+    }
+
+    public void indexar(Libro libro) {
+        Long id = libro.getId();
+        String titulo = libro.getTitulo();
+        String autor = libro.getAutor();
+        ejecutarAlConfirmar(() -> aplicarModificacion(id, () -> indexarAhora(id, titulo, autor)));
+    }
+
+    public void indexar(Collection<Libro> libros) {
+        libros.forEach(this::indexar);
+    }
+
+    public void eliminar(Long id) {
+        ejecutarAlConfirmar(() -> aplicarModificacion(id, () -> eliminarAhora(id)));
+    }
+
+    public ResultadoIndice buscar(String consulta, int pagina, int tamanio) {
+        List<String> tokens = tokenizar(consulta);
+        if (tokens.isEmpty()) {
+            return new ResultadoIndice(List.of(), 0);
+        }
+
+        Map<Long, Double> puntajes = null;
+        for (String token : tokens) {
+            Map<Long, Double> coincidencias = buscarToken(token);
+            if (puntajes == null) {
+                puntajes = coincidencias;
+            } else {
+                Map<Long, Double> acumulados = puntajes;
+                coincidencias.keySet().retainAll(acumulados.keySet());
+                coincidencias.replaceAll((id, puntaje) -> puntaje + acumulados.get(id));
+                puntajes = coincidencias;
+            }
+            if (puntajes.isEmpty()) {
+                return new ResultadoIndice(List.of(), 0);
+            }
+        }
+
+        int total = puntajes.size();
+        long desde = (long) pagina * tamanio;
+        if (desde >= total) {
+            return new ResultadoIndice(List.of(), total);
+        }
+        int limite = (int) Math.min(desde + tamanio, total);
+        PriorityQueue<Map.Entry<Long, Double>> mejores = new PriorityQueue<>(limite, RELEVANCIA.reversed());
+        for (Map.Entry<Long, Double> entrada : puntajes.entrySet()) {
+            if (mejores.size() < limite) {
+                mejores.add(entrada);
+            } else if (RELEVANCIA.compare(entrada, mejores.peek()) < 0) {
+                mejores.poll();
+                mejores.add(entrada);
+            }
+        }
+        List<Map.Entry<Long, Double>> ordenados = new ArrayList<>(mejores);
+        ordenados.sort(RELEVANCIA);
+        List<Long> ids = ordenados.subList((int) desde, limite).stream().map(Map.Entry::getKey).toList();
+        return new ResultadoIndice(ids, total);
+    }
+
+    public boolean isCargado() {
+        return cargado;
+    }
+
+    public int size() {
+        return documentos.size();
+    }
+
+    private Map<Long, Double> buscarToken(String token) {
+        Map<String, Double> terminosCoincidentes = new HashMap<>();
+        if (terminos.containsKey(token)) {
+            terminosCoincidentes.put(token, PESO_EXACTO);
+        }
+        if (token.length() >= LONGITUD_MINIMA_PREFIJO) {
+            terminos.subMap(token, false, token + Character.MAX_VALUE, false).keySet().stream()
+                    .limit(MAX_TERMINOS_POR_PREFIJO)
+                    .forEach(termino -> terminosCoincidentes.putIfAbsent(termino, PESO_PREFIJO));
+        }
+        if (token.length() >= LONGITUD_MINIMA_TOLERANCIA) {
+            for (String variante : variantes(token)) {
+                for (String termino : variantesPorBorrado.getOrDefault(variante, Set.of())) {
+                    if (distanciaMaximaUno(token, termino)) {
+                        terminosCoincidentes.putIfAbsent(termino, PESO_APROXIMADO);
+                    }
+                }
+            }
+        }
+
+        Map<Long, Double> puntajes = new HashMap<>();
+        terminosCoincidentes.forEach((termino, peso) -> {
+            for (Long id : terminos.getOrDefault(termino, Set.of())) {
+                DocumentoIndexado documento = documentos.get(id);
+                if (documento == null) {
+                    continue;
+                }
+                double puntaje = peso * (documento.terminosTitulo.contains(termino) ? PESO_TITULO : PESO_AUTOR);
+                puntajes.merge(id, puntaje, Math::max);
+            }
+        });
+        return puntajes;
+    }
+
+    private synchronized void indexarDesdeCarga(Libro libro) {
+        if (modificadosDuranteCarga.contains(libro.getId())) {
+            return;
+        }
+        indexarAhora(libro.getId(), libro.getTitulo(), libro.getAutor());
+    }
+
+    private synchronized void aplicarModificacion(Long id, Runnable accion) {
+        if (!cargado) {
+            modificadosDuranteCarga.add(id);
+        }
+        accion.run();
+    }
+
+    private synchronized void finalizarCarga() {
+        cargado = true;
+        modificadosDuranteCarga.clear();
+    }
+
+    private synchronized void indexarAhora(Long id, String titulo, String autor) {
+        eliminarAhora(id);
+        DocumentoIndexado documento = new DocumentoIndexado(new HashSet<>(tokenizar(titulo)), new HashSet<>(tokenizar(autor)));
+        documentos.put(id, documento);
+        documento.terminos().forEach(termino -> {
+            terminos.computeIfAbsent(termino, clave -> ConcurrentHashMap.newKeySet()).add(id);
+            if (termino.length() >= LONGITUD_MINIMA_TOLERANCIA) {
+                for (String variante : variantes(termino)) {
+                    variantesPorBorrado.computeIfAbsent(variante, clave -> ConcurrentHashMap.newKeySet()).add(termino);
+                }
+            }
+        });
+    }
+
+    private synchronized void eliminarAhora(Long id) {
+        DocumentoIndexado anterior = documentos.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        anterior.terminos().forEach(termino -> terminos.computeIfPresent(termino, (clave, ids) -> {
+            ids.remove(id);
+            if (!ids.isEmpty()) {
+                return ids;
+            }
+            if (termino.length() >= LONGITUD_MINIMA_TOLERANCIA) {
+                for (String variante : variantes(termino)) {
+                    variantesPorBorrado.computeIfPresent(variante, (v, terminosVariante) -> {
+                        terminosVariante.remove(termino);
+                        return terminosVariante.isEmpty() ? null : terminosVariante;
+                    });
+                }
+            }
+            return null;
+        }));
+    }
+
+    private void ejecutarAlConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    static List<String> tokenizar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        String normalizado = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARADORES.split(normalizado))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private static Set<String> variantes(String termino) {
+        Set<String> variantes = new HashSet<>();
+        variantes.add(termino);
+        for (int i = 0; i < termino.length(); i++) {
+            variantes.add(termino.substring(0, i) + termino.substring(i + 1));
+        }
+        return variantes;
+    }
+
+    static boolean distanciaMaximaUno(String a, String b) {
+        if (Math.abs(a.length() - b.length()) > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < a.length() && i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (a.length() == b.length()) {
+            if (i == a.length()) {
+                return true;
+            }
+            if (a.substring(i + 1).equals(b.substring(i + 1))) {
+                return true;
+            }
+            return i + 1 < a.length()
+                    && a.charAt(i) == b.charAt(i + 1)
+                    && a.charAt(i + 1) == b.charAt(i)
+                    && a.substring(i + 2).equals(b.substring(i + 2));
+        }
+        String largo = a.length() > b.length() ? a : b;
+        String corto = a.length() > b.length() ? b : a;
+        return largo.substring(i + 1).equals(corto.substring(i));
+    }
+
+    @AllArgsConstructor
+    private static final class DocumentoIndexado {
+        private final Set<String> terminosTitulo;
+        private final Set<String> terminosAutor;
+
+        private Set<String> terminos() {
+            Set<String> todos = new HashSet<>(terminosTitulo);
+            todos.addAll(terminosAutor);
+            return todos;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class ResultadoIndice {
+        private final List<Long> ids;
+        private final long total;
+    }
+}
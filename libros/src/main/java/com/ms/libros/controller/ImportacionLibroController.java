@@ -0,0 +1,62 @@
+package com.ms.libros.controller;
+
+import com.ms.libros.dto.FormatoImportacion;
+import com.ms.libros.dto.ReporteImportacionDTO;
+import com.ms.libros.exception.ImportacionInvalidaException;
+import com.ms.libros.service.IImportacionLibroService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/libros")
+@Tag(name = "Libros", description = "Operaciones CRUD para la gestión de libros.")
+public class ImportacionLibroController {
+
+    private final IImportacionLibroService service;
+
+    @Autowired
+    public ImportacionLibroController(IImportacionLibroService service) {
+        this.service = service;
+    }
+
+    @Operation(
+            summary = "Importar catálogo desde CSV",
+            description = "Procesa el archivo fila por fila (encabezado: titulo,autor,isbn,ejemplaresDisponibles) guardando por lotes. Las filas inválidas o con ISBN existente se informan en el reporte sin detener la importación."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importación finalizada con su reporte por fila.",
+                    content = @Content(schema = @Schema(implementation = ReporteImportacionDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Encabezado CSV inválido.")
+    })
+
+    @PostMapping(value = "importar", consumes = "text/csv")
+    @ResponseStatus(HttpStatus.OK)
+    public ReporteImportacionDTO importarCsv(InputStream contenido) throws IOException, ImportacionInvalidaException {
+        return service.importar(contenido, FormatoImportacion.CSV);
+    }
+
+    @Operation(
+            summary = "Importar catálogo desde NDJSON",
+            description = "Procesa un libro JSON por línea guardando por lotes. Las filas inválidas o con ISBN existente se informan en el reporte sin detener la importación."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importación finalizada con su reporte por fila.",
+                    content = @Content(schema = @Schema(implementation = ReporteImportacionDTO.class)))
+    })
+
+    @PostMapping(value = "importar", consumes = "application/x-ndjson")
+    @ResponseStatus(HttpStatus.OK)
+    public ReporteImportacionDTO importarNdjson(InputStream contenido) throws IOException, ImportacionInvalidaException {
+        return service.importar(contenido, FormatoImportacion.NDJSON);
+    }
+}
@@ -1,5 +1,8 @@
 package com.ms.libros.controller;
 
+import com.ms.libros.dto.ResultadoBusquedaDTO;
+import com.ms.libros.dto.ResultadoStockDTO;
+import com.ms.libros.exception.IndiceNoDisponibleException;
 import com.ms.libros.exception.IsbnExistenteException;
 import com.ms.libros.exception.LibroNoEncontradoException;
 import com.ms.libros.model.Libro;
@@ -12,6 +15,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
@@ -22,6 +30,8 @@ import java.util.List;
 @Tag(name = "Libros", description = "Operaciones CRUD para la gestión de libros.")
 public class LibroController {
 
+    private static final int TAMANIO_MAXIMO_LOTE = 1000;
+
     private final ILibroService service;
 
     @Autowired
@@ -46,6 +56,22 @@ public class LibroController {
         return service.save(libro);
     }
 
+    @Operation(
+            summary = "Crear libros por lote",
+            description = "Registra un lote de hasta " + TAMANIO_MAXIMO_LOTE + " libros en una única transacción con inserciones por lotes y retorna los IDs generados, en el mismo orden del lote. Retorna 400 si algún ISBN está repetido o ya registrado, sin guardar ninguno."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Libros creados exitosamente.",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = Long.class)))),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos, lote vacío o mayor a " + TAMANIO_MAXIMO_LOTE + " libros, o ISBN repetido/existente.")
+    })
+
+    @PostMapping("lote")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<Long> createLibros(@RequestBody @NotEmpty @Size(max = TAMANIO_MAXIMO_LOTE) List<@Valid Libro> libros) throws IsbnExistenteException {
+        return service.saveAll(libros);
+    }
+
     @Operation(
             summary = "Obtener todos los libros",
             description = "Retorna una lista de todos los libros registrados en el sistema."
@@ -59,6 +85,38 @@ public class LibroController {
         return service.getAll();
     }
 
+    @Operation(
+            summary = "Obtener libros por lote de IDs",
+            description = "Retorna los libros cuyos IDs se indican en el parámetro 'ids'. Los IDs inexistentes se omiten."
+    )
+    @ApiResponse(responseCode = "200", description = "Lista de libros obtenida exitosamente.",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = Libro.class))))
+
+    @GetMapping(params = "ids")
+    @ResponseStatus(HttpStatus.OK)
+    public List<Libro> getLibrosByIds(@RequestParam List<Long> ids) {
+        return service.findAllById(ids);
+    }
+
+    @Operation(
+            summary = "Buscar libros por título o autor",
+            description = "Búsqueda por palabras sobre título y autor, insensible a acentos y mayúsculas, con coincidencia por prefijo y tolerancia a un error de tipeo. Los resultados se ordenan por relevancia y se paginan."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de resultados ordenados por relevancia.",
+                    content = @Content(schema = @Schema(implementation = ResultadoBusquedaDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Consulta vacía o parámetros de paginación inválidos."),
+            @ApiResponse(responseCode = "503", description = "El índice de búsqueda todavía se está cargando.")
+    })
+
+    @GetMapping("buscar")
+    @ResponseStatus(HttpStatus.OK)
+    public ResultadoBusquedaDTO buscarLibros(@RequestParam @NotBlank String q,
+                                             @RequestParam(defaultValue = "0") @Min(0) int pagina,
+                                             @RequestParam(defaultValue = "20") @Min(1) @Max(100) int tamanio) throws IndiceNoDisponibleException {
+        return service.buscar(q, pagina, tamanio);
+    }
+
     @Operation(
             summary = "Buscar libro por ID",
             description = "Retorna un libro específico por su ID."
@@ -108,4 +166,40 @@ public class LibroController {
     public void deleteLibroById(@PathVariable Long id) throws LibroNoEncontradoException {
         service.deleteById(id);
     }
+
+    @Operation(
+            summary = "Reservar un ejemplar",
+            description = "Descuenta atómicamente un ejemplar del stock si hay disponibles. El campo 'exitoso' indica si se pudo reservar o si el libro no tiene stock. Si se envía el encabezado 'Idempotency-Key', repetir la operación con la misma clave no vuelve a descontar el stock."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resultado de la reserva (exitosa o sin stock).",
+                    content = @Content(schema = @Schema(implementation = ResultadoStockDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Libro no encontrado (ID inexistente).")
+    })
+
+    @PostMapping("{id}/stock/reservar")
+    @ResponseStatus(HttpStatus.OK)
+    public ResultadoStockDTO reservarEjemplar(@PathVariable Long id,
+                                              @RequestHeader(value = "Idempotency-Key", required = false) @Size(max = 255) String claveOperacion)
+            throws LibroNoEncontradoException {
+        return service.reservarEjemplar(id, claveOperacion);
+    }
+
+    @Operation(
+            summary = "Liberar un ejemplar",
+            description = "Incrementa atómicamente en uno el stock de ejemplares disponibles. Si se envía el encabezado 'Idempotency-Key', repetir la operación con la misma clave no vuelve a incrementar el stock."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ejemplar liberado exitosamente.",
+                    content = @Content(schema = @Schema(implementation = ResultadoStockDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Libro no encontrado (ID inexistente).")
+    })
+
+    @PostMapping("{id}/stock/liberar")
+    @ResponseStatus(HttpStatus.OK)
+    public ResultadoStockDTO liberarEjemplar(@PathVariable Long id,
+                                             @RequestHeader(value = "Idempotency-Key", required = false) @Size(max = 255) String claveOperacion)
+            throws LibroNoEncontradoException {
+        return service.liberarEjemplar(id, claveOperacion);
+    }
 }
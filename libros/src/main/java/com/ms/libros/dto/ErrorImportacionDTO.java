@@ -0,0 +1,14 @@
+package com.ms.libros.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorImportacionDTO {
+    private long fila;
+    private String isbn;
+    private String motivo;
+}
@@ -0,0 +1,6 @@
+package com.ms.libros.dto;
+
+public enum FormatoImportacion {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,18 @@
+package com.ms.libros.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReporteImportacionDTO {
+    private long filasProcesadas;
+    private long importados;
+    private long rechazados;
+    private List<ErrorImportacionDTO> errores = new ArrayList<>();
+}
@@ -0,0 +1,18 @@
+package com.ms.libros.dto;
+
+import com.ms.libros.model.Libro;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoBusquedaDTO {
+    private List<Libro> contenido;
+    private int pagina;
+    private int tamanio;
+    private long totalResultados;
+}
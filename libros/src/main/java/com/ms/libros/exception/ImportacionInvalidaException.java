@@ -0,0 +1,7 @@
+package com.ms.libros.exception;
+
+public class ImportacionInvalidaException extends Exception{
+    public ImportacionInvalidaException(String message) {
+        super(message);
+    }
+}
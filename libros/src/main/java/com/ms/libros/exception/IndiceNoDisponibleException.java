@@ -0,0 +1,7 @@
+package com.ms.libros.exception;
+
+public class IndiceNoDisponibleException extends Exception{
+    public IndiceNoDisponibleException(String message) {
+        super(message);
+    }
+}
@@ -1,14 +1,20 @@
 package com.ms.libros.exception.handler;
 
+import com.ms.libros.exception.ImportacionInvalidaException;
+import com.ms.libros.exception.IndiceNoDisponibleException;
 import com.ms.libros.exception.IsbnExistenteException;
 import com.ms.libros.exception.LibroNoEncontradoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.validation.method.ParameterErrors;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -16,6 +22,7 @@ import java.util.Map;
 public class GlobalExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+    private static final String SEGUNDOS_REINTENTO_INDICE = "5";
 
     @ExceptionHandler(LibroNoEncontradoException.class)
     public ResponseEntity<String> handleLibroNoEncontrado(LibroNoEncontradoException ex) {
@@ -29,6 +36,20 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(ImportacionInvalidaException.class)
+    public ResponseEntity<String> handleImportacionInvalida(ImportacionInvalidaException ex) {
+        log.warn("Petición fallida: Importación inválida. Motivo {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(IndiceNoDisponibleException.class)
+    public ResponseEntity<String> handleIndiceNoDisponible(IndiceNoDisponibleException ex) {
+        log.warn("Petición fallida: Índice no disponible. Motivo {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, SEGUNDOS_REINTENTO_INDICE)
+                .body(ex.getMessage());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public Map<String, String> handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
@@ -38,4 +59,25 @@ public class GlobalExceptionHandler {
         return errors;
     }
 
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleMethodValidationExceptions(HandlerMethodValidationException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getParameterValidationResults().forEach(result -> {
+            String prefijo = result.getContainerIndex() != null
+                    ? "[" + result.getContainerIndex() + "]"
+                    : result.getMethodParameter().getParameterName();
+            if (result instanceof ParameterErrors parameterErrors) {
+                parameterErrors.getFieldErrors().forEach(
+                        error -> errors.put(prefijo + "." + error.getField(), error.getDefaultMessage())
+                );
+            } else {
+                result.getResolvableErrors().forEach(
+                        error -> errors.put(prefijo, error.getDefaultMessage())
+                );
+            }
+        });
+        return errors;
+    }
+
 }
\ No newline at end of file
@@ -12,10 +12,14 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = Libro.RESTRICCION_ISBN_UNICO, columnNames = "isbn"))
 public class Libro {
 
+    public static final String RESTRICCION_ISBN_UNICO = "uk_libro_isbn";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "libro_seq")
+    @SequenceGenerator(name = "libro_seq", sequenceName = "libro_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El título no puede estar vacío.")
@@ -26,7 +30,7 @@ public class Libro {
     @Size(min = 2, max = 80, message = "El autor debe tener entre 2 y 80 caracteres.")
     private String autor;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     @NotBlank(message = "El ISBN no puede estar vacío.")
     @Size(min = 10, max = 20, message = "El ISBN debe tener entre 10 y 20 caracteres.")
     private String isbn;
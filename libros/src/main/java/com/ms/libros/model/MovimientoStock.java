@@ -0,0 +1,34 @@
+package com.ms.libros.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "movimiento_stock",
+        uniqueConstraints = @UniqueConstraint(name = "uk_movimiento_stock_clave", columnNames = "clave"),
+        indexes = @Index(name = "idx_movimiento_stock_fecha", columnList = "fecha"))
+public class MovimientoStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimiento_stock_seq")
+    @SequenceGenerator(name = "movimiento_stock_seq", sequenceName = "movimiento_stock_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String clave;
+
+    @Column(nullable = false)
+    private Long idLibro;
+
+    private boolean exitoso;
+
+    @Column(nullable = false)
+    private Instant fecha;
+}
@@ -1,10 +1,29 @@
 package com.ms.libros.repository;
 
 import com.ms.libros.model.Libro;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ILibroRepository extends JpaRepository<Libro,  Long> {
-    boolean existsByIsbn(String isbn);
+    @Query("SELECT l.isbn FROM Libro l WHERE l.isbn IN :isbns")
+    List<String> findIsbnsExistentes(@Param("isbns") Collection<String> isbns);
+
+    Slice<Libro> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Libro l SET l.ejemplaresDisponibles = l.ejemplaresDisponibles - 1 WHERE l.id = :id AND l.ejemplaresDisponibles > 0")
+    int reservarEjemplar(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Libro l SET l.ejemplaresDisponibles = l.ejemplaresDisponibles + 1 WHERE l.id = :id")
+    int liberarEjemplar(@Param("id") Long id);
 }
@@ -0,0 +1,21 @@
+package com.ms.libros.repository;
+
+import com.ms.libros.model.MovimientoStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface IMovimientoStockRepository extends JpaRepository<MovimientoStock, Long> {
+
+    Optional<MovimientoStock> findByClave(String clave);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM MovimientoStock m WHERE m.fecha < :limite")
+    int eliminarAnteriores(@Param("limite") Instant limite);
+}
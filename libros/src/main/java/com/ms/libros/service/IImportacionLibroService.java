@@ -0,0 +1,13 @@
+package com.ms.libros.service;
+
+import com.ms.libros.dto.FormatoImportacion;
+import com.ms.libros.dto.ReporteImportacionDTO;
+import com.ms.libros.exception.ImportacionInvalidaException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface IImportacionLibroService {
+
+    ReporteImportacionDTO importar(InputStream contenido, FormatoImportacion formato) throws IOException, ImportacionInvalidaException;
+}
@@ -1,16 +1,25 @@
 package com.ms.libros.service;
 
+import com.ms.libros.dto.ResultadoBusquedaDTO;
+import com.ms.libros.dto.ResultadoStockDTO;
+import com.ms.libros.exception.IndiceNoDisponibleException;
 import com.ms.libros.exception.IsbnExistenteException;
 import com.ms.libros.exception.LibroNoEncontradoException;
 import com.ms.libros.model.Libro;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ILibroService {
 
     Libro save(Libro libro) throws IsbnExistenteException;
+    List<Long> saveAll(List<Libro> libros) throws IsbnExistenteException;
     List<Libro> getAll();
+    List<Libro> findAllById(Collection<Long> ids);
+    ResultadoBusquedaDTO buscar(String consulta, int pagina, int tamanio) throws IndiceNoDisponibleException;
     Libro findById(Long id) throws LibroNoEncontradoException;
     Libro update(Libro libro) throws LibroNoEncontradoException, IsbnExistenteException;
     void deleteById(Long id) throws LibroNoEncontradoException;
+    ResultadoStockDTO reservarEjemplar(Long id, String claveOperacion) throws LibroNoEncontradoException;
+    ResultadoStockDTO liberarEjemplar(Long id, String claveOperacion) throws LibroNoEncontradoException;
 }
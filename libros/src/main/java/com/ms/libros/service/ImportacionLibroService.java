@@ -0,0 +1,185 @@
+package com.ms.libros.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.ms.libros.dto.ErrorImportacionDTO;
+import com.ms.libros.dto.FormatoImportacion;
+import com.ms.libros.dto.ReporteImportacionDTO;
+import com.ms.libros.exception.ImportacionInvalidaException;
+import com.ms.libros.model.Libro;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class ImportacionLibroService implements IImportacionLibroService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportacionLibroService.class);
+    private static final List<String> COLUMNAS_CSV = List.of("titulo", "autor", "isbn", "ejemplaresDisponibles");
+    private static final int MAX_ERRORES_REPORTADOS = 1000;
+
+    private final ImportadorLoteLibros importador;
+    private final Validator validator;
+    private final ObjectReader lectorNdjson;
+    private final int tamanioLote;
+
+    @Autowired
+    public ImportacionLibroService(ImportadorLoteLibros importador, Validator validator, ObjectMapper objectMapper,
+                                   @Value("${libros.importacion.tamanio-lote:500}") int tamanioLote) {
+        this.importador = importador;
+        this.validator = validator;
+        this.lectorNdjson = objectMapper.readerFor(Libro.class);
+        this.tamanioLote = tamanioLote;
+    }
+
+    @Override
+    public ReporteImportacionDTO importar(InputStream contenido, FormatoImportacion formato) throws IOException, ImportacionInvalidaException {
+        ReporteImportacionDTO reporte = new ReporteImportacionDTO();
+        Map<Long, Libro> lote = new LinkedHashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(contenido, StandardCharsets.UTF_8));
+        long fila = 0;
+        String linea;
+
+        if (formato == FormatoImportacion.CSV) {
+            fila++;
+            validateEncabezadoCsv(reader.readLine());
+        }
+        while ((linea = reader.readLine()) != null) {
+            fila++;
+            if (linea.isBlank()) {
+                continue;
+            }
+            reporte.setFilasProcesadas(reporte.getFilasProcesadas() + 1);
+            try {
+                Libro libro = formato == FormatoImportacion.CSV ? parseCsv(linea) : parseNdjson(linea);
+                String motivo = validateLibro(libro);
+                if (motivo != null) {
+                    registrarError(reporte, new ErrorImportacionDTO(fila, libro.getIsbn(), motivo));
+                    continue;
+                }
+                lote.put(fila, libro);
+            } catch (IllegalArgumentException ex) {
+                registrarError(reporte, new ErrorImportacionDTO(fila, null, ex.getMessage()));
+            }
+            if (lote.size() >= tamanioLote) {
+                guardarLote(lote, reporte);
+            }
+        }
+        guardarLote(lote, reporte);
+        log.info("Importación finalizada: {} filas procesadas, {} libros importados, {} rechazados",
+                reporte.getFilasProcesadas(), reporte.getImportados(), reporte.getRechazados());
+        return reporte;
+    }
+
+    private void guardarLote(Map<Long, Libro> lote, ReporteImportacionDTO reporte) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        try {
+            List<ErrorImportacionDTO> errores = importador.guardarLote(lote);
+            reporte.setImportados(reporte.getImportados() + lote.size() - errores.size());
+            errores.forEach(error -> registrarError(reporte, error));
+        } catch (DataAccessException ex) {
+            log.error("Falló el guardado del lote que inicia en la fila {}. Motivo: {}", lote.keySet().iterator().next(), ex.getMessage());
+            lote.forEach((fila, libro) -> registrarError(reporte,
+                    new ErrorImportacionDTO(fila, libro.getIsbn(), "No se pudo guardar el lote de la fila.")));
+        }
+        lote.clear();
+    }
+
+    private void registrarError(ReporteImportacionDTO reporte, ErrorImportacionDTO error) {
+        reporte.setRechazados(reporte.getRechazados() + 1);
+        if (reporte.getErrores().size() < MAX_ERRORES_REPORTADOS) {
+            reporte.getErrores().add(error);
+        }
+    }
+
+    private String validateLibro(Libro libro) {
+        Set<ConstraintViolation<Libro>> violaciones = validator.validate(libro);
+        if (violaciones.isEmpty()) {
+            return null;
+        }
+        return violaciones.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(" "));
+    }
+
+    private void validateEncabezadoCsv(String encabezado) throws ImportacionInvalidaException {
+        if (encabezado == null || !parseColumnasCsv(encabezado).equals(COLUMNAS_CSV)) {
+            log.warn("Importación rechazada: encabezado CSV inválido");
+            throw new ImportacionInvalidaException("El encabezado CSV debe ser: " + String.join(",", COLUMNAS_CSV));
+        }
+    }
+
+    private Libro parseCsv(String linea) {
+        List<String> columnas = parseColumnasCsv(linea);
+        if (columnas.size() != COLUMNAS_CSV.size()) {
+            throw new IllegalArgumentException("Se esperaban " + COLUMNAS_CSV.size() + " columnas y se recibieron " + columnas.size() + ".");
+        }
+        try {
+            return new Libro(null, columnas.get(0), columnas.get(1), columnas.get(2), Integer.parseInt(columnas.get(3)));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("La cantidad de ejemplares debe ser un número entero.");
+        }
+    }
+
+    private List<String> parseColumnasCsv(String linea) {
+        List<String> columnas = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                columnas.add(actual.toString().trim());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("La fila tiene comillas sin cerrar.");
+        }
+        columnas.add(actual.toString().trim());
+        return columnas;
+    }
+
+    private Libro parseNdjson(String linea) {
+        try {
+            Libro libro = lectorNdjson.readValue(linea);
+            libro.setId(null);
+            return libro;
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("JSON inválido: " + ex.getOriginalMessage());
+        }
+    }
+}
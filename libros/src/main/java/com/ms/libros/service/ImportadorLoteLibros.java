@@ -0,0 +1,56 @@
+package com.ms.libros.service;
+
+import com.ms.libros.busqueda.IndiceLibros;
+import com.ms.libros.dto.ErrorImportacionDTO;
+import com.ms.libros.model.Libro;
+import com.ms.libros.repository.ILibroRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+public class ImportadorLoteLibros {
+
+    private final ILibroRepository repository;
+    private final EntityManager entityManager;
+    private final IndiceLibros indice;
+
+    @Autowired
+    public ImportadorLoteLibros(ILibroRepository repository, EntityManager entityManager, IndiceLibros indice) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.indice = indice;
+    }
+
+    @Transactional
+    public List<ErrorImportacionDTO> guardarLote(Map<Long, Libro> librosPorFila) {
+        Set<String> existentes = new HashSet<>(repository.findIsbnsExistentes(
+                librosPorFila.values().stream().map(Libro::getIsbn).toList()));
+        Set<String> vistos = new HashSet<>();
+        List<Libro> nuevos = new ArrayList<>(librosPorFila.size());
+        List<ErrorImportacionDTO> errores = new ArrayList<>();
+
+        librosPorFila.forEach((fila, libro) -> {
+            if (existentes.contains(libro.getIsbn())) {
+                errores.add(new ErrorImportacionDTO(fila, libro.getIsbn(), "El ISBN ya está registrado en otro libro."));
+            } else if (!vistos.add(libro.getIsbn())) {
+                errores.add(new ErrorImportacionDTO(fila, libro.getIsbn(), "El ISBN está repetido en la importación."));
+            } else {
+                nuevos.add(libro);
+            }
+        });
+
+        repository.saveAll(nuevos);
+        repository.flush();
+        indice.indexar(nuevos);
+        entityManager.clear();
+        return errores;
+    }
+}
@@ -1,34 +1,133 @@
 package com.ms.libros.service;
 
+import com.ms.libros.busqueda.IndiceLibros;
+import com.ms.libros.dto.ResultadoBusquedaDTO;
+import com.ms.libros.dto.ResultadoStockDTO;
+import com.ms.libros.exception.IndiceNoDisponibleException;
 import com.ms.libros.exception.IsbnExistenteException;
 import com.ms.libros.exception.LibroNoEncontradoException;
 import com.ms.libros.model.Libro;
+import com.ms.libros.model.MovimientoStock;
 import com.ms.libros.repository.ILibroRepository;
+import com.ms.libros.repository.IMovimientoStockRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class LibroService implements ILibroService {
 
     private final ILibroRepository repository;
+    private final IMovimientoStockRepository movimientoRepository;
+    private final IndiceLibros indice;
+    private final EntityManager entityManager;
+    private final int tamanioLoteEscritura;
+    private final Duration retencionMovimientos;
     private static final Logger log = LoggerFactory.getLogger(LibroService.class);
+    private static final int TAMANIO_LOTE_CONSULTA = 1000;
 
     @Autowired
-    public LibroService(ILibroRepository repository) {
+    public LibroService(ILibroRepository repository, IMovimientoStockRepository movimientoRepository,
+                        IndiceLibros indice, EntityManager entityManager,
+                        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int tamanioLoteEscritura,
+                        @Value("${libros.stock.retencion-movimientos:7d}") Duration retencionMovimientos) {
         this.repository = repository;
+        this.movimientoRepository = movimientoRepository;
+        this.indice = indice;
+        this.entityManager = entityManager;
+        this.tamanioLoteEscritura = tamanioLoteEscritura;
+        this.retencionMovimientos = retencionMovimientos;
     }
 
     @Override
     public Libro save(Libro libro) throws IsbnExistenteException {
-        if(repository.existsByIsbn(libro.getIsbn())) {
+        log.info("Libro guardando...");
+        return saveValidandoIsbn(libro);
+    }
+
+    private Libro saveValidandoIsbn(Libro libro) throws IsbnExistenteException {
+        try {
+            Libro guardado = repository.saveAndFlush(libro);
+            indice.indexar(guardado);
+            return guardado;
+        } catch (DataIntegrityViolationException ex) {
+            if (!esIsbnDuplicado(ex)) {
+                throw ex;
+            }
             log.warn("Libro no puede ser guardado");
             throw new IsbnExistenteException("El ISBN " + libro.getIsbn() + " ya está registrado en otro libro. ");
         }
-        log.info("Libro guardando...");
-        return repository.save(libro);
+    }
+
+    @Override
+    @Transactional(rollbackOn = IsbnExistenteException.class)
+    public List<Long> saveAll(List<Libro> libros) throws IsbnExistenteException {
+        validateIsbnsUnicos(libros);
+        libros.forEach(libro -> libro.setId(null));
+        log.info("Guardando lote de {} libros...", libros.size());
+        List<Long> ids = new ArrayList<>(libros.size());
+        try {
+            for (int desde = 0; desde < libros.size(); desde += tamanioLoteEscritura) {
+                List<Libro> bloque = libros.subList(desde, Math.min(desde + tamanioLoteEscritura, libros.size()));
+                repository.saveAll(bloque);
+                repository.flush();
+                indice.indexar(bloque);
+                bloque.forEach(libro -> ids.add(libro.getId()));
+                entityManager.clear();
+            }
+            return ids;
+        } catch (DataIntegrityViolationException ex) {
+            if (!esIsbnDuplicado(ex)) {
+                throw ex;
+            }
+            log.warn("Lote de libros no puede ser guardado");
+            throw new IsbnExistenteException("Algún ISBN del lote ya está registrado en otro libro. ");
+        }
+    }
+
+    private static boolean esIsbnDuplicado(DataIntegrityViolationException ex) {
+        return ex.getCause() instanceof ConstraintViolationException violacion
+                && violacion.getConstraintName() != null
+                && violacion.getConstraintName().toLowerCase(Locale.ROOT).contains(Libro.RESTRICCION_ISBN_UNICO);
+    }
+
+    private void validateIsbnsUnicos(List<Libro> libros) throws IsbnExistenteException {
+        Set<String> isbns = new HashSet<>();
+        for (Libro libro : libros) {
+            if (!isbns.add(libro.getIsbn())) {
+                log.warn("Lote de libros no puede ser guardado");
+                throw new IsbnExistenteException("El ISBN " + libro.getIsbn() + " está repetido en el lote. ");
+            }
+        }
+        List<String> pendientes = new ArrayList<>(isbns);
+        for (int desde = 0; desde < pendientes.size(); desde += TAMANIO_LOTE_CONSULTA) {
+            List<String> existentes = repository.findIsbnsExistentes(
+                    pendientes.subList(desde, Math.min(desde + TAMANIO_LOTE_CONSULTA, pendientes.size())));
+            if (!existentes.isEmpty()) {
+                log.warn("Lote de libros no puede ser guardado");
+                throw new IsbnExistenteException("Los ISBN " + existentes + " ya están registrados en otros libros. ");
+            }
+        }
     }
 
     @Override
@@ -36,6 +135,28 @@ public class LibroService implements ILibroService {
         return repository.findAll();
     }
 
+    @Override
+    public List<Libro> findAllById(Collection<Long> ids) {
+        return repository.findAllById(ids);
+    }
+
+    @Override
+    public ResultadoBusquedaDTO buscar(String consulta, int pagina, int tamanio) throws IndiceNoDisponibleException {
+        if (!indice.isCargado()) {
+            log.warn("Búsqueda '{}' rechazada: el índice todavía se está cargando", consulta);
+            throw new IndiceNoDisponibleException("El índice de búsqueda se está cargando, reintente en unos segundos.");
+        }
+        IndiceLibros.ResultadoIndice resultado = indice.buscar(consulta, pagina, tamanio);
+        Map<Long, Libro> librosPorId = repository.findAllById(resultado.getIds()).stream()
+                .collect(Collectors.toMap(Libro::getId, Function.identity()));
+        List<Libro> contenido = resultado.getIds().stream()
+                .map(librosPorId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        log.info("Búsqueda '{}' retornó {} resultados", consulta, resultado.getTotal());
+        return new ResultadoBusquedaDTO(contenido, pagina, tamanio, resultado.getTotal());
+    }
+
     @Override
     public Libro findById(Long id) throws LibroNoEncontradoException {
         return repository.findById(id).orElseThrow(()->{
@@ -45,18 +166,16 @@ public class LibroService implements ILibroService {
     }
 
     @Override
+    @Transactional(rollbackOn = IsbnExistenteException.class)
     public Libro update(Libro newLibro) throws LibroNoEncontradoException, IsbnExistenteException {
         Libro updateLibro = findById(newLibro.getId());
 
-        if(!updateLibro.getIsbn().equals(newLibro.getIsbn()) && repository.existsByIsbn(newLibro.getIsbn())) {
-            throw new IsbnExistenteException("El ISBN " + newLibro.getIsbn() + " ya está registrado en otro libro. ");
-        }
         updateLibro.setTitulo(newLibro.getTitulo());
         updateLibro.setAutor(newLibro.getAutor());
         updateLibro.setIsbn(newLibro.getIsbn());
         updateLibro.setEjemplaresDisponibles(newLibro.getEjemplaresDisponibles());
         log.info("Actualizando el libro con ID: {}", updateLibro.getId());
-        return repository.save(updateLibro);
+        return saveValidandoIsbn(updateLibro);
     }
 
     @Override
@@ -64,5 +183,59 @@ public class LibroService implements ILibroService {
         findById(id);
         log.info("Eliminado el libro con ID: {}", id);
         repository.deleteById(id);
+        indice.eliminar(id);
+    }
+
+    @Override
+    @Transactional
+    public ResultadoStockDTO reservarEjemplar(Long id, String claveOperacion) throws LibroNoEncontradoException {
+        Optional<MovimientoStock> aplicado = buscarMovimiento(claveOperacion);
+        if (aplicado.isPresent()) {
+            log.info("La reserva con clave {} ya fue aplicada al libro con ID: {}", claveOperacion, id);
+            return new ResultadoStockDTO(id, aplicado.get().isExitoso(), findById(id).getEjemplaresDisponibles());
+        }
+        boolean reservado = repository.reservarEjemplar(id) > 0;
+        Libro libro = findById(id);
+        if (reservado) {
+            log.info("Ejemplar reservado para el libro con ID: {}", id);
+        } else {
+            log.warn("El libro con ID {} no tiene ejemplares disponibles", id);
+        }
+        registrarMovimiento(claveOperacion, id, reservado);
+        return new ResultadoStockDTO(id, reservado, libro.getEjemplaresDisponibles());
+    }
+
+    @Override
+    @Transactional
+    public ResultadoStockDTO liberarEjemplar(Long id, String claveOperacion) throws LibroNoEncontradoException {
+        if (buscarMovimiento(claveOperacion).isPresent()) {
+            log.info("La liberación con clave {} ya fue aplicada al libro con ID: {}", claveOperacion, id);
+            return new ResultadoStockDTO(id, true, findById(id).getEjemplaresDisponibles());
+        }
+        if (repository.liberarEjemplar(id) == 0) {
+            log.warn("No se encontró el libro con ID: {}", id);
+            throw new LibroNoEncontradoException("El libro con ID " + id + " no existe");
+        }
+        Libro libro = findById(id);
+        log.info("Ejemplar liberado para el libro con ID: {}", id);
+        registrarMovimiento(claveOperacion, id, true);
+        return new ResultadoStockDTO(id, true, libro.getEjemplaresDisponibles());
+    }
+
+    @Scheduled(cron = "${libros.stock.purga-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgarMovimientosVencidos() {
+        int eliminados = movimientoRepository.eliminarAnteriores(Instant.now().minus(retencionMovimientos));
+        log.info("Se eliminaron {} movimientos de stock vencidos", eliminados);
+    }
+
+    private Optional<MovimientoStock> buscarMovimiento(String claveOperacion) {
+        return claveOperacion == null ? Optional.empty() : movimientoRepository.findByClave(claveOperacion);
+    }
+
+    private void registrarMovimiento(String claveOperacion, Long id, boolean exitoso) {
+        if (claveOperacion != null) {
+            movimientoRepository.saveAndFlush(new MovimientoStock(null, claveOperacion, id, exitoso, Instant.now()));
+        }
     }
 }
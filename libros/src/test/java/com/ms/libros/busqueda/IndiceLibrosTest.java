@@ -0,0 +1,144 @@
+package com.ms.libros.busqueda;
+
+import com.ms.libros.model.Libro;
+import com.ms.libros.repository.ILibroRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas del índice de búsqueda de Libros")
+class IndiceLibrosTest {
+
+    @InjectMocks
+    private IndiceLibros indice;
+
+    @Mock
+    private ILibroRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        indice.indexar(new Libro(1L, "Cien años de soledad", "Gabriel García Márquez", "978-0-0000-0001-1", 3));
+        indice.indexar(new Libro(2L, "El amor en los tiempos del cólera", "Gabriel García Márquez", "978-0-0000-0002-2", 1));
+        indice.indexar(new Libro(3L, "Rayuela", "Julio Cortázar", "978-0-0000-0003-3", 2));
+        indice.indexar(new Libro(4L, "Gabriela, clavo y canela", "Jorge Amado", "978-0-0000-0004-4", 2));
+    }
+
+    @Test
+    @DisplayName("Debe encontrar libros ignorando acentos y mayúsculas")
+    void buscar_AccentInsensitive_ReturnsMatches() {
+        IndiceLibros.ResultadoIndice resultado = indice.buscar("CORTAZAR", 0, 10);
+
+        assertEquals(List.of(3L), resultado.getIds());
+    }
+
+    @Test
+    @DisplayName("Debe encontrar libros por prefijo de palabra")
+    void buscar_Prefix_ReturnsMatches() {
+        IndiceLibros.ResultadoIndice resultado = indice.buscar("sole", 0, 10);
+
+        assertEquals(List.of(1L), resultado.getIds());
+    }
+
+    @Test
+    @DisplayName("Debe tolerar un error de tipeo en la consulta")
+    void buscar_Typo_ReturnsMatches() {
+        IndiceLibros.ResultadoIndice resultado = indice.buscar("rayeula", 0, 10);
+
+        assertEquals(List.of(3L), resultado.getIds());
+    }
+
+    @Test
+    @DisplayName("Debe exigir que todas las palabras coincidan")
+    void buscar_MultipleTokens_IntersectsResults() {
+        IndiceLibros.ResultadoIndice resultado = indice.buscar("garcia colera", 0, 10);
+
+        assertEquals(List.of(2L), resultado.getIds());
+    }
+
+    @Test
+    @DisplayName("Debe priorizar coincidencias exactas en el título por sobre el autor y los prefijos")
+    void buscar_RanksTitleMatchesFirst() {
+        IndiceLibros.ResultadoIndice resultado = indice.buscar("gabriela", 0, 10);
+
+        assertEquals(4L, resultado.getIds().get(0), "La coincidencia exacta en el título debe ir primero.");
+        assertEquals(3, resultado.getTotal(), "Gabriel debe coincidir por tolerancia a errores.");
+    }
+
+    @Test
+    @DisplayName("Debe paginar los resultados conservando el total")
+    void buscar_Pagination_ReturnsRequestedPage() {
+        IndiceLibros.ResultadoIndice primera = indice.buscar("gabriel", 0, 1);
+        IndiceLibros.ResultadoIndice segunda = indice.buscar("gabriel", 1, 1);
+
+        assertEquals(1, primera.getIds().size());
+        assertEquals(1, segunda.getIds().size());
+        assertNotEquals(primera.getIds(), segunda.getIds());
+        assertEquals(primera.getTotal(), segunda.getTotal());
+    }
+
+    @Test
+    @DisplayName("Debe reflejar actualizaciones y eliminaciones de libros")
+    void indexar_UpdateAndDelete_KeepsIndexInSync() {
+        indice.indexar(new Libro(3L, "Bestiario", "Julio Cortázar", "978-0-0000-0003-3", 2));
+        indice.eliminar(1L);
+
+        assertTrue(indice.buscar("rayuela", 0, 10).getIds().isEmpty(), "El título anterior no debe seguir indexado.");
+        assertEquals(List.of(3L), indice.buscar("bestiario", 0, 10).getIds());
+        assertTrue(indice.buscar("soledad", 0, 10).getIds().isEmpty());
+        assertEquals(3, indice.size());
+    }
+
+    @Test
+    @DisplayName("Debe cargar el catálogo completo recorriendo páginas por ID")
+    void cargar_LoadsAllPages() {
+        IndiceLibros vacio = new IndiceLibros(repository);
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any()))
+                .thenReturn(new SliceImpl<>(List.of(new Libro(10L, "Ficciones", "Jorge Luis Borges", "978-1-1111-1111-1", 1)), PageRequest.ofSize(1), true));
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(10L), any()))
+                .thenReturn(new SliceImpl<>(List.of(new Libro(11L, "El Aleph", "Jorge Luis Borges", "978-1-1111-1111-2", 1)), PageRequest.ofSize(1), false));
+
+        vacio.cargar();
+
+        assertEquals(2, vacio.size());
+        assertEquals(List.of(10L, 11L), vacio.buscar("borges", 0, 10).getIds());
+    }
+
+    @Test
+    @DisplayName("La carga no debe pisar un libro modificado mientras se recorría el catálogo")
+    void cargar_ConcurrentUpdate_KeepsNewerVersion() {
+        IndiceLibros vacio = new IndiceLibros(repository);
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenAnswer(invocacion -> {
+            vacio.indexar(new Libro(10L, "El Aleph", "Jorge Luis Borges", "978-1-1111-1111-1", 1));
+            return new SliceImpl<>(List.of(new Libro(10L, "Ficciones", "Jorge Luis Borges", "978-1-1111-1111-1", 1)), PageRequest.ofSize(1), false);
+        });
+
+        assertFalse(vacio.isCargado(), "El índice no debe marcarse cargado antes de terminar.");
+        vacio.cargar();
+
+        assertTrue(vacio.isCargado());
+        assertEquals(List.of(10L), vacio.buscar("aleph", 0, 10).getIds());
+        assertTrue(vacio.buscar("ficciones", 0, 10).getIds().isEmpty(), "La fila leída antes de la modificación no debe reemplazarla.");
+    }
+
+    @Test
+    @DisplayName("Debe devolver la página pedida en orden de relevancia sin ordenar todas las coincidencias")
+    void buscar_LaterPage_MatchesFullOrdering() {
+        List<Long> completa = indice.buscar("gabriel", 0, 10).getIds();
+
+        assertEquals(completa.subList(1, 2), indice.buscar("gabriel", 1, 1).getIds());
+        assertEquals(completa.subList(2, 3), indice.buscar("gabriel", 1, 2).getIds());
+        assertTrue(indice.buscar("gabriel", 5, 10).getIds().isEmpty());
+    }
+}
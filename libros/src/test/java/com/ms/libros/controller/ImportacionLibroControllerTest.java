@@ -0,0 +1,85 @@
+package com.ms.libros.controller;
+
+import com.ms.libros.dto.ErrorImportacionDTO;
+import com.ms.libros.dto.FormatoImportacion;
+import com.ms.libros.dto.ReporteImportacionDTO;
+import com.ms.libros.exception.ImportacionInvalidaException;
+import com.ms.libros.service.IImportacionLibroService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import java.util.List;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ImportacionLibroController.class)
+@DisplayName("Pruebas de la capa controller para la importación de Libros")
+class ImportacionLibroControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private IImportacionLibroService service;
+
+    @Test
+    @DisplayName("POST CSV - Debe retornar el reporte de importación con 200 OK")
+    void importarCsv_ReturnsReporte_Returns200OK() throws Exception {
+        ReporteImportacionDTO reporte = new ReporteImportacionDTO(2, 1, 1,
+                List.of(new ErrorImportacionDTO(3L, "978-0-13-235088-4", "El ISBN ya está registrado en otro libro.")));
+        given(service.importar(any(), eq(FormatoImportacion.CSV))).willReturn(reporte);
+
+        mockMvc.perform(post("/api/libros/importar")
+                        .contentType("text/csv")
+                        .content("titulo,autor,isbn,ejemplaresDisponibles\n"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importados", is(1)))
+                .andExpect(jsonPath("$.errores", hasSize(1)))
+                .andExpect(jsonPath("$.errores[0].fila", is(3)));
+    }
+
+    @Test
+    @DisplayName("POST NDJSON - Debe delegar en el servicio con formato NDJSON")
+    void importarNdjson_ReturnsReporte_Returns200OK() throws Exception {
+        given(service.importar(any(), eq(FormatoImportacion.NDJSON))).willReturn(new ReporteImportacionDTO(1, 1, 0, List.of()));
+
+        mockMvc.perform(post("/api/libros/importar")
+                        .contentType("application/x-ndjson")
+                        .content("{\"titulo\":\"Clean Code\"}\n"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filasProcesadas", is(1)));
+    }
+
+    @Test
+    @DisplayName("POST CSV - Debe retornar 400 BAD REQUEST si el encabezado es inválido")
+    void importarCsv_InvalidHeader_Returns400BadRequest() throws Exception {
+        given(service.importar(any(), eq(FormatoImportacion.CSV)))
+                .willThrow(new ImportacionInvalidaException("El encabezado CSV debe ser: titulo,autor,isbn,ejemplaresDisponibles"));
+
+        mockMvc.perform(post("/api/libros/importar")
+                        .contentType("text/csv")
+                        .content("nombre\n"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST - Debe retornar 415 si el tipo de contenido no es CSV ni NDJSON")
+    void importar_UnsupportedContentType_Returns415() throws Exception {
+        mockMvc.perform(post("/api/libros/importar")
+                        .contentType("application/xml")
+                        .content("<libros/>"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+}
@@ -1,6 +1,9 @@
 package com.ms.libros.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ms.libros.dto.ResultadoBusquedaDTO;
+import com.ms.libros.dto.ResultadoStockDTO;
+import com.ms.libros.exception.IndiceNoDisponibleException;
 import com.ms.libros.exception.IsbnExistenteException;
 import com.ms.libros.exception.LibroNoEncontradoException;
 import com.ms.libros.model.Libro;
@@ -16,12 +19,15 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -85,6 +91,54 @@ class LibroControllerTest {
         verify(service, times(1)).save(any(Libro.class));
     }
 
+    @Test
+    @DisplayName("POST lote - Debe crear los libros del lote y retornar 201 Created")
+    void createLibros_SavesBatch_Returns201Created() throws Exception {
+        List<Libro> lote = List.of(libroRequest, new Libro(null, "Refactoring", "Martin Fowler", "978-0-201-48567-7", 3));
+        given(service.saveAll(any())).willReturn(List.of(1L, 2L));
+
+        mockMvc.perform(post("/api/libros/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lote)))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1]", is(2)));
+
+        verify(service, times(1)).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("POST lote - Debe retornar 400 BAD REQUEST si el lote supera el tamaño máximo")
+    void createLibros_BatchTooLarge_Returns400BadRequest() throws Exception {
+        List<Libro> lote = IntStream.range(0, 1001)
+                .mapToObj(i -> new Libro(null, "Libro " + i, "Autor", "978-0-000-" + i, 1))
+                .toList();
+
+        mockMvc.perform(post("/api/libros/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lote)))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("POST lote - Debe retornar 400 BAD REQUEST si un libro del lote es inválido")
+    void createLibros_InvalidLibro_Returns400BadRequest() throws Exception {
+        List<Libro> lote = List.of(libroRequest, new Libro(null, "", "Autor", "978-0-201-48567-7", 3));
+
+        mockMvc.perform(post("/api/libros/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lote)))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$['[1].titulo']").exists());
+
+        verify(service, never()).saveAll(any());
+    }
+
     @Test
     @DisplayName("GET - Debe retornar una lista de Libros con 200 OK")
     void getLibros_ReturnsListOfLibros_Returns200OK() throws Exception {
@@ -102,6 +156,57 @@ class LibroControllerTest {
         verify(service, times(1)).getAll();
     }
 
+    @Test
+    @DisplayName("GET - Debe retornar los Libros del lote de IDs con 200 OK")
+    void getLibrosByIds_ReturnsListOfLibros_Returns200OK() throws Exception {
+        given(service.findAllById(List.of(1L, 2L))).willReturn(List.of(libroResponse));
+
+        ResultActions response = mockMvc.perform(get("/api/libros")
+                .param("ids", "1", "2"));
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].titulo", is("Clean Code")));
+
+        verify(service, times(1)).findAllById(List.of(1L, 2L));
+        verify(service, never()).getAll();
+    }
+
+    @Test
+    @DisplayName("GET buscar - Debe retornar la página de resultados con 200 OK")
+    void buscarLibros_ReturnsResultados_Returns200OK() throws Exception {
+        given(service.buscar("clean", 0, 20)).willReturn(new ResultadoBusquedaDTO(List.of(libroResponse), 0, 20, 1));
+
+        mockMvc.perform(get("/api/libros/buscar").param("q", "clean"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenido", hasSize(1)))
+                .andExpect(jsonPath("$.contenido[0].titulo", is("Clean Code")))
+                .andExpect(jsonPath("$.totalResultados", is(1)));
+    }
+
+    @Test
+    @DisplayName("GET buscar - Debe retornar 503 SERVICE UNAVAILABLE mientras el índice se está cargando")
+    void buscarLibros_IndexLoading_Returns503ServiceUnavailable() throws Exception {
+        given(service.buscar("clean", 0, 20)).willThrow(new IndiceNoDisponibleException("El índice de búsqueda se está cargando."));
+
+        mockMvc.perform(get("/api/libros/buscar").param("q", "clean"))
+                .andDo(print())
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    @DisplayName("GET buscar - Debe retornar 400 BAD REQUEST si el tamaño de página es inválido")
+    void buscarLibros_InvalidTamanio_Returns400BadRequest() throws Exception {
+        mockMvc.perform(get("/api/libros/buscar").param("q", "clean").param("tamanio", "1000"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).buscar(any(), anyInt(), anyInt());
+    }
+
     @Test
     @DisplayName("GET - Debe buscar el libro por ID y retornarlo con 200 OK")
     void findLibroById_ExistingId_Returns200OK() throws Exception {
@@ -207,4 +312,54 @@ class LibroControllerTest {
 
         verify(service, times(1)).deleteById(nonExistentId);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("POST - Debe reservar un ejemplar y retornar el resultado con 200 OK")
+    void reservarEjemplar_WithStock_Returns200OK() throws Exception {
+        given(service.reservarEjemplar(idExisted, null)).willReturn(new ResultadoStockDTO(idExisted, true, 4));
+
+        mockMvc.perform(post("/api/libros/{id}/stock/reservar", idExisted))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.exitoso", is(true)))
+                .andExpect(jsonPath("$.ejemplaresDisponibles", is(4)));
+
+        verify(service, times(1)).reservarEjemplar(idExisted);
+    }
+
+    @Test
+    @DisplayName("POST - Debe propagar el encabezado Idempotency-Key al reservar un ejemplar")
+    void reservarEjemplar_WithIdempotencyKey_PassesKeyToService() throws Exception {
+        given(service.reservarEjemplar(idExisted, "prestamos-evento-7")).willReturn(new ResultadoStockDTO(idExisted, true, 4));
+
+        mockMvc.perform(post("/api/libros/{id}/stock/reservar", idExisted).header("Idempotency-Key", "prestamos-evento-7"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.exitoso", is(true)));
+
+        verify(service, times(1)).reservarEjemplar(idExisted, "prestamos-evento-7");
+    }
+
+    @Test
+    @DisplayName("POST - Debe informar sin stock al reservar un libro agotado")
+    void reservarEjemplar_WithoutStock_ReturnsExitosoFalse() throws Exception {
+        given(service.reservarEjemplar(idExisted, null)).willReturn(new ResultadoStockDTO(idExisted, false, 0));
+
+        mockMvc.perform(post("/api/libros/{id}/stock/reservar", idExisted))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.exitoso", is(false)));
+    }
+
+    @Test
+    @DisplayName("POST - Debe retornar 404 NOT FOUND al liberar un ejemplar de un libro inexistente")
+    void liberarEjemplar_NonExistentId_Returns404NotFound() throws Exception {
+        Long nonExistentId = 99L;
+        given(service.liberarEjemplar(nonExistentId, null))
+                .willThrow(new LibroNoEncontradoException("El libro con ID 99 no existe"));
+
+        mockMvc.perform(post("/api/libros/{id}/stock/liberar", nonExistentId))
+                .andDo(print())
+                .andExpect(status().isNotFound());
+    }
+}
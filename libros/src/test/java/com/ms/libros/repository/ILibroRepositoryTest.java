@@ -1,11 +1,14 @@
 package com.ms.libros.repository;
 
 import com.ms.libros.model.Libro;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
 import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import java.util.List;
 import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -70,24 +73,51 @@ class ILibroRepositoryTest {
     }
 
     @Test
-    @DisplayName("existsByIsbn: Retorna TRUE si el ISBN existe en la BD")
-    void existsByIsbn_ExistingIsbn_ReturnsTrue() {
-        String isbnExisted = "978-1-2345-6789-0";
-        Libro libro = new Libro(null, "Java Ninja", "Dev Master", isbnExisted, 5);
+    @DisplayName("reservarEjemplar: Descuenta un ejemplar y no permite stock negativo")
+    void reservarEjemplar_DecrementsUntilZero() {
+        Libro libro = new Libro(null, "Libro Escaso", "Autor Y", "978-2-2222-2222-2", 1);
         entityManager.persistAndFlush(libro);
 
-        boolean isIsbnPresent = repository.existsByIsbn(isbnExisted);
+        int primeraReserva = repository.reservarEjemplar(libro.getId());
+        int segundaReserva = repository.reservarEjemplar(libro.getId());
 
-        assertTrue(isIsbnPresent, "Debe retornar true si el ISBN existe.");
+        assertEquals(1, primeraReserva, "La primera reserva debe actualizar una fila.");
+        assertEquals(0, segundaReserva, "Sin stock no se debe actualizar ninguna fila.");
+        assertEquals(0, repository.findById(libro.getId()).orElseThrow().getEjemplaresDisponibles());
     }
 
     @Test
-    @DisplayName("existsByIsbn: Retorna FALSE si el ISBN no existe en la BD")
-    void existsByIsbn_NotExistingIsbn_ReturnsFalse() {
-        String isbnNotExisted = "999-0-0000-0000-0";
+    @DisplayName("liberarEjemplar: Incrementa el stock en uno")
+    void liberarEjemplar_IncrementsStock() {
+        Libro libro = new Libro(null, "Libro Devuelto", "Autor Z", "978-3-3333-3333-3", 2);
+        entityManager.persistAndFlush(libro);
+
+        int actualizados = repository.liberarEjemplar(libro.getId());
+
+        assertEquals(1, actualizados);
+        assertEquals(3, repository.findById(libro.getId()).orElseThrow().getEjemplaresDisponibles());
+    }
+
+    @Test
+    @DisplayName("findIsbnsExistentes: Retorna solo los ISBN registrados del lote consultado")
+    void findIsbnsExistentes_ReturnsOnlyRegisteredIsbns() {
+        entityManager.persistAndFlush(new Libro(null, "Libro Registrado", "Autor W", "978-4-4444-4444-4", 1));
+
+        List<String> existentes = repository.findIsbnsExistentes(List.of("978-4-4444-4444-4", "978-5-5555-5555-5"));
+
+        assertEquals(List.of("978-4-4444-4444-4"), existentes);
+    }
+
+    @Test
+    @DisplayName("saveAndFlush: La restricción única rechaza un ISBN duplicado")
+    void saveAndFlush_DuplicateIsbn_ThrowsDataIntegrityViolation() {
+        entityManager.persistAndFlush(new Libro(null, "Original", "Autor V", "978-6-6666-6666-6", 1));
 
-        boolean isIsbnPresent = repository.existsByIsbn(isbnNotExisted);
+        DataIntegrityViolationException ex = assertThrows(DataIntegrityViolationException.class,
+                () -> repository.saveAndFlush(new Libro(null, "Copia", "Autor V", "978-6-6666-6666-6", 1)));
 
-        assertFalse(isIsbnPresent, "Debe retornar false si el ISBN no existe.");
+        ConstraintViolationException violacion = assertInstanceOf(ConstraintViolationException.class, ex.getCause());
+        assertTrue(violacion.getConstraintName().toLowerCase().contains(Libro.RESTRICCION_ISBN_UNICO),
+                "La violación debe identificar la restricción única del ISBN.");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,153 @@
+package com.ms.libros.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.ms.libros.dto.ErrorImportacionDTO;
+import com.ms.libros.dto.FormatoImportacion;
+import com.ms.libros.dto.ReporteImportacionDTO;
+import com.ms.libros.exception.ImportacionInvalidaException;
+import com.ms.libros.model.Libro;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas de la capa Service para la importación de Libros")
+class ImportacionLibroServiceTest {
+
+    @Mock
+    private ImportadorLoteLibros importador;
+
+    private ImportacionLibroService service;
+
+    private final List<Map<Long, Libro>> lotesGuardados = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        service = new ImportacionLibroService(importador, Validation.buildDefaultValidatorFactory().getValidator(),
+                JsonMapper.builder().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build(), 2);
+        lenient().when(importador.guardarLote(anyMap())).thenAnswer(invocation -> {
+            lotesGuardados.add(new LinkedHashMap<>(invocation.getArgument(0)));
+            return List.of();
+        });
+    }
+
+    private InputStream contenido(String texto) {
+        return new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("CSV: Debe importar las filas válidas en lotes del tamaño configurado")
+    void importarCsv_ValidRows_SavesInChunks() throws IOException, ImportacionInvalidaException {
+        String csv = """
+                titulo,autor,isbn,ejemplaresDisponibles
+                Clean Code,Robert C. Martin,978-0-13-235088-4,5
+                "Refactoring, 2nd Edition",Martin Fowler,978-0-13-475759-9,3
+                Domain-Driven Design,Eric Evans,978-0-32-112521-7,2
+                """;
+
+        ReporteImportacionDTO reporte = service.importar(contenido(csv), FormatoImportacion.CSV);
+
+        assertEquals(3, reporte.getFilasProcesadas());
+        assertEquals(3, reporte.getImportados());
+        assertEquals(0, reporte.getRechazados());
+        assertEquals(2, lotesGuardados.size(), "Con tamaño de lote 2 deben guardarse dos lotes.");
+        assertEquals("Refactoring, 2nd Edition", lotesGuardados.get(0).get(3L).getTitulo());
+    }
+
+    @Test
+    @DisplayName("CSV: Debe informar por fila los errores de formato y validación sin detener la importación")
+    void importarCsv_InvalidRows_ReportsErrorsPerRow() throws IOException, ImportacionInvalidaException {
+        String csv = """
+                titulo,autor,isbn,ejemplaresDisponibles
+                Clean Code,Robert C. Martin,978-0-13-235088-4,cinco
+                ,Autor Valido,978-0-13-475759-9,3
+                Solo dos,columnas
+                Domain-Driven Design,Eric Evans,978-0-32-112521-7,2
+                """;
+
+        ReporteImportacionDTO reporte = service.importar(contenido(csv), FormatoImportacion.CSV);
+
+        assertEquals(4, reporte.getFilasProcesadas());
+        assertEquals(1, reporte.getImportados());
+        assertEquals(3, reporte.getRechazados());
+        assertEquals(List.of(2L, 3L, 4L), reporte.getErrores().stream().map(ErrorImportacionDTO::getFila).toList());
+    }
+
+    @Test
+    @DisplayName("CSV: Debe lanzar ImportacionInvalidaException si el encabezado no es el esperado")
+    void importarCsv_InvalidHeader_ThrowsException() {
+        String csv = "nombre,isbn\nClean Code,978-0-13-235088-4\n";
+
+        assertThrows(ImportacionInvalidaException.class, () -> service.importar(contenido(csv), FormatoImportacion.CSV));
+
+        verify(importador, never()).guardarLote(anyMap());
+    }
+
+    @Test
+    @DisplayName("NDJSON: Debe importar un libro por línea e informar las líneas con JSON inválido")
+    void importarNdjson_MixedRows_ImportsValidAndReportsInvalid() throws IOException, ImportacionInvalidaException {
+        String ndjson = """
+                {"titulo":"Clean Code","autor":"Robert C. Martin","isbn":"978-0-13-235088-4","ejemplaresDisponibles":5}
+                {"titulo":"Roto",
+                
+                {"id":99,"titulo":"Refactoring","autor":"Martin Fowler","isbn":"978-0-13-475759-9","ejemplaresDisponibles":3}
+                """;
+
+        ReporteImportacionDTO reporte = service.importar(contenido(ndjson), FormatoImportacion.NDJSON);
+
+        assertEquals(3, reporte.getFilasProcesadas(), "Las líneas en blanco no deben contarse.");
+        assertEquals(2, reporte.getImportados());
+        assertEquals(2L, reporte.getErrores().get(0).getFila());
+        assertNull(lotesGuardados.get(0).get(4L).getId(), "El ID recibido debe descartarse.");
+    }
+
+    @Test
+    @DisplayName("NDJSON: Debe leer cada línea con la configuración del ObjectMapper de la aplicación")
+    void importarNdjson_UsesInjectedMapperConfiguration() throws IOException, ImportacionInvalidaException {
+        ImportacionLibroService estricto = new ImportacionLibroService(importador, Validation.buildDefaultValidatorFactory().getValidator(),
+                JsonMapper.builder().enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build(), 2);
+        String ndjson = """
+                {"titulo":"Clean Code","autor":"Robert C. Martin","isbn":"978-0-13-235088-4","ejemplaresDisponibles":5,"editorial":"Prentice Hall"}
+                """;
+
+        ReporteImportacionDTO reporte = estricto.importar(contenido(ndjson), FormatoImportacion.NDJSON);
+
+        assertEquals(0, reporte.getImportados());
+        assertEquals(1, reporte.getErrores().size());
+        assertTrue(reporte.getErrores().get(0).getMotivo().startsWith("JSON inválido"));
+    }
+
+    @Test
+    @DisplayName("Debe contar como rechazados los ISBN que el lote detecta como existentes")
+    void importar_ExistingIsbns_CountsAsRejected() throws IOException, ImportacionInvalidaException {
+        when(importador.guardarLote(anyMap()))
+                .thenReturn(List.of(new ErrorImportacionDTO(2L, "978-0-13-235088-4", "El ISBN ya está registrado en otro libro.")));
+        String csv = """
+                titulo,autor,isbn,ejemplaresDisponibles
+                Clean Code,Robert C. Martin,978-0-13-235088-4,5
+                """;
+
+        ReporteImportacionDTO reporte = service.importar(contenido(csv), FormatoImportacion.CSV);
+
+        assertEquals(0, reporte.getImportados());
+        assertEquals(1, reporte.getRechazados());
+        assertEquals("978-0-13-235088-4", reporte.getErrores().get(0).getIsbn());
+        verify(importador, times(1)).guardarLote(anyMap());
+    }
+}
@@ -1,22 +1,37 @@
 package com.ms.libros.service;
 
+import com.ms.libros.busqueda.IndiceLibros;
+import com.ms.libros.dto.ResultadoBusquedaDTO;
+import com.ms.libros.dto.ResultadoStockDTO;
+import com.ms.libros.exception.IndiceNoDisponibleException;
 import com.ms.libros.exception.IsbnExistenteException;
 import com.ms.libros.exception.LibroNoEncontradoException;
 import com.ms.libros.model.Libro;
+import com.ms.libros.model.MovimientoStock;
 import com.ms.libros.repository.ILibroRepository;
+import com.ms.libros.repository.IMovimientoStockRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -24,12 +39,20 @@ import static org.mockito.Mockito.*;
 @DisplayName("Pruebas de la capa Service para Libro")
 class LibroServiceTest {
 
-    @InjectMocks
     private LibroService service;
 
     @Mock
     private ILibroRepository repository;
 
+    @Mock
+    private IMovimientoStockRepository movimientoRepository;
+
+    @Mock
+    private IndiceLibros indice;
+
+    @Mock
+    private EntityManager entityManager;
+
     private Libro existingLibro;
     private final Long idExisted = 1L;
     private final Long idNotExisted = 99L;
@@ -38,6 +61,7 @@ class LibroServiceTest {
 
     @BeforeEach
     void setUp() {
+        service = new LibroService(repository, movimientoRepository, indice, entityManager, 2, Duration.ofDays(7));
         existingLibro = new Libro(idExisted, "Java a Fondo", "Pablo Augusto", isbnExisted, 10);
     }
 
@@ -47,8 +71,7 @@ class LibroServiceTest {
         Libro newLibro = new Libro(null, "Spring Boot Action", "Craig Walls", isbnNew, 5);
         Libro savedLibro = new Libro(2L, "Spring Boot Action", "Craig Walls", isbnNew, 5);
 
-        when(repository.existsByIsbn(newLibro.getIsbn())).thenReturn(false);
-        when(repository.save(any(Libro.class))).thenReturn(savedLibro);
+        when(repository.saveAndFlush(any(Libro.class))).thenReturn(savedLibro);
 
         Libro result = service.save(newLibro);
 
@@ -56,8 +79,8 @@ class LibroServiceTest {
         assertEquals(isbnNew, result.getIsbn(), "El ISBN debe coincidir.");
         assertEquals(2L, result.getId(), "El ID debe ser el generado.");
 
-        verify(repository, times(1)).existsByIsbn(newLibro.getIsbn());
-        verify(repository, times(1)).save(newLibro);
+        verify(repository, times(1)).saveAndFlush(newLibro);
+        verify(indice, times(1)).indexar(savedLibro);
     }
 
     @Test
@@ -65,12 +88,73 @@ class LibroServiceTest {
     void saveLibro_DuplicateIsbn_ThrowsException() {
         Libro duplicateLibro = new Libro(null, "Intento de Copia", "Autor X", isbnExisted, 1);
 
-        when(repository.existsByIsbn(isbnExisted)).thenReturn(true);
+        when(repository.saveAndFlush(duplicateLibro))
+                .thenThrow(violacion(Libro.RESTRICCION_ISBN_UNICO));
 
         assertThrows(IsbnExistenteException.class, () -> service.save(duplicateLibro), "Debe lanzar IsbnExistenteException cuando el ISBN ya existe.");
+    }
 
-        verify(repository, times(1)).existsByIsbn(isbnExisted);
-        verify(repository, never()).save(any(Libro.class));
+    @Test
+    @DisplayName("Debe propagar la violación de integridad si no corresponde a la restricción única del ISBN")
+    void saveLibro_OtherIntegrityViolation_Rethrows() {
+        Libro libroInvalido = new Libro(null, "Sin Autor", null, isbnNew, 1);
+        DataIntegrityViolationException esperada = violacion("autor_not_null");
+        when(repository.saveAndFlush(libroInvalido)).thenThrow(esperada);
+
+        DataIntegrityViolationException ex = assertThrows(DataIntegrityViolationException.class, () -> service.save(libroInvalido));
+
+        assertSame(esperada, ex);
+        verify(indice, never()).indexar(any(Libro.class));
+    }
+
+    @Test
+    @DisplayName("Lote: Debe guardar todos los Libros por bloques y retornar sus IDs si ningún ISBN existe")
+    void saveAll_WithNewIsbns_SavesBatch() throws IsbnExistenteException {
+        List<Libro> lote = List.of(
+                new Libro(7L, "Spring Boot Action", "Craig Walls", isbnNew, 5),
+                new Libro(null, "Refactoring", "Martin Fowler", "978-0-201-48567-7", 3),
+                new Libro(null, "Clean Code", "Robert Martin", "978-0-13-235088-4", 2)
+        );
+        AtomicLong secuencia = new AtomicLong(100);
+        when(repository.findIsbnsExistentes(anyCollection())).thenReturn(List.of());
+        when(repository.saveAll(anyList())).thenAnswer(invocacion -> {
+            List<Libro> bloque = invocacion.getArgument(0);
+            bloque.forEach(libro -> libro.setId(secuencia.incrementAndGet()));
+            return bloque;
+        });
+
+        List<Long> result = service.saveAll(lote);
+
+        assertEquals(List.of(101L, 102L, 103L), result);
+        verify(repository, times(1)).findIsbnsExistentes(anyCollection());
+        verify(repository, times(2)).saveAll(anyList());
+        verify(repository, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    @DisplayName("Lote: Debe lanzar IsbnExistenteException si un ISBN se repite dentro del lote")
+    void saveAll_DuplicateIsbnInBatch_ThrowsException() {
+        List<Libro> lote = List.of(
+                new Libro(null, "Spring Boot Action", "Craig Walls", isbnNew, 5),
+                new Libro(null, "Copia", "Autor X", isbnNew, 1)
+        );
+
+        assertThrows(IsbnExistenteException.class, () -> service.saveAll(lote));
+
+        verify(repository, never()).findIsbnsExistentes(anyCollection());
+        verify(repository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Lote: Debe lanzar IsbnExistenteException si algún ISBN ya está registrado")
+    void saveAll_ExistingIsbn_ThrowsException() {
+        List<Libro> lote = List.of(new Libro(null, "Intento de Copia", "Autor X", isbnExisted, 1));
+        when(repository.findIsbnsExistentes(anyCollection())).thenReturn(List.of(isbnExisted));
+
+        assertThrows(IsbnExistenteException.class, () -> service.saveAll(lote));
+
+        verify(repository, never()).saveAll(anyList());
     }
 
     @Test
@@ -114,21 +198,59 @@ class LibroServiceTest {
         verify(repository, times(1)).findAll();
     }
 
+    @Test
+    @DisplayName("Debe retornar los Libros de un lote de IDs")
+    void findAllById_ReturnsListOfLibros() {
+        List<Long> ids = List.of(idExisted, idNotExisted);
+        when(repository.findAllById(ids)).thenReturn(List.of(existingLibro));
+
+        List<Libro> result = service.findAllById(ids);
+
+        assertEquals(1, result.size(), "Debe omitir los IDs inexistentes.");
+        assertEquals(isbnExisted, result.get(0).getIsbn());
+
+        verify(repository, times(1)).findAllById(ids);
+    }
+
+    @Test
+    @DisplayName("Búsqueda: Debe retornar los Libros en el orden de relevancia del índice")
+    void buscar_ReturnsLibrosInIndexOrder() throws IndiceNoDisponibleException {
+        Libro otroLibro = new Libro(2L, "Java Concurrente", "Brian Goetz", isbnNew, 4);
+        when(indice.isCargado()).thenReturn(true);
+        when(indice.buscar("java", 0, 20)).thenReturn(new IndiceLibros.ResultadoIndice(List.of(2L, idExisted), 2));
+        when(repository.findAllById(List.of(2L, idExisted))).thenReturn(List.of(existingLibro, otroLibro));
+
+        ResultadoBusquedaDTO result = service.buscar("java", 0, 20);
+
+        assertEquals(2, result.getTotalResultados());
+        assertEquals(List.of(2L, idExisted), result.getContenido().stream().map(Libro::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Búsqueda: Debe lanzar IndiceNoDisponibleException mientras el índice se está cargando")
+    void buscar_IndexLoading_ThrowsException() {
+        when(indice.isCargado()).thenReturn(false);
+
+        assertThrows(IndiceNoDisponibleException.class, () -> service.buscar("java", 0, 20));
+
+        verify(indice, never()).buscar(anyString(), anyInt(), anyInt());
+        verify(repository, never()).findAllById(anyList());
+    }
+
     @Test
     @DisplayName("Update: Debe actualizar correctamente si el ISBN no cambia")
     void updateLibro_SameIsbn_UpdatesSuccessfully() throws LibroNoEncontradoException, IsbnExistenteException {
         Libro libroUpdate = new Libro(idExisted, "Titulo Nuevo", "Autor Nuevo", isbnExisted, 20);
 
         when(repository.findById(idExisted)).thenReturn(Optional.of(existingLibro));
-        when(repository.save(any(Libro.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.saveAndFlush(any(Libro.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         Libro result = service.update(libroUpdate);
 
         assertEquals("Titulo Nuevo", result.getTitulo());
         assertEquals(isbnExisted, result.getIsbn());
 
-        verify(repository, never()).existsByIsbn(anyString());
-        verify(repository, times(1)).save(any(Libro.class));
+        verify(repository, times(1)).saveAndFlush(any(Libro.class));
     }
 
     @Test
@@ -137,15 +259,13 @@ class LibroServiceTest {
         Libro libroUpdate = new Libro(idExisted, "Titulo Nuevo", "Autor Nuevo", isbnNew, 20);
 
         when(repository.findById(idExisted)).thenReturn(Optional.of(existingLibro));
-        when(repository.existsByIsbn(isbnNew)).thenReturn(false);
-        when(repository.save(any(Libro.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.saveAndFlush(any(Libro.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         Libro result = service.update(libroUpdate);
 
         assertEquals(isbnNew, result.getIsbn());
 
-        verify(repository, times(1)).existsByIsbn(isbnNew);
-        verify(repository, times(1)).save(any(Libro.class));
+        verify(repository, times(1)).saveAndFlush(any(Libro.class));
     }
 
     @Test
@@ -154,12 +274,10 @@ class LibroServiceTest {
         Libro libroUpdate = new Libro(idExisted, "Titulo", "Autor", "999-9999-999-999", 1);
 
         when(repository.findById(idExisted)).thenReturn(Optional.of(existingLibro));
-        when(repository.existsByIsbn("999-9999-999-999")).thenReturn(true);
+        when(repository.saveAndFlush(any(Libro.class)))
+                .thenThrow(violacion(Libro.RESTRICCION_ISBN_UNICO));
 
         assertThrows(IsbnExistenteException.class, () -> service.update(libroUpdate));
-
-        verify(repository, times(1)).existsByIsbn("999-9999-999-999");
-        verify(repository, never()).save(any(Libro.class));
     }
 
     @Test
@@ -195,4 +313,112 @@ class LibroServiceTest {
         verify(repository, never()).deleteById(anyLong());
     }
 
+    @Test
+    @DisplayName("Stock: Debe reservar un ejemplar si hay stock disponible")
+    void reservarEjemplar_WithStock_ReturnsExitoso() throws LibroNoEncontradoException {
+        existingLibro.setEjemplaresDisponibles(9);
+        when(repository.reservarEjemplar(idExisted)).thenReturn(1);
+        when(repository.findById(idExisted)).thenReturn(Optional.of(existingLibro));
+
+        ResultadoStockDTO result = service.reservarEjemplar(idExisted, null);
+
+        assertTrue(result.isExitoso(), "La reserva debe ser exitosa.");
+        assertEquals(9, result.getEjemplaresDisponibles(), "Debe informar el stock actualizado.");
+        verify(repository, never()).save(any(Libro.class));
+    }
+
+    @Test
+    @DisplayName("Stock: Debe informar sin stock si no quedan ejemplares")
+    void reservarEjemplar_WithoutStock_ReturnsNoExitoso() throws LibroNoEncontradoException {
+        existingLibro.setEjemplaresDisponibles(0);
+        when(repository.reservarEjemplar(idExisted)).thenReturn(0);
+        when(repository.findById(idExisted)).thenReturn(Optional.of(existingLibro));
+
+        ResultadoStockDTO result = service.reservarEjemplar(idExisted, null);
+
+        assertFalse(result.isExitoso(), "La reserva no debe ser exitosa sin stock.");
+        assertEquals(0, result.getEjemplaresDisponibles());
+    }
+
+    @Test
+    @DisplayName("Stock: Debe lanzar LibroNoEncontradoException al reservar un ID inexistente")
+    void reservarEjemplar_NonExistentId_ThrowsException() {
+        when(repository.reservarEjemplar(idNotExisted)).thenReturn(0);
+        when(repository.findById(idNotExisted)).thenReturn(Optional.empty());
+
+        assertThrows(LibroNoEncontradoException.class, () -> service.reservarEjemplar(idNotExisted, null));
+    }
+
+    @Test
+    @DisplayName("Stock: Debe registrar la clave de la reserva para que un reintento no vuelva a descontar")
+    void reservarEjemplar_WithKey_RecordsMovement() throws LibroNoEncontradoException {
+        existingLibro.setEjemplaresDisponibles(9);
+        when(movimientoRepository.findByClave("prestamos-evento-7")).thenReturn(Optional.empty());
+        when(repository.reservarEjemplar(idExisted)).thenReturn(1);
+        when(repository.findById(idExisted)).thenReturn(Optional.of(existingLibro));
+
+        ResultadoStockDTO result = service.reservarEjemplar(idExisted, "prestamos-evento-7");
+
+        assertTrue(result.isExitoso());
+        verify(movimientoRepository).saveAndFlush(argThat(movimiento ->
+                "prestamos-evento-7".equals(movimiento.getClave()) && idExisted.equals(movimiento.getIdLibro()) && movimiento.isExitoso()));
+    }
+
+    @Test
+    @DisplayName("Stock: Debe responder el resultado original sin descontar si la clave de reserva ya fue aplicada")
+    void reservarEjemplar_ReplayedKey_DoesNotDecrementAgain() throws LibroNoEncontradoException {
+        existingLibro.setEjemplaresDisponibles(9);
+        when(movimientoRepository.findByClave("prestamos-evento-7"))
+                .thenReturn(Optional.of(new MovimientoStock(1L, "prestamos-evento-7", idExisted, true, Instant.now())));
+        when(repository.findById(idExisted)).thenReturn(Optional.of(existingLibro));
+
+        ResultadoStockDTO result = service.reservarEjemplar(idExisted, "prestamos-evento-7");
+
+        assertTrue(result.isExitoso());
+        assertEquals(9, result.getEjemplaresDisponibles());
+        verify(repository, never()).reservarEjemplar(anyLong());
+        verify(movimientoRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Stock: No debe volver a incrementar si la clave de liberación ya fue aplicada")
+    void liberarEjemplar_ReplayedKey_DoesNotIncrementAgain() throws LibroNoEncontradoException {
+        existingLibro.setEjemplaresDisponibles(11);
+        when(movimientoRepository.findByClave("prestamos-evento-8"))
+                .thenReturn(Optional.of(new MovimientoStock(2L, "prestamos-evento-8", idExisted, true, Instant.now())));
+        when(repository.findById(idExisted)).thenReturn(Optional.of(existingLibro));
+
+        ResultadoStockDTO result = service.liberarEjemplar(idExisted, "prestamos-evento-8");
+
+        assertTrue(result.isExitoso());
+        assertEquals(11, result.getEjemplaresDisponibles());
+        verify(repository, never()).liberarEjemplar(anyLong());
+    }
+
+    @Test
+    @DisplayName("Stock: Debe liberar un ejemplar de un libro existente")
+    void liberarEjemplar_ExistingId_ReturnsExitoso() throws LibroNoEncontradoException {
+        existingLibro.setEjemplaresDisponibles(11);
+        when(repository.liberarEjemplar(idExisted)).thenReturn(1);
+        when(repository.findById(idExisted)).thenReturn(Optional.of(existingLibro));
+
+        ResultadoStockDTO result = service.liberarEjemplar(idExisted, null);
+
+        assertTrue(result.isExitoso());
+        assertEquals(11, result.getEjemplaresDisponibles());
+    }
+
+    @Test
+    @DisplayName("Stock: Debe lanzar LibroNoEncontradoException al liberar un ID inexistente")
+    void liberarEjemplar_NonExistentId_ThrowsException() {
+        when(repository.liberarEjemplar(idNotExisted)).thenReturn(0);
+
+        assertThrows(LibroNoEncontradoException.class, () -> service.liberarEjemplar(idNotExisted, null));
+        verify(repository, never()).findById(idNotExisted);
+    }
+
+    private static DataIntegrityViolationException violacion(String restriccion) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), restriccion));
+    }
 }
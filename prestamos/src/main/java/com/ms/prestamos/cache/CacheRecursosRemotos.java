@@ -0,0 +1,89 @@
+package com.ms.prestamos.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ms.prestamos.client.ILibroClient;
+import com.ms.prestamos.client.IUsuarioClient;
+import com.ms.prestamos.dto.LibroDTO;
+import com.ms.prestamos.dto.UsuarioDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+@Component
+public class CacheRecursosRemotos {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheRecursosRemotos.class);
+    private static final int TAMANIO_LOTE_CONSULTA = 200;
+
+    private final IUsuarioClient usuarioClient;
+    private final ILibroClient libroClient;
+    private final Cache<Long, UsuarioDTO> usuarios;
+    private final Cache<Long, LibroDTO> libros;
+
+    public CacheRecursosRemotos(IUsuarioClient usuarioClient, ILibroClient libroClient, MeterRegistry meterRegistry,
+                                @Value("${prestamos.cache.tamanio-maximo:10000}") long tamanioMaximo,
+                                @Value("${prestamos.cache.ttl:60s}") Duration ttl) {
+        this.usuarioClient = usuarioClient;
+        this.libroClient = libroClient;
+        this.usuarios = buildCache(tamanioMaximo, ttl);
+        this.libros = buildCache(tamanioMaximo, ttl);
+        CaffeineCacheMetrics.monitor(meterRegistry, usuarios, "prestamos.usuarios");
+        CaffeineCacheMetrics.monitor(meterRegistry, libros, "prestamos.libros");
+    }
+
+    public UsuarioDTO getUsuario(Long id) {
+        return usuarios.get(id, usuarioClient::getUsuarioById);
+    }
+
+    public LibroDTO getLibro(Long id) {
+        return libros.get(id, libroClient::getLibroById);
+    }
+
+    public Map<Long, UsuarioDTO> getUsuarios(Collection<Long> ids) {
+        return usuarios.getAll(ids, faltantes ->
+                fetchByIdsInChunks(faltantes, usuarioClient::getUsuariosByIds, UsuarioDTO::getId, "Usuarios"));
+    }
+
+    public Map<Long, LibroDTO> getLibros(Collection<Long> ids) {
+        return libros.getAll(ids, faltantes ->
+                fetchByIdsInChunks(faltantes, libroClient::getLibrosByIds, LibroDTO::getId, "Libros"));
+    }
+
+    public void invalidateLibro(Long id) {
+        libros.invalidate(id);
+    }
+
+    private static <T> Cache<Long, T> buildCache(long tamanioMaximo, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(tamanioMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    private static <T> Map<Long, T> fetchByIdsInChunks(Set<? extends Long> ids, Function<List<Long>, List<T>> consulta, Function<T, Long> getId, String microservicio) {
+        Map<Long, T> resultado = new HashMap<>();
+        List<Long> pendientes = new ArrayList<>(ids);
+        for (int desde = 0; desde < pendientes.size(); desde += TAMANIO_LOTE_CONSULTA) {
+            List<Long> lote = pendientes.subList(desde, Math.min(desde + TAMANIO_LOTE_CONSULTA, pendientes.size()));
+            try {
+                consulta.apply(lote).forEach(elemento -> resultado.put(getId.apply(elemento), elemento));
+            } catch (Exception e) {
+                log.error("Error al consultar el lote de {} en MS {}: {}", lote.size(), microservicio, e.getMessage());
+            }
+        }
+        return resultado;
+    }
+}
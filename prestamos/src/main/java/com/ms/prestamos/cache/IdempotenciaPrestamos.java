@@ -0,0 +1,146 @@
+package com.ms.prestamos.cache;
+
+import com.ms.prestamos.dto.PrestamoDTO;
+import com.ms.prestamos.exception.ComunicacionFallidaException;
+import com.ms.prestamos.exception.RecursoInvalidoException;
+import com.ms.prestamos.exception.RecursoNoEncontradoException;
+import com.ms.prestamos.model.ClaveIdempotencia;
+import com.ms.prestamos.model.EstadoPrestamo;
+import com.ms.prestamos.repository.IClaveIdempotenciaRepository;
+import com.ms.prestamos.service.IPrestamoService;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Component
+public class IdempotenciaPrestamos {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotenciaPrestamos.class);
+
+    private final IClaveIdempotenciaRepository repository;
+    private final IPrestamoService service;
+    private final Duration ttl;
+    private final Duration esperaMaxima;
+    private final ConcurrentHashMap<String, RegistroIdempotencia> enCurso = new ConcurrentHashMap<>();
+
+    public IdempotenciaPrestamos(IClaveIdempotenciaRepository repository, IPrestamoService service,
+                                 @Value("${prestamos.idempotencia.ttl:24h}") Duration ttl,
+                                 @Value("${prestamos.idempotencia.espera-maxima:5s}") Duration esperaMaxima) {
+        this.repository = repository;
+        this.service = service;
+        this.ttl = ttl;
+        this.esperaMaxima = esperaMaxima;
+    }
+
+    public PrestamoDTO ejecutar(String clave, PrestamoDTO solicitud)
+            throws ComunicacionFallidaException, RecursoInvalidoException, RecursoNoEncontradoException {
+        String huella = solicitud.getIdUsuario() + ":" + solicitud.getIdLibro();
+        RegistroIdempotencia nuevo = new RegistroIdempotencia(huella, new CompletableFuture<>());
+        RegistroIdempotencia existente = enCurso.putIfAbsent(clave, nuevo);
+
+        if (existente != null) {
+            validarHuella(clave, existente.huella, huella);
+            log.info("Esperando la solicitud en curso con la clave de idempotencia {}", clave);
+            return await(clave, existente.resultado);
+        }
+
+        try {
+            PrestamoDTO resultado = registrar(clave, huella, solicitud);
+            nuevo.resultado.complete(resultado);
+            return resultado;
+        } catch (ComunicacionFallidaException | RecursoInvalidoException | RecursoNoEncontradoException | RuntimeException e) {
+            nuevo.resultado.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(clave, nuevo);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${prestamos.idempotencia.intervalo-purga-ms:3600000}")
+    public void purgarVencidas() {
+        int eliminadas = repository.eliminarAnteriores(Instant.now().minus(ttl));
+        if (eliminadas > 0) {
+            log.info("Se eliminaron {} claves de idempotencia vencidas", eliminadas);
+        }
+    }
+
+    private PrestamoDTO registrar(String clave, String huella, PrestamoDTO solicitud)
+            throws ComunicacionFallidaException, RecursoInvalidoException, RecursoNoEncontradoException {
+        Optional<ClaveIdempotencia> registrada = repository.findByClave(clave);
+        if (registrada.isPresent()) {
+            return reutilizar(registrada.get(), huella);
+        }
+        try {
+            return service.save(solicitud, new ClaveIdempotencia(clave, huella));
+        } catch (DataIntegrityViolationException e) {
+            ClaveIdempotencia concurrente = repository.findByClave(clave).orElseThrow(() -> e);
+            log.info("La clave de idempotencia {} fue registrada por otra instancia", clave);
+            return reutilizar(concurrente, huella);
+        }
+    }
+
+    private PrestamoDTO reutilizar(ClaveIdempotencia registrada, String huella)
+            throws RecursoInvalidoException, RecursoNoEncontradoException {
+        validarHuella(registrada.getClave(), registrada.getHuella(), huella);
+        log.info("Reutilizando el préstamo {} registrado con la clave de idempotencia {}", registrada.getIdPrestamo(), registrada.getClave());
+        PrestamoDTO prestamo = service.findRawById(registrada.getIdPrestamo());
+        if (prestamo.getEstado() == EstadoPrestamo.CANCELADO) {
+            throw new RecursoInvalidoException("No hay stock disponible.");
+        }
+        return prestamo;
+    }
+
+    private static void validarHuella(String clave, String registrada, String huella) throws RecursoInvalidoException {
+        if (!registrada.equals(huella)) {
+            log.warn("La clave de idempotencia {} ya fue usada con otra solicitud", clave);
+            throw new RecursoInvalidoException("La clave de idempotencia ya fue usada con una solicitud distinta.");
+        }
+    }
+
+    private PrestamoDTO await(String clave, CompletableFuture<PrestamoDTO> resultado)
+            throws ComunicacionFallidaException, RecursoInvalidoException, RecursoNoEncontradoException {
+        try {
+            return resultado.get(esperaMaxima.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("La solicitud con la clave de idempotencia {} sigue en curso", clave);
+            throw new RecursoInvalidoException("La solicitud con esta clave de idempotencia todavía se está procesando.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RecursoInvalidoException("La solicitud con esta clave de idempotencia todavía se está procesando.");
+        } catch (ExecutionException e) {
+            Throwable causa = Objects.requireNonNullElse(e.getCause(), e);
+            if (causa instanceof ComunicacionFallidaException ex) {
+                throw ex;
+            }
+            if (causa instanceof RecursoInvalidoException ex) {
+                throw ex;
+            }
+            if (causa instanceof RecursoNoEncontradoException ex) {
+                throw ex;
+            }
+            if (causa instanceof RuntimeException ex) {
+                throw ex;
+            }
+            throw new IllegalStateException(causa);
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class RegistroIdempotencia {
+        private final String huella;
+        private final CompletableFuture<PrestamoDTO> resultado;
+    }
+}
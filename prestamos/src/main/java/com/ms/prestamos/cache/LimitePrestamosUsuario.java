@@ -0,0 +1,81 @@
+package com.ms.prestamos.cache;
+
+import com.ms.prestamos.repository.IPrestamoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class LimitePrestamosUsuario implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(LimitePrestamosUsuario.class);
+
+    private final IPrestamoRepository repository;
+    private final int maximoAbiertos;
+    private final ConcurrentHashMap<Long, AtomicInteger> abiertos = new ConcurrentHashMap<>();
+
+    public LimitePrestamosUsuario(IPrestamoRepository repository,
+                                  @Value("${prestamos.limite.max-abiertos-por-usuario:5}") int maximoAbiertos) {
+        this.repository = repository;
+        this.maximoAbiertos = maximoAbiertos;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        cargar();
+    }
+
+    public void cargar() {
+        long inicio = System.currentTimeMillis();
+        Map<Long, Integer> recuento = new HashMap<>();
+        repository.contarAbiertosPorUsuario().forEach(conteo -> recuento.put(conteo.getIdUsuario(), conteo.getCantidad().intValue()));
+        abiertos.forEach((idUsuario, contador) -> contador.set(recuento.getOrDefault(idUsuario, 0)));
+        recuento.forEach((idUsuario, cantidad) -> abiertos.computeIfAbsent(idUsuario, id -> new AtomicInteger()).set(cantidad));
+        log.info("Contadores de préstamos abiertos cargados para {} usuarios en {} ms", abiertos.size(), System.currentTimeMillis() - inicio);
+    }
+
+    public boolean reservar(Long idUsuario) {
+        AtomicInteger contador = abiertos.computeIfAbsent(idUsuario, id -> new AtomicInteger());
+        int actual;
+        do {
+            actual = contador.get();
+            if (actual >= maximoAbiertos) {
+                return false;
+            }
+        } while (!contador.compareAndSet(actual, actual + 1));
+        return true;
+    }
+
+    public void liberar(Long idUsuario) {
+        AtomicInteger contador = abiertos.get(idUsuario);
+        if (contador != null) {
+            contador.updateAndGet(valor -> Math.max(0, valor - 1));
+        }
+    }
+
+    public int abiertos(Long idUsuario) {
+        AtomicInteger contador = abiertos.get(idUsuario);
+        return contador == null ? 0 : contador.get();
+    }
+
+    public Map<Long, Integer> abiertosPorUsuario() {
+        Map<Long, Integer> instantanea = new HashMap<>();
+        abiertos.forEach((idUsuario, contador) -> {
+            int cantidad = contador.get();
+            if (cantidad > 0) {
+                instantanea.put(idUsuario, cantidad);
+            }
+        });
+        return instantanea;
+    }
+
+    public int getMaximoAbiertos() {
+        return maximoAbiertos;
+    }
+}
@@ -0,0 +1,15 @@
+package com.ms.prestamos.client;
+
+import feign.Target;
+import org.springframework.cloud.openfeign.CircuitBreakerNameResolver;
+import org.springframework.stereotype.Component;
+import java.lang.reflect.Method;
+
+@Component
+public class CircuitoPorCliente implements CircuitBreakerNameResolver {
+
+    @Override
+    public String resolveCircuitBreakerName(String feignClientName, Target<?> target, Method method) {
+        return feignClientName;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ms.prestamos.client;
+
+import com.ms.prestamos.exception.ClienteNoDisponibleException;
+import feign.FeignException;
+import feign.RetryableException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class FallosClientesRemotos {
+
+    private static final Logger log = LoggerFactory.getLogger(FallosClientesRemotos.class);
+
+    private final MeterRegistry meterRegistry;
+
+    public FallosClientesRemotos(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public RuntimeException traducir(String microservicio, Throwable causa) {
+        if (causa instanceof FeignException.FeignClientException errorCliente) {
+            return errorCliente;
+        }
+        String motivo = motivo(causa);
+        meterRegistry.counter("prestamos.clientes.rechazos", "cliente", microservicio, "motivo", motivo).increment();
+        log.warn("Llamada a {} rechazada ({}): {}", microservicio, motivo, causa.getMessage());
+        return new ClienteNoDisponibleException("No se pudo comunicar con el microservicio " + microservicio + ".", causa);
+    }
+
+    private static String motivo(Throwable causa) {
+        if (causa instanceof CallNotPermittedException) {
+            return "circuito-abierto";
+        }
+        if (causa instanceof BulkheadFullException) {
+            return "bulkhead-lleno";
+        }
+        if (causa instanceof RetryableException) {
+            return "sin-respuesta";
+        }
+        return "error-remoto";
+    }
+}
@@ -1,19 +1,29 @@
 package com.ms.prestamos.client;
 
 import com.ms.prestamos.dto.LibroDTO;
+import com.ms.prestamos.dto.ResultadoStockDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.PutMapping;
-import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import java.util.Collection;
+import java.util.List;
 
-@FeignClient(name = "ms-libros", url = "${libros.api.url:}")
+@FeignClient(name = "ms-libros", url = "${libros.api.url:}", fallbackFactory = LibroClientFallbackFactory.class)
 public interface ILibroClient {
 
     @GetMapping("/api/libros/{id}")
     LibroDTO getLibroById(@PathVariable("id") Long id);
 
-    @PutMapping("/api/libros/{id}")
-    LibroDTO updateLibro(@PathVariable("id") Long id, @RequestBody LibroDTO libroDTO);
+    @GetMapping("/api/libros")
+    List<LibroDTO> getLibrosByIds(@RequestParam("ids") Collection<Long> ids);
+
+    @PostMapping("/api/libros/{id}/stock/reservar")
+    ResultadoStockDTO reservarEjemplar(@PathVariable("id") Long id, @RequestHeader("Idempotency-Key") String claveOperacion);
+
+    @PostMapping("/api/libros/{id}/stock/liberar")
+    ResultadoStockDTO liberarEjemplar(@PathVariable("id") Long id, @RequestHeader("Idempotency-Key") String claveOperacion);
 
 }
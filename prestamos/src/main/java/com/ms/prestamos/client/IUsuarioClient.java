@@ -4,10 +4,16 @@ import com.ms.prestamos.dto.UsuarioDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import java.util.Collection;
+import java.util.List;
 
-@FeignClient(name = "ms-usuarios", url = "${usuarios.api.url:}")
+@FeignClient(name = "ms-usuarios", url = "${usuarios.api.url:}", fallbackFactory = UsuarioClientFallbackFactory.class)
 public interface IUsuarioClient {
 
     @GetMapping("/api/usuarios/{id}")
     UsuarioDTO getUsuarioById(@PathVariable("id") Long id);
+
+    @GetMapping("/api/usuarios")
+    List<UsuarioDTO> getUsuariosByIds(@RequestParam("ids") Collection<Long> ids);
 }
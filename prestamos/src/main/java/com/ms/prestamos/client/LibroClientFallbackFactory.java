@@ -0,0 +1,44 @@
+package com.ms.prestamos.client;
+
+import com.ms.prestamos.dto.LibroDTO;
+import com.ms.prestamos.dto.ResultadoStockDTO;
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+import java.util.Collection;
+import java.util.List;
+
+@Component
+public class LibroClientFallbackFactory implements FallbackFactory<ILibroClient> {
+
+    private final FallosClientesRemotos fallos;
+
+    public LibroClientFallbackFactory(FallosClientesRemotos fallos) {
+        this.fallos = fallos;
+    }
+
+    @Override
+    public ILibroClient create(Throwable causa) {
+        RuntimeException error = fallos.traducir("ms-libros", causa);
+        return new ILibroClient() {
+            @Override
+            public LibroDTO getLibroById(Long id) {
+                throw error;
+            }
+
+            @Override
+            public List<LibroDTO> getLibrosByIds(Collection<Long> ids) {
+                throw error;
+            }
+
+            @Override
+            public ResultadoStockDTO reservarEjemplar(Long id, String claveOperacion) {
+                throw error;
+            }
+
+            @Override
+            public ResultadoStockDTO liberarEjemplar(Long id, String claveOperacion) {
+                throw error;
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.ms.prestamos.client;
+
+import com.ms.prestamos.dto.UsuarioDTO;
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+import java.util.Collection;
+import java.util.List;
+
+@Component
+public class UsuarioClientFallbackFactory implements FallbackFactory<IUsuarioClient> {
+
+    private final FallosClientesRemotos fallos;
+
+    public UsuarioClientFallbackFactory(FallosClientesRemotos fallos) {
+        this.fallos = fallos;
+    }
+
+    @Override
+    public IUsuarioClient create(Throwable causa) {
+        RuntimeException error = fallos.traducir("ms-usuarios", causa);
+        return new IUsuarioClient() {
+            @Override
+            public UsuarioDTO getUsuarioById(Long id) {
+                throw error;
+            }
+
+            @Override
+            public List<UsuarioDTO> getUsuariosByIds(Collection<Long> ids) {
+                throw error;
+            }
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package com.ms.prestamos.config;
+
+import com.ms.balanceo.ConfiguracionBalanceador;
+import com.ms.balanceo.RegistroLatencias;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+@Configuration
+@Import(RegistroLatencias.class)
+@LoadBalancerClients(defaultConfiguration = ConfiguracionBalanceador.class)
+public class BalanceoConfig {
+}
@@ -0,0 +1,48 @@
+package com.ms.prestamos.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ConcurrenciaConfig {
+
+    private final boolean hilosVirtuales;
+
+    public ConcurrenciaConfig(@Value("${spring.threads.virtual.enabled:false}") boolean hilosVirtuales) {
+        this.hilosVirtuales = hilosVirtuales;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService exportacionExecutor(@Value("${prestamos.exportacion.hilos:4}") int hilos,
+                                               @Value("${prestamos.exportacion.capacidad-cola:16}") int capacidadCola) {
+        return boundedExecutor(hilos, capacidadCola, "exportacion-");
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService consultasRemotasExecutor(@Value("${prestamos.consultas-remotas.hilos:32}") int hilos,
+                                                    @Value("${prestamos.consultas-remotas.capacidad-cola:200}") int capacidadCola) {
+        if (hilosVirtuales) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("consultas-remotas-", 0).factory());
+        }
+        return boundedExecutor(hilos, capacidadCola, "consultas-remotas-");
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService estadisticasExecutor(@Value("${prestamos.estadisticas.hilos:4}") int hilos) {
+        return boundedExecutor(hilos, hilos, "estadisticas-");
+    }
+
+    private ExecutorService boundedExecutor(int hilos, int capacidadCola, String prefijo) {
+        ThreadFactory fabrica = hilosVirtuales
+                ? Thread.ofVirtual().name(prefijo, 0).factory()
+                : Thread.ofPlatform().name(prefijo, 0).factory();
+        return new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacidadCola), fabrica);
+    }
+}
@@ -0,0 +1,44 @@
+package com.ms.prestamos.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+@Component
+public class IndicesParciales implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(IndicesParciales.class);
+
+    static final String SCRIPT = "db/indices-parciales-postgresql.sql";
+
+    private final DataSource dataSource;
+
+    public IndicesParciales(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        String motor;
+        try {
+            motor = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException e) {
+            log.warn("No se pudo identificar la base de datos; se omiten los índices parciales", e);
+            return;
+        }
+        if (!"PostgreSQL".equalsIgnoreCase(motor)) {
+            log.info("La base {} no soporta índices parciales; se usan solo los índices completos", motor);
+            return;
+        }
+        DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new ClassPathResource(SCRIPT)), dataSource);
+        log.info("Índices parciales de préstamos y reservas creados");
+    }
+}
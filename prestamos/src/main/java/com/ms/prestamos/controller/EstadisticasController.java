@@ -0,0 +1,52 @@
+package com.ms.prestamos.controller;
+
+import com.ms.prestamos.dto.EstadisticasPrestamosDTO;
+import com.ms.prestamos.estadisticas.EstadisticasPrestamos;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/prestamos/estadisticas")
+@Tag(name = "Estadísticas de préstamos", description = "Agregados de préstamos mantenidos en memoria.")
+public class EstadisticasController {
+
+    private final EstadisticasPrestamos estadisticas;
+
+    public EstadisticasController(EstadisticasPrestamos estadisticas) {
+        this.estadisticas = estadisticas;
+    }
+
+    @Operation(
+            summary = "Obtener estadísticas de préstamos",
+            description = "Retorna los libros más prestados, los usuarios con más préstamos abiertos y las altas y devoluciones por día. Los agregados se actualizan al registrar cada préstamo o devolución y la respuesta se sirve desde la última instantánea, sin consultar la base de datos."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estadísticas obtenidas exitosamente.",
+                    content = @Content(schema = @Schema(implementation = EstadisticasPrestamosDTO.class)))
+    })
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public EstadisticasPrestamosDTO getEstadisticas() {
+        return estadisticas.getEstadisticas();
+    }
+
+    @Operation(
+            summary = "Reconstruir estadísticas de préstamos",
+            description = "Recalcula todos los agregados desde la tabla de préstamos, recorriéndola en bloques de IDs procesados en paralelo, y retorna la instantánea resultante."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estadísticas reconstruidas exitosamente.",
+                    content = @Content(schema = @Schema(implementation = EstadisticasPrestamosDTO.class)))
+    })
+    @PostMapping("reconstruir")
+    @ResponseStatus(HttpStatus.OK)
+    public EstadisticasPrestamosDTO reconstruir() {
+        return estadisticas.reconstruir();
+    }
+}
@@ -1,9 +1,12 @@
 package com.ms.prestamos.controller;
 
+import com.ms.prestamos.cache.IdempotenciaPrestamos;
+import com.ms.prestamos.dto.PaginaPrestamosDTO;
 import com.ms.prestamos.dto.PrestamoDTO;
 import com.ms.prestamos.exception.ComunicacionFallidaException;
 import com.ms.prestamos.exception.RecursoInvalidoException;
 import com.ms.prestamos.exception.RecursoNoEncontradoException;
+import com.ms.prestamos.model.EstadoPrestamo;
 import com.ms.prestamos.service.IPrestamoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -13,39 +16,70 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 @RestController
 @RequestMapping("/api/prestamos")
 @Tag(name = "Préstamos", description = "Operaciones para la gestión de préstamos de libros.")
 public class PrestamoController {
 
+    private static final int TAMANIO_LOTE_STREAM = 500;
+
     private final IPrestamoService service;
+    private final IdempotenciaPrestamos idempotencia;
+    private final ExecutorService executor;
+    private final long timeoutStream;
 
     @Autowired
-    public PrestamoController(IPrestamoService service) {
+    public PrestamoController(IPrestamoService service, IdempotenciaPrestamos idempotencia,
+                              @Qualifier("exportacionExecutor") ExecutorService executor,
+                              @Value("${prestamos.stream.timeout-ms:600000}") long timeoutStream) {
         this.service = service;
+        this.idempotencia = idempotencia;
+        this.executor = executor;
+        this.timeoutStream = timeoutStream;
     }
 
     @Operation(
             summary = "Registrar un nuevo préstamo",
-            description = "Crea un registro de préstamo. Valida que el usuario esté activo y el libro tenga stock disponible."
+            description = "Crea un registro de préstamo. Valida que el usuario esté activo y el libro tenga stock disponible. Si la reserva del ejemplar en MS Libros no pudo confirmarse todavía, el préstamo queda en estado PENDIENTE y se responde 202; el despachador lo confirma o lo cancela más tarde. Si se envía el encabezado 'Idempotency-Key', los reintentos con la misma clave retornan el préstamo ya registrado sin volver a crearlo."
     )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "201", description = "Préstamo registrado exitosamente.",
+            @ApiResponse(responseCode = "201", description = "Préstamo registrado y confirmado.",
+                    content = @Content(schema = @Schema(implementation = PrestamoDTO.class))),
+            @ApiResponse(responseCode = "202", description = "Préstamo registrado en estado PENDIENTE, a la espera de confirmar la reserva del ejemplar.",
                     content = @Content(schema = @Schema(implementation = PrestamoDTO.class))),
             @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos."),
             @ApiResponse(responseCode = "404", description = "Usuario o Libro no encontrado."),
-            @ApiResponse(responseCode = "409", description = "Conflicto: Usuario inactivo o Libro sin stock."),
+            @ApiResponse(responseCode = "409", description = "Conflicto: Usuario inactivo, Libro sin stock o clave de idempotencia reutilizada con otros datos."),
             @ApiResponse(responseCode = "503", description = "Error de comunicación con microservicios externos.")
     })
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public PrestamoDTO createPrestamo(@Valid @RequestBody PrestamoDTO prestamo) throws ComunicacionFallidaException, RecursoInvalidoException, RecursoNoEncontradoException {
-        return service.save(prestamo);
+    public ResponseEntity<PrestamoDTO> createPrestamo(@Valid @RequestBody PrestamoDTO prestamo,
+                                      @RequestHeader(value = "Idempotency-Key", required = false) @Size(max = 255) String claveIdempotencia)
+            throws ComunicacionFallidaException, RecursoInvalidoException, RecursoNoEncontradoException {
+        PrestamoDTO registrado = claveIdempotencia == null || claveIdempotencia.isBlank()
+                ? service.save(prestamo)
+                : idempotencia.ejecutar(claveIdempotencia, prestamo);
+        HttpStatus estado = registrado.getEstado() == EstadoPrestamo.PENDIENTE ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+        return ResponseEntity.status(estado).body(registrado);
     }
 
     @Operation(
@@ -54,15 +88,100 @@ public class PrestamoController {
     )
     @ApiResponse(responseCode = "200", description = "Lista obtenida exitosamente.",
             content = @Content(array = @ArraySchema(schema = @Schema(implementation = PrestamoDTO.class))))
-    @GetMapping
+    @GetMapping(params = {"!usuario", "!libro", "!abiertos", "!despuesDe", "!tamanio"})
     @ResponseStatus(HttpStatus.OK)
     public List<PrestamoDTO> getPrestamos() {
         return service.getAll();
     }
 
+    @Operation(
+            summary = "Buscar préstamos por usuario, libro o estado",
+            description = "Retorna una página de préstamos ordenada por ID, filtrada por usuario, libro y/o solo los abiertos (sin devolver y no cancelados). Para obtener la siguiente página se envía el 'siguienteCursor' recibido en el parámetro 'despuesDe'."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página obtenida exitosamente.",
+                    content = @Content(schema = @Schema(implementation = PaginaPrestamosDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Filtros inválidos o tamaño de página fuera de rango (1 a 500).")
+    })
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public PaginaPrestamosDTO buscarPrestamos(@RequestParam(required = false) @Positive Long usuario,
+                                              @RequestParam(required = false) @Positive Long libro,
+                                              @RequestParam(defaultValue = "false") boolean abiertos,
+                                              @RequestParam(required = false) Long despuesDe,
+                                              @RequestParam(defaultValue = "50") @Min(1) @Max(500) int tamanio) {
+        return service.buscar(usuario, libro, abiertos, despuesDe, tamanio);
+    }
+
+    @Operation(
+            summary = "Obtener historial de préstamos paginado",
+            description = "Retorna una página de préstamos ordenada por ID. Para obtener la siguiente página se envía el 'siguienteCursor' recibido en el parámetro 'despuesDe'."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página obtenida exitosamente.",
+                    content = @Content(schema = @Schema(implementation = PaginaPrestamosDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Tamaño de página fuera de rango (1 a 500).")
+    })
+    @GetMapping("pagina")
+    @ResponseStatus(HttpStatus.OK)
+    public PaginaPrestamosDTO getPrestamosPaginados(@RequestParam(required = false) Long despuesDe,
+                                                    @RequestParam(defaultValue = "50") @Min(1) @Max(500) int tamanio) {
+        return service.getPage(despuesDe, tamanio);
+    }
+
+    @Operation(
+            summary = "Obtener préstamos vencidos",
+            description = "Retorna una página, ordenada por ID, de los préstamos sin devolver que el proceso nocturno marcó como vencidos. Para obtener la siguiente página se envía el 'siguienteCursor' recibido en el parámetro 'despuesDe'."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página obtenida exitosamente.",
+                    content = @Content(schema = @Schema(implementation = PaginaPrestamosDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Tamaño de página fuera de rango (1 a 500).")
+    })
+    @GetMapping("vencidos")
+    @ResponseStatus(HttpStatus.OK)
+    public PaginaPrestamosDTO getPrestamosVencidos(@RequestParam(required = false) Long despuesDe,
+                                                   @RequestParam(defaultValue = "50") @Min(1) @Max(500) int tamanio) {
+        return service.getVencidos(despuesDe, tamanio);
+    }
+
+    @Operation(
+            summary = "Exportar historial de préstamos en streaming",
+            description = "Retorna todos los préstamos en formato NDJSON (un JSON por línea), enviados por lotes a medida que se leen de la base de datos."
+    )
+    @ApiResponse(responseCode = "200", description = "Stream iniciado exitosamente.")
+    @GetMapping(value = "stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> streamPrestamos() {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeoutStream);
+        executor.execute(() -> {
+            try {
+                service.forEachPage(TAMANIO_LOTE_STREAM, lote -> sendLote(emitter, lote));
+                emitter.complete();
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(emitter);
+    }
+
+    private static void sendLote(ResponseBodyEmitter emitter, List<PrestamoDTO> lote) {
+        Set<ResponseBodyEmitter.DataWithMediaType> filas = new LinkedHashSet<>(lote.size() * 2);
+        for (PrestamoDTO prestamo : lote) {
+            filas.add(new ResponseBodyEmitter.DataWithMediaType(prestamo, MediaType.APPLICATION_JSON));
+            filas.add(new ResponseBodyEmitter.DataWithMediaType("\n", MediaType.TEXT_PLAIN));
+        }
+        try {
+            emitter.send(filas);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Operation(
             summary = "Buscar préstamo por ID",
-            description = "Retorna los detalles de un préstamo específico."
+            description = "Retorna los detalles de un préstamo específico. Con enriquecido=false devuelve solo los datos propios del préstamo, sin consultar usuarios ni libros."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Préstamo encontrado.",
@@ -73,8 +192,9 @@ public class PrestamoController {
 
     @GetMapping("{id}")
     @ResponseStatus(HttpStatus.OK)
-    public PrestamoDTO findPrestamoById(@PathVariable Long id) throws RecursoNoEncontradoException {
-        return service.findById(id);
+    public PrestamoDTO findPrestamoById(@PathVariable Long id,
+                                        @RequestParam(defaultValue = "true") boolean enriquecido) throws RecursoNoEncontradoException {
+        return enriquecido ? service.findById(id) : service.findRawById(id);
     }
 
     @Operation(
@@ -0,0 +1,114 @@
+package com.ms.prestamos.controller;
+
+import com.ms.prestamos.dto.ReservaDTO;
+import com.ms.prestamos.exception.ComunicacionFallidaException;
+import com.ms.prestamos.exception.RecursoInvalidoException;
+import com.ms.prestamos.exception.RecursoNoEncontradoException;
+import com.ms.prestamos.model.EstadoReserva;
+import com.ms.prestamos.reserva.NotificadorReservas;
+import com.ms.prestamos.service.IReservaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/prestamos/reservas")
+@Tag(name = "Reservas", description = "Lista de espera por libro para préstamos sin stock disponible.")
+public class ReservaController {
+
+    private final IReservaService service;
+    private final NotificadorReservas notificador;
+
+    public ReservaController(IReservaService service, NotificadorReservas notificador) {
+        this.service = service;
+        this.notificador = notificador;
+    }
+
+    @Operation(
+            summary = "Sumarse a la lista de espera de un libro",
+            description = "Registra una reserva en la cola FIFO del libro. Solo se admite cuando el libro no tiene ejemplares disponibles. Al devolverse un ejemplar, se asigna directamente al primer usuario en espera creando su préstamo confirmado, sin que el stock vuelva al catálogo."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Reserva registrada exitosamente.",
+                    content = @Content(schema = @Schema(implementation = ReservaDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos."),
+            @ApiResponse(responseCode = "404", description = "Usuario o Libro no encontrado."),
+            @ApiResponse(responseCode = "409", description = "Conflicto: Usuario inactivo, Libro con stock, usuario ya en espera o con el máximo de préstamos abiertos."),
+            @ApiResponse(responseCode = "503", description = "Error de comunicación con microservicios externos.")
+    })
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ReservaDTO createReserva(@Valid @RequestBody ReservaDTO reserva)
+            throws ComunicacionFallidaException, RecursoInvalidoException, RecursoNoEncontradoException {
+        return service.save(reserva);
+    }
+
+    @Operation(
+            summary = "Consultar una reserva",
+            description = "Retorna el estado de la reserva y su posición en la lista de espera. Con 'esperaSegundos' mayor a cero la petición queda abierta (long-poll) hasta que la reserva se asigna o se cancela, o hasta que vence la espera; en ese caso retorna el estado actual y el cliente puede volver a consultar."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reserva obtenida exitosamente.",
+                    content = @Content(schema = @Schema(implementation = ReservaDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Espera fuera de rango (0 a 60 segundos)."),
+            @ApiResponse(responseCode = "404", description = "Reserva no encontrada.")
+    })
+    @GetMapping("{id}")
+    public DeferredResult<ReservaDTO> getReserva(@PathVariable Long id,
+                                                 @RequestParam(defaultValue = "0") @Min(0) @Max(60) int esperaSegundos)
+            throws RecursoNoEncontradoException {
+        if (esperaSegundos == 0) {
+            DeferredResult<ReservaDTO> inmediato = new DeferredResult<>();
+            inmediato.setResult(service.findById(id));
+            return inmediato;
+        }
+
+        DeferredResult<ReservaDTO> resultado = new DeferredResult<>(TimeUnit.SECONDS.toMillis(esperaSegundos));
+        notificador.esperar(id, resultado);
+        ReservaDTO actual;
+        try {
+            actual = service.findById(id);
+        } catch (RecursoNoEncontradoException e) {
+            notificador.descartar(id, resultado);
+            throw e;
+        }
+        if (actual.getEstado() != EstadoReserva.EN_ESPERA) {
+            resultado.setResult(actual);
+            return resultado;
+        }
+        resultado.onTimeout(() -> {
+            try {
+                resultado.setResult(service.findById(id));
+            } catch (RecursoNoEncontradoException e) {
+                resultado.setErrorResult(e);
+            }
+        });
+        return resultado;
+    }
+
+    @Operation(
+            summary = "Cancelar una reserva",
+            description = "Saca la reserva de la lista de espera. Solo se pueden cancelar reservas que siguen en espera."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reserva cancelada exitosamente.",
+                    content = @Content(schema = @Schema(implementation = ReservaDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Reserva no encontrada."),
+            @ApiResponse(responseCode = "409", description = "La reserva ya fue asignada o cancelada.")
+    })
+    @DeleteMapping("{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public ReservaDTO cancelarReserva(@PathVariable Long id) throws RecursoNoEncontradoException, RecursoInvalidoException {
+        return service.cancelar(id);
+    }
+}
@@ -0,0 +1,14 @@
+package com.ms.prestamos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConteoDTO {
+
+    private Long id;
+    private long cantidad;
+}
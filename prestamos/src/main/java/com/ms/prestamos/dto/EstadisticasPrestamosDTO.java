@@ -0,0 +1,21 @@
+package com.ms.prestamos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstadisticasPrestamosDTO {
+
+    private List<ConteoDTO> librosMasPrestados;
+    private List<ConteoDTO> usuariosConMasPrestamosAbiertos;
+    private long prestamosAbiertos;
+    private long usuariosConPrestamosAbiertos;
+    private List<MovimientoDiarioDTO> movimientosDiarios;
+    private Instant actualizado;
+}
@@ -0,0 +1,17 @@
+package com.ms.prestamos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovimientoDiarioDTO {
+
+    private LocalDate fecha;
+    private long prestamos;
+    private long devoluciones;
+}
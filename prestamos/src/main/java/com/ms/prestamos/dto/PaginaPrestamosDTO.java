@@ -0,0 +1,17 @@
+package com.ms.prestamos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaginaPrestamosDTO {
+
+    private List<PrestamoDTO> contenido;
+    private Long siguienteCursor;
+    private boolean hayMas;
+}
@@ -1,5 +1,6 @@
 package com.ms.prestamos.dto;
 
+import com.ms.prestamos.model.EstadoPrestamo;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
@@ -28,4 +29,7 @@ public class PrestamoDTO {
 
     private LocalDate fechaPrestamo;
     private LocalDate fechaDevolucion;
+    private LocalDate fechaVencimiento;
+    private EstadoPrestamo estado;
+    private boolean vencido;
 }
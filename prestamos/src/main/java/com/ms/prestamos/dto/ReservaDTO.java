@@ -0,0 +1,31 @@
+package com.ms.prestamos.dto;
+
+import com.ms.prestamos.model.EstadoReserva;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReservaDTO {
+
+    private Long id;
+
+    @NotNull(message = "El id de Usuario no puede estar vacío.")
+    @Positive(message = "El id de Usuario debe ser mayor a cero.")
+    private Long idUsuario;
+
+    @NotNull(message = "El id de Libro no puede estar vacío.")
+    @Positive(message = "El id de Libro debe ser mayor a cero.")
+    private Long idLibro;
+
+    private EstadoReserva estado;
+    private Long posicion;
+    private Long idPrestamo;
+    private Instant fechaSolicitud;
+}
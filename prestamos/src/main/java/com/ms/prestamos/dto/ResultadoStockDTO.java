@@ -0,0 +1,14 @@
+package com.ms.prestamos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoStockDTO {
+    private Long idLibro;
+    private boolean exitoso;
+    private Integer ejemplaresDisponibles;
+}
@@ -0,0 +1,326 @@
+package com.ms.prestamos.estadisticas;
+
+import com.ms.prestamos.cache.LimitePrestamosUsuario;
+import com.ms.prestamos.dto.ConteoDTO;
+import com.ms.prestamos.dto.EstadisticasPrestamosDTO;
+import com.ms.prestamos.dto.MovimientoDiarioDTO;
+import com.ms.prestamos.model.EstadoPrestamo;
+import com.ms.prestamos.repository.IPrestamoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+@Component
+public class EstadisticasPrestamos {
+
+    private static final Logger log = LoggerFactory.getLogger(EstadisticasPrestamos.class);
+
+    private final IPrestamoRepository repository;
+    private final LimitePrestamosUsuario limite;
+    private final ExecutorService executor;
+    private final int hilos;
+    private final int tamanioBloque;
+    private final int tamanioRanking;
+    private final int diasHistorial;
+    private final Supplier<LocalDate> hoy;
+
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+    private final Object reconstrucciones = new Object();
+    private volatile Reconstruccion reconstruccion;
+    private volatile Agregados agregados = new Agregados();
+    private volatile EstadisticasPrestamosDTO instantanea;
+
+    public EstadisticasPrestamos(IPrestamoRepository repository, LimitePrestamosUsuario limite,
+                                 @Qualifier("estadisticasExecutor") ExecutorService executor,
+                                 @Value("${prestamos.estadisticas.hilos:4}") int hilos,
+                                 @Value("${prestamos.estadisticas.tamanio-bloque:50000}") int tamanioBloque,
+                                 @Value("${prestamos.estadisticas.tamanio-ranking:10}") int tamanioRanking,
+                                 @Value("${prestamos.estadisticas.dias-historial:30}") int diasHistorial) {
+        this(repository, limite, executor, hilos, tamanioBloque, tamanioRanking, diasHistorial, LocalDate::now);
+    }
+
+    EstadisticasPrestamos(IPrestamoRepository repository, LimitePrestamosUsuario limite, ExecutorService executor,
+                          int hilos, int tamanioBloque, int tamanioRanking, int diasHistorial, Supplier<LocalDate> hoy) {
+        this.repository = repository;
+        this.limite = limite;
+        this.executor = executor;
+        this.hilos = hilos;
+        this.tamanioBloque = tamanioBloque;
+        this.tamanioRanking = tamanioRanking;
+        this.diasHistorial = diasHistorial;
+        this.hoy = hoy;
+        this.instantanea = new EstadisticasPrestamosDTO(List.of(), List.of(), 0, 0, List.of(), Instant.now());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        reconstruirAgregados();
+        actualizar();
+    }
+
+    public void registrarAlta(Long idPrestamo, Long idLibro, LocalDate fechaPrestamo) {
+        ejecutarAlConfirmar(() -> aplicar(idPrestamo, TipoCambio.ALTA, destino -> {
+            sumar(destino.prestamosPorLibro, idLibro, 1);
+            sumar(destino.altasPorDia, fechaPrestamo, 1);
+        }));
+    }
+
+    public void registrarCancelacion(Long idPrestamo, Long idLibro, LocalDate fechaPrestamo) {
+        ejecutarAlConfirmar(() -> aplicar(idPrestamo, TipoCambio.CANCELACION, destino -> {
+            sumar(destino.prestamosPorLibro, idLibro, -1);
+            sumar(destino.altasPorDia, fechaPrestamo, -1);
+        }));
+    }
+
+    public void registrarDevolucion(Long idPrestamo, LocalDate fechaDevolucion) {
+        ejecutarAlConfirmar(() -> aplicar(idPrestamo, TipoCambio.DEVOLUCION,
+                destino -> sumar(destino.devolucionesPorDia, fechaDevolucion, 1)));
+    }
+
+    private void aplicar(Long idPrestamo, TipoCambio tipo, Consumer<Agregados> cambio) {
+        cerrojo.readLock().lock();
+        try {
+            cambio.accept(agregados);
+            Reconstruccion enCurso = reconstruccion;
+            if (enCurso != null) {
+                enCurso.pendientes.add(new Delta(idPrestamo, tipo, cambio));
+            }
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    public EstadisticasPrestamosDTO getEstadisticas() {
+        return instantanea;
+    }
+
+    @Scheduled(fixedDelayString = "${prestamos.estadisticas.intervalo-ms:5000}", initialDelayString = "${prestamos.estadisticas.intervalo-ms:5000}")
+    public void refrescar() {
+        actualizar();
+    }
+
+    public EstadisticasPrestamosDTO actualizar() {
+        Agregados actuales = agregados;
+        Map<Long, Integer> abiertosPorUsuario = limite.abiertosPorUsuario();
+
+        List<ConteoDTO> libros = actuales.prestamosPorLibro.entrySet().stream()
+                .map(entrada -> new ConteoDTO(entrada.getKey(), entrada.getValue().sum()))
+                .filter(conteo -> conteo.getCantidad() > 0)
+                .sorted(Comparator.comparingLong(ConteoDTO::getCantidad).reversed().thenComparing(ConteoDTO::getId))
+                .limit(tamanioRanking)
+                .toList();
+        List<ConteoDTO> usuarios = abiertosPorUsuario.entrySet().stream()
+                .map(entrada -> new ConteoDTO(entrada.getKey(), entrada.getValue()))
+                .sorted(Comparator.comparingLong(ConteoDTO::getCantidad).reversed().thenComparing(ConteoDTO::getId))
+                .limit(tamanioRanking)
+                .toList();
+        long prestamosAbiertos = abiertosPorUsuario.values().stream().mapToLong(Integer::longValue).sum();
+
+        LocalDate ultimoDia = hoy.get();
+        List<MovimientoDiarioDTO> movimientos = new ArrayList<>(diasHistorial);
+        for (LocalDate dia = ultimoDia.minusDays(diasHistorial - 1L); !dia.isAfter(ultimoDia); dia = dia.plusDays(1)) {
+            movimientos.add(new MovimientoDiarioDTO(dia, valor(actuales.altasPorDia, dia), valor(actuales.devolucionesPorDia, dia)));
+        }
+
+        instantanea = new EstadisticasPrestamosDTO(libros, usuarios, prestamosAbiertos, abiertosPorUsuario.size(), movimientos, Instant.now());
+        return instantanea;
+    }
+
+    public EstadisticasPrestamosDTO reconstruir() {
+        reconstruirAgregados();
+        return actualizar();
+    }
+
+    private void reconstruirAgregados() {
+        synchronized (reconstrucciones) {
+            long inicio = System.currentTimeMillis();
+            Reconstruccion enCurso = new Reconstruccion();
+            cambiarReconstruccion(enCurso);
+            try {
+                Long maximoId = repository.findMaxId();
+                Agregados nuevos = new Agregados();
+                if (maximoId != null) {
+                    recorrer(nuevos, enCurso, maximoId);
+                }
+                int reaplicados = reemplazar(nuevos, enCurso, maximoId);
+                log.info("Estadísticas de préstamos reconstruidas hasta el ID {} en {} ms ({} cambios concurrentes reaplicados)",
+                        maximoId, System.currentTimeMillis() - inicio, reaplicados);
+            } finally {
+                cambiarReconstruccion(null);
+            }
+        }
+    }
+
+    private void recorrer(Agregados nuevos, Reconstruccion enCurso, long maximoId) {
+        AtomicLong siguienteBloque = new AtomicLong(0);
+        List<Future<?>> trabajadores = new ArrayList<>(hilos);
+        for (int i = 0; i < hilos; i++) {
+            trabajadores.add(executor.submit(() -> {
+                long desde;
+                while ((desde = siguienteBloque.getAndAdd(tamanioBloque)) < maximoId) {
+                    enCurso.vistas.put(desde / tamanioBloque, acumularBloque(nuevos, desde + 1, Math.min(desde + tamanioBloque, maximoId)));
+                }
+            }));
+        }
+        esperar(trabajadores);
+    }
+
+    private int reemplazar(Agregados nuevos, Reconstruccion enCurso, Long maximoId) {
+        cerrojo.writeLock().lock();
+        try {
+            int reaplicados = 0;
+            for (Delta delta : enCurso.pendientes) {
+                if (quedoFueraDelRecorrido(delta, enCurso, maximoId)) {
+                    delta.cambio().accept(nuevos);
+                    reaplicados++;
+                }
+            }
+            agregados = nuevos;
+            return reaplicados;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    private boolean quedoFueraDelRecorrido(Delta delta, Reconstruccion enCurso, Long maximoId) {
+        if (maximoId == null || delta.idPrestamo() == null || delta.idPrestamo() > maximoId) {
+            return true;
+        }
+        FilasVistas vistas = enCurso.vistas.get((delta.idPrestamo() - 1) / tamanioBloque);
+        if (vistas == null) {
+            return true;
+        }
+        int indice = (int) (delta.idPrestamo() - vistas.desde);
+        return switch (delta.tipo()) {
+            case ALTA -> !vistas.activas.get(indice) && !vistas.canceladas.get(indice);
+            case CANCELACION -> !vistas.canceladas.get(indice);
+            case DEVOLUCION -> !vistas.devueltas.get(indice);
+        };
+    }
+
+    private void cambiarReconstruccion(Reconstruccion nueva) {
+        cerrojo.writeLock().lock();
+        try {
+            reconstruccion = nueva;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    private FilasVistas acumularBloque(Agregados destino, long desde, long hasta) {
+        FilasVistas vistas = new FilasVistas(desde, (int) (hasta - desde + 1));
+        for (IPrestamoRepository.FilaEstadisticas fila : repository.findFilasEstadisticas(desde, hasta)) {
+            int indice = (int) (fila.getId() - desde);
+            if (fila.getEstado() == EstadoPrestamo.CANCELADO) {
+                vistas.canceladas.set(indice);
+            } else {
+                vistas.activas.set(indice);
+                sumar(destino.prestamosPorLibro, fila.getIdLibro(), 1);
+                sumar(destino.altasPorDia, fila.getFechaPrestamo(), 1);
+            }
+            if (fila.getFechaDevolucion() != null) {
+                vistas.devueltas.set(indice);
+                sumar(destino.devolucionesPorDia, fila.getFechaDevolucion(), 1);
+            }
+        }
+        return vistas;
+    }
+
+    private static void esperar(List<Future<?>> trabajadores) {
+        try {
+            for (Future<?> trabajador : trabajadores) {
+                trabajador.get();
+            }
+        } catch (InterruptedException e) {
+            trabajadores.forEach(trabajador -> trabajador.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconstrucción de estadísticas interrumpida", e);
+        } catch (ExecutionException e) {
+            trabajadores.forEach(trabajador -> trabajador.cancel(true));
+            throw new IllegalStateException("No se pudieron reconstruir las estadísticas de préstamos", e.getCause());
+        }
+    }
+
+    private static <K> void sumar(ConcurrentHashMap<K, LongAdder> contadores, K clave, long cantidad) {
+        if (clave != null) {
+            contadores.computeIfAbsent(clave, ignorada -> new LongAdder()).add(cantidad);
+        }
+    }
+
+    private static <K> long valor(ConcurrentHashMap<K, LongAdder> contadores, K clave) {
+        LongAdder contador = contadores.get(clave);
+        return contador == null ? 0 : contador.sum();
+    }
+
+    private static void ejecutarAlConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    private enum TipoCambio {
+        ALTA,
+        CANCELACION,
+        DEVOLUCION
+    }
+
+    private record Delta(Long idPrestamo, TipoCambio tipo, Consumer<Agregados> cambio) {
+    }
+
+    private static class Reconstruccion {
+        private final Queue<Delta> pendientes = new ConcurrentLinkedQueue<>();
+        private final Map<Long, FilasVistas> vistas = new ConcurrentHashMap<>();
+    }
+
+    private static class FilasVistas {
+        private final long desde;
+        private final BitSet activas;
+        private final BitSet canceladas;
+        private final BitSet devueltas;
+
+        private FilasVistas(long desde, int cantidad) {
+            this.desde = desde;
+            this.activas = new BitSet(cantidad);
+            this.canceladas = new BitSet(cantidad);
+            this.devueltas = new BitSet(cantidad);
+        }
+    }
+
+    private static class Agregados {
+        private final ConcurrentHashMap<Long, LongAdder> prestamosPorLibro = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<LocalDate, LongAdder> altasPorDia = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<LocalDate, LongAdder> devolucionesPorDia = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,7 @@
+package com.ms.prestamos.exception;
+
+public class ClienteNoDisponibleException extends RuntimeException{
+    public ClienteNoDisponibleException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -16,6 +16,9 @@ public class PrestamoMapper {
         dto.setIdLibro(entity.getIdLibro());
         dto.setFechaPrestamo(entity.getFechaPrestamo());
         dto.setFechaDevolucion(entity.getFechaDevolucion());
+        dto.setFechaVencimiento(entity.getFechaVencimiento());
+        dto.setEstado(entity.getEstado());
+        dto.setVencido(entity.isVencido());
         return dto;
     }
 
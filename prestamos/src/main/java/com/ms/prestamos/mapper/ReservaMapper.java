@@ -0,0 +1,30 @@
+package com.ms.prestamos.mapper;
+
+import com.ms.prestamos.dto.ReservaDTO;
+import com.ms.prestamos.model.Reserva;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ReservaMapper {
+
+    public ReservaDTO toDTO(Reserva entity) {
+        if (entity == null)
+            return null;
+        ReservaDTO dto = new ReservaDTO();
+        dto.setId(entity.getId());
+        dto.setIdUsuario(entity.getIdUsuario());
+        dto.setIdLibro(entity.getIdLibro());
+        dto.setEstado(entity.getEstado());
+        dto.setIdPrestamo(entity.getIdPrestamo());
+        dto.setFechaSolicitud(entity.getFechaSolicitud());
+        return dto;
+    }
+
+    public Reserva toEntity(ReservaDTO dto) {
+        if (dto == null) return null;
+        Reserva entity = new Reserva();
+        entity.setIdUsuario(dto.getIdUsuario());
+        entity.setIdLibro(dto.getIdLibro());
+        return entity;
+    }
+}
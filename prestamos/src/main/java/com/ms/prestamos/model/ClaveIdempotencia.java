@@ -0,0 +1,40 @@
+package com.ms.prestamos.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "clave_idempotencia",
+        uniqueConstraints = @UniqueConstraint(name = "uk_clave_idempotencia", columnNames = "clave"),
+        indexes = @Index(name = "idx_clave_idempotencia_fecha", columnList = "fecha_creacion"))
+public class ClaveIdempotencia {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "clave_idempotencia_seq")
+    @SequenceGenerator(name = "clave_idempotencia_seq", sequenceName = "clave_idempotencia_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String clave;
+
+    @Column(nullable = false)
+    private String huella;
+
+    @Column(nullable = false)
+    private Long idPrestamo;
+
+    @Column(nullable = false)
+    private Instant fechaCreacion;
+
+    public ClaveIdempotencia(String clave, String huella) {
+        this.clave = clave;
+        this.huella = huella;
+    }
+}
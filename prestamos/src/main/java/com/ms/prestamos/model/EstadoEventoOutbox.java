@@ -0,0 +1,8 @@
+package com.ms.prestamos.model;
+
+public enum EstadoEventoOutbox {
+    PENDIENTE,
+    PROCESADO,
+    COMPENSADO,
+    FALLIDO
+}
@@ -0,0 +1,7 @@
+package com.ms.prestamos.model;
+
+public enum EstadoPrestamo {
+    PENDIENTE,
+    CONFIRMADO,
+    CANCELADO
+}
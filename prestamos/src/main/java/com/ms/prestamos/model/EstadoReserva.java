@@ -0,0 +1,7 @@
+package com.ms.prestamos.model;
+
+public enum EstadoReserva {
+    EN_ESPERA,
+    ASIGNADA,
+    CANCELADA
+}
@@ -0,0 +1,46 @@
+package com.ms.prestamos.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "evento_outbox", indexes = @Index(name = "idx_evento_outbox_pendientes", columnList = "estado, proximo_intento"))
+public class EventoOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evento_outbox_seq")
+    @SequenceGenerator(name = "evento_outbox_seq", sequenceName = "evento_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TipoEventoOutbox tipo;
+
+    @Column(nullable = false)
+    private Long idPrestamo;
+
+    @Column(nullable = false)
+    private Long idLibro;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EstadoEventoOutbox estado;
+
+    private int intentos;
+
+    @Column(nullable = false)
+    private Instant proximoIntento;
+
+    @Column(nullable = false)
+    private Instant fechaCreacion;
+
+    @Column(length = 500)
+    private String ultimoError;
+}
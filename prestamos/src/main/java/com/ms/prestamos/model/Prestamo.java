@@ -13,10 +13,15 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_prestamo_usuario", columnList = "id_usuario, id"),
+        @Index(name = "idx_prestamo_libro", columnList = "id_libro, id")
+})
 public class Prestamo {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prestamo_seq")
+    @SequenceGenerator(name = "prestamo_seq", sequenceName = "prestamo_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "El id de Usuario no puede estar vacío.")
@@ -30,4 +35,12 @@ public class Prestamo {
     @Column(nullable = false)
     private LocalDate fechaPrestamo;
     private LocalDate fechaDevolucion;
+    private LocalDate fechaVencimiento;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EstadoPrestamo estado = EstadoPrestamo.PENDIENTE;
+
+    @Column(nullable = false)
+    private boolean vencido;
 }
@@ -0,0 +1,39 @@
+package com.ms.prestamos.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "reserva", indexes = {
+        @Index(name = "idx_reserva_libro", columnList = "id_libro, id"),
+        @Index(name = "idx_reserva_usuario_libro", columnList = "id_usuario, id_libro")
+})
+public class Reserva {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reserva_seq")
+    @SequenceGenerator(name = "reserva_seq", sequenceName = "reserva_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long idUsuario;
+
+    @Column(nullable = false)
+    private Long idLibro;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EstadoReserva estado = EstadoReserva.EN_ESPERA;
+
+    @Column(nullable = false)
+    private Instant fechaSolicitud;
+
+    private Long idPrestamo;
+}
@@ -0,0 +1,6 @@
+package com.ms.prestamos.model;
+
+public enum TipoEventoOutbox {
+    RESERVAR_EJEMPLAR,
+    LIBERAR_EJEMPLAR
+}
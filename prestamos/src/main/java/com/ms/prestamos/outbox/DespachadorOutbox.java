@@ -0,0 +1,199 @@
+package com.ms.prestamos.outbox;
+
+import com.ms.prestamos.cache.CacheRecursosRemotos;
+import com.ms.prestamos.client.ILibroClient;
+import com.ms.prestamos.dto.ResultadoStockDTO;
+import com.ms.prestamos.model.EstadoEventoOutbox;
+import com.ms.prestamos.model.EventoOutbox;
+import com.ms.prestamos.model.Reserva;
+import com.ms.prestamos.model.TipoEventoOutbox;
+import com.ms.prestamos.repository.IEventoOutboxRepository;
+import com.ms.prestamos.reserva.ColaReservas;
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+@Component
+public class DespachadorOutbox {
+
+    public enum ResultadoDespacho {
+        PROCESADO,
+        COMPENSADO,
+        REINTENTAR,
+        OMITIDO
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(DespachadorOutbox.class);
+    private static final int LONGITUD_MAXIMA_ERROR = 500;
+    private static final String PREFIJO_CLAVE_OPERACION = "prestamos-evento-";
+    private static final int MAX_ASIGNACIONES_POR_EVENTO = 5;
+
+    private final IEventoOutboxRepository repository;
+    private final OutboxPrestamos outbox;
+    private final ColaReservas colaReservas;
+    private final ILibroClient libroClient;
+    private final CacheRecursosRemotos cache;
+    private final MeterRegistry meterRegistry;
+    private final int tamanioLote;
+    private final int maxIntentos;
+    private final Duration arrendamiento;
+    private final Duration esperaInicial;
+    private final Duration esperaMaxima;
+
+    public DespachadorOutbox(IEventoOutboxRepository repository, OutboxPrestamos outbox, ColaReservas colaReservas,
+                             ILibroClient libroClient, CacheRecursosRemotos cache, MeterRegistry meterRegistry,
+                             @Value("${prestamos.outbox.tamanio-lote:100}") int tamanioLote,
+                             @Value("${prestamos.outbox.max-intentos:10}") int maxIntentos,
+                             @Value("${prestamos.outbox.arrendamiento:30s}") Duration arrendamiento,
+                             @Value("${prestamos.outbox.espera-inicial:1s}") Duration esperaInicial,
+                             @Value("${prestamos.outbox.espera-maxima:5m}") Duration esperaMaxima) {
+        this.repository = repository;
+        this.outbox = outbox;
+        this.colaReservas = colaReservas;
+        this.libroClient = libroClient;
+        this.cache = cache;
+        this.meterRegistry = meterRegistry;
+        this.tamanioLote = tamanioLote;
+        this.maxIntentos = maxIntentos;
+        this.arrendamiento = arrendamiento;
+        this.esperaInicial = esperaInicial;
+        this.esperaMaxima = esperaMaxima;
+    }
+
+    @Scheduled(fixedDelayString = "${prestamos.outbox.intervalo-ms:1000}")
+    public void despacharPendientes() {
+        for (Long idEvento : repository.findIdsListos(EstadoEventoOutbox.PENDIENTE, Instant.now(), PageRequest.ofSize(tamanioLote))) {
+            try {
+                despachar(idEvento);
+            } catch (Exception e) {
+                log.error("Error al despachar el evento de outbox {}: {}", idEvento, e.getMessage());
+            }
+        }
+    }
+
+    public ResultadoDespacho despachar(Long idEvento) {
+        Instant ahora = Instant.now();
+        if (repository.reclamar(idEvento, EstadoEventoOutbox.PENDIENTE, ahora, ahora.plus(arrendamiento)) == 0) {
+            return ResultadoDespacho.OMITIDO;
+        }
+        Optional<EventoOutbox> reclamado = repository.findById(idEvento);
+        if (reclamado.isEmpty()) {
+            return ResultadoDespacho.OMITIDO;
+        }
+        EventoOutbox evento = reclamado.get();
+        return switch (evento.getTipo()) {
+            case RESERVAR_EJEMPLAR -> reservar(evento);
+            case LIBERAR_EJEMPLAR -> liberar(evento);
+        };
+    }
+
+    private ResultadoDespacho reservar(EventoOutbox evento) {
+        ResultadoStockDTO resultado;
+        try {
+            resultado = libroClient.reservarEjemplar(evento.getIdLibro(), claveOperacion(evento));
+        } catch (FeignException.NotFound e) {
+            outbox.compensarReserva(evento, "El libro con ID " + evento.getIdLibro() + " no existe.");
+            return ResultadoDespacho.COMPENSADO;
+        } catch (Exception e) {
+            return reprogramar(evento, e);
+        }
+        cache.invalidateLibro(evento.getIdLibro());
+        if (!resultado.isExitoso()) {
+            outbox.compensarReserva(evento, "No hay stock disponible.");
+            return ResultadoDespacho.COMPENSADO;
+        }
+        outbox.confirmarReserva(evento);
+        return ResultadoDespacho.PROCESADO;
+    }
+
+    private ResultadoDespacho liberar(EventoOutbox evento) {
+        try {
+            if (asignarListaEspera(evento)) {
+                return ResultadoDespacho.PROCESADO;
+            }
+        } catch (Exception e) {
+            return retenerParaListaEspera(evento, e);
+        }
+        try {
+            libroClient.liberarEjemplar(evento.getIdLibro(), claveOperacion(evento));
+        } catch (FeignException.NotFound e) {
+            log.error("No se pudo liberar el ejemplar: el libro con ID {} no existe", evento.getIdLibro());
+            registrarFallido(evento, "libro-inexistente");
+            repository.finalizar(evento.getId(), EstadoEventoOutbox.FALLIDO, "El libro con ID " + evento.getIdLibro() + " no existe.");
+            return ResultadoDespacho.OMITIDO;
+        } catch (Exception e) {
+            return reprogramar(evento, e);
+        }
+        cache.invalidateLibro(evento.getIdLibro());
+        outbox.confirmarLiberacion(evento);
+        return ResultadoDespacho.PROCESADO;
+    }
+
+    private boolean asignarListaEspera(EventoOutbox evento) {
+        for (int i = 0; i < MAX_ASIGNACIONES_POR_EVENTO; i++) {
+            Optional<Reserva> candidata = colaReservas.elegirCandidata(evento.getIdLibro());
+            if (candidata.isEmpty()) {
+                return false;
+            }
+            if (outbox.asignarReserva(evento, candidata.get()).isPresent()) {
+                return true;
+            }
+        }
+        throw new IllegalStateException("Las reservas candidatas del libro " + evento.getIdLibro() + " fueron tomadas por otras asignaciones");
+    }
+
+    private ResultadoDespacho retenerParaListaEspera(EventoOutbox evento, Exception e) {
+        String error = truncar(e.getClass().getSimpleName() + ": " + e.getMessage());
+        Duration espera = calcularEspera(evento.getIntentos());
+        meterRegistry.counter("prestamos.outbox.lista-espera.reintentos").increment();
+        log.warn("No se pudo asignar la lista de espera del libro {} (evento {}): {}. El ejemplar queda retenido y se reintenta en {} ms",
+                evento.getIdLibro(), evento.getId(), error, espera.toMillis());
+        repository.reprogramar(evento.getId(), Instant.now().plus(espera), error);
+        return ResultadoDespacho.REINTENTAR;
+    }
+
+    private ResultadoDespacho reprogramar(EventoOutbox evento, Exception e) {
+        String error = truncar(e.getClass().getSimpleName() + ": " + e.getMessage());
+        if (evento.getIntentos() >= maxIntentos) {
+            log.error("El evento de outbox {} ({}) agotó sus {} intentos: {}", evento.getId(), evento.getTipo(), maxIntentos, error);
+            registrarFallido(evento, "intentos-agotados");
+            if (evento.getTipo() == TipoEventoOutbox.RESERVAR_EJEMPLAR) {
+                outbox.compensarReserva(evento, truncar("No se pudo reservar el ejemplar tras " + maxIntentos + " intentos. " + error));
+                return ResultadoDespacho.COMPENSADO;
+            }
+            repository.finalizar(evento.getId(), EstadoEventoOutbox.FALLIDO, error);
+            return ResultadoDespacho.OMITIDO;
+        }
+        Duration espera = calcularEspera(evento.getIntentos());
+        log.warn("Falló el evento de outbox {} ({}), intento {}. Se reintenta en {} ms",
+                evento.getId(), evento.getTipo(), evento.getIntentos(), espera.toMillis());
+        repository.reprogramar(evento.getId(), Instant.now().plus(espera), error);
+        return ResultadoDespacho.REINTENTAR;
+    }
+
+    private void registrarFallido(EventoOutbox evento, String motivo) {
+        meterRegistry.counter("prestamos.outbox.fallidos", "tipo", evento.getTipo().name(), "motivo", motivo).increment();
+    }
+
+    Duration calcularEspera(int intentos) {
+        int exponente = Math.min(Math.max(intentos - 1, 0), 20);
+        Duration espera = esperaInicial.multipliedBy(1L << exponente);
+        return espera.compareTo(esperaMaxima) > 0 ? esperaMaxima : espera;
+    }
+
+    static String claveOperacion(EventoOutbox evento) {
+        return PREFIJO_CLAVE_OPERACION + evento.getId();
+    }
+
+    private static String truncar(String texto) {
+        return texto.length() <= LONGITUD_MAXIMA_ERROR ? texto : texto.substring(0, LONGITUD_MAXIMA_ERROR);
+    }
+}
@@ -0,0 +1,106 @@
+package com.ms.prestamos.outbox;
+
+import com.ms.prestamos.cache.LimitePrestamosUsuario;
+import com.ms.prestamos.estadisticas.EstadisticasPrestamos;
+import com.ms.prestamos.exception.RecursoInvalidoException;
+import com.ms.prestamos.model.ClaveIdempotencia;
+import com.ms.prestamos.model.EstadoEventoOutbox;
+import com.ms.prestamos.model.EstadoPrestamo;
+import com.ms.prestamos.model.EventoOutbox;
+import com.ms.prestamos.model.Prestamo;
+import com.ms.prestamos.model.Reserva;
+import com.ms.prestamos.model.TipoEventoOutbox;
+import com.ms.prestamos.repository.IClaveIdempotenciaRepository;
+import com.ms.prestamos.repository.IEventoOutboxRepository;
+import com.ms.prestamos.repository.IPrestamoRepository;
+import com.ms.prestamos.reserva.ColaReservas;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import java.time.Instant;
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+public class OutboxPrestamos {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxPrestamos.class);
+    private final IPrestamoRepository prestamoRepository;
+    private final IEventoOutboxRepository eventoRepository;
+    private final IClaveIdempotenciaRepository claveRepository;
+    private final LimitePrestamosUsuario limite;
+    private final EstadisticasPrestamos estadisticas;
+    private final ColaReservas colaReservas;
+
+    @Transactional
+    public EventoOutbox registrarPrestamo(Prestamo prestamo, ClaveIdempotencia claveIdempotencia) {
+        prestamo.setEstado(EstadoPrestamo.PENDIENTE);
+        Prestamo guardado = prestamoRepository.save(prestamo);
+        if (claveIdempotencia != null) {
+            claveIdempotencia.setIdPrestamo(guardado.getId());
+            claveIdempotencia.setFechaCreacion(Instant.now());
+            claveRepository.saveAndFlush(claveIdempotencia);
+        }
+        estadisticas.registrarAlta(guardado.getId(), guardado.getIdLibro(), guardado.getFechaPrestamo());
+        return eventoRepository.save(nuevoEvento(TipoEventoOutbox.RESERVAR_EJEMPLAR, guardado));
+    }
+
+    @Transactional(rollbackOn = RecursoInvalidoException.class)
+    public EventoOutbox registrarDevolucion(Prestamo prestamo) throws RecursoInvalidoException {
+        if (prestamoRepository.registrarDevolucion(prestamo.getId(), prestamo.getFechaDevolucion(), EstadoPrestamo.CONFIRMADO) == 0) {
+            log.warn("El préstamo con ID {} ya fue devuelto o no está confirmado", prestamo.getId());
+            throw new RecursoInvalidoException("El prestamo ya fue devuelto.");
+        }
+        estadisticas.registrarDevolucion(prestamo.getId(), prestamo.getFechaDevolucion());
+        return eventoRepository.save(nuevoEvento(TipoEventoOutbox.LIBERAR_EJEMPLAR, prestamo));
+    }
+
+    @Transactional
+    public Optional<Prestamo> asignarReserva(EventoOutbox evento, Reserva reserva) {
+        Optional<Prestamo> asignado = colaReservas.asignar(reserva);
+        asignado.ifPresent(prestamo -> {
+            eventoRepository.finalizar(evento.getId(), EstadoEventoOutbox.PROCESADO, null);
+            log.info("El ejemplar del préstamo con ID {} pasó al préstamo con ID {} de la lista de espera", evento.getIdPrestamo(), prestamo.getId());
+        });
+        return asignado;
+    }
+
+    @Transactional
+    public void confirmarReserva(EventoOutbox evento) {
+        prestamoRepository.actualizarEstado(evento.getIdPrestamo(), EstadoPrestamo.PENDIENTE, EstadoPrestamo.CONFIRMADO);
+        eventoRepository.finalizar(evento.getId(), EstadoEventoOutbox.PROCESADO, null);
+        log.info("Préstamo con ID {} confirmado", evento.getIdPrestamo());
+    }
+
+    @Transactional
+    public void compensarReserva(EventoOutbox evento, String motivo) {
+        int cancelados = prestamoRepository.actualizarEstado(evento.getIdPrestamo(), EstadoPrestamo.PENDIENTE, EstadoPrestamo.CANCELADO);
+        eventoRepository.finalizar(evento.getId(), EstadoEventoOutbox.COMPENSADO, motivo);
+        if (cancelados == 1) {
+            prestamoRepository.findById(evento.getIdPrestamo()).ifPresent(prestamo -> {
+                limite.liberar(prestamo.getIdUsuario());
+                estadisticas.registrarCancelacion(prestamo.getId(), prestamo.getIdLibro(), prestamo.getFechaPrestamo());
+            });
+        }
+        log.warn("Préstamo con ID {} cancelado. Motivo: {}", evento.getIdPrestamo(), motivo);
+    }
+
+    public void confirmarLiberacion(EventoOutbox evento) {
+        eventoRepository.finalizar(evento.getId(), EstadoEventoOutbox.PROCESADO, null);
+        log.info("Stock liberado para la devolución del préstamo con ID {}", evento.getIdPrestamo());
+    }
+
+    private static EventoOutbox nuevoEvento(TipoEventoOutbox tipo, Prestamo prestamo) {
+        Instant ahora = Instant.now();
+        EventoOutbox evento = new EventoOutbox();
+        evento.setTipo(tipo);
+        evento.setIdPrestamo(prestamo.getId());
+        evento.setIdLibro(prestamo.getIdLibro());
+        evento.setEstado(EstadoEventoOutbox.PENDIENTE);
+        evento.setProximoIntento(ahora);
+        evento.setFechaCreacion(ahora);
+        return evento;
+    }
+}
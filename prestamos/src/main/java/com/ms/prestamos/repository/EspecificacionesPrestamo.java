@@ -0,0 +1,35 @@
+package com.ms.prestamos.repository;
+
+import com.ms.prestamos.model.EstadoPrestamo;
+import com.ms.prestamos.model.Prestamo;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class EspecificacionesPrestamo {
+
+    private EspecificacionesPrestamo() {
+    }
+
+    public static Specification<Prestamo> despuesDe(Long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id == null ? 0L : id);
+    }
+
+    public static Specification<Prestamo> delUsuario(Long idUsuario) {
+        return (root, query, cb) -> cb.equal(root.get("idUsuario"), idUsuario);
+    }
+
+    public static Specification<Prestamo> delLibro(Long idLibro) {
+        return (root, query, cb) -> cb.equal(root.get("idLibro"), idLibro);
+    }
+
+    public static Specification<Prestamo> vencidos() {
+        return (root, query, cb) -> cb.and(
+                cb.isTrue(root.get("vencido")),
+                cb.isNull(root.get("fechaDevolucion")));
+    }
+
+    public static Specification<Prestamo> abiertos() {
+        return (root, query, cb) -> cb.and(
+                cb.isNull(root.get("fechaDevolucion")),
+                cb.notEqual(root.get("estado"), EstadoPrestamo.CANCELADO));
+    }
+}
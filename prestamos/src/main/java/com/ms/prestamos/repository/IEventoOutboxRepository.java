@@ -0,0 +1,36 @@
+package com.ms.prestamos.repository;
+
+import com.ms.prestamos.model.EstadoEventoOutbox;
+import com.ms.prestamos.model.EventoOutbox;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface IEventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    @Query("SELECT e.id FROM EventoOutbox e WHERE e.estado = :estado AND e.proximoIntento <= :ahora ORDER BY e.id")
+    List<Long> findIdsListos(@Param("estado") EstadoEventoOutbox estado, @Param("ahora") Instant ahora, Pageable pageable);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE EventoOutbox e SET e.proximoIntento = :arrendamiento, e.intentos = e.intentos + 1 " +
+            "WHERE e.id = :id AND e.estado = :estado AND e.proximoIntento <= :ahora")
+    int reclamar(@Param("id") Long id, @Param("estado") EstadoEventoOutbox estado,
+                 @Param("ahora") Instant ahora, @Param("arrendamiento") Instant arrendamiento);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE EventoOutbox e SET e.proximoIntento = :proximoIntento, e.ultimoError = :error WHERE e.id = :id")
+    int reprogramar(@Param("id") Long id, @Param("proximoIntento") Instant proximoIntento, @Param("error") String error);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE EventoOutbox e SET e.estado = :estado, e.ultimoError = :error WHERE e.id = :id")
+    int finalizar(@Param("id") Long id, @Param("estado") EstadoEventoOutbox estado, @Param("error") String error);
+}
@@ -1,7 +1,64 @@
 package com.ms.prestamos.repository;
 
+import com.ms.prestamos.model.EstadoPrestamo;
 import com.ms.prestamos.model.Prestamo;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface IPrestamoRepository extends JpaRepository<Prestamo, Long> {
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface IPrestamoRepository extends JpaRepository<Prestamo, Long>, JpaSpecificationExecutor<Prestamo> {
+
+    Slice<Prestamo> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("SELECT p.idUsuario AS idUsuario, COUNT(p) AS cantidad FROM Prestamo p "
+            + "WHERE p.fechaDevolucion IS NULL AND p.estado <> com.ms.prestamos.model.EstadoPrestamo.CANCELADO "
+            + "GROUP BY p.idUsuario")
+    List<ConteoAbiertos> contarAbiertosPorUsuario();
+
+    @Query("SELECT MAX(p.id) FROM Prestamo p")
+    Long findMaxId();
+
+    @Query("SELECT p.id AS id, p.idLibro AS idLibro, p.fechaPrestamo AS fechaPrestamo, "
+            + "p.fechaDevolucion AS fechaDevolucion, p.estado AS estado FROM Prestamo p "
+            + "WHERE p.id BETWEEN :desde AND :hasta")
+    List<FilaEstadisticas> findFilasEstadisticas(@Param("desde") Long desde, @Param("hasta") Long hasta);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Prestamo p SET p.estado = :nuevo WHERE p.id = :id AND p.estado = :esperado")
+    int actualizarEstado(@Param("id") Long id, @Param("esperado") EstadoPrestamo esperado, @Param("nuevo") EstadoPrestamo nuevo);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Prestamo p SET p.fechaDevolucion = :fecha WHERE p.id = :id AND p.fechaDevolucion IS NULL AND p.estado = :estado")
+    int registrarDevolucion(@Param("id") Long id, @Param("fecha") LocalDate fecha, @Param("estado") EstadoPrestamo estado);
+
+    @Query("SELECT p.id FROM Prestamo p WHERE p.id > :despuesDe AND p.fechaDevolucion IS NULL AND p.vencido = false "
+            + "AND p.estado = com.ms.prestamos.model.EstadoPrestamo.CONFIRMADO AND p.fechaVencimiento < :hoy ORDER BY p.id")
+    List<Long> findIdsPorVencer(@Param("hoy") LocalDate hoy, @Param("despuesDe") Long despuesDe, Pageable pageable);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Prestamo p SET p.vencido = true WHERE p.id IN :ids AND p.fechaDevolucion IS NULL AND p.vencido = false")
+    int marcarVencidos(@Param("ids") Collection<Long> ids);
+
+    interface ConteoAbiertos {
+        Long getIdUsuario();
+        Long getCantidad();
+    }
+
+    interface FilaEstadisticas {
+        Long getId();
+        Long getIdLibro();
+        LocalDate getFechaPrestamo();
+        LocalDate getFechaDevolucion();
+        EstadoPrestamo getEstado();
+    }
 }
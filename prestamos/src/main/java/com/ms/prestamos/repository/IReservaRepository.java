@@ -0,0 +1,30 @@
+package com.ms.prestamos.repository;
+
+import com.ms.prestamos.model.EstadoReserva;
+import com.ms.prestamos.model.Reserva;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface IReservaRepository extends JpaRepository<Reserva, Long> {
+
+    List<Reserva> findByIdLibroAndEstadoOrderByIdAsc(Long idLibro, EstadoReserva estado, Pageable pageable);
+
+    boolean existsByIdUsuarioAndIdLibroAndEstado(Long idUsuario, Long idLibro, EstadoReserva estado);
+
+    long countByIdLibroAndEstadoAndIdLessThan(Long idLibro, EstadoReserva estado, Long id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Reserva r SET r.estado = :nuevo WHERE r.id = :id AND r.estado = :esperado")
+    int actualizarEstado(@Param("id") Long id, @Param("esperado") EstadoReserva esperado, @Param("nuevo") EstadoReserva nuevo);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Reserva r SET r.idPrestamo = :idPrestamo WHERE r.id = :id")
+    int vincularPrestamo(@Param("id") Long id, @Param("idPrestamo") Long idPrestamo);
+}
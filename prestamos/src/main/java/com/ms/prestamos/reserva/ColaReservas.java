@@ -0,0 +1,131 @@
+package com.ms.prestamos.reserva;
+
+import com.ms.prestamos.cache.LimitePrestamosUsuario;
+import com.ms.prestamos.client.IUsuarioClient;
+import com.ms.prestamos.dto.UsuarioDTO;
+import com.ms.prestamos.estadisticas.EstadisticasPrestamos;
+import com.ms.prestamos.mapper.ReservaMapper;
+import com.ms.prestamos.model.EstadoPrestamo;
+import com.ms.prestamos.model.EstadoReserva;
+import com.ms.prestamos.model.Prestamo;
+import com.ms.prestamos.model.Reserva;
+import com.ms.prestamos.repository.IPrestamoRepository;
+import com.ms.prestamos.repository.IReservaRepository;
+import com.ms.prestamos.vencimiento.ProcesoVencimientos;
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+public class ColaReservas {
+
+    private static final Logger log = LoggerFactory.getLogger(ColaReservas.class);
+    private static final int CANDIDATAS_POR_CONSULTA = 20;
+
+    private final IReservaRepository reservaRepository;
+    private final IPrestamoRepository prestamoRepository;
+    private final IUsuarioClient usuarioClient;
+    private final ReservaMapper mapper;
+    private final LimitePrestamosUsuario limite;
+    private final ProcesoVencimientos vencimientos;
+    private final EstadisticasPrestamos estadisticas;
+    private final NotificadorReservas notificador;
+
+    public Optional<Reserva> elegirCandidata(Long idLibro) {
+        for (Reserva reserva : reservaRepository.findByIdLibroAndEstadoOrderByIdAsc(
+                idLibro, EstadoReserva.EN_ESPERA, PageRequest.ofSize(CANDIDATAS_POR_CONSULTA))) {
+            if (limite.abiertos(reserva.getIdUsuario()) >= limite.getMaximoAbiertos()) {
+                log.info("La reserva {} sigue en espera: el usuario {} alcanzó el máximo de préstamos abiertos", reserva.getId(), reserva.getIdUsuario());
+                continue;
+            }
+            if (usuarioHabilitado(reserva)) {
+                return Optional.of(reserva);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Optional<Prestamo> asignar(Reserva reserva) {
+        if (!limite.reservar(reserva.getIdUsuario())) {
+            log.info("La reserva {} sigue en espera: el usuario {} alcanzó el máximo de préstamos abiertos", reserva.getId(), reserva.getIdUsuario());
+            return Optional.empty();
+        }
+        if (reservaRepository.actualizarEstado(reserva.getId(), EstadoReserva.EN_ESPERA, EstadoReserva.ASIGNADA) == 0) {
+            limite.liberar(reserva.getIdUsuario());
+            return Optional.empty();
+        }
+        Prestamo asignado = prestamoRepository.save(nuevoPrestamo(reserva));
+        reservaRepository.vincularPrestamo(reserva.getId(), asignado.getId());
+        estadisticas.registrarAlta(asignado.getId(), asignado.getIdLibro(), asignado.getFechaPrestamo());
+
+        reserva.setEstado(EstadoReserva.ASIGNADA);
+        reserva.setIdPrestamo(asignado.getId());
+        alFinalizar(reserva);
+        log.info("Reserva {} asignada: se registró el préstamo {} para el usuario {}", reserva.getId(), asignado.getId(), reserva.getIdUsuario());
+        return Optional.of(asignado);
+    }
+
+    private boolean usuarioHabilitado(Reserva reserva) {
+        UsuarioDTO usuario;
+        try {
+            usuario = usuarioClient.getUsuarioById(reserva.getIdUsuario());
+        } catch (FeignException.NotFound e) {
+            log.warn("El usuario {} de la reserva {} ya no existe", reserva.getIdUsuario(), reserva.getId());
+            cancelar(reserva);
+            return false;
+        }
+        if (!Boolean.TRUE.equals(usuario.getIsActivo())) {
+            log.warn("El usuario {} de la reserva {} no es activo", reserva.getIdUsuario(), reserva.getId());
+            cancelar(reserva);
+            return false;
+        }
+        return true;
+    }
+
+    private void cancelar(Reserva reserva) {
+        if (reservaRepository.actualizarEstado(reserva.getId(), EstadoReserva.EN_ESPERA, EstadoReserva.CANCELADA) == 0) {
+            return;
+        }
+        reserva.setEstado(EstadoReserva.CANCELADA);
+        alFinalizar(reserva);
+        log.info("Reserva {} cancelada: el usuario {} no está habilitado", reserva.getId(), reserva.getIdUsuario());
+    }
+
+    private Prestamo nuevoPrestamo(Reserva reserva) {
+        Prestamo prestamo = new Prestamo();
+        prestamo.setIdUsuario(reserva.getIdUsuario());
+        prestamo.setIdLibro(reserva.getIdLibro());
+        prestamo.setFechaPrestamo(LocalDate.now());
+        prestamo.setFechaVencimiento(vencimientos.calcularVencimiento(prestamo.getFechaPrestamo()));
+        prestamo.setEstado(EstadoPrestamo.CONFIRMADO);
+        return prestamo;
+    }
+
+    private void alFinalizar(Reserva reserva) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            notificador.notificar(mapper.toDTO(reserva));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                notificador.notificar(mapper.toDTO(reserva));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED && reserva.getEstado() == EstadoReserva.ASIGNADA) {
+                    limite.liberar(reserva.getIdUsuario());
+                }
+            }
+        });
+    }
+}
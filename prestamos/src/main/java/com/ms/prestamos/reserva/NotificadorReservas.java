@@ -0,0 +1,41 @@
+package com.ms.prestamos.reserva;
+
+import com.ms.prestamos.dto.ReservaDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class NotificadorReservas {
+
+    private final ConcurrentHashMap<Long, Set<DeferredResult<ReservaDTO>>> esperas = new ConcurrentHashMap<>();
+
+    public void esperar(Long idReserva, DeferredResult<ReservaDTO> resultado) {
+        esperas.compute(idReserva, (id, pendientes) -> {
+            Set<DeferredResult<ReservaDTO>> conjunto = pendientes == null ? ConcurrentHashMap.newKeySet() : pendientes;
+            conjunto.add(resultado);
+            return conjunto;
+        });
+        resultado.onCompletion(() -> descartar(idReserva, resultado));
+    }
+
+    public void descartar(Long idReserva, DeferredResult<ReservaDTO> resultado) {
+        esperas.computeIfPresent(idReserva, (id, pendientes) -> {
+            pendientes.remove(resultado);
+            return pendientes.isEmpty() ? null : pendientes;
+        });
+    }
+
+    public void notificar(ReservaDTO reserva) {
+        Set<DeferredResult<ReservaDTO>> pendientes = esperas.remove(reserva.getId());
+        if (pendientes != null) {
+            pendientes.forEach(resultado -> resultado.setResult(reserva));
+        }
+    }
+
+    public int esperando(Long idReserva) {
+        Set<DeferredResult<ReservaDTO>> pendientes = esperas.get(idReserva);
+        return pendientes == null ? 0 : pendientes.size();
+    }
+}
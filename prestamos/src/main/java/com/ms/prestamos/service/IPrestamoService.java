@@ -1,13 +1,22 @@
 package com.ms.prestamos.service;
 
+import com.ms.prestamos.dto.PaginaPrestamosDTO;
 import com.ms.prestamos.dto.PrestamoDTO;
 import com.ms.prestamos.exception.*;
+import com.ms.prestamos.model.ClaveIdempotencia;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IPrestamoService {
 
     PrestamoDTO save(PrestamoDTO prestamoDTO) throws ComunicacionFallidaException, RecursoNoEncontradoException, RecursoInvalidoException;
+    PrestamoDTO save(PrestamoDTO prestamoDTO, ClaveIdempotencia claveIdempotencia) throws ComunicacionFallidaException, RecursoNoEncontradoException, RecursoInvalidoException;
     List<PrestamoDTO> getAll();
+    PaginaPrestamosDTO getPage(Long despuesDe, int tamanio);
+    PaginaPrestamosDTO buscar(Long idUsuario, Long idLibro, boolean abiertos, Long despuesDe, int tamanio);
+    PaginaPrestamosDTO getVencidos(Long despuesDe, int tamanio);
+    void forEachPage(int tamanio, Consumer<List<PrestamoDTO>> consumidor);
     PrestamoDTO findById(Long id) throws RecursoNoEncontradoException;
+    PrestamoDTO findRawById(Long id) throws RecursoNoEncontradoException;
     PrestamoDTO returnBook(Long id) throws RecursoNoEncontradoException, RecursoInvalidoException, ComunicacionFallidaException;
 }
@@ -0,0 +1,11 @@
+package com.ms.prestamos.service;
+
+import com.ms.prestamos.dto.ReservaDTO;
+import com.ms.prestamos.exception.*;
+
+public interface IReservaService {
+
+    ReservaDTO save(ReservaDTO reservaDTO) throws ComunicacionFallidaException, RecursoNoEncontradoException, RecursoInvalidoException;
+    ReservaDTO findById(Long id) throws RecursoNoEncontradoException;
+    ReservaDTO cancelar(Long id) throws RecursoNoEncontradoException, RecursoInvalidoException;
+}
@@ -1,22 +1,43 @@
 package com.ms.prestamos.service;
 
+import com.ms.prestamos.cache.CacheRecursosRemotos;
+import com.ms.prestamos.cache.LimitePrestamosUsuario;
 import com.ms.prestamos.client.ILibroClient;
 import com.ms.prestamos.client.IUsuarioClient;
 import com.ms.prestamos.dto.LibroDTO;
+import com.ms.prestamos.dto.PaginaPrestamosDTO;
 import com.ms.prestamos.dto.PrestamoDTO;
 import com.ms.prestamos.dto.UsuarioDTO;
 import com.ms.prestamos.exception.*;
 import com.ms.prestamos.mapper.PrestamoMapper;
+import com.ms.prestamos.model.ClaveIdempotencia;
+import com.ms.prestamos.model.EstadoPrestamo;
+import com.ms.prestamos.model.EventoOutbox;
 import com.ms.prestamos.model.Prestamo;
+import com.ms.prestamos.outbox.DespachadorOutbox;
+import com.ms.prestamos.outbox.OutboxPrestamos;
+import com.ms.prestamos.repository.EspecificacionesPrestamo;
 import com.ms.prestamos.repository.IPrestamoRepository;
+import com.ms.prestamos.vencimiento.ProcesoVencimientos;
 import feign.FeignException;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,39 +48,81 @@ public class PrestamoService implements IPrestamoService{
     private final IUsuarioClient usuarioClient;
     private final ILibroClient libroClient;
     private final PrestamoMapper mapper;
+    @Qualifier("consultasRemotasExecutor")
+    private final ExecutorService consultasRemotasExecutor;
+    private final CacheRecursosRemotos cache;
+    private final OutboxPrestamos outbox;
+    private final DespachadorOutbox despachador;
+    private final LimitePrestamosUsuario limite;
+    private final ProcesoVencimientos vencimientos;
 
 
     @Override
-    @Transactional
     public PrestamoDTO save(PrestamoDTO prestamoDTO) throws ComunicacionFallidaException, RecursoNoEncontradoException, RecursoInvalidoException {
+        return save(prestamoDTO, null);
+    }
+
+    @Override
+    public PrestamoDTO save(PrestamoDTO prestamoDTO, ClaveIdempotencia claveIdempotencia) throws ComunicacionFallidaException, RecursoNoEncontradoException, RecursoInvalidoException {
+
+        CompletableFuture<UsuarioDTO> usuarioRemoto = CompletableFuture.supplyAsync(
+                () -> usuarioClient.getUsuarioById(prestamoDTO.getIdUsuario()), consultasRemotasExecutor);
+        CompletableFuture<LibroDTO> libroRemoto = CompletableFuture.supplyAsync(
+                () -> libroClient.getLibroById(prestamoDTO.getIdLibro()), consultasRemotasExecutor);
 
-        UsuarioDTO usuario = validateUserExists(prestamoDTO.getIdUsuario());
-        LibroDTO libro = findAndValidateBookStock(prestamoDTO.getIdLibro());
+        UsuarioDTO usuario = validateUserExists(prestamoDTO.getIdUsuario(), usuarioRemoto);
+        LibroDTO libro = findAndValidateBookStock(prestamoDTO.getIdLibro(), libroRemoto);
+
+        reserveUserSlot(prestamoDTO.getIdUsuario());
 
         Prestamo entidad = mapper.toEntity(prestamoDTO);
         setLoanDate(entidad);
         entidad.setFechaDevolucion(null);
 
-        Prestamo entidadGuardada = repository.save(entidad);
-        log.info("Préstamo registrado correctamente con ID {}", entidadGuardada.getId());
+        EventoOutbox evento;
+        try {
+            evento = outbox.registrarPrestamo(entidad, claveIdempotencia);
+        } catch (RuntimeException e) {
+            limite.liberar(prestamoDTO.getIdUsuario());
+            throw e;
+        }
+        log.info("Préstamo registrado con ID {}, pendiente de reservar el ejemplar.", entidad.getId());
 
-        updateRemoteStock(libro);
+        reserveRemoteStock(entidad, evento);
 
-        PrestamoDTO respuesta = mapper.toDTO(entidadGuardada);
+        PrestamoDTO respuesta = mapper.toDTO(entidad);
         respuesta.setUsuario(usuario);
         respuesta.setLibro(libro);
 
         return respuesta;
     }
 
-    private void updateRemoteStock(LibroDTO libro) throws ComunicacionFallidaException {
+    private void reserveUserSlot(Long idUsuario) throws RecursoInvalidoException {
+        if (!limite.reservar(idUsuario)) {
+            log.warn("El usuario {} alcanzó el máximo de {} préstamos abiertos", idUsuario, limite.getMaximoAbiertos());
+            throw new RecursoInvalidoException("El usuario alcanzó el máximo de " + limite.getMaximoAbiertos() + " préstamos abiertos.");
+        }
+    }
+
+    private void reserveRemoteStock(Prestamo prestamo, EventoOutbox evento) throws RecursoInvalidoException {
+        DespachadorOutbox.ResultadoDespacho resultado;
         try {
-            libro.setEjemplaresDisponibles(libro.getEjemplaresDisponibles() - 1);
-            libroClient.updateLibro(libro.getId(), libro);
-            log.info("El stock de libro prestado se actualizó. ");
+            resultado = despachador.despachar(evento.getId());
         } catch (Exception e) {
-            log.error("Error al actualizar stock. Realizando Rollback del préstamo.", e);
-            throw new ComunicacionFallidaException("Error al actualizar el stock del libro. Se cancela el préstamo.");
+            log.error("No se pudo despachar la reserva del préstamo {}. Queda pendiente para el despachador.", prestamo.getId(), e);
+            return;
+        }
+        if (resultado == DespachadorOutbox.ResultadoDespacho.REINTENTAR || resultado == DespachadorOutbox.ResultadoDespacho.OMITIDO) {
+            log.info("La reserva del ejemplar del préstamo {} no se confirmó todavía; queda PENDIENTE para el despachador.", prestamo.getId());
+            return;
+        }
+        if (resultado == DespachadorOutbox.ResultadoDespacho.COMPENSADO) {
+            log.warn("El libro se quedó sin stock antes de confirmar el préstamo. Préstamo {} cancelado.", prestamo.getId());
+            throw new RecursoInvalidoException("No hay stock disponible.");
+        }
+        if (resultado == DespachadorOutbox.ResultadoDespacho.PROCESADO) {
+            prestamo.setEstado(EstadoPrestamo.CONFIRMADO);
+            log.info("El stock de libro prestado se actualizó. ");
         }
     }
 
@@ -67,12 +130,13 @@ public class PrestamoService implements IPrestamoService{
         if (prestamo.getFechaPrestamo()== null) {
             prestamo.setFechaPrestamo(LocalDate.now());
         }
+        prestamo.setFechaVencimiento(vencimientos.calcularVencimiento(prestamo.getFechaPrestamo()));
     }
 
-    private LibroDTO findAndValidateBookStock(Long idLibro) throws RecursoNoEncontradoException, ComunicacionFallidaException, RecursoInvalidoException {
+    private LibroDTO findAndValidateBookStock(Long idLibro, CompletableFuture<LibroDTO> libroRemoto) throws RecursoNoEncontradoException, ComunicacionFallidaException, RecursoInvalidoException {
         LibroDTO libro;
         try {
-            libro = libroClient.getLibroById(idLibro);
+            libro = awaitRemote(libroRemoto);
         } catch (FeignException.NotFound e) {
             log.warn("El libro con ID {} no existe", idLibro);
             throw new RecursoNoEncontradoException("El libro con ID  " + idLibro + " no existe");
@@ -89,10 +153,10 @@ public class PrestamoService implements IPrestamoService{
         return libro;
     }
 
-    private UsuarioDTO validateUserExists(Long idUsuario) throws RecursoNoEncontradoException, ComunicacionFallidaException, RecursoInvalidoException {
+    private UsuarioDTO validateUserExists(Long idUsuario, CompletableFuture<UsuarioDTO> usuarioRemoto) throws RecursoNoEncontradoException, ComunicacionFallidaException, RecursoInvalidoException {
         UsuarioDTO usuario;
         try {
-            usuario = usuarioClient.getUsuarioById(idUsuario);
+            usuario = awaitRemote(usuarioRemoto);
         } catch (FeignException.NotFound e) {
             log.warn("El usuario con ID {} no existe", idUsuario);
             throw new RecursoNoEncontradoException("El usuario con ID " + idUsuario + " no existe");
@@ -108,15 +172,86 @@ public class PrestamoService implements IPrestamoService{
         return usuario;
     }
 
+    private static <T> T awaitRemote(CompletableFuture<T> llamadaRemota) {
+        try {
+            return llamadaRemota.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
     @Override
     public List<PrestamoDTO> getAll() {
-        return repository.findAll()
+        List<PrestamoDTO> prestamos = repository.findAll()
                 .stream()
-                .map(prestamo -> {
-                    PrestamoDTO dto = mapper.toDTO(prestamo);
-                    return enrichPrestamo(dto);
-                })
+                .map(mapper::toDTO)
                 .toList();
+        return enrichPrestamos(prestamos);
+    }
+
+    @Override
+    public PaginaPrestamosDTO getPage(Long despuesDe, int tamanio) {
+        Slice<Prestamo> slice = repository.findByIdGreaterThanOrderByIdAsc(
+                despuesDe == null ? 0L : despuesDe, PageRequest.ofSize(tamanio));
+        List<PrestamoDTO> contenido = enrichPrestamos(slice.getContent()
+                .stream()
+                .map(mapper::toDTO)
+                .toList());
+
+        Long siguienteCursor = slice.hasNext() ? contenido.get(contenido.size() - 1).getId() : null;
+        return new PaginaPrestamosDTO(contenido, siguienteCursor, slice.hasNext());
+    }
+
+    @Override
+    public PaginaPrestamosDTO buscar(Long idUsuario, Long idLibro, boolean abiertos, Long despuesDe, int tamanio) {
+        Specification<Prestamo> filtro = EspecificacionesPrestamo.despuesDe(despuesDe);
+        if (idUsuario != null) {
+            filtro = filtro.and(EspecificacionesPrestamo.delUsuario(idUsuario));
+        }
+        if (idLibro != null) {
+            filtro = filtro.and(EspecificacionesPrestamo.delLibro(idLibro));
+        }
+        if (abiertos) {
+            filtro = filtro.and(EspecificacionesPrestamo.abiertos());
+        }
+        return paginar(filtro, tamanio);
+    }
+
+    @Override
+    public PaginaPrestamosDTO getVencidos(Long despuesDe, int tamanio) {
+        return paginar(EspecificacionesPrestamo.despuesDe(despuesDe).and(EspecificacionesPrestamo.vencidos()), tamanio);
+    }
+
+    private PaginaPrestamosDTO paginar(Specification<Prestamo> filtro, int tamanio) {
+        List<Prestamo> encontrados = repository.findBy(filtro, consulta -> consulta
+                .sortBy(Sort.by("id"))
+                .limit(tamanio + 1)
+                .all());
+        boolean hayMas = encontrados.size() > tamanio;
+        List<PrestamoDTO> contenido = enrichPrestamos(encontrados.stream()
+                .limit(tamanio)
+                .map(mapper::toDTO)
+                .toList());
+
+        Long siguienteCursor = hayMas ? contenido.get(contenido.size() - 1).getId() : null;
+        return new PaginaPrestamosDTO(contenido, siguienteCursor, hayMas);
+    }
+
+    @Override
+    public void forEachPage(int tamanio, Consumer<List<PrestamoDTO>> consumidor) {
+        Long cursor = null;
+        boolean hayMas = true;
+        while (hayMas) {
+            PaginaPrestamosDTO pagina = getPage(cursor, tamanio);
+            if (!pagina.getContenido().isEmpty()) {
+                consumidor.accept(pagina.getContenido());
+            }
+            cursor = pagina.getSiguienteCursor();
+            hayMas = pagina.isHayMas();
+        }
     }
 
     @Override
@@ -127,31 +262,42 @@ public class PrestamoService implements IPrestamoService{
     }
 
     @Override
-    @Transactional
+    public PrestamoDTO findRawById(Long id) throws RecursoNoEncontradoException {
+        return mapper.toDTO(findEntityById(id));
+    }
+
+    @Override
     public PrestamoDTO returnBook(Long id) throws RecursoNoEncontradoException, RecursoInvalidoException, ComunicacionFallidaException {
         Prestamo prestamo = findEntityById(id);
 
         validateLoanNotReturned(prestamo.getFechaDevolucion());
+        validateLoanConfirmed(prestamo.getEstado());
 
         prestamo.setFechaDevolucion(LocalDate.now());
-        repository.save(prestamo);
+        EventoOutbox evento = outbox.registrarDevolucion(prestamo);
+        limite.liberar(prestamo.getIdUsuario());
         log.info("El prestamo con ID {} fue actualizado correctamente.", prestamo.getId());
 
-        updateReturnedBookStock(prestamo.getIdLibro());
+        releaseRemoteStock(evento);
 
         PrestamoDTO dto = mapper.toDTO(prestamo);
         return enrichPrestamo(dto);
     }
 
-    private void updateReturnedBookStock(Long idLibro) throws ComunicacionFallidaException {
+    private void releaseRemoteStock(EventoOutbox evento) {
         try {
-            LibroDTO libro = libroClient.getLibroById(idLibro);
-            libro.setEjemplaresDisponibles(libro.getEjemplaresDisponibles()+1);
-            libroClient.updateLibro(libro.getId(), libro);
-            log.info("El stock de libro devuelto fue actualizado correctamente.");
+            if (despachador.despachar(evento.getId()) == DespachadorOutbox.ResultadoDespacho.PROCESADO) {
+                log.info("El stock de libro devuelto fue actualizado correctamente.");
+            }
         } catch (Exception e) {
-            log.error("Error crítico al actualizar stock en devolución.", e);
-            throw new ComunicacionFallidaException("No se pudo actualizar el stock de libro");
+            log.error("No se pudo despachar la liberación de stock del evento {}. Queda pendiente para el despachador.", evento.getId(), e);
+        }
+    }
+
+    private void validateLoanConfirmed(EstadoPrestamo estado) throws RecursoInvalidoException {
+        if (estado != EstadoPrestamo.CONFIRMADO) {
+            log.warn("El prestamo no está confirmado, estado actual: {}", estado);
+            throw new RecursoInvalidoException("El prestamo no está confirmado (estado: " + estado + ").");
         }
     }
 
@@ -171,11 +317,25 @@ public class PrestamoService implements IPrestamoService{
 
     private PrestamoDTO enrichPrestamo(PrestamoDTO dto) {
         try {
-            dto.setUsuario(usuarioClient.getUsuarioById(dto.getIdUsuario()));
-            dto.setLibro(libroClient.getLibroById(dto.getIdLibro()));
+            dto.setUsuario(cache.getUsuario(dto.getIdUsuario()));
+            dto.setLibro(cache.getLibro(dto.getIdLibro()));
         } catch (Exception e) {
             log.error("Error al enriquecer el préstamo {}: {}", dto.getId(), e.getMessage());
         }
         return dto;
     }
+
+    private List<PrestamoDTO> enrichPrestamos(List<PrestamoDTO> prestamos) {
+        Set<Long> idsUsuarios = prestamos.stream().map(PrestamoDTO::getIdUsuario).collect(Collectors.toSet());
+        Set<Long> idsLibros = prestamos.stream().map(PrestamoDTO::getIdLibro).collect(Collectors.toSet());
+
+        Map<Long, UsuarioDTO> usuarios = cache.getUsuarios(idsUsuarios);
+        Map<Long, LibroDTO> libros = cache.getLibros(idsLibros);
+
+        prestamos.forEach(dto -> {
+            dto.setUsuario(usuarios.get(dto.getIdUsuario()));
+            dto.setLibro(libros.get(dto.getIdLibro()));
+        });
+        return prestamos;
+    }
 }
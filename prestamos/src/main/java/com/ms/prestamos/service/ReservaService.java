@@ -0,0 +1,124 @@
+package com.ms.prestamos.service;
+
+import com.ms.prestamos.cache.LimitePrestamosUsuario;
+import com.ms.prestamos.client.ILibroClient;
+import com.ms.prestamos.client.IUsuarioClient;
+import com.ms.prestamos.dto.LibroDTO;
+import com.ms.prestamos.dto.ReservaDTO;
+import com.ms.prestamos.dto.UsuarioDTO;
+import com.ms.prestamos.exception.*;
+import com.ms.prestamos.mapper.ReservaMapper;
+import com.ms.prestamos.model.EstadoReserva;
+import com.ms.prestamos.model.Reserva;
+import com.ms.prestamos.repository.IReservaRepository;
+import com.ms.prestamos.reserva.NotificadorReservas;
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import java.time.Instant;
+
+@Service
+@RequiredArgsConstructor
+public class ReservaService implements IReservaService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservaService.class);
+    private final IReservaRepository repository;
+    private final IUsuarioClient usuarioClient;
+    private final ILibroClient libroClient;
+    private final ReservaMapper mapper;
+    private final LimitePrestamosUsuario limite;
+    private final NotificadorReservas notificador;
+
+    @Override
+    public ReservaDTO save(ReservaDTO reservaDTO) throws ComunicacionFallidaException, RecursoNoEncontradoException, RecursoInvalidoException {
+        validateUserActive(reservaDTO.getIdUsuario());
+        validateBookWithoutStock(reservaDTO.getIdLibro());
+
+        if (limite.abiertos(reservaDTO.getIdUsuario()) >= limite.getMaximoAbiertos()) {
+            log.warn("El usuario {} alcanzó el máximo de {} préstamos abiertos", reservaDTO.getIdUsuario(), limite.getMaximoAbiertos());
+            throw new RecursoInvalidoException("El usuario alcanzó el máximo de " + limite.getMaximoAbiertos() + " préstamos abiertos.");
+        }
+        if (repository.existsByIdUsuarioAndIdLibroAndEstado(reservaDTO.getIdUsuario(), reservaDTO.getIdLibro(), EstadoReserva.EN_ESPERA)) {
+            log.warn("El usuario {} ya está en la lista de espera del libro {}", reservaDTO.getIdUsuario(), reservaDTO.getIdLibro());
+            throw new RecursoInvalidoException("El usuario ya está en la lista de espera de este libro.");
+        }
+
+        Reserva reserva = mapper.toEntity(reservaDTO);
+        reserva.setEstado(EstadoReserva.EN_ESPERA);
+        reserva.setFechaSolicitud(Instant.now());
+        Reserva guardada = repository.save(reserva);
+        log.info("Reserva registrada con ID {} para el libro {}", guardada.getId(), guardada.getIdLibro());
+        return withPosition(guardada);
+    }
+
+    @Override
+    public ReservaDTO findById(Long id) throws RecursoNoEncontradoException {
+        return withPosition(findEntityById(id));
+    }
+
+    @Override
+    public ReservaDTO cancelar(Long id) throws RecursoNoEncontradoException, RecursoInvalidoException {
+        Reserva reserva = findEntityById(id);
+        if (repository.actualizarEstado(id, EstadoReserva.EN_ESPERA, EstadoReserva.CANCELADA) == 0) {
+            EstadoReserva actual = findEntityById(id).getEstado();
+            log.warn("La reserva con ID {} ya no está en espera, estado actual: {}", id, actual);
+            throw new RecursoInvalidoException("La reserva ya no está en espera (estado: " + actual + ").");
+        }
+        reserva.setEstado(EstadoReserva.CANCELADA);
+        ReservaDTO dto = mapper.toDTO(reserva);
+        notificador.notificar(dto);
+        log.info("Reserva con ID {} cancelada", id);
+        return dto;
+    }
+
+    private void validateUserActive(Long idUsuario) throws RecursoNoEncontradoException, ComunicacionFallidaException, RecursoInvalidoException {
+        UsuarioDTO usuario;
+        try {
+            usuario = usuarioClient.getUsuarioById(idUsuario);
+        } catch (FeignException.NotFound e) {
+            log.warn("El usuario con ID {} no existe", idUsuario);
+            throw new RecursoNoEncontradoException("El usuario con ID " + idUsuario + " no existe");
+        } catch (Exception e) {
+            log.error("Error al conectar con MS Usuarios", e);
+            throw new ComunicacionFallidaException("No se pudo comunicar con el microservicio de Usuarios.");
+        }
+        if (!Boolean.TRUE.equals(usuario.getIsActivo())) {
+            log.warn("El usuario no es activo.");
+            throw new RecursoInvalidoException("El usuario no es activo.");
+        }
+    }
+
+    private void validateBookWithoutStock(Long idLibro) throws RecursoNoEncontradoException, ComunicacionFallidaException, RecursoInvalidoException {
+        LibroDTO libro;
+        try {
+            libro = libroClient.getLibroById(idLibro);
+        } catch (FeignException.NotFound e) {
+            log.warn("El libro con ID {} no existe", idLibro);
+            throw new RecursoNoEncontradoException("El libro con ID  " + idLibro + " no existe");
+        } catch (Exception e) {
+            log.error("Error al conectar con MS Libros", e);
+            throw new ComunicacionFallidaException("No se pudo comunicar con el microservicio de Libros.");
+        }
+        if (libro.getEjemplaresDisponibles() > 0) {
+            log.warn("El libro {} tiene stock, no corresponde una reserva", idLibro);
+            throw new RecursoInvalidoException("El libro tiene ejemplares disponibles; registre el préstamo directamente.");
+        }
+    }
+
+    private ReservaDTO withPosition(Reserva reserva) {
+        ReservaDTO dto = mapper.toDTO(reserva);
+        if (reserva.getEstado() == EstadoReserva.EN_ESPERA) {
+            dto.setPosicion(repository.countByIdLibroAndEstadoAndIdLessThan(reserva.getIdLibro(), EstadoReserva.EN_ESPERA, reserva.getId()) + 1);
+        }
+        return dto;
+    }
+
+    private Reserva findEntityById(Long id) throws RecursoNoEncontradoException {
+        return repository.findById(id).orElseThrow(() -> {
+            log.warn("No se encontró la reserva con ID: {}", id);
+            return new RecursoNoEncontradoException("La reserva con ID " + id + " no existe");
+        });
+    }
+}
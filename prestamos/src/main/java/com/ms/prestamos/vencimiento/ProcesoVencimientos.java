@@ -0,0 +1,56 @@
+package com.ms.prestamos.vencimiento;
+
+import com.ms.prestamos.repository.IPrestamoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.LocalDate;
+import java.util.List;
+
+@Component
+public class ProcesoVencimientos {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcesoVencimientos.class);
+
+    private final IPrestamoRepository repository;
+    private final int diasPrestamo;
+    private final int tamanioLote;
+
+    public ProcesoVencimientos(IPrestamoRepository repository,
+                               @Value("${prestamos.vencimiento.dias-prestamo:14}") int diasPrestamo,
+                               @Value("${prestamos.vencimiento.tamanio-lote:1000}") int tamanioLote) {
+        this.repository = repository;
+        this.diasPrestamo = diasPrestamo;
+        this.tamanioLote = tamanioLote;
+    }
+
+    public LocalDate calcularVencimiento(LocalDate fechaPrestamo) {
+        return fechaPrestamo.plusDays(diasPrestamo);
+    }
+
+    @Scheduled(cron = "${prestamos.vencimiento.cron:0 0 2 * * *}")
+    public void marcarVencidos() {
+        marcarVencidos(LocalDate.now());
+    }
+
+    public long marcarVencidos(LocalDate hoy) {
+        long inicio = System.currentTimeMillis();
+        long marcados = 0;
+        long lotes = 0;
+        Long cursor = 0L;
+        List<Long> ids;
+        do {
+            ids = repository.findIdsPorVencer(hoy, cursor, PageRequest.ofSize(tamanioLote));
+            if (!ids.isEmpty()) {
+                marcados += repository.marcarVencidos(ids);
+                cursor = ids.get(ids.size() - 1);
+                lotes++;
+            }
+        } while (ids.size() == tamanioLote);
+        log.info("Se marcaron {} préstamos vencidos en {} lotes ({} ms)", marcados, lotes, System.currentTimeMillis() - inicio);
+        return marcados;
+    }
+}
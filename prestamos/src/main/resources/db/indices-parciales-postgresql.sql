@@ -0,0 +1,5 @@
+CREATE INDEX IF NOT EXISTS idx_prestamo_usuario_abiertos ON prestamo (id_usuario, id) WHERE fecha_devolucion IS NULL;
+CREATE INDEX IF NOT EXISTS idx_prestamo_libro_abiertos ON prestamo (id_libro, id) WHERE fecha_devolucion IS NULL;
+CREATE INDEX IF NOT EXISTS idx_prestamo_abiertos ON prestamo (id) WHERE fecha_devolucion IS NULL;
+CREATE INDEX IF NOT EXISTS idx_prestamo_vencidos ON prestamo (id) WHERE vencido AND fecha_devolucion IS NULL;
+CREATE INDEX IF NOT EXISTS idx_reserva_libro_en_espera ON reserva (id_libro, id) WHERE estado = 'EN_ESPERA';
@@ -0,0 +1,100 @@
+package com.ms.prestamos.cache;
+
+import com.ms.prestamos.client.ILibroClient;
+import com.ms.prestamos.client.IUsuarioClient;
+import com.ms.prestamos.dto.LibroDTO;
+import com.ms.prestamos.dto.UsuarioDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas de la cache de recursos remotos")
+class CacheRecursosRemotosTest {
+
+    @Mock
+    private IUsuarioClient usuarioClient;
+
+    @Mock
+    private ILibroClient libroClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CacheRecursosRemotos cache;
+    private UsuarioDTO usuarioDTO;
+    private LibroDTO libroDTO;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new CacheRecursosRemotos(usuarioClient, libroClient, meterRegistry, 100, Duration.ofMinutes(1));
+        usuarioDTO = new UsuarioDTO(1L, "Juan Perez", "juan@mail.com", true);
+        libroDTO = new LibroDTO(10L, "Libro Test", "Autor Test", "123456789", 5);
+    }
+
+    @Test
+    @DisplayName("Debe consultar el origen una sola vez para el mismo usuario")
+    void getUsuario_SecondCallIsHit() {
+        when(usuarioClient.getUsuarioById(1L)).thenReturn(usuarioDTO);
+
+        assertEquals(usuarioDTO, cache.getUsuario(1L));
+        assertEquals(usuarioDTO, cache.getUsuario(1L));
+
+        verify(usuarioClient, times(1)).getUsuarioById(1L);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "prestamos.usuarios").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Debe volver a consultar el libro luego de invalidarlo")
+    void invalidateLibro_ForcesReload() {
+        when(libroClient.getLibroById(10L)).thenReturn(libroDTO);
+
+        cache.getLibro(10L);
+        cache.invalidateLibro(10L);
+        cache.getLibro(10L);
+
+        verify(libroClient, times(2)).getLibroById(10L);
+    }
+
+    @Test
+    @DisplayName("Debe consultar por lote solo los IDs que no están en cache")
+    void getUsuarios_FetchesOnlyMisses() {
+        UsuarioDTO otroUsuario = new UsuarioDTO(2L, "Ana Lopez", "ana@mail.com", true);
+        when(usuarioClient.getUsuarioById(1L)).thenReturn(usuarioDTO);
+        when(usuarioClient.getUsuariosByIds(anyList())).thenReturn(List.of(otroUsuario));
+        cache.getUsuario(1L);
+
+        Map<Long, UsuarioDTO> result = cache.getUsuarios(List.of(1L, 2L));
+
+        assertEquals(2, result.size());
+        verify(usuarioClient, times(1)).getUsuariosByIds(List.of(2L));
+    }
+
+    @Test
+    @DisplayName("Debe dividir la consulta por lotes y omitir los lotes que fallan")
+    void getLibros_ChunksAndToleratesFailures() {
+        List<Long> ids = LongStream.rangeClosed(1, 250).boxed().toList();
+        when(libroClient.getLibrosByIds(anyList()))
+                .thenThrow(new RuntimeException("MS Libros caído"))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).stream()
+                        .map(id -> new LibroDTO(id, "Libro " + id, "Autor", "isbn-" + id, 1))
+                        .toList());
+
+        Map<Long, LibroDTO> result = cache.getLibros(ids);
+
+        verify(libroClient, times(2)).getLibrosByIds(anyList());
+        assertEquals(50, result.size());
+        verify(libroClient, never()).getLibroById(any());
+    }
+}
@@ -0,0 +1,207 @@
+package com.ms.prestamos.cache;
+
+import com.ms.prestamos.dto.PrestamoDTO;
+import com.ms.prestamos.exception.ComunicacionFallidaException;
+import com.ms.prestamos.exception.RecursoInvalidoException;
+import com.ms.prestamos.model.ClaveIdempotencia;
+import com.ms.prestamos.model.EstadoPrestamo;
+import com.ms.prestamos.repository.IClaveIdempotenciaRepository;
+import com.ms.prestamos.service.IPrestamoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas del registro de idempotencia de préstamos")
+class IdempotenciaPrestamosTest {
+
+    @Mock
+    private IClaveIdempotenciaRepository repository;
+
+    @Mock
+    private IPrestamoService service;
+
+    private IdempotenciaPrestamos idempotencia;
+    private PrestamoDTO solicitud;
+    private PrestamoDTO registrado;
+
+    @BeforeEach
+    void setUp() {
+        idempotencia = new IdempotenciaPrestamos(repository, service, Duration.ofHours(24), Duration.ofMillis(200));
+        solicitud = new PrestamoDTO(null, 1L, 10L, null, null, null, null, null, null, false);
+        registrado = new PrestamoDTO(50L, 1L, 10L, null, null, LocalDate.now(), null, null, EstadoPrestamo.CONFIRMADO, false);
+    }
+
+    @Test
+    @DisplayName("Debe registrar el préstamo junto con la clave y su huella la primera vez")
+    void ejecutar_NewKey_SavesWithKey() throws Exception {
+        when(repository.findByClave("clave-1")).thenReturn(Optional.empty());
+        when(service.save(eq(solicitud), any(ClaveIdempotencia.class))).thenReturn(registrado);
+
+        PrestamoDTO resultado = idempotencia.ejecutar("clave-1", solicitud);
+
+        assertEquals(50L, resultado.getId());
+        verify(service).save(eq(solicitud), argThat(clave -> "clave-1".equals(clave.getClave()) && "1:10".equals(clave.getHuella())));
+    }
+
+    @Test
+    @DisplayName("Debe reutilizar el préstamo persistido sin volver a registrarlo")
+    void ejecutar_PersistedKey_ReplaysStoredLoan() throws Exception {
+        when(repository.findByClave("clave-1")).thenReturn(Optional.of(claveRegistrada("clave-1", "1:10")));
+        when(service.findRawById(50L)).thenReturn(registrado);
+
+        PrestamoDTO resultado = idempotencia.ejecutar("clave-1", solicitud);
+
+        assertSame(registrado, resultado);
+        verify(service, never()).save(any(), any());
+        verify(service, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar una clave reutilizada con una solicitud distinta")
+    void ejecutar_SameKeyDifferentRequest_ThrowsRecursoInvalido() {
+        when(repository.findByClave("clave-2")).thenReturn(Optional.of(claveRegistrada("clave-2", "2:10")));
+
+        assertThrows(RecursoInvalidoException.class, () -> idempotencia.ejecutar("clave-2", solicitud));
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    @DisplayName("Debe repetir el rechazo si el préstamo registrado con la clave fue cancelado")
+    void ejecutar_PersistedKeyCancelledLoan_ThrowsRecursoInvalido() throws Exception {
+        registrado.setEstado(EstadoPrestamo.CANCELADO);
+        when(repository.findByClave("clave-5")).thenReturn(Optional.of(claveRegistrada("clave-5", "1:10")));
+        when(service.findRawById(50L)).thenReturn(registrado);
+
+        assertThrows(RecursoInvalidoException.class, () -> idempotencia.ejecutar("clave-5", solicitud));
+    }
+
+    @Test
+    @DisplayName("Debe reutilizar el préstamo si otra instancia registró la misma clave en paralelo")
+    void ejecutar_ConcurrentInsertOnOtherReplica_ReplaysStoredLoan() throws Exception {
+        when(repository.findByClave("clave-6"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(claveRegistrada("clave-6", "1:10")));
+        when(service.save(eq(solicitud), any(ClaveIdempotencia.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_clave_idempotencia"));
+        when(service.findRawById(50L)).thenReturn(registrado);
+
+        PrestamoDTO resultado = idempotencia.ejecutar("clave-6", solicitud);
+
+        assertEquals(50L, resultado.getId());
+    }
+
+    @Test
+    @DisplayName("No debe registrar las operaciones fallidas para permitir el reintento")
+    void ejecutar_FailedOperation_AllowsRetry() throws Exception {
+        when(repository.findByClave("clave-3")).thenReturn(Optional.empty());
+        when(service.save(eq(solicitud), any(ClaveIdempotencia.class)))
+                .thenThrow(new ComunicacionFallidaException("MS Libros no disponible"))
+                .thenReturn(registrado);
+
+        assertThrows(ComunicacionFallidaException.class, () -> idempotencia.ejecutar("clave-3", solicitud));
+        PrestamoDTO resultado = idempotencia.ejecutar("clave-3", solicitud);
+
+        assertEquals(50L, resultado.getId());
+        verify(service, times(2)).save(eq(solicitud), any(ClaveIdempotencia.class));
+    }
+
+    @Test
+    @DisplayName("Debe ejecutar una sola vez ante reintentos concurrentes con la misma clave")
+    void ejecutar_ConcurrentRetries_ExecutesOnce() throws Exception {
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(repository.findByClave("clave-4"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(claveRegistrada("clave-4", "1:10")));
+        lenient().when(service.findRawById(50L)).thenReturn(registrado);
+        when(service.save(eq(solicitud), any(ClaveIdempotencia.class))).thenAnswer(invocacion -> {
+            enCurso.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return registrado;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<PrestamoDTO> original = CompletableFuture.supplyAsync(() -> ejecutarSinExcepciones("clave-4"), executor);
+            assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+            CompletableFuture<PrestamoDTO> reintento = CompletableFuture.supplyAsync(() -> ejecutarSinExcepciones("clave-4"), executor);
+            liberar.countDown();
+
+            assertEquals(50L, original.get(5, TimeUnit.SECONDS).getId());
+            assertEquals(50L, reintento.get(5, TimeUnit.SECONDS).getId());
+            verify(service, times(1)).save(eq(solicitud), any(ClaveIdempotencia.class));
+        } finally {
+            liberar.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Debe responder conflicto si la solicitud en curso no termina dentro de la espera máxima")
+    void ejecutar_InFlightTimeout_ThrowsRecursoInvalido() throws Exception {
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(repository.findByClave("clave-7")).thenReturn(Optional.empty());
+        when(service.save(eq(solicitud), any(ClaveIdempotencia.class))).thenAnswer(invocacion -> {
+            enCurso.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return registrado;
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<PrestamoDTO> original = CompletableFuture.supplyAsync(() -> ejecutarSinExcepciones("clave-7"), executor);
+            assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+
+            RecursoInvalidoException error = assertThrows(RecursoInvalidoException.class,
+                    () -> idempotencia.ejecutar("clave-7", solicitud));
+
+            assertTrue(error.getMessage().contains("procesando"));
+            liberar.countDown();
+            assertEquals(50L, original.get(5, TimeUnit.SECONDS).getId());
+        } finally {
+            liberar.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Debe eliminar las claves más antiguas que el TTL")
+    void purgarVencidas_DeletesKeysOlderThanTtl() {
+        Instant antes = Instant.now().minus(Duration.ofHours(24));
+
+        idempotencia.purgarVencidas();
+
+        verify(repository).eliminarAnteriores(argThat(limite -> !limite.isBefore(antes)));
+    }
+
+    private static ClaveIdempotencia claveRegistrada(String clave, String huella) {
+        return new ClaveIdempotencia(1L, clave, huella, 50L, Instant.now());
+    }
+
+    private PrestamoDTO ejecutarSinExcepciones(String clave) {
+        try {
+            return idempotencia.ejecutar(clave, solicitud);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ms.prestamos.cache;
+
+import com.ms.prestamos.repository.IPrestamoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Pruebas del límite de préstamos abiertos por usuario")
+class LimitePrestamosUsuarioTest {
+
+    private IPrestamoRepository repository;
+    private LimitePrestamosUsuario limite;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IPrestamoRepository.class);
+        limite = new LimitePrestamosUsuario(repository, 3);
+    }
+
+    private static IPrestamoRepository.ConteoAbiertos conteo(Long idUsuario, Long cantidad) {
+        return new IPrestamoRepository.ConteoAbiertos() {
+            @Override
+            public Long getIdUsuario() {
+                return idUsuario;
+            }
+
+            @Override
+            public Long getCantidad() {
+                return cantidad;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Test límite: admite préstamos hasta el máximo y rechaza el siguiente")
+    void testReservarHastaElMaximo() {
+        assertTrue(limite.reservar(1L));
+        assertTrue(limite.reservar(1L));
+        assertTrue(limite.reservar(1L));
+        assertFalse(limite.reservar(1L));
+
+        assertEquals(3, limite.abiertos(1L));
+        assertTrue(limite.reservar(2L));
+    }
+
+    @Test
+    @DisplayName("Test límite: una devolución libera un cupo sin bajar de cero")
+    void testLiberarCupo() {
+        limite.reservar(1L);
+        limite.reservar(1L);
+        limite.reservar(1L);
+
+        limite.liberar(1L);
+        assertTrue(limite.reservar(1L));
+
+        limite.liberar(2L);
+        limite.liberar(1L);
+        limite.liberar(1L);
+        limite.liberar(1L);
+        limite.liberar(1L);
+        assertEquals(0, limite.abiertos(1L));
+        assertEquals(0, limite.abiertos(2L));
+    }
+
+    @Test
+    @DisplayName("Test límite: al iniciar carga los préstamos abiertos desde la base de datos")
+    void testCargarDesdeRepositorio() {
+        when(repository.contarAbiertosPorUsuario()).thenReturn(List.of(conteo(1L, 3L), conteo(2L, 1L)));
+
+        limite.cargar();
+
+        assertFalse(limite.reservar(1L));
+        assertEquals(1, limite.abiertos(2L));
+        assertTrue(limite.reservar(2L));
+    }
+
+    @Test
+    @DisplayName("Test límite: los contadores se cargan al crearse los beans, antes de aceptar peticiones")
+    void testCargaAntesDeAceptarPeticiones() {
+        when(repository.contarAbiertosPorUsuario()).thenReturn(List.of(conteo(1L, 3L)));
+
+        limite.afterSingletonsInstantiated();
+
+        assertEquals(3, limite.abiertos(1L));
+        assertFalse(limite.reservar(1L));
+    }
+
+    @Test
+    @DisplayName("Test límite: al recargar se descartan los contadores de usuarios sin préstamos abiertos")
+    void testRecargarReemplazaContadores() {
+        limite.reservar(5L);
+        when(repository.contarAbiertosPorUsuario()).thenReturn(List.of(conteo(1L, 2L)));
+
+        limite.cargar();
+
+        assertEquals(0, limite.abiertos(5L));
+        assertEquals(Map.of(1L, 2), limite.abiertosPorUsuario());
+    }
+
+    @Test
+    @DisplayName("Test límite: con reservas concurrentes del mismo usuario nunca supera el máximo")
+    void testReservasConcurrentes() throws Exception {
+        int intentos = 64;
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < intentos; i++) {
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    return limite.reservar(7L);
+                }));
+            }
+            largada.countDown();
+
+            int admitidos = 0;
+            for (Future<Boolean> resultado : resultados) {
+                if (resultado.get()) {
+                    admitidos++;
+                }
+            }
+            assertEquals(3, admitidos);
+            assertEquals(3, limite.abiertos(7L));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.ms.prestamos.client;
+
+import feign.Target;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Pruebas del nombre de los circuit breakers de los clientes Feign")
+class CircuitoPorClienteTest {
+
+    private final CircuitoPorCliente resolver = new CircuitoPorCliente();
+
+    @Test
+    @DisplayName("Test circuito: todos los métodos de un cliente comparten el mismo circuito")
+    void testMismoCircuitoPorCliente() throws Exception {
+        Target<ILibroClient> target = new Target.HardCodedTarget<>(ILibroClient.class, "ms-libros", "http://ms-libros");
+
+        String obtener = resolver.resolveCircuitBreakerName("ms-libros", target,
+                ILibroClient.class.getMethod("getLibroById", Long.class));
+        String reservar = resolver.resolveCircuitBreakerName("ms-libros", target,
+                ILibroClient.class.getMethod("reservarEjemplar", Long.class, String.class));
+
+        assertEquals("ms-libros", obtener);
+        assertEquals(obtener, reservar);
+    }
+
+    @Test
+    @DisplayName("Test circuito: cada cliente tiene su propio circuito")
+    void testCircuitoDistintoEntreClientes() {
+        assertNotEquals(resolver.resolveCircuitBreakerName("ms-libros", null, null),
+                resolver.resolveCircuitBreakerName("ms-usuarios", null, null));
+    }
+}
@@ -0,0 +1,79 @@
+package com.ms.prestamos.client;
+
+import com.ms.prestamos.exception.ClienteNoDisponibleException;
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("Pruebas de los fallbacks de los clientes Feign")
+class FallosClientesRemotosTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LibroClientFallbackFactory libroFallback;
+    private UsuarioClientFallbackFactory usuarioFallback;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        FallosClientesRemotos fallos = new FallosClientesRemotos(meterRegistry);
+        libroFallback = new LibroClientFallbackFactory(fallos);
+        usuarioFallback = new UsuarioClientFallbackFactory(fallos);
+    }
+
+    private double rechazos(String cliente, String motivo) {
+        return meterRegistry.counter("prestamos.clientes.rechazos", "cliente", cliente, "motivo", motivo).count();
+    }
+
+    @Test
+    @DisplayName("Test fallback: con el circuito abierto falla de inmediato como no disponible")
+    void testCircuitoAbierto() {
+        CircuitBreaker circuito = CircuitBreaker.ofDefaults("ms-libros");
+        circuito.transitionToOpenState();
+        ILibroClient cliente = libroFallback.create(CallNotPermittedException.createCallNotPermittedException(circuito));
+
+        assertThrows(ClienteNoDisponibleException.class, () -> cliente.getLibroById(10L));
+        assertEquals(1.0, rechazos("ms-libros", "circuito-abierto"));
+    }
+
+    @Test
+    @DisplayName("Test fallback: con el bulkhead lleno falla de inmediato como no disponible")
+    void testBulkheadLleno() {
+        IUsuarioClient cliente = usuarioFallback.create(
+                BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("ms-usuarios")));
+
+        assertThrows(ClienteNoDisponibleException.class, () -> cliente.getUsuariosByIds(List.of(1L)));
+        assertEquals(1.0, rechazos("ms-usuarios", "bulkhead-lleno"));
+    }
+
+    @Test
+    @DisplayName("Test fallback: los errores 4xx se propagan sin contarse como rechazo")
+    void testErrorClientePropagado() {
+        FeignException.NotFound noEncontrado = mock(FeignException.NotFound.class);
+        ILibroClient cliente = libroFallback.create(noEncontrado);
+
+        FeignException.NotFound lanzada = assertThrows(FeignException.NotFound.class, () -> cliente.reservarEjemplar(10L, "prestamos-evento-1"));
+        assertSame(noEncontrado, lanzada);
+        assertTrue(meterRegistry.find("prestamos.clientes.rechazos").counters().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test fallback: un error inesperado se traduce conservando la causa")
+    void testErrorRemotoConservaCausa() {
+        RuntimeException causa = new RuntimeException("Connection reset");
+        ILibroClient cliente = libroFallback.create(causa);
+
+        ClienteNoDisponibleException lanzada = assertThrows(ClienteNoDisponibleException.class, () -> cliente.liberarEjemplar(10L, "prestamos-evento-1"));
+        assertSame(causa, lanzada.getCause());
+        assertEquals(1.0, rechazos("ms-libros", "error-remoto"));
+    }
+}
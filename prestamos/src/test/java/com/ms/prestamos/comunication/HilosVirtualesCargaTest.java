@@ -0,0 +1,135 @@
+package com.ms.prestamos.comunication;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.Delay;
+import org.mockserver.model.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockserver.integration.ClientAndServer.startClientAndServer;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+import static org.mockserver.model.JsonBody.json;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "eureka.client.enabled=false",
+                "spring.cloud.discovery.enabled=false",
+                "spring.cloud.loadbalancer.enabled=false",
+                "spring.threads.virtual.enabled=true",
+                "prestamos.consultas-remotas.hilos=" + HilosVirtualesCargaTest.HILOS_PLATAFORMA,
+                "resilience4j.bulkhead.configs.default.max-concurrent-calls=500",
+                "prestamos.limite.max-abiertos-por-usuario=1000",
+                "resilience4j.circuitbreaker.configs.default.slow-call-duration-threshold=5s"
+        }
+)
+class HilosVirtualesCargaTest {
+
+    static final int HILOS_PLATAFORMA = 4;
+    private static final int PETICIONES_CONCURRENTES = 40;
+    private static final long DEMORA_REMOTA_MS = 500;
+
+    private static final Queue<Long> llegadasUsuarios = new ConcurrentLinkedQueue<>();
+
+    private static ClientAndServer mockServer;
+
+    @Value("${local.server.port}")
+    private int puerto;
+
+    @BeforeAll
+    static void startServer() {
+        mockServer = startClientAndServer();
+        mockServer.when(request().withMethod("GET").withPath("/api/usuarios/1"))
+                .respond(solicitud -> {
+                    llegadasUsuarios.add(System.nanoTime());
+                    return response()
+                            .withStatusCode(200)
+                            .withHeader(new Header("Content-Type", "application/json"))
+                            .withBody(json("{\"id\": 1, \"nombreCompleto\": \"Juan Perez\", \"email\": \"juan@mail.com\", \"isActivo\": true}"));
+                }, Delay.milliseconds(DEMORA_REMOTA_MS));
+        mockServer.when(request().withMethod("GET").withPath("/api/libros/10"))
+                .respond(response()
+                        .withStatusCode(200)
+                        .withHeader(new Header("Content-Type", "application/json"))
+                        .withBody(json("{\"id\": 10, \"titulo\": \"Libro Test\", \"autor\": \"Autor\", \"isbn\": \"123456789\", \"ejemplaresDisponibles\": 1000}"))
+                        .withDelay(TimeUnit.MILLISECONDS, DEMORA_REMOTA_MS));
+        mockServer.when(request().withMethod("POST").withPath("/api/libros/10/stock/reservar"))
+                .respond(response()
+                        .withStatusCode(200)
+                        .withHeader(new Header("Content-Type", "application/json"))
+                        .withBody(json("{\"idLibro\": 10, \"exitoso\": true, \"ejemplaresDisponibles\": 999}")));
+    }
+
+    @AfterAll
+    static void stopServer() {
+        mockServer.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("usuarios.api.url", () -> "http://localhost:" + mockServer.getPort());
+        registry.add("libros.api.url", () -> "http://localhost:" + mockServer.getPort());
+    }
+
+    @Test
+    @DisplayName("Carga: con hilos virtuales los préstamos en curso superan el tamaño del pool de plataforma")
+    void testPrestamosConcurrentesSuperanPoolDePlataforma() {
+        try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientes)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            HttpRequest alta = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/api/prestamos"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"idUsuario\": 1, \"idLibro\": 10}"))
+                    .build();
+
+            List<CompletableFuture<HttpResponse<String>>> respuestas = new ArrayList<>();
+            for (int i = 0; i < PETICIONES_CONCURRENTES; i++) {
+                respuestas.add(http.sendAsync(alta, HttpResponse.BodyHandlers.ofString()));
+            }
+            respuestas.forEach(respuesta -> assertEquals(201, respuesta.join().statusCode()));
+
+            int picoEnCurso = picoEnCurso(List.copyOf(llegadasUsuarios), TimeUnit.MILLISECONDS.toNanos(DEMORA_REMOTA_MS));
+            assertTrue(picoEnCurso > HILOS_PLATAFORMA,
+                    "El pico de llamadas simultáneas a ms-usuarios fue " + picoEnCurso
+                            + "; con " + HILOS_PLATAFORMA + " hilos de plataforma no podría superar ese valor");
+        }
+    }
+
+    private static int picoEnCurso(List<Long> llegadas, long demoraNanos) {
+        List<Long> ordenadas = llegadas.stream().sorted().toList();
+        int pico = 0;
+        int desde = 0;
+        for (int hasta = 0; hasta < ordenadas.size(); hasta++) {
+            while (ordenadas.get(hasta) - ordenadas.get(desde) >= demoraNanos) {
+                desde++;
+            }
+            pico = Math.max(pico, hasta - desde + 1);
+        }
+        return pico;
+    }
+}
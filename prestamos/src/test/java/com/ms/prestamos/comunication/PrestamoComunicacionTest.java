@@ -1,7 +1,13 @@
 package com.ms.prestamos.comunication;
 
+import com.ms.prestamos.cache.IdempotenciaPrestamos;
 import com.ms.prestamos.dto.PrestamoDTO;
 import com.ms.prestamos.exception.RecursoInvalidoException;
+import com.ms.prestamos.model.ClaveIdempotencia;
+import com.ms.prestamos.model.EstadoPrestamo;
+import com.ms.prestamos.model.Prestamo;
+import com.ms.prestamos.repository.IClaveIdempotenciaRepository;
+import com.ms.prestamos.repository.IPrestamoRepository;
 import com.ms.prestamos.service.IPrestamoService;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -9,12 +15,16 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockserver.integration.ClientAndServer;
 import org.mockserver.model.Header;
+import org.mockserver.verify.VerificationTimes;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.DynamicPropertyRegistry;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockserver.integration.ClientAndServer.startClientAndServer;
 import static org.mockserver.model.HttpRequest.request;
@@ -36,6 +46,15 @@ class PrestamoComunicacionTest {
     @Autowired
     private IPrestamoService service;
 
+    @Autowired
+    private IdempotenciaPrestamos idempotencia;
+
+    @Autowired
+    private IPrestamoRepository prestamoRepository;
+
+    @Autowired
+    private IClaveIdempotenciaRepository claveRepository;
+
     @BeforeAll
     static void startServer() {
         mockServer = startClientAndServer(1080);
@@ -78,10 +97,13 @@ class PrestamoComunicacionTest {
 
         mockServer.when(
                 request()
-                        .withMethod("PUT")
-                        .withPath("/api/libros/10")
+                        .withMethod("POST")
+                        .withPath("/api/libros/10/stock/reservar")
         ).respond(
-                response().withStatusCode(200)
+                response()
+                        .withStatusCode(200)
+                        .withHeader(new Header("Content-Type", "application/json"))
+                        .withBody(json("{\"idLibro\": 10, \"exitoso\": true, \"ejemplaresDisponibles\": 4}"))
         );
 
         PrestamoDTO dto = new PrestamoDTO();
@@ -89,6 +111,10 @@ class PrestamoComunicacionTest {
         dto.setIdLibro(10L);
 
         assertDoesNotThrow(() -> service.save(dto));
+        mockServer.verify(request()
+                .withMethod("POST")
+                .withPath("/api/libros/10/stock/reservar")
+                .withHeader("Idempotency-Key", "prestamos-evento-\\d+"));
     }
 
     @Test
@@ -111,4 +137,28 @@ class PrestamoComunicacionTest {
 
         assertThrows(RecursoInvalidoException.class, () -> service.save(dto));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("MockServer: Reutilizar el préstamo de una clave de idempotencia aunque ms-usuarios y ms-libros respondan 500")
+    void testIdempotentReplayWithoutDownstream() throws Exception {
+        mockServer.when(request().withPath("/api/usuarios/77")).respond(response().withStatusCode(500));
+        mockServer.when(request().withPath("/api/libros/770")).respond(response().withStatusCode(500));
+        Prestamo prestamo = new Prestamo();
+        prestamo.setIdUsuario(77L);
+        prestamo.setIdLibro(770L);
+        prestamo.setFechaPrestamo(LocalDate.now());
+        prestamo.setEstado(EstadoPrestamo.CONFIRMADO);
+        Prestamo guardado = prestamoRepository.save(prestamo);
+        claveRepository.save(new ClaveIdempotencia(null, "clave-replay-500", "77:770", guardado.getId(), Instant.now()));
+        PrestamoDTO solicitud = new PrestamoDTO();
+        solicitud.setIdUsuario(77L);
+        solicitud.setIdLibro(770L);
+
+        PrestamoDTO resultado = idempotencia.ejecutar("clave-replay-500", solicitud);
+
+        assertEquals(guardado.getId(), resultado.getId());
+        assertEquals(EstadoPrestamo.CONFIRMADO, resultado.getEstado());
+        mockServer.verify(request().withPath("/api/usuarios/77"), VerificationTimes.never());
+        mockServer.verify(request().withPath("/api/libros/770"), VerificationTimes.never());
+    }
+}
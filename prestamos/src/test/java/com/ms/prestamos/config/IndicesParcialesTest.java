@@ -0,0 +1,66 @@
+package com.ms.prestamos.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas de la creación de índices parciales")
+class IndicesParcialesTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private DatabaseMetaData metaData;
+
+    private IndicesParciales indices;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        indices = new IndicesParciales(dataSource);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+    }
+
+    @Test
+    @DisplayName("En H2 no debe ejecutar el script de índices parciales")
+    void afterSingletonsInstantiated_H2_SkipsScript() throws Exception {
+        when(metaData.getDatabaseProductName()).thenReturn("H2");
+
+        indices.afterSingletonsInstantiated();
+
+        verify(connection, never()).createStatement();
+    }
+
+    @Test
+    @DisplayName("En PostgreSQL debe crear cada índice parcial del script")
+    void afterSingletonsInstantiated_PostgreSQL_RunsScript() throws Exception {
+        Statement statement = mock(Statement.class);
+        when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        when(connection.createStatement()).thenReturn(statement);
+
+        indices.afterSingletonsInstantiated();
+
+        String script = new ClassPathResource(IndicesParciales.SCRIPT).getContentAsString(StandardCharsets.UTF_8);
+        long sentencias = script.lines().filter(linea -> linea.startsWith("CREATE INDEX")).count();
+        assertEquals(5, sentencias);
+        verify(statement, times(5)).execute(anyString());
+    }
+}
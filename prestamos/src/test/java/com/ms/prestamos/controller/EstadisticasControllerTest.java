@@ -0,0 +1,66 @@
+package com.ms.prestamos.controller;
+
+import com.ms.prestamos.dto.ConteoDTO;
+import com.ms.prestamos.dto.EstadisticasPrestamosDTO;
+import com.ms.prestamos.dto.MovimientoDiarioDTO;
+import com.ms.prestamos.estadisticas.EstadisticasPrestamos;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(EstadisticasController.class)
+@DisplayName("Pruebas de la capa de Controller para las estadísticas de préstamos")
+class EstadisticasControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private EstadisticasPrestamos estadisticas;
+
+    private static EstadisticasPrestamosDTO instantanea() {
+        return new EstadisticasPrestamosDTO(
+                List.of(new ConteoDTO(10L, 7)),
+                List.of(new ConteoDTO(1L, 3)),
+                3, 1,
+                List.of(new MovimientoDiarioDTO(LocalDate.of(2025, 3, 10), 4, 2)),
+                Instant.parse("2025-03-10T12:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("Test controller: obtener estadísticas desde la instantánea en memoria")
+    void testGetEstadisticas() throws Exception {
+        when(estadisticas.getEstadisticas()).thenReturn(instantanea());
+
+        mockMvc.perform(get("/api/prestamos/estadisticas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.librosMasPrestados[0].id").value(10))
+                .andExpect(jsonPath("$.librosMasPrestados[0].cantidad").value(7))
+                .andExpect(jsonPath("$.prestamosAbiertos").value(3))
+                .andExpect(jsonPath("$.movimientosDiarios[0].prestamos").value(4))
+                .andExpect(jsonPath("$.movimientosDiarios[0].devoluciones").value(2));
+    }
+
+    @Test
+    @DisplayName("Test controller: reconstruir estadísticas desde la tabla")
+    void testReconstruir() throws Exception {
+        when(estadisticas.reconstruir()).thenReturn(instantanea());
+
+        mockMvc.perform(post("/api/prestamos/estadisticas/reconstruir"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usuariosConMasPrestamosAbiertos[0].id").value(1));
+
+        verify(estadisticas).reconstruir();
+    }
+}
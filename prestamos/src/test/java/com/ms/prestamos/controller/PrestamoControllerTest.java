@@ -1,27 +1,47 @@
 package com.ms.prestamos.controller;
 
+import com.ms.prestamos.cache.IdempotenciaPrestamos;
+import com.ms.prestamos.config.ConcurrenciaConfig;
 import com.ms.prestamos.dto.LibroDTO;
+import com.ms.prestamos.dto.PaginaPrestamosDTO;
 import com.ms.prestamos.dto.PrestamoDTO;
 import com.ms.prestamos.dto.UsuarioDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ms.prestamos.exception.RecursoInvalidoException;
 import com.ms.prestamos.exception.RecursoNoEncontradoException;
+import com.ms.prestamos.model.EstadoPrestamo;
 import com.ms.prestamos.service.IPrestamoService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(PrestamoController.class)
+@Import({ConcurrenciaConfig.class, SimpleMeterRegistry.class})
 @DisplayName("Pruebas de la capa de Controller para Prestamo")
 class PrestamoControllerTest {
 
@@ -31,6 +51,9 @@ class PrestamoControllerTest {
     @MockitoBean
     private IPrestamoService service;
 
+    @MockitoBean
+    private IdempotenciaPrestamos idempotencia;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -74,6 +97,49 @@ class PrestamoControllerTest {
                 .andExpect(jsonPath("$.usuario.isActivo").value(true));
     }
 
+    @Test
+    @DisplayName("Debe retornar 202 si el préstamo queda PENDIENTE de confirmar la reserva del ejemplar")
+    void createPrestamo_PendingReservation_Returns202() throws Exception {
+        prestamoDTO.setEstado(EstadoPrestamo.PENDIENTE);
+        when(service.save(any(PrestamoDTO.class))).thenReturn(prestamoDTO);
+
+        mockMvc.perform(post("/api/prestamos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(prestamoDTO)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.estado").value("PENDIENTE"));
+    }
+
+    @Test
+    @DisplayName("Debe delegar en el registro de idempotencia si se envía Idempotency-Key")
+    void createPrestamo_WithIdempotencyKey_DelegatesToRegistry() throws Exception {
+        when(idempotencia.ejecutar(eq("reintento-1"), any(PrestamoDTO.class))).thenReturn(prestamoDTO);
+
+        mockMvc.perform(post("/api/prestamos")
+                        .header("Idempotency-Key", "reintento-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(prestamoDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1L));
+
+        verify(service, never()).save(any(PrestamoDTO.class));
+    }
+
+    @Test
+    @DisplayName("Debe retornar 409 si la Idempotency-Key se reutiliza con otro préstamo o sigue en curso")
+    void createPrestamo_IdempotencyKeyConflict_Returns409() throws Exception {
+        when(idempotencia.ejecutar(eq("reintento-2"), any(PrestamoDTO.class)))
+                .thenThrow(new RecursoInvalidoException("La clave de idempotencia ya fue usada con una solicitud distinta."));
+
+        mockMvc.perform(post("/api/prestamos")
+                        .header("Idempotency-Key", "reintento-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(prestamoDTO)))
+                .andExpect(status().isConflict());
+
+        verify(service, never()).save(any(PrestamoDTO.class));
+    }
+
     @Test
     @DisplayName("Debe retornar 200 al buscar un préstamo existente por ID")
     void findPrestamoById_Success() throws Exception {
@@ -85,6 +151,22 @@ class PrestamoControllerTest {
                 .andExpect(jsonPath("$.usuario.isActivo").value(true));
     }
 
+    @Test
+    @DisplayName("Debe retornar el préstamo sin enriquecer cuando enriquecido=false")
+    void findPrestamoById_SinEnriquecer() throws Exception {
+        PrestamoDTO simple = new PrestamoDTO();
+        simple.setId(1L);
+        simple.setIdUsuario(1L);
+        simple.setIdLibro(10L);
+        when(service.findRawById(1L)).thenReturn(simple);
+
+        mockMvc.perform(get("/api/prestamos/1").param("enriquecido", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.idUsuario").value(1L))
+                .andExpect(jsonPath("$.usuario").doesNotExist());
+        verify(service, never()).findById(anyLong());
+    }
+
     @Test
     @DisplayName("Debe retornar 200 al obtener todos los préstamos")
     void getPrestamos_Success() throws Exception {
@@ -115,4 +197,87 @@ class PrestamoControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.fechaDevolucion").exists());
     }
+
+    @Test
+    @DisplayName("Debe retornar 200 con la página de préstamos y el cursor siguiente")
+    void getPrestamosPaginados_Success() throws Exception {
+        when(service.getPage(5L, 1)).thenReturn(new PaginaPrestamosDTO(List.of(prestamoDTO), 1L, true));
+
+        mockMvc.perform(get("/api/prestamos/pagina")
+                        .param("despuesDe", "5")
+                        .param("tamanio", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenido.length()").value(1))
+                .andExpect(jsonPath("$.siguienteCursor").value(1L))
+                .andExpect(jsonPath("$.hayMas").value(true));
+    }
+
+    @Test
+    @DisplayName("Debe retornar 400 cuando el tamaño de página está fuera de rango")
+    void getPrestamosPaginados_InvalidSize() throws Exception {
+        mockMvc.perform(get("/api/prestamos/pagina")
+                        .param("tamanio", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).getPage(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Debe retornar 200 con la página filtrada por usuario y préstamos abiertos")
+    void buscarPrestamos_Success() throws Exception {
+        when(service.buscar(1L, null, true, null, 50)).thenReturn(new PaginaPrestamosDTO(List.of(prestamoDTO), null, false));
+
+        mockMvc.perform(get("/api/prestamos")
+                        .param("usuario", "1")
+                        .param("abiertos", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenido.length()").value(1))
+                .andExpect(jsonPath("$.hayMas").value(false));
+        verify(service, never()).getAll();
+    }
+
+    @Test
+    @DisplayName("Debe retornar 400 cuando el id de usuario del filtro no es positivo")
+    void buscarPrestamos_InvalidUsuario() throws Exception {
+        mockMvc.perform(get("/api/prestamos")
+                        .param("usuario", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).buscar(any(), any(), anyBoolean(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Debe retornar 200 con la página de préstamos vencidos")
+    void getPrestamosVencidos_Success() throws Exception {
+        prestamoDTO.setVencido(true);
+        when(service.getVencidos(null, 50)).thenReturn(new PaginaPrestamosDTO(List.of(prestamoDTO), null, false));
+
+        mockMvc.perform(get("/api/prestamos/vencidos"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenido[0].vencido").value(true))
+                .andExpect(jsonPath("$.hayMas").value(false));
+        verify(service, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Debe emitir los préstamos en formato NDJSON")
+    @SuppressWarnings("unchecked")
+    void streamPrestamos_Success() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<List<PrestamoDTO>> consumidor = invocation.getArgument(1);
+            consumidor.accept(List.of(prestamoDTO, prestamoDTO));
+            return null;
+        }).when(service).forEachPage(anyInt(), any(Consumer.class));
+
+        MvcResult resultado = mockMvc.perform(get("/api/prestamos/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        resultado.getAsyncResult(5000);
+
+        String cuerpo = resultado.getResponse().getContentAsString();
+        String[] lineas = cuerpo.split("\n");
+        assertEquals(2, lineas.length);
+        assertTrue(lineas[0].contains("\"idUsuario\":10"));
+        assertTrue(resultado.getResponse().getContentType().startsWith(MediaType.APPLICATION_NDJSON_VALUE));
+    }
 }
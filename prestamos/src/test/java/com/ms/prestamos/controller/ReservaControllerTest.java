@@ -0,0 +1,125 @@
+package com.ms.prestamos.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ms.prestamos.dto.ReservaDTO;
+import com.ms.prestamos.exception.RecursoInvalidoException;
+import com.ms.prestamos.exception.RecursoNoEncontradoException;
+import com.ms.prestamos.model.EstadoReserva;
+import com.ms.prestamos.reserva.NotificadorReservas;
+import com.ms.prestamos.service.IReservaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReservaController.class)
+@Import(NotificadorReservas.class)
+@DisplayName("Pruebas de la capa de Controller para Reserva")
+class ReservaControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NotificadorReservas notificador;
+
+    @MockitoBean
+    private IReservaService service;
+
+    private ReservaDTO enEspera;
+
+    @BeforeEach
+    void setUp() {
+        enEspera = new ReservaDTO(7L, 1L, 10L, EstadoReserva.EN_ESPERA, 2L, null, Instant.parse("2025-03-10T12:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("Test controller: registrar una reserva en la lista de espera")
+    void testCreateReserva() throws Exception {
+        when(service.save(any(ReservaDTO.class))).thenReturn(enEspera);
+
+        mockMvc.perform(post("/api/prestamos/reservas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ReservaDTO(null, 1L, 10L, null, null, null, null))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.posicion").value(2));
+    }
+
+    @Test
+    @DisplayName("Test controller: registrar reserva con datos inválidos responde 400")
+    void testCreateReservaInvalida() throws Exception {
+        mockMvc.perform(post("/api/prestamos/reservas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"idUsuario\": -1}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Test controller: sin espera la consulta responde el estado actual")
+    void testGetReservaInmediata() throws Exception {
+        when(service.findById(7L)).thenReturn(enEspera);
+
+        MvcResult resultado = mockMvc.perform(get("/api/prestamos/reservas/7"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado").value("EN_ESPERA"));
+    }
+
+    @Test
+    @DisplayName("Test controller: la consulta con espera se responde al asignarse la reserva")
+    void testGetReservaLongPoll() throws Exception {
+        when(service.findById(7L)).thenReturn(enEspera);
+
+        MvcResult resultado = mockMvc.perform(get("/api/prestamos/reservas/7").param("esperaSegundos", "30"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(1, notificador.esperando(7L));
+
+        notificador.notificar(new ReservaDTO(7L, 1L, 10L, EstadoReserva.ASIGNADA, null, 50L, enEspera.getFechaSolicitud()));
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado").value("ASIGNADA"))
+                .andExpect(jsonPath("$.idPrestamo").value(50));
+        assertEquals(0, notificador.esperando(7L));
+    }
+
+    @Test
+    @DisplayName("Test controller: consultar una reserva inexistente responde 404")
+    void testGetReservaNotFound() throws Exception {
+        when(service.findById(99L)).thenThrow(new RecursoNoEncontradoException("La reserva con ID 99 no existe"));
+
+        mockMvc.perform(get("/api/prestamos/reservas/99").param("esperaSegundos", "30"))
+                .andExpect(status().isNotFound());
+        assertEquals(0, notificador.esperando(99L));
+    }
+
+    @Test
+    @DisplayName("Test controller: cancelar una reserva ya asignada responde 409")
+    void testCancelarReservaAsignada() throws Exception {
+        when(service.cancelar(7L)).thenThrow(new RecursoInvalidoException("La reserva ya no está en espera (estado: ASIGNADA)."));
+
+        mockMvc.perform(delete("/api/prestamos/reservas/7"))
+                .andExpect(status().isConflict());
+    }
+}
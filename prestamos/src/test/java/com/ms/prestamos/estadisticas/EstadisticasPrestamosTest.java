@@ -0,0 +1,182 @@
+package com.ms.prestamos.estadisticas;
+
+import com.ms.prestamos.cache.LimitePrestamosUsuario;
+import com.ms.prestamos.dto.ConteoDTO;
+import com.ms.prestamos.dto.EstadisticasPrestamosDTO;
+import com.ms.prestamos.dto.MovimientoDiarioDTO;
+import com.ms.prestamos.model.EstadoPrestamo;
+import com.ms.prestamos.repository.IPrestamoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Pruebas de las estadísticas de préstamos")
+class EstadisticasPrestamosTest {
+
+    private static final LocalDate HOY = LocalDate.of(2025, 3, 10);
+
+    private IPrestamoRepository repository;
+    private LimitePrestamosUsuario limite;
+    private ExecutorService executor;
+    private EstadisticasPrestamos estadisticas;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IPrestamoRepository.class);
+        limite = mock(LimitePrestamosUsuario.class);
+        executor = Executors.newFixedThreadPool(2);
+        estadisticas = new EstadisticasPrestamos(repository, limite, executor, 2, 100, 2, 3, () -> HOY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static IPrestamoRepository.FilaEstadisticas fila(Long id, LocalDate fechaDevolucion, EstadoPrestamo estado) {
+        return new IPrestamoRepository.FilaEstadisticas() {
+            public Long getId() { return id; }
+            public Long getIdLibro() { return 10L; }
+            public LocalDate getFechaPrestamo() { return HOY; }
+            public LocalDate getFechaDevolucion() { return fechaDevolucion; }
+            public EstadoPrestamo getEstado() { return estado; }
+        };
+    }
+
+    private static IPrestamoRepository.FilaEstadisticas activa(Long id) {
+        return fila(id, null, EstadoPrestamo.CONFIRMADO);
+    }
+
+    @Test
+    @DisplayName("Test estadísticas: altas, cancelaciones y devoluciones se reflejan en la instantánea")
+    void testRegistrarMovimientos() {
+        when(limite.abiertosPorUsuario()).thenReturn(Map.of(1L, 2, 2L, 1, 3L, 4));
+        estadisticas.registrarAlta(1L, 10L, HOY);
+        estadisticas.registrarAlta(2L, 10L, HOY.minusDays(1));
+        estadisticas.registrarAlta(3L, 11L, HOY);
+        estadisticas.registrarAlta(4L, 12L, HOY);
+        estadisticas.registrarCancelacion(4L, 12L, HOY);
+        estadisticas.registrarDevolucion(1L, HOY);
+
+        EstadisticasPrestamosDTO resultado = estadisticas.actualizar();
+
+        assertEquals(List.of(new ConteoDTO(10L, 2), new ConteoDTO(11L, 1)), resultado.getLibrosMasPrestados());
+        assertEquals(List.of(new ConteoDTO(3L, 4), new ConteoDTO(1L, 2)), resultado.getUsuariosConMasPrestamosAbiertos());
+        assertEquals(7, resultado.getPrestamosAbiertos());
+        assertEquals(3, resultado.getUsuariosConPrestamosAbiertos());
+        assertEquals(List.of(
+                new MovimientoDiarioDTO(HOY.minusDays(2), 0, 0),
+                new MovimientoDiarioDTO(HOY.minusDays(1), 1, 0),
+                new MovimientoDiarioDTO(HOY, 2, 1)), resultado.getMovimientosDiarios());
+        assertSame(resultado, estadisticas.getEstadisticas());
+    }
+
+    @Test
+    @DisplayName("Test estadísticas: dentro de una transacción los contadores cambian recién al confirmarla")
+    void testActualizaAlConfirmar() {
+        when(limite.abiertosPorUsuario()).thenReturn(Map.of());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            estadisticas.registrarAlta(1L, 10L, HOY);
+            assertTrue(estadisticas.actualizar().getLibrosMasPrestados().isEmpty());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(new ConteoDTO(10L, 1)), estadisticas.actualizar().getLibrosMasPrestados());
+    }
+
+    @Test
+    @DisplayName("Test estadísticas: la reconstrucción recorre la tabla en bloques y reemplaza los agregados")
+    void testReconstruirEnBloques() {
+        estadisticas.registrarAlta(7L, 99L, HOY);
+        when(limite.abiertosPorUsuario()).thenReturn(Map.of());
+        when(repository.findMaxId()).thenReturn(250L);
+        when(repository.findFilasEstadisticas(anyLong(), anyLong())).thenAnswer(invocacion -> {
+            long desde = invocacion.getArgument(0);
+            return List.of(activa(desde), fila(desde + 1, HOY, EstadoPrestamo.CONFIRMADO),
+                    fila(desde + 2, null, EstadoPrestamo.CANCELADO), activa(desde + 3));
+        });
+
+        EstadisticasPrestamosDTO resultado = estadisticas.reconstruir();
+
+        verify(repository).findFilasEstadisticas(1L, 100L);
+        verify(repository).findFilasEstadisticas(101L, 200L);
+        verify(repository).findFilasEstadisticas(201L, 250L);
+        verify(repository, times(3)).findFilasEstadisticas(anyLong(), anyLong());
+        verify(limite, never()).cargar();
+        assertEquals(List.of(new ConteoDTO(10L, 9)), resultado.getLibrosMasPrestados());
+        assertEquals(new MovimientoDiarioDTO(HOY, 9, 3), resultado.getMovimientosDiarios().get(2));
+    }
+
+    @Test
+    @DisplayName("Test estadísticas: con la tabla vacía la reconstrucción deja los agregados en cero")
+    void testReconstruirTablaVacia() {
+        estadisticas.registrarAlta(1L, 10L, HOY);
+        when(limite.abiertosPorUsuario()).thenReturn(Map.of());
+        when(repository.findMaxId()).thenReturn(null);
+
+        EstadisticasPrestamosDTO resultado = estadisticas.reconstruir();
+
+        assertTrue(resultado.getLibrosMasPrestados().isEmpty());
+        verify(repository, times(0)).findFilasEstadisticas(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Test estadísticas: los cambios confirmados durante la lectura de un bloque se reaplican solo si el bloque no los vio")
+    void testReconstruirConservaCambiosConcurrentes() {
+        when(limite.abiertosPorUsuario()).thenReturn(Map.of());
+        when(repository.findMaxId()).thenReturn(250L);
+        when(repository.findFilasEstadisticas(anyLong(), anyLong())).thenAnswer(invocacion -> {
+            long desde = invocacion.getArgument(0);
+            if (desde != 1L) {
+                return List.of(activa(desde));
+            }
+            estadisticas.registrarAlta(50L, 10L, HOY);
+            estadisticas.registrarAlta(60L, 10L, HOY);
+            estadisticas.registrarAlta(300L, 10L, HOY);
+            estadisticas.registrarCancelacion(2L, 10L, HOY);
+            estadisticas.registrarDevolucion(3L, HOY);
+            return List.of(activa(1L), activa(2L), fila(3L, HOY, EstadoPrestamo.CONFIRMADO), activa(50L));
+        });
+
+        EstadisticasPrestamosDTO resultado = estadisticas.reconstruir();
+
+        assertEquals(List.of(new ConteoDTO(10L, 7)), resultado.getLibrosMasPrestados());
+        assertEquals(new MovimientoDiarioDTO(HOY, 7, 1), resultado.getMovimientosDiarios().get(2));
+    }
+
+    @Test
+    @DisplayName("Test estadísticas: una cancelación que el bloque ya leyó no se descuenta dos veces")
+    void testReconstruirCancelacionYaLeida() {
+        when(limite.abiertosPorUsuario()).thenReturn(Map.of());
+        when(repository.findMaxId()).thenReturn(2L);
+        when(repository.findFilasEstadisticas(1L, 2L)).thenAnswer(invocacion -> {
+            estadisticas.registrarAlta(2L, 10L, HOY);
+            estadisticas.registrarCancelacion(2L, 10L, HOY);
+            return List.of(activa(1L), fila(2L, null, EstadoPrestamo.CANCELADO));
+        });
+
+        EstadisticasPrestamosDTO resultado = estadisticas.reconstruir();
+
+        assertEquals(List.of(new ConteoDTO(10L, 1)), resultado.getLibrosMasPrestados());
+    }
+}
@@ -16,8 +16,10 @@ class PrestamoTest {
         Long existingIdLibro = 20L;
         LocalDate existingFechaPrestamo = LocalDate.now();
         LocalDate existingFechaDevolucion = LocalDate.now().plusDays(7);
+        LocalDate existingFechaVencimiento = LocalDate.now().plusDays(14);
 
-        Prestamo prestamo = new Prestamo(existingId, existingIdUsuario, existingIdLibro, existingFechaPrestamo, existingFechaDevolucion);
+        Prestamo prestamo = new Prestamo(existingId, existingIdUsuario, existingIdLibro, existingFechaPrestamo, existingFechaDevolucion,
+                existingFechaVencimiento, EstadoPrestamo.CONFIRMADO, false);
 
         assertNotNull(prestamo, "Prestamo no debe ser nulo.");
         assertEquals(existingId, prestamo.getId(), "El ID debe coincidir.");
@@ -25,6 +27,9 @@ class PrestamoTest {
         assertEquals(existingIdLibro, prestamo.getIdLibro(), "El ID de Libro debe coincidir.");
         assertEquals(existingFechaPrestamo, prestamo.getFechaPrestamo(), "La fecha de prestamo debe coincidir.");
         assertEquals(existingFechaDevolucion, prestamo.getFechaDevolucion(), "La fecha de devolucion debe coincidir.");
+        assertEquals(existingFechaVencimiento, prestamo.getFechaVencimiento(), "La fecha de vencimiento debe coincidir.");
+        assertEquals(EstadoPrestamo.CONFIRMADO, prestamo.getEstado(), "El estado debe coincidir.");
+        assertFalse(prestamo.isVencido(), "El préstamo no debe estar vencido.");
     }
 
     @Test
@@ -0,0 +1,300 @@
+package com.ms.prestamos.outbox;
+
+import com.ms.prestamos.cache.CacheRecursosRemotos;
+import com.ms.prestamos.cache.LimitePrestamosUsuario;
+import com.ms.prestamos.client.ILibroClient;
+import com.ms.prestamos.dto.ResultadoStockDTO;
+import com.ms.prestamos.estadisticas.EstadisticasPrestamos;
+import com.ms.prestamos.model.EstadoEventoOutbox;
+import com.ms.prestamos.model.EstadoPrestamo;
+import com.ms.prestamos.model.EventoOutbox;
+import com.ms.prestamos.model.EstadoReserva;
+import com.ms.prestamos.model.Prestamo;
+import com.ms.prestamos.model.Reserva;
+import com.ms.prestamos.model.TipoEventoOutbox;
+import com.ms.prestamos.repository.IClaveIdempotenciaRepository;
+import com.ms.prestamos.repository.IEventoOutboxRepository;
+import com.ms.prestamos.repository.IPrestamoRepository;
+import com.ms.prestamos.reserva.ColaReservas;
+import feign.FeignException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas del despachador de outbox de préstamos")
+class DespachadorOutboxTest {
+
+    @Mock
+    private IEventoOutboxRepository repository;
+
+    @Mock
+    private OutboxPrestamos outbox;
+
+    @Mock
+    private ILibroClient libroClient;
+
+    @Mock
+    private CacheRecursosRemotos cache;
+
+    @Mock
+    private IPrestamoRepository prestamoRepository;
+
+    @Mock
+    private IClaveIdempotenciaRepository claveRepository;
+
+    @Mock
+    private EstadisticasPrestamos estadisticas;
+
+    @Mock
+    private ColaReservas colaReservas;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DespachadorOutbox despachador;
+    private EventoOutbox evento;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        despachador = new DespachadorOutbox(repository, outbox, colaReservas, libroClient, cache, meterRegistry, 100, 3,
+                Duration.ofSeconds(30), Duration.ofSeconds(1), Duration.ofSeconds(10));
+
+        evento = new EventoOutbox();
+        evento.setId(99L);
+        evento.setTipo(TipoEventoOutbox.RESERVAR_EJEMPLAR);
+        evento.setIdPrestamo(1L);
+        evento.setIdLibro(10L);
+        evento.setEstado(EstadoEventoOutbox.PENDIENTE);
+        evento.setIntentos(1);
+    }
+
+    private void reclamarEvento() {
+        when(repository.reclamar(eq(99L), eq(EstadoEventoOutbox.PENDIENTE), any(Instant.class), any(Instant.class))).thenReturn(1);
+        when(repository.findById(99L)).thenReturn(Optional.of(evento));
+    }
+
+    @Test
+    @DisplayName("Test despachar: la reserva exitosa confirma el préstamo")
+    void testReservaExitosa() {
+        reclamarEvento();
+        when(libroClient.reservarEjemplar(10L, "prestamos-evento-99")).thenReturn(new ResultadoStockDTO(10L, true, 4));
+
+        assertEquals(DespachadorOutbox.ResultadoDespacho.PROCESADO, despachador.despachar(99L));
+        verify(outbox).confirmarReserva(evento);
+        verify(cache).invalidateLibro(10L);
+    }
+
+    @Test
+    @DisplayName("Test despachar: sin stock disponible se compensa el préstamo")
+    void testReservaSinStock() {
+        reclamarEvento();
+        when(libroClient.reservarEjemplar(10L, "prestamos-evento-99")).thenReturn(new ResultadoStockDTO(10L, false, 0));
+
+        assertEquals(DespachadorOutbox.ResultadoDespacho.COMPENSADO, despachador.despachar(99L));
+        verify(outbox).compensarReserva(evento, "No hay stock disponible.");
+        verify(outbox, never()).confirmarReserva(any());
+    }
+
+    @Test
+    @DisplayName("Test despachar: si el libro no existe se compensa el préstamo")
+    void testReservaLibroInexistente() {
+        reclamarEvento();
+        when(libroClient.reservarEjemplar(10L, "prestamos-evento-99")).thenThrow(mock(FeignException.NotFound.class));
+
+        assertEquals(DespachadorOutbox.ResultadoDespacho.COMPENSADO, despachador.despachar(99L));
+        verify(outbox).compensarReserva(eq(evento), anyString());
+    }
+
+    @Test
+    @DisplayName("Test despachar: un fallo remoto reprograma el evento con espera")
+    void testReservaFalloRemotoReprograma() {
+        reclamarEvento();
+        when(libroClient.reservarEjemplar(10L, "prestamos-evento-99")).thenThrow(new RuntimeException("Conexión rechazada"));
+
+        assertEquals(DespachadorOutbox.ResultadoDespacho.REINTENTAR, despachador.despachar(99L));
+        verify(repository).reprogramar(eq(99L), any(Instant.class), contains("Conexión rechazada"));
+        verify(outbox, never()).compensarReserva(any(), anyString());
+    }
+
+    @Test
+    @DisplayName("Test despachar: el reintento tras un timeout reenvía la misma clave de operación a MS Libros")
+    void testReintentoReusaClaveOperacion() {
+        reclamarEvento();
+        when(libroClient.reservarEjemplar(10L, "prestamos-evento-99"))
+                .thenThrow(new RuntimeException("Read timed out"))
+                .thenReturn(new ResultadoStockDTO(10L, true, 4));
+
+        assertEquals(DespachadorOutbox.ResultadoDespacho.REINTENTAR, despachador.despachar(99L));
+        assertEquals(DespachadorOutbox.ResultadoDespacho.PROCESADO, despachador.despachar(99L));
+
+        verify(libroClient, times(2)).reservarEjemplar(10L, "prestamos-evento-99");
+        verify(outbox).confirmarReserva(evento);
+    }
+
+    @Test
+    @DisplayName("Test despachar: al agotar los intentos de reserva se compensa el préstamo")
+    void testReservaAgotaIntentos() {
+        evento.setIntentos(3);
+        reclamarEvento();
+        when(libroClient.reservarEjemplar(10L, "prestamos-evento-99")).thenThrow(new RuntimeException("Timeout"));
+
+        assertEquals(DespachadorOutbox.ResultadoDespacho.COMPENSADO, despachador.despachar(99L));
+        verify(outbox).compensarReserva(eq(evento), contains("Timeout"));
+        verify(repository, never()).finalizar(anyLong(), eq(EstadoEventoOutbox.FALLIDO), anyString());
+        verify(repository, never()).reprogramar(anyLong(), any(), anyString());
+        assertEquals(1.0, meterRegistry.get("prestamos.outbox.fallidos").tag("tipo", "RESERVAR_EJEMPLAR").counter().count());
+    }
+
+    @Test
+    @DisplayName("Test despachar: al agotar los reintentos el préstamo queda cancelado y el usuario recupera el cupo")
+    void testReservaAgotaIntentosCancelaPrestamoYLiberaCupo() {
+        LimitePrestamosUsuario limite = new LimitePrestamosUsuario(prestamoRepository, 1);
+        OutboxPrestamos outboxReal = new OutboxPrestamos(prestamoRepository, repository, claveRepository, limite, estadisticas, colaReservas);
+        DespachadorOutbox despachadorReal = new DespachadorOutbox(repository, outboxReal, colaReservas, libroClient, cache, meterRegistry, 100, 3,
+                Duration.ofSeconds(30), Duration.ofSeconds(1), Duration.ofSeconds(10));
+        Prestamo prestamo = new Prestamo();
+        prestamo.setId(1L);
+        prestamo.setIdUsuario(100L);
+        prestamo.setIdLibro(10L);
+        prestamo.setFechaPrestamo(LocalDate.now());
+        prestamo.setEstado(EstadoPrestamo.PENDIENTE);
+        assertTrue(limite.reservar(100L));
+        evento.setIntentos(0);
+        when(repository.reclamar(eq(99L), eq(EstadoEventoOutbox.PENDIENTE), any(Instant.class), any(Instant.class))).thenAnswer(invocacion -> {
+            evento.setIntentos(evento.getIntentos() + 1);
+            return 1;
+        });
+        when(repository.findById(99L)).thenReturn(Optional.of(evento));
+        when(libroClient.reservarEjemplar(10L, "prestamos-evento-99")).thenThrow(new RuntimeException("Read timed out"));
+        when(prestamoRepository.actualizarEstado(1L, EstadoPrestamo.PENDIENTE, EstadoPrestamo.CANCELADO)).thenAnswer(invocacion -> {
+            prestamo.setEstado(EstadoPrestamo.CANCELADO);
+            return 1;
+        });
+        when(prestamoRepository.findById(1L)).thenReturn(Optional.of(prestamo));
+
+        assertEquals(DespachadorOutbox.ResultadoDespacho.REINTENTAR, despachadorReal.despachar(99L));
+        assertEquals(DespachadorOutbox.ResultadoDespacho.REINTENTAR, despachadorReal.despachar(99L));
+        assertEquals(DespachadorOutbox.ResultadoDespacho.COMPENSADO, despachadorReal.despachar(99L));
+
+        assertEquals(EstadoPrestamo.CANCELADO, prestamo.getEstado());
+        assertEquals(0, limite.abiertos(100L));
+        assertTrue(limite.reservar(100L));
+        verify(repository).finalizar(eq(99L), eq(EstadoEventoOutbox.COMPENSADO), contains("Read timed out"));
+        verify(estadisticas).registrarCancelacion(1L, 10L, prestamo.getFechaPrestamo());
+    }
+
+    @Test
+    @DisplayName("Test despachar: una liberación que agota los intentos queda fallida y se contabiliza en la métrica")
+    void testLiberacionAgotaIntentos() {
+        evento.setTipo(TipoEventoOutbox.LIBERAR_EJEMPLAR);
+        evento.setIntentos(3);
+        reclamarEvento();
+        when(libroClient.liberarEjemplar(10L, "prestamos-evento-99")).thenThrow(new RuntimeException("Timeout"));
+
+        assertEquals(DespachadorOutbox.ResultadoDespacho.OMITIDO, despachador.despachar(99L));
+        verify(repository).finalizar(eq(99L), eq(EstadoEventoOutbox.FALLIDO), contains("Timeout"));
+        verify(outbox, never()).compensarReserva(any(), anyString());
+        assertEquals(1.0, meterRegistry.get("prestamos.outbox.fallidos")
+                .tag("tipo", "LIBERAR_EJEMPLAR").tag("motivo", "intentos-agotados").counter().count());
+    }
+
+    @Test
+    @DisplayName("Test despachar: un evento ya reclamado por otra instancia se omite")
+    void testEventoYaReclamado() {
+        when(repository.reclamar(eq(99L), eq(EstadoEventoOutbox.PENDIENTE), any(Instant.class), any(Instant.class))).thenReturn(0);
+
+        assertEquals(DespachadorOutbox.ResultadoDespacho.OMITIDO, despachador.despachar(99L));
+        verifyNoInteractions(libroClient, outbox);
+    }
+
+    @Test
+    @DisplayName("Test despachar: la liberación exitosa marca el evento como procesado")
+    void testLiberacionExitosa() {
+        evento.setTipo(TipoEventoOutbox.LIBERAR_EJEMPLAR);
+        reclamarEvento();
+        when(libroClient.liberarEjemplar(10L, "prestamos-evento-99")).thenReturn(new ResultadoStockDTO(10L, true, 5));
+
+        assertEquals(DespachadorOutbox.ResultadoDespacho.PROCESADO, despachador.despachar(99L));
+        verify(outbox).confirmarLiberacion(evento);
+        verify(cache).invalidateLibro(10L);
+    }
+
+    @Test
+    @DisplayName("Test despachar: si hay una reserva habilitada el ejemplar devuelto se le asigna sin liberar stock")
+    void testLiberacionAsignaListaEspera() {
+        evento.setTipo(TipoEventoOutbox.LIBERAR_EJEMPLAR);
+        Reserva reserva = new Reserva(5L, 100L, 10L, EstadoReserva.EN_ESPERA, Instant.now(), null);
+        reclamarEvento();
+        when(colaReservas.elegirCandidata(10L)).thenReturn(Optional.of(reserva));
+        when(outbox.asignarReserva(evento, reserva)).thenReturn(Optional.of(new Prestamo()));
+
+        assertEquals(DespachadorOutbox.ResultadoDespacho.PROCESADO, despachador.despachar(99L));
+        verifyNoInteractions(libroClient);
+        verify(outbox, never()).confirmarLiberacion(any());
+    }
+
+    @Test
+    @DisplayName("Test despachar: si la reserva elegida fue tomada se prueba con la siguiente")
+    void testLiberacionReintentaConSiguienteReserva() {
+        evento.setTipo(TipoEventoOutbox.LIBERAR_EJEMPLAR);
+        Reserva tomada = new Reserva(5L, 100L, 10L, EstadoReserva.EN_ESPERA, Instant.now(), null);
+        Reserva siguiente = new Reserva(6L, 200L, 10L, EstadoReserva.EN_ESPERA, Instant.now(), null);
+        reclamarEvento();
+        when(colaReservas.elegirCandidata(10L)).thenReturn(Optional.of(tomada)).thenReturn(Optional.of(siguiente));
+        when(outbox.asignarReserva(evento, tomada)).thenReturn(Optional.empty());
+        when(outbox.asignarReserva(evento, siguiente)).thenReturn(Optional.of(new Prestamo()));
+
+        assertEquals(DespachadorOutbox.ResultadoDespacho.PROCESADO, despachador.despachar(99L));
+        verifyNoInteractions(libroClient);
+    }
+
+    @Test
+    @DisplayName("Test despachar: si no se puede validar la lista de espera el ejemplar queda retenido y se reintenta")
+    void testLiberacionRetieneEjemplarSiFallaValidacion() {
+        evento.setTipo(TipoEventoOutbox.LIBERAR_EJEMPLAR);
+        evento.setIntentos(3);
+        reclamarEvento();
+        when(colaReservas.elegirCandidata(10L)).thenThrow(new IllegalStateException("MS Usuarios no disponible"));
+
+        assertEquals(DespachadorOutbox.ResultadoDespacho.REINTENTAR, despachador.despachar(99L));
+        verify(repository).reprogramar(eq(99L), any(Instant.class), contains("MS Usuarios no disponible"));
+        verify(repository, never()).finalizar(anyLong(), any(), any());
+        verifyNoInteractions(libroClient);
+        assertEquals(1.0, meterRegistry.get("prestamos.outbox.lista-espera.reintentos").counter().count());
+    }
+
+    @Test
+    @DisplayName("Test despacharPendientes: un error en un evento no detiene el resto")
+    void testDespacharPendientesContinuaTrasError() {
+        when(repository.findIdsListos(eq(EstadoEventoOutbox.PENDIENTE), any(Instant.class), any())).thenReturn(List.of(98L, 99L));
+        when(repository.reclamar(eq(98L), any(), any(), any())).thenThrow(new RuntimeException("Error de base de datos"));
+        reclamarEvento();
+        when(libroClient.reservarEjemplar(10L, "prestamos-evento-99")).thenReturn(new ResultadoStockDTO(10L, true, 4));
+
+        despachador.despacharPendientes();
+
+        verify(outbox).confirmarReserva(evento);
+    }
+
+    @Test
+    @DisplayName("Test calcularEspera: la espera crece exponencialmente hasta el máximo")
+    void testCalcularEspera() {
+        assertEquals(Duration.ofSeconds(1), despachador.calcularEspera(1));
+        assertEquals(Duration.ofSeconds(2), despachador.calcularEspera(2));
+        assertEquals(Duration.ofSeconds(8), despachador.calcularEspera(4));
+        assertEquals(Duration.ofSeconds(10), despachador.calcularEspera(30));
+    }
+}
@@ -1,14 +1,21 @@
 package com.ms.prestamos.repository;
 
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import com.ms.prestamos.model.EstadoPrestamo;
 import com.ms.prestamos.model.Prestamo;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -73,5 +80,173 @@ class IPrestamoRepositoryTest {
         Optional<Prestamo> found = repository.findById(999L);
         assertTrue(found.isEmpty());
     }
-}
 
+    @Test
+    @DisplayName("Test repository: paginar por cursor de ID")
+    void testFindByIdGreaterThan() {
+        Prestamo primero = repository.save(prestamo);
+
+        Prestamo segundo = new Prestamo();
+        segundo.setIdUsuario(2L);
+        segundo.setIdLibro(5L);
+        segundo.setFechaPrestamo(LocalDate.now());
+        segundo = repository.save(segundo);
+
+        Slice<Prestamo> primeraPagina = repository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(1));
+        Slice<Prestamo> segundaPagina = repository.findByIdGreaterThanOrderByIdAsc(primero.getId(), PageRequest.ofSize(1));
+
+        assertEquals(primero.getId(), primeraPagina.getContent().get(0).getId());
+        assertTrue(primeraPagina.hasNext());
+        assertEquals(segundo.getId(), segundaPagina.getContent().get(0).getId());
+        assertFalse(segundaPagina.hasNext());
+    }
+
+    @Test
+    @DisplayName("Test repository: filtrar préstamos abiertos de un usuario con cursor de ID")
+    void testFiltrarAbiertosPorUsuario() {
+        Prestamo abierto = repository.save(prestamo);
+        repository.save(nuevoPrestamo(1L, 11L, LocalDate.now(), EstadoPrestamo.CONFIRMADO));
+        repository.save(nuevoPrestamo(1L, 12L, null, EstadoPrestamo.CANCELADO));
+        repository.save(nuevoPrestamo(2L, 10L, null, EstadoPrestamo.CONFIRMADO));
+        Prestamo otroAbierto = repository.save(nuevoPrestamo(1L, 13L, null, EstadoPrestamo.CONFIRMADO));
+
+        Specification<Prestamo> filtro = EspecificacionesPrestamo.despuesDe(null)
+                .and(EspecificacionesPrestamo.delUsuario(1L))
+                .and(EspecificacionesPrestamo.abiertos());
+        List<Prestamo> encontrados = repository.findBy(filtro, consulta -> consulta.sortBy(Sort.by("id")).all());
+        List<Prestamo> siguientes = repository.findBy(EspecificacionesPrestamo.despuesDe(abierto.getId()).and(filtro),
+                consulta -> consulta.sortBy(Sort.by("id")).all());
+
+        assertEquals(List.of(abierto.getId(), otroAbierto.getId()), encontrados.stream().map(Prestamo::getId).toList());
+        assertEquals(List.of(otroAbierto.getId()), siguientes.stream().map(Prestamo::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Test repository: filtrar préstamos por libro")
+    void testFiltrarPorLibro() {
+        repository.save(prestamo);
+        repository.save(nuevoPrestamo(2L, 10L, LocalDate.now(), EstadoPrestamo.CONFIRMADO));
+        repository.save(nuevoPrestamo(3L, 20L, null, EstadoPrestamo.CONFIRMADO));
+
+        List<Prestamo> encontrados = repository.findAll(EspecificacionesPrestamo.despuesDe(null)
+                .and(EspecificacionesPrestamo.delLibro(10L)));
+
+        assertEquals(2, encontrados.size());
+        assertTrue(encontrados.stream().allMatch(p -> p.getIdLibro().equals(10L)));
+    }
+
+    @Test
+    @DisplayName("Test repository: contar préstamos abiertos agrupados por usuario")
+    void testContarAbiertosPorUsuario() {
+        repository.save(prestamo);
+        repository.save(nuevoPrestamo(1L, 11L, null, EstadoPrestamo.CONFIRMADO));
+        repository.save(nuevoPrestamo(1L, 12L, LocalDate.now(), EstadoPrestamo.CONFIRMADO));
+        repository.save(nuevoPrestamo(1L, 13L, null, EstadoPrestamo.CANCELADO));
+        repository.save(nuevoPrestamo(2L, 10L, null, EstadoPrestamo.CONFIRMADO));
+
+        Map<Long, Long> conteos = repository.contarAbiertosPorUsuario().stream()
+                .collect(Collectors.toMap(IPrestamoRepository.ConteoAbiertos::getIdUsuario, IPrestamoRepository.ConteoAbiertos::getCantidad));
+
+        assertEquals(Map.of(1L, 2L, 2L, 1L), conteos);
+    }
+
+    @Test
+    @DisplayName("Test repository: buscar por cursor los préstamos confirmados y abiertos que pasaron su vencimiento")
+    void testFindIdsPorVencer() {
+        LocalDate hoy = LocalDate.now();
+        Prestamo vencido = repository.save(conVencimiento(nuevoPrestamo(1L, 10L, null, EstadoPrestamo.CONFIRMADO), hoy.minusDays(1)));
+        repository.save(conVencimiento(nuevoPrestamo(1L, 11L, null, EstadoPrestamo.CONFIRMADO), hoy));
+        repository.save(conVencimiento(nuevoPrestamo(1L, 12L, hoy, EstadoPrestamo.CONFIRMADO), hoy.minusDays(5)));
+        repository.save(conVencimiento(nuevoPrestamo(1L, 13L, null, EstadoPrestamo.CANCELADO), hoy.minusDays(5)));
+        Prestamo otroVencido = repository.save(conVencimiento(nuevoPrestamo(2L, 10L, null, EstadoPrestamo.CONFIRMADO), hoy.minusDays(30)));
+
+        List<Long> primerLote = repository.findIdsPorVencer(hoy, 0L, PageRequest.ofSize(1));
+        List<Long> segundoLote = repository.findIdsPorVencer(hoy, primerLote.get(0), PageRequest.ofSize(1));
+
+        assertEquals(List.of(vencido.getId()), primerLote);
+        assertEquals(List.of(otroVencido.getId()), segundoLote);
+    }
+
+    @Test
+    @DisplayName("Test repository: marcar vencidos en lote solo los préstamos que siguen abiertos")
+    void testMarcarVencidos() {
+        LocalDate hoy = LocalDate.now();
+        Prestamo abierto = repository.save(conVencimiento(nuevoPrestamo(1L, 10L, null, EstadoPrestamo.CONFIRMADO), hoy.minusDays(1)));
+        Prestamo devuelto = repository.save(conVencimiento(nuevoPrestamo(1L, 11L, hoy, EstadoPrestamo.CONFIRMADO), hoy.minusDays(1)));
+
+        int marcados = repository.marcarVencidos(List.of(abierto.getId(), devuelto.getId()));
+        int repetidos = repository.marcarVencidos(List.of(abierto.getId()));
+
+        assertEquals(1, marcados);
+        assertEquals(0, repetidos);
+        assertTrue(repository.findById(abierto.getId()).orElseThrow().isVencido());
+        assertFalse(repository.findById(devuelto.getId()).orElseThrow().isVencido());
+    }
+
+    @Test
+    @DisplayName("Test repository: registrar la devolución solo una vez sobre un préstamo confirmado")
+    void testRegistrarDevolucionCondicional() {
+        prestamo.setEstado(EstadoPrestamo.CONFIRMADO);
+        Prestamo saved = repository.save(prestamo);
+
+        int primera = repository.registrarDevolucion(saved.getId(), LocalDate.now(), EstadoPrestamo.CONFIRMADO);
+        int segunda = repository.registrarDevolucion(saved.getId(), LocalDate.now(), EstadoPrestamo.CONFIRMADO);
+
+        assertEquals(1, primera);
+        assertEquals(0, segunda);
+        assertEquals(LocalDate.now(), repository.findById(saved.getId()).orElseThrow().getFechaDevolucion());
+    }
+
+    @Test
+    @DisplayName("Test repository: actualizar el estado solo si coincide con el esperado")
+    void testActualizarEstadoCondicional() {
+        Prestamo saved = repository.save(prestamo);
+
+        int cancelado = repository.actualizarEstado(saved.getId(), EstadoPrestamo.CONFIRMADO, EstadoPrestamo.CANCELADO);
+        int confirmado = repository.actualizarEstado(saved.getId(), EstadoPrestamo.PENDIENTE, EstadoPrestamo.CONFIRMADO);
+
+        assertEquals(0, cancelado);
+        assertEquals(1, confirmado);
+        assertEquals(EstadoPrestamo.CONFIRMADO, repository.findById(saved.getId()).orElseThrow().getEstado());
+    }
+
+    @Test
+    @DisplayName("Test repository: leer por bloque de IDs el estado de cada préstamo para las estadísticas")
+    void testFilasEstadisticasPorBloque() {
+        LocalDate hoy = LocalDate.now();
+        Prestamo primero = repository.save(nuevoPrestamo(1L, 10L, hoy, EstadoPrestamo.CONFIRMADO));
+        repository.save(nuevoPrestamo(2L, 10L, null, EstadoPrestamo.CONFIRMADO));
+        Prestamo cancelado = repository.save(nuevoPrestamo(3L, 11L, null, EstadoPrestamo.CANCELADO));
+        Prestamo fueraDelBloque = repository.save(nuevoPrestamo(4L, 11L, null, EstadoPrestamo.CONFIRMADO));
+        long desde = primero.getId();
+        long hasta = fueraDelBloque.getId() - 1;
+
+        Map<Long, IPrestamoRepository.FilaEstadisticas> filas = repository.findFilasEstadisticas(desde, hasta).stream()
+                .collect(Collectors.toMap(IPrestamoRepository.FilaEstadisticas::getId, fila -> fila));
+
+        assertEquals(3, filas.size());
+        assertFalse(filas.containsKey(fueraDelBloque.getId()));
+        IPrestamoRepository.FilaEstadisticas devuelto = filas.get(primero.getId());
+        assertEquals(10L, devuelto.getIdLibro());
+        assertEquals(hoy.minusDays(3), devuelto.getFechaPrestamo());
+        assertEquals(hoy, devuelto.getFechaDevolucion());
+        assertEquals(EstadoPrestamo.CONFIRMADO, devuelto.getEstado());
+        assertEquals(EstadoPrestamo.CANCELADO, filas.get(cancelado.getId()).getEstado());
+        assertEquals(fueraDelBloque.getId(), repository.findMaxId());
+    }
+
+    private Prestamo nuevoPrestamo(Long idUsuario, Long idLibro, LocalDate fechaDevolucion, EstadoPrestamo estado) {
+        Prestamo nuevo = new Prestamo();
+        nuevo.setIdUsuario(idUsuario);
+        nuevo.setIdLibro(idLibro);
+        nuevo.setFechaPrestamo(LocalDate.now().minusDays(3));
+        nuevo.setFechaDevolucion(fechaDevolucion);
+        nuevo.setEstado(estado);
+        return nuevo;
+    }
+
+    private Prestamo conVencimiento(Prestamo prestamo, LocalDate fechaVencimiento) {
+        prestamo.setFechaVencimiento(fechaVencimiento);
+        return prestamo;
+    }
+}
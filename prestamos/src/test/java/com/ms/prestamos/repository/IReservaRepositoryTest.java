@@ -0,0 +1,59 @@
+package com.ms.prestamos.repository;
+
+import com.ms.prestamos.model.EstadoReserva;
+import com.ms.prestamos.model.Reserva;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@DisplayName("Pruebas de la capa de Repository para Reserva")
+class IReservaRepositoryTest {
+
+    @Autowired
+    private IReservaRepository repository;
+
+    private Reserva nuevaReserva(Long idUsuario, Long idLibro) {
+        return repository.save(new Reserva(null, idUsuario, idLibro, EstadoReserva.EN_ESPERA, Instant.now(), null));
+    }
+
+    @Test
+    @DisplayName("Test repository: la lista de espera de un libro se recorre en orden de llegada")
+    void testListaDeEsperaFifo() {
+        Reserva primera = nuevaReserva(1L, 10L);
+        Reserva segunda = nuevaReserva(2L, 10L);
+        nuevaReserva(3L, 11L);
+        Reserva cancelada = nuevaReserva(4L, 10L);
+        repository.actualizarEstado(cancelada.getId(), EstadoReserva.EN_ESPERA, EstadoReserva.CANCELADA);
+        Reserva tercera = nuevaReserva(5L, 10L);
+
+        List<Reserva> enEspera = repository.findByIdLibroAndEstadoOrderByIdAsc(10L, EstadoReserva.EN_ESPERA, PageRequest.ofSize(10));
+
+        assertEquals(List.of(primera.getId(), segunda.getId(), tercera.getId()), enEspera.stream().map(Reserva::getId).toList());
+        assertEquals(2, repository.countByIdLibroAndEstadoAndIdLessThan(10L, EstadoReserva.EN_ESPERA, tercera.getId()));
+        assertTrue(repository.existsByIdUsuarioAndIdLibroAndEstado(1L, 10L, EstadoReserva.EN_ESPERA));
+        assertFalse(repository.existsByIdUsuarioAndIdLibroAndEstado(4L, 10L, EstadoReserva.EN_ESPERA));
+    }
+
+    @Test
+    @DisplayName("Test repository: una reserva se asigna una sola vez y queda vinculada a su préstamo")
+    void testAsignarUnaSolaVez() {
+        Reserva reserva = nuevaReserva(1L, 10L);
+
+        int primera = repository.actualizarEstado(reserva.getId(), EstadoReserva.EN_ESPERA, EstadoReserva.ASIGNADA);
+        int segunda = repository.actualizarEstado(reserva.getId(), EstadoReserva.EN_ESPERA, EstadoReserva.ASIGNADA);
+        repository.vincularPrestamo(reserva.getId(), 50L);
+
+        assertEquals(1, primera);
+        assertEquals(0, segunda);
+        Reserva actualizada = repository.findById(reserva.getId()).orElseThrow();
+        assertEquals(EstadoReserva.ASIGNADA, actualizada.getEstado());
+        assertEquals(50L, actualizada.getIdPrestamo());
+    }
+}
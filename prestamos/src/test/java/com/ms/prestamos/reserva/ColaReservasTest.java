@@ -0,0 +1,211 @@
+package com.ms.prestamos.reserva;
+
+import com.ms.prestamos.cache.LimitePrestamosUsuario;
+import com.ms.prestamos.client.IUsuarioClient;
+import com.ms.prestamos.dto.ReservaDTO;
+import com.ms.prestamos.dto.UsuarioDTO;
+import com.ms.prestamos.estadisticas.EstadisticasPrestamos;
+import com.ms.prestamos.mapper.ReservaMapper;
+import com.ms.prestamos.model.EstadoPrestamo;
+import com.ms.prestamos.model.EstadoReserva;
+import com.ms.prestamos.model.Prestamo;
+import com.ms.prestamos.model.Reserva;
+import com.ms.prestamos.repository.IPrestamoRepository;
+import com.ms.prestamos.repository.IReservaRepository;
+import com.ms.prestamos.vencimiento.ProcesoVencimientos;
+import feign.FeignException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.async.DeferredResult;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas de la asignación de ejemplares a la lista de espera")
+class ColaReservasTest {
+
+    @Mock
+    private IReservaRepository reservaRepository;
+
+    @Mock
+    private IPrestamoRepository prestamoRepository;
+
+    @Mock
+    private IUsuarioClient usuarioClient;
+
+    @Mock
+    private LimitePrestamosUsuario limite;
+
+    @Mock
+    private ProcesoVencimientos vencimientos;
+
+    @Mock
+    private EstadisticasPrestamos estadisticas;
+
+    private NotificadorReservas notificador;
+    private ColaReservas cola;
+
+    @BeforeEach
+    void setUp() {
+        notificador = new NotificadorReservas();
+        cola = new ColaReservas(reservaRepository, prestamoRepository, usuarioClient, new ReservaMapper(), limite, vencimientos, estadisticas, notificador);
+    }
+
+    private static Reserva reserva(Long id, Long idUsuario) {
+        return new Reserva(id, idUsuario, 10L, EstadoReserva.EN_ESPERA, Instant.now(), null);
+    }
+
+    private void usuario(Long id, boolean activo) {
+        when(usuarioClient.getUsuarioById(id)).thenReturn(new UsuarioDTO(id, "Usuario " + id, "usuario" + id + "@mail.com", activo));
+    }
+
+    private void guardarConId(Long id) {
+        when(prestamoRepository.save(any(Prestamo.class))).thenAnswer(invocacion -> {
+            Prestamo prestamo = invocacion.getArgument(0);
+            prestamo.setId(id);
+            return prestamo;
+        });
+    }
+
+    @Test
+    @DisplayName("Test cola: el ejemplar se asigna al primero en espera con un préstamo confirmado")
+    void testAsignaAlPrimeroEnEspera() {
+        LocalDate vencimiento = LocalDate.now().plusDays(14);
+        Reserva primera = reserva(1L, 100L);
+        when(limite.reservar(100L)).thenReturn(true);
+        when(reservaRepository.actualizarEstado(1L, EstadoReserva.EN_ESPERA, EstadoReserva.ASIGNADA)).thenReturn(1);
+        when(vencimientos.calcularVencimiento(any())).thenReturn(vencimiento);
+        guardarConId(50L);
+        DeferredResult<ReservaDTO> espera = new DeferredResult<>();
+        notificador.esperar(1L, espera);
+
+        Optional<Prestamo> asignado = cola.asignar(primera);
+
+        ArgumentCaptor<Prestamo> captor = ArgumentCaptor.forClass(Prestamo.class);
+        verify(prestamoRepository).save(captor.capture());
+        assertTrue(asignado.isPresent());
+        assertEquals(100L, captor.getValue().getIdUsuario());
+        assertEquals(EstadoPrestamo.CONFIRMADO, captor.getValue().getEstado());
+        assertEquals(vencimiento, captor.getValue().getFechaVencimiento());
+        verify(reservaRepository).vincularPrestamo(1L, 50L);
+        verify(estadisticas).registrarAlta(50L, 10L, captor.getValue().getFechaPrestamo());
+        ReservaDTO notificada = (ReservaDTO) espera.getResult();
+        assertEquals(EstadoReserva.ASIGNADA, notificada.getEstado());
+        assertEquals(50L, notificada.getIdPrestamo());
+    }
+
+    @Test
+    @DisplayName("Test cola: la reserva tomada por otra devolución o sin cupo no se asigna")
+    void testNoAsignaReservaTomadaOSinCupo() {
+        when(limite.reservar(100L)).thenReturn(false);
+        when(limite.reservar(200L)).thenReturn(true);
+        when(reservaRepository.actualizarEstado(2L, EstadoReserva.EN_ESPERA, EstadoReserva.ASIGNADA)).thenReturn(0);
+
+        assertTrue(cola.asignar(reserva(1L, 100L)).isEmpty());
+        assertTrue(cola.asignar(reserva(2L, 200L)).isEmpty());
+
+        verify(limite).liberar(200L);
+        verify(reservaRepository, never()).actualizarEstado(1L, EstadoReserva.EN_ESPERA, EstadoReserva.ASIGNADA);
+        verifyNoInteractions(prestamoRepository);
+    }
+
+    @Test
+    @DisplayName("Test cola: se elige al primer usuario activo con cupo, sin tomar la reserva")
+    void testEligeCandidataActivaConCupo() {
+        when(reservaRepository.findByIdLibroAndEstadoOrderByIdAsc(eq(10L), eq(EstadoReserva.EN_ESPERA), any()))
+                .thenReturn(List.of(reserva(1L, 100L), reserva(2L, 200L), reserva(3L, 300L)));
+        when(limite.getMaximoAbiertos()).thenReturn(5);
+        when(limite.abiertos(100L)).thenReturn(5);
+        when(limite.abiertos(200L)).thenReturn(1);
+        usuario(200L, true);
+
+        Optional<Reserva> candidata = cola.elegirCandidata(10L);
+
+        assertEquals(2L, candidata.orElseThrow().getId());
+        verify(usuarioClient, never()).getUsuarioById(100L);
+        verify(usuarioClient, never()).getUsuarioById(300L);
+        verify(limite, never()).reservar(anyLong());
+        verify(reservaRepository, never()).actualizarEstado(anyLong(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Test cola: sin reservas en espera no hay candidata")
+    void testSinReservas() {
+        when(reservaRepository.findByIdLibroAndEstadoOrderByIdAsc(eq(10L), eq(EstadoReserva.EN_ESPERA), any())).thenReturn(List.of());
+
+        assertTrue(cola.elegirCandidata(10L).isEmpty());
+        verifyNoInteractions(prestamoRepository, limite, usuarioClient);
+    }
+
+    @Test
+    @DisplayName("Test cola: si la transacción se revierte se libera el cupo y no se notifica")
+    void testRollbackLiberaCupo() {
+        when(limite.reservar(100L)).thenReturn(true);
+        when(reservaRepository.actualizarEstado(1L, EstadoReserva.EN_ESPERA, EstadoReserva.ASIGNADA)).thenReturn(1);
+        guardarConId(52L);
+        DeferredResult<ReservaDTO> espera = new DeferredResult<>();
+        notificador.esperar(1L, espera);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cola.asignar(reserva(1L, 100L));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sincronizacion -> sincronizacion.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(limite).liberar(100L);
+        assertFalse(espera.hasResult());
+    }
+
+    @Test
+    @DisplayName("Test cola: la reserva de un usuario dado de baja se cancela y se elige al siguiente")
+    void testCancelaReservaDeUsuarioInactivo() {
+        when(reservaRepository.findByIdLibroAndEstadoOrderByIdAsc(eq(10L), eq(EstadoReserva.EN_ESPERA), any()))
+                .thenReturn(List.of(reserva(1L, 100L), reserva(2L, 200L), reserva(3L, 300L)));
+        when(limite.getMaximoAbiertos()).thenReturn(5);
+        usuario(100L, false);
+        when(usuarioClient.getUsuarioById(200L)).thenThrow(FeignException.NotFound.class);
+        usuario(300L, true);
+        when(reservaRepository.actualizarEstado(1L, EstadoReserva.EN_ESPERA, EstadoReserva.CANCELADA)).thenReturn(1);
+        when(reservaRepository.actualizarEstado(2L, EstadoReserva.EN_ESPERA, EstadoReserva.CANCELADA)).thenReturn(1);
+        DeferredResult<ReservaDTO> espera = new DeferredResult<>();
+        notificador.esperar(1L, espera);
+
+        Optional<Reserva> candidata = cola.elegirCandidata(10L);
+
+        assertEquals(3L, candidata.orElseThrow().getId());
+        assertEquals(EstadoReserva.CANCELADA, ((ReservaDTO) espera.getResult()).getEstado());
+        verify(reservaRepository, never()).actualizarEstado(3L, EstadoReserva.EN_ESPERA, EstadoReserva.CANCELADA);
+    }
+
+    @Test
+    @DisplayName("Test cola: si MS Usuarios no responde se propaga el error sin saltear ni cancelar reservas")
+    void testUsuarioNoVerificadoPropagaError() {
+        when(reservaRepository.findByIdLibroAndEstadoOrderByIdAsc(eq(10L), eq(EstadoReserva.EN_ESPERA), any()))
+                .thenReturn(List.of(reserva(1L, 100L), reserva(2L, 200L)));
+        when(limite.getMaximoAbiertos()).thenReturn(5);
+        when(usuarioClient.getUsuarioById(100L)).thenThrow(new IllegalStateException("MS Usuarios no disponible"));
+
+        assertThrows(IllegalStateException.class, () -> cola.elegirCandidata(10L));
+
+        verify(usuarioClient, never()).getUsuarioById(200L);
+        verify(reservaRepository, never()).actualizarEstado(anyLong(), any(), any());
+    }
+}
@@ -1,16 +1,25 @@
 package com.ms.prestamos.service;
 
+import com.ms.prestamos.cache.CacheRecursosRemotos;
+import com.ms.prestamos.cache.LimitePrestamosUsuario;
 import com.ms.prestamos.client.ILibroClient;
 import com.ms.prestamos.client.IUsuarioClient;
 import com.ms.prestamos.dto.LibroDTO;
+import com.ms.prestamos.dto.PaginaPrestamosDTO;
 import com.ms.prestamos.dto.PrestamoDTO;
 import com.ms.prestamos.dto.UsuarioDTO;
 import com.ms.prestamos.exception.ComunicacionFallidaException;
 import com.ms.prestamos.exception.RecursoInvalidoException;
 import com.ms.prestamos.exception.RecursoNoEncontradoException;
 import com.ms.prestamos.mapper.PrestamoMapper;
+import com.ms.prestamos.model.ClaveIdempotencia;
+import com.ms.prestamos.model.EstadoPrestamo;
+import com.ms.prestamos.model.EventoOutbox;
 import com.ms.prestamos.model.Prestamo;
+import com.ms.prestamos.outbox.DespachadorOutbox;
+import com.ms.prestamos.outbox.OutboxPrestamos;
 import com.ms.prestamos.repository.IPrestamoRepository;
+import com.ms.prestamos.vencimiento.ProcesoVencimientos;
 import feign.FeignException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -19,9 +28,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -42,6 +58,24 @@ class PrestamoServiceTest {
     @Mock
     private PrestamoMapper mapper;
 
+    @Mock
+    private ExecutorService consultasRemotasExecutor;
+
+    @Mock
+    private CacheRecursosRemotos cache;
+
+    @Mock
+    private OutboxPrestamos outbox;
+
+    @Mock
+    private DespachadorOutbox despachador;
+
+    @Mock
+    private LimitePrestamosUsuario limite;
+
+    @Mock
+    private ProcesoVencimientos vencimientos;
+
     @InjectMocks
     private PrestamoService service;
 
@@ -49,9 +83,18 @@ class PrestamoServiceTest {
     private PrestamoDTO prestamoDTO;
     private UsuarioDTO usuarioDTO;
     private LibroDTO libroDTO;
+    private EventoOutbox evento;
 
     @BeforeEach
     void setUp() {
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(consultasRemotasExecutor).execute(any(Runnable.class));
+        lenient().when(limite.reservar(anyLong())).thenReturn(true);
+        lenient().when(vencimientos.calcularVencimiento(any(LocalDate.class)))
+                .thenAnswer(invocation -> invocation.<LocalDate>getArgument(0).plusDays(14));
+
         usuarioDTO = new UsuarioDTO();
         usuarioDTO.setId(1L);
         usuarioDTO.setNombreCompleto("Juan Perez");
@@ -71,26 +114,112 @@ class PrestamoServiceTest {
         entidad.setIdLibro(10L);
         entidad.setFechaPrestamo(LocalDate.now());
 
+        evento = new EventoOutbox();
+        evento.setId(99L);
+        evento.setIdPrestamo(1L);
+        evento.setIdLibro(10L);
+
         prestamoDTO = new PrestamoDTO();
         prestamoDTO.setId(1L);
         prestamoDTO.setIdUsuario(1L);
         prestamoDTO.setIdLibro(10L);
     }
 
+    @Test
+    @DisplayName("Test save: rechaza el préstamo si el usuario alcanzó el máximo de préstamos abiertos")
+    void testSaveUserLimitReached() throws Exception {
+        when(usuarioClient.getUsuarioById(1L)).thenReturn(usuarioDTO);
+        when(libroClient.getLibroById(10L)).thenReturn(libroDTO);
+        when(limite.reservar(1L)).thenReturn(false);
+        when(limite.getMaximoAbiertos()).thenReturn(5);
+
+        RecursoInvalidoException error = assertThrows(RecursoInvalidoException.class, () -> service.save(prestamoDTO));
+
+        assertTrue(error.getMessage().contains("5"));
+        verifyNoInteractions(outbox, repository);
+    }
+
+    @Test
+    @DisplayName("Test save: si falla el registro libera el cupo reservado del usuario")
+    void testSaveReleasesSlotWhenRegistrationFails() {
+        when(usuarioClient.getUsuarioById(1L)).thenReturn(usuarioDTO);
+        when(libroClient.getLibroById(10L)).thenReturn(libroDTO);
+        when(mapper.toEntity(any(PrestamoDTO.class))).thenReturn(entidad);
+        when(outbox.registrarPrestamo(entidad, null)).thenThrow(new IllegalStateException("Base de datos no disponible"));
+
+        assertThrows(IllegalStateException.class, () -> service.save(prestamoDTO));
+
+        verify(limite).reservar(1L);
+        verify(limite).liberar(1L);
+    }
+
     @Test
     @DisplayName("Test save: registro exitoso de préstamo")
     void testSaveSuccess() throws Exception {
         when(usuarioClient.getUsuarioById(1L)).thenReturn(usuarioDTO);
         when(libroClient.getLibroById(10L)).thenReturn(libroDTO);
         when(mapper.toEntity(any(PrestamoDTO.class))).thenReturn(entidad);
-        when(repository.save(any(Prestamo.class))).thenReturn(entidad);
+        when(outbox.registrarPrestamo(entidad, null)).thenReturn(evento);
+        when(despachador.despachar(99L)).thenReturn(DespachadorOutbox.ResultadoDespacho.PROCESADO);
+        when(mapper.toDTO(any(Prestamo.class))).thenReturn(prestamoDTO);
+
+        PrestamoDTO result = service.save(prestamoDTO);
+
+        assertNotNull(result);
+        assertEquals(EstadoPrestamo.CONFIRMADO, entidad.getEstado());
+        assertEquals(entidad.getFechaPrestamo().plusDays(14), entidad.getFechaVencimiento());
+        assertEquals(libroDTO, result.getLibro());
+        verify(outbox).registrarPrestamo(entidad);
+        verify(despachador).despachar(99L);
+        verify(repository, never()).save(any());
+        verify(cache, never()).getLibro(anyLong());
+    }
+
+    @Test
+    @DisplayName("Test save: registra la clave de idempotencia en la misma transacción que el préstamo")
+    void testSaveRegistersIdempotencyKeyWithLoan() throws Exception {
+        ClaveIdempotencia clave = new ClaveIdempotencia("reintento-1", "1:10");
+        when(usuarioClient.getUsuarioById(1L)).thenReturn(usuarioDTO);
+        when(libroClient.getLibroById(10L)).thenReturn(libroDTO);
+        when(mapper.toEntity(any(PrestamoDTO.class))).thenReturn(entidad);
+        when(outbox.registrarPrestamo(entidad, clave)).thenReturn(evento);
+        when(despachador.despachar(99L)).thenReturn(DespachadorOutbox.ResultadoDespacho.PROCESADO);
+        when(mapper.toDTO(any(Prestamo.class))).thenReturn(prestamoDTO);
+
+        service.save(prestamoDTO, clave);
+
+        verify(outbox).registrarPrestamo(entidad, clave);
+    }
+
+    @Test
+    @DisplayName("Test save: el préstamo queda pendiente si ms-libros no responde al reservar")
+    void testSaveKeepsPendingWhenReservationIsRetried() throws Exception {
+        when(usuarioClient.getUsuarioById(1L)).thenReturn(usuarioDTO);
+        when(libroClient.getLibroById(10L)).thenReturn(libroDTO);
+        when(mapper.toEntity(any(PrestamoDTO.class))).thenReturn(entidad);
+        when(outbox.registrarPrestamo(entidad, null)).thenAnswer(invocation -> {
+            entidad.setEstado(EstadoPrestamo.PENDIENTE);
+            return evento;
+        });
+        when(despachador.despachar(99L)).thenReturn(DespachadorOutbox.ResultadoDespacho.REINTENTAR);
         when(mapper.toDTO(any(Prestamo.class))).thenReturn(prestamoDTO);
 
         PrestamoDTO result = service.save(prestamoDTO);
 
         assertNotNull(result);
-        verify(repository).save(any());
-        verify(libroClient).updateLibro(eq(10L), any());
+        assertEquals(EstadoPrestamo.PENDIENTE, entidad.getEstado());
+    }
+
+    @Test
+    @DisplayName("Test save: falla cuando la reserva atómica informa que no queda stock")
+    void testSaveStockExhaustedOnReservation() {
+        when(usuarioClient.getUsuarioById(1L)).thenReturn(usuarioDTO);
+        when(libroClient.getLibroById(10L)).thenReturn(libroDTO);
+        when(mapper.toEntity(any(PrestamoDTO.class))).thenReturn(entidad);
+        when(outbox.registrarPrestamo(entidad, null)).thenReturn(evento);
+        when(despachador.despachar(99L)).thenReturn(DespachadorOutbox.ResultadoDespacho.COMPENSADO);
+
+        assertThrows(RecursoInvalidoException.class, () -> service.save(prestamoDTO));
     }
 
     @Test
@@ -99,7 +228,7 @@ class PrestamoServiceTest {
         when(usuarioClient.getUsuarioById(1L)).thenThrow(FeignException.NotFound.class);
 
         assertThrows(RecursoNoEncontradoException.class, () -> service.save(prestamoDTO));
-        verify(repository, never()).save(any());
+        verify(outbox, never()).registrarPrestamo(any(), any());
     }
 
     @Test
@@ -129,34 +258,100 @@ class PrestamoServiceTest {
         assertThrows(ComunicacionFallidaException.class, () -> service.save(prestamoDTO));
     }
 
+    @Test
+    @DisplayName("Test save: falla cuando el libro no existe aunque el usuario sea válido")
+    void testSaveBookNotFound() {
+        when(usuarioClient.getUsuarioById(1L)).thenReturn(usuarioDTO);
+        when(libroClient.getLibroById(10L)).thenThrow(FeignException.NotFound.class);
+
+        assertThrows(RecursoNoEncontradoException.class, () -> service.save(prestamoDTO));
+        verify(outbox, never()).registrarPrestamo(any(), any());
+    }
+
+    @Test
+    @DisplayName("Test save: consulta usuario y libro en paralelo sobre el executor")
+    void testSaveRunsLookupsOnExecutor() throws Exception {
+        when(usuarioClient.getUsuarioById(1L)).thenReturn(usuarioDTO);
+        when(libroClient.getLibroById(10L)).thenReturn(libroDTO);
+        when(mapper.toEntity(any(PrestamoDTO.class))).thenReturn(entidad);
+        when(outbox.registrarPrestamo(entidad, null)).thenReturn(evento);
+        when(despachador.despachar(99L)).thenReturn(DespachadorOutbox.ResultadoDespacho.PROCESADO);
+        when(mapper.toDTO(any(Prestamo.class))).thenReturn(prestamoDTO);
+
+        service.save(prestamoDTO);
+
+        verify(consultasRemotasExecutor, times(2)).execute(any(Runnable.class));
+    }
+
     @Test
     @DisplayName("Test findById: retorno exitoso")
     void testFindByIdSuccess() throws RecursoNoEncontradoException {
         when(repository.findById(1L)).thenReturn(Optional.of(entidad));
         when(mapper.toDTO(entidad)).thenReturn(prestamoDTO);
-        when(usuarioClient.getUsuarioById(1L)).thenReturn(usuarioDTO);
-        when(libroClient.getLibroById(10L)).thenReturn(libroDTO);
+        when(cache.getUsuario(1L)).thenReturn(usuarioDTO);
+        when(cache.getLibro(10L)).thenReturn(libroDTO);
 
         PrestamoDTO result = service.findById(1L);
 
         assertNotNull(result);
+        assertEquals(usuarioDTO, result.getUsuario());
         verify(repository).findById(1L);
+        verify(usuarioClient, never()).getUsuarioById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Test findRawById: devuelve el préstamo sin consultar usuarios ni libros")
+    void testFindRawByIdSinEnriquecer() throws RecursoNoEncontradoException {
+        when(repository.findById(1L)).thenReturn(Optional.of(entidad));
+        when(mapper.toDTO(entidad)).thenReturn(prestamoDTO);
+
+        PrestamoDTO result = service.findRawById(1L);
+
+        assertSame(prestamoDTO, result);
+        verifyNoInteractions(cache, usuarioClient, libroClient);
     }
 
     @Test
     @DisplayName("Test returnBook: devolución exitosa")
     void testReturnBookSuccess() throws Exception {
         entidad.setFechaDevolucion(null);
+        entidad.setEstado(EstadoPrestamo.CONFIRMADO);
         when(repository.findById(1L)).thenReturn(Optional.of(entidad));
-        when(libroClient.getLibroById(10L)).thenReturn(libroDTO);
-        when(repository.save(any())).thenReturn(entidad);
+        when(cache.getLibro(10L)).thenReturn(libroDTO);
+        when(outbox.registrarDevolucion(entidad)).thenReturn(evento);
+        when(despachador.despachar(99L)).thenReturn(DespachadorOutbox.ResultadoDespacho.PROCESADO);
         when(mapper.toDTO(any())).thenReturn(prestamoDTO);
 
         PrestamoDTO result = service.returnBook(1L);
 
         assertNotNull(result);
-        verify(libroClient).updateLibro(any(), any());
-        verify(repository).save(any());
+        assertEquals(LocalDate.now(), entidad.getFechaDevolucion());
+        verify(outbox).registrarDevolucion(entidad);
+        verify(limite).liberar(1L);
+        verify(despachador).despachar(99L);
+        verify(libroClient, never()).liberarEjemplar(anyLong(), anyString());
+    }
+
+    @Test
+    @DisplayName("Test returnBook: la devolución se registra aunque ms-libros falle, quedando pendiente")
+    void testReturnBookDispatchFailureKeepsEventPending() throws Exception {
+        entidad.setEstado(EstadoPrestamo.CONFIRMADO);
+        when(repository.findById(1L)).thenReturn(Optional.of(entidad));
+        when(outbox.registrarDevolucion(entidad)).thenReturn(evento);
+        when(despachador.despachar(99L)).thenThrow(new RuntimeException("Conexión rechazada"));
+        when(mapper.toDTO(any())).thenReturn(prestamoDTO);
+
+        assertDoesNotThrow(() -> service.returnBook(1L));
+    }
+
+    @Test
+    @DisplayName("Test returnBook: falla si el préstamo fue cancelado")
+    void testReturnBookCancelledLoan() throws Exception {
+        entidad.setEstado(EstadoPrestamo.CANCELADO);
+        when(repository.findById(1L)).thenReturn(Optional.of(entidad));
+
+        assertThrows(RecursoInvalidoException.class, () -> service.returnBook(1L));
+        verify(outbox, never()).registrarDevolucion(any());
     }
 
     @Test
@@ -164,12 +359,133 @@ class PrestamoServiceTest {
     void testGetAll() {
         when(repository.findAll()).thenReturn(List.of(entidad));
         when(mapper.toDTO(entidad)).thenReturn(prestamoDTO);
-        when(usuarioClient.getUsuarioById(anyLong())).thenReturn(usuarioDTO);
-        when(libroClient.getLibroById(anyLong())).thenReturn(libroDTO);
+        when(cache.getUsuarios(Set.of(1L))).thenReturn(Map.of(1L, usuarioDTO));
+        when(cache.getLibros(Set.of(10L))).thenReturn(Map.of(10L, libroDTO));
 
         List<PrestamoDTO> result = service.getAll();
 
         assertFalse(result.isEmpty());
         assertEquals(1, result.size());
+        assertEquals(usuarioDTO, result.get(0).getUsuario());
+        assertEquals(libroDTO, result.get(0).getLibro());
+    }
+
+    @Test
+    @DisplayName("Test getAll: consulta usuarios y libros una sola vez por ID distinto")
+    void testGetAllBatchesDistinctIds() {
+        Prestamo otraEntidad = new Prestamo(2L, 1L, 10L, LocalDate.now(), null, LocalDate.now().plusDays(14), EstadoPrestamo.CONFIRMADO, false);
+        PrestamoDTO otroDTO = new PrestamoDTO();
+        otroDTO.setId(2L);
+        otroDTO.setIdUsuario(1L);
+        otroDTO.setIdLibro(10L);
+
+        when(repository.findAll()).thenReturn(List.of(entidad, otraEntidad));
+        when(mapper.toDTO(entidad)).thenReturn(prestamoDTO);
+        when(mapper.toDTO(otraEntidad)).thenReturn(otroDTO);
+        when(cache.getUsuarios(Set.of(1L))).thenReturn(Map.of(1L, usuarioDTO));
+        when(cache.getLibros(Set.of(10L))).thenReturn(Map.of(10L, libroDTO));
+
+        List<PrestamoDTO> result = service.getAll();
+
+        assertEquals(2, result.size());
+        assertEquals(usuarioDTO, result.get(1).getUsuario());
+        verify(cache, times(1)).getUsuarios(Set.of(1L));
+        verify(cache, times(1)).getLibros(Set.of(10L));
+        verify(cache, never()).getUsuario(anyLong());
+        verify(cache, never()).getLibro(anyLong());
+    }
+
+    @Test
+    @DisplayName("Test getAll: retorna los préstamos sin enriquecer si no se obtuvo el recurso remoto")
+    void testGetAllRemoteFailure() {
+        when(repository.findAll()).thenReturn(List.of(entidad));
+        when(mapper.toDTO(entidad)).thenReturn(prestamoDTO);
+        when(cache.getUsuarios(Set.of(1L))).thenReturn(Map.of());
+        when(cache.getLibros(Set.of(10L))).thenReturn(Map.of(10L, libroDTO));
+
+        List<PrestamoDTO> result = service.getAll();
+
+        assertEquals(1, result.size());
+        assertNull(result.get(0).getUsuario());
+        assertEquals(libroDTO, result.get(0).getLibro());
+    }
+
+    @Test
+    @DisplayName("Test getPage: retorna la página con el cursor del último préstamo")
+    void testGetPageWithNext() {
+        when(repository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(1)))
+                .thenReturn(new SliceImpl<>(List.of(entidad), PageRequest.ofSize(1), true));
+        when(mapper.toDTO(entidad)).thenReturn(prestamoDTO);
+        when(cache.getUsuarios(Set.of(1L))).thenReturn(Map.of(1L, usuarioDTO));
+        when(cache.getLibros(Set.of(10L))).thenReturn(Map.of(10L, libroDTO));
+
+        PaginaPrestamosDTO result = service.getPage(null, 1);
+
+        assertEquals(1, result.getContenido().size());
+        assertTrue(result.isHayMas());
+        assertEquals(1L, result.getSiguienteCursor());
+        assertEquals(usuarioDTO, result.getContenido().get(0).getUsuario());
+    }
+
+    @Test
+    @DisplayName("Test buscar: pide un préstamo de más para saber si hay otra página")
+    @SuppressWarnings("unchecked")
+    void testBuscarConPaginaSiguiente() {
+        Prestamo otraEntidad = new Prestamo(2L, 1L, 10L, LocalDate.now(), null, LocalDate.now().plusDays(14), EstadoPrestamo.CONFIRMADO, false);
+        when(repository.findBy(any(Specification.class), any())).thenReturn(List.of(entidad, otraEntidad));
+        when(mapper.toDTO(entidad)).thenReturn(prestamoDTO);
+        when(cache.getUsuarios(Set.of(1L))).thenReturn(Map.of(1L, usuarioDTO));
+        when(cache.getLibros(Set.of(10L))).thenReturn(Map.of(10L, libroDTO));
+
+        PaginaPrestamosDTO result = service.buscar(1L, null, true, null, 1);
+
+        assertEquals(1, result.getContenido().size());
+        assertTrue(result.isHayMas());
+        assertEquals(1L, result.getSiguienteCursor());
+        verify(mapper, never()).toDTO(otraEntidad);
+    }
+
+    @Test
+    @DisplayName("Test getVencidos: retorna la última página de préstamos vencidos sin cursor siguiente")
+    @SuppressWarnings("unchecked")
+    void testGetVencidosUltimaPagina() {
+        entidad.setVencido(true);
+        prestamoDTO.setVencido(true);
+        when(repository.findBy(any(Specification.class), any())).thenReturn(List.of(entidad));
+        when(mapper.toDTO(entidad)).thenReturn(prestamoDTO);
+        when(cache.getUsuarios(Set.of(1L))).thenReturn(Map.of(1L, usuarioDTO));
+        when(cache.getLibros(Set.of(10L))).thenReturn(Map.of(10L, libroDTO));
+
+        PaginaPrestamosDTO result = service.getVencidos(null, 50);
+
+        assertEquals(1, result.getContenido().size());
+        assertTrue(result.getContenido().get(0).isVencido());
+        assertFalse(result.isHayMas());
+        assertNull(result.getSiguienteCursor());
+    }
+
+    @Test
+    @DisplayName("Test forEachPage: recorre las páginas usando el cursor hasta agotar los préstamos")
+    void testForEachPageFollowsCursor() {
+        Prestamo otraEntidad = new Prestamo(2L, 1L, 10L, LocalDate.now(), null, LocalDate.now().plusDays(14), EstadoPrestamo.CONFIRMADO, false);
+        PrestamoDTO otroDTO = new PrestamoDTO();
+        otroDTO.setId(2L);
+        otroDTO.setIdUsuario(1L);
+        otroDTO.setIdLibro(10L);
+
+        when(repository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(1)))
+                .thenReturn(new SliceImpl<>(List.of(entidad), PageRequest.ofSize(1), true));
+        when(repository.findByIdGreaterThanOrderByIdAsc(1L, PageRequest.ofSize(1)))
+                .thenReturn(new SliceImpl<>(List.of(otraEntidad), PageRequest.ofSize(1), false));
+        when(mapper.toDTO(entidad)).thenReturn(prestamoDTO);
+        when(mapper.toDTO(otraEntidad)).thenReturn(otroDTO);
+        when(cache.getUsuarios(Set.of(1L))).thenReturn(Map.of(1L, usuarioDTO));
+        when(cache.getLibros(Set.of(10L))).thenReturn(Map.of(10L, libroDTO));
+
+        List<Long> idsRecibidos = new ArrayList<>();
+        service.forEachPage(1, lote -> lote.forEach(dto -> idsRecibidos.add(dto.getId())));
+
+        assertEquals(List.of(1L, 2L), idsRecibidos);
+        verify(repository, never()).findAll();
     }
-}
\ No newline at end of file
+}
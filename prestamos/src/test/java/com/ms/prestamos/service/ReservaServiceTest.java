@@ -0,0 +1,146 @@
+package com.ms.prestamos.service;
+
+import com.ms.prestamos.cache.LimitePrestamosUsuario;
+import com.ms.prestamos.client.ILibroClient;
+import com.ms.prestamos.client.IUsuarioClient;
+import com.ms.prestamos.dto.LibroDTO;
+import com.ms.prestamos.dto.ReservaDTO;
+import com.ms.prestamos.dto.UsuarioDTO;
+import com.ms.prestamos.exception.RecursoInvalidoException;
+import com.ms.prestamos.exception.RecursoNoEncontradoException;
+import com.ms.prestamos.mapper.ReservaMapper;
+import com.ms.prestamos.model.EstadoReserva;
+import com.ms.prestamos.model.Reserva;
+import com.ms.prestamos.repository.IReservaRepository;
+import com.ms.prestamos.reserva.NotificadorReservas;
+import feign.FeignException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.context.request.async.DeferredResult;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas de la capa de Service para Reserva")
+class ReservaServiceTest {
+
+    @Mock
+    private IReservaRepository repository;
+
+    @Mock
+    private IUsuarioClient usuarioClient;
+
+    @Mock
+    private ILibroClient libroClient;
+
+    @Mock
+    private LimitePrestamosUsuario limite;
+
+    private NotificadorReservas notificador;
+    private ReservaService service;
+    private ReservaDTO solicitud;
+    private UsuarioDTO usuario;
+    private LibroDTO libroSinStock;
+
+    @BeforeEach
+    void setUp() {
+        notificador = new NotificadorReservas();
+        service = new ReservaService(repository, usuarioClient, libroClient, new ReservaMapper(), limite, notificador);
+
+        solicitud = new ReservaDTO();
+        solicitud.setIdUsuario(1L);
+        solicitud.setIdLibro(10L);
+
+        usuario = new UsuarioDTO();
+        usuario.setId(1L);
+        usuario.setIsActivo(true);
+
+        libroSinStock = new LibroDTO();
+        libroSinStock.setId(10L);
+        libroSinStock.setEjemplaresDisponibles(0);
+    }
+
+    @Test
+    @DisplayName("Test save: la reserva entra a la lista de espera con su posición")
+    void testSaveSuccess() throws Exception {
+        when(usuarioClient.getUsuarioById(1L)).thenReturn(usuario);
+        when(libroClient.getLibroById(10L)).thenReturn(libroSinStock);
+        when(limite.getMaximoAbiertos()).thenReturn(5);
+        when(repository.save(any(Reserva.class))).thenAnswer(invocacion -> {
+            Reserva reserva = invocacion.getArgument(0);
+            reserva.setId(7L);
+            return reserva;
+        });
+        when(repository.countByIdLibroAndEstadoAndIdLessThan(10L, EstadoReserva.EN_ESPERA, 7L)).thenReturn(2L);
+
+        ReservaDTO result = service.save(solicitud);
+
+        assertEquals(7L, result.getId());
+        assertEquals(EstadoReserva.EN_ESPERA, result.getEstado());
+        assertEquals(3L, result.getPosicion());
+        assertNotNull(result.getFechaSolicitud());
+    }
+
+    @Test
+    @DisplayName("Test save: falla si el libro tiene ejemplares disponibles")
+    void testSaveBookWithStock() {
+        libroSinStock.setEjemplaresDisponibles(2);
+        when(usuarioClient.getUsuarioById(1L)).thenReturn(usuario);
+        when(libroClient.getLibroById(10L)).thenReturn(libroSinStock);
+
+        assertThrows(RecursoInvalidoException.class, () -> service.save(solicitud));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Test save: falla si el usuario ya está en la lista de espera del libro")
+    void testSaveDuplicated() {
+        when(usuarioClient.getUsuarioById(1L)).thenReturn(usuario);
+        when(libroClient.getLibroById(10L)).thenReturn(libroSinStock);
+        when(limite.getMaximoAbiertos()).thenReturn(5);
+        when(repository.existsByIdUsuarioAndIdLibroAndEstado(1L, 10L, EstadoReserva.EN_ESPERA)).thenReturn(true);
+
+        assertThrows(RecursoInvalidoException.class, () -> service.save(solicitud));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Test save: falla si el libro no existe")
+    void testSaveBookNotFound() {
+        when(usuarioClient.getUsuarioById(1L)).thenReturn(usuario);
+        when(libroClient.getLibroById(10L)).thenThrow(mock(FeignException.NotFound.class));
+
+        assertThrows(RecursoNoEncontradoException.class, () -> service.save(solicitud));
+    }
+
+    @Test
+    @DisplayName("Test cancelar: la reserva sale de la lista y se avisa a quienes esperan")
+    void testCancelarNotifica() throws Exception {
+        when(repository.findById(7L)).thenReturn(Optional.of(new Reserva(7L, 1L, 10L, EstadoReserva.EN_ESPERA, Instant.now(), null)));
+        when(repository.actualizarEstado(7L, EstadoReserva.EN_ESPERA, EstadoReserva.CANCELADA)).thenReturn(1);
+        DeferredResult<ReservaDTO> espera = new DeferredResult<>();
+        notificador.esperar(7L, espera);
+
+        ReservaDTO result = service.cancelar(7L);
+
+        assertEquals(EstadoReserva.CANCELADA, result.getEstado());
+        assertSame(result, espera.getResult());
+    }
+
+    @Test
+    @DisplayName("Test cancelar: falla si la reserva ya fue asignada")
+    void testCancelarAsignada() {
+        when(repository.findById(7L)).thenReturn(Optional.of(new Reserva(7L, 1L, 10L, EstadoReserva.ASIGNADA, Instant.now(), 50L)));
+        when(repository.actualizarEstado(7L, EstadoReserva.EN_ESPERA, EstadoReserva.CANCELADA)).thenReturn(0);
+
+        assertThrows(RecursoInvalidoException.class, () -> service.cancelar(7L));
+    }
+}
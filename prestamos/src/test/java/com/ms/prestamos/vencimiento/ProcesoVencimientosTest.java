@@ -0,0 +1,65 @@
+package com.ms.prestamos.vencimiento;
+
+import com.ms.prestamos.repository.IPrestamoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas del proceso de vencimiento de préstamos")
+class ProcesoVencimientosTest {
+
+    private static final LocalDate HOY = LocalDate.of(2025, 6, 1);
+
+    @Mock
+    private IPrestamoRepository repository;
+
+    private ProcesoVencimientos proceso;
+
+    @BeforeEach
+    void setUp() {
+        proceso = new ProcesoVencimientos(repository, 14, 2);
+    }
+
+    @Test
+    @DisplayName("Test vencimiento: la fecha de vencimiento es la del préstamo más los días configurados")
+    void testCalcularVencimiento() {
+        assertEquals(LocalDate.of(2025, 6, 15), proceso.calcularVencimiento(HOY));
+    }
+
+    @Test
+    @DisplayName("Test vencimiento: recorre por cursor en lotes de tamaño fijo y marca cada lote")
+    void testMarcarVencidosPorLotes() {
+        when(repository.findIdsPorVencer(HOY, 0L, PageRequest.ofSize(2))).thenReturn(List.of(3L, 8L));
+        when(repository.findIdsPorVencer(HOY, 8L, PageRequest.ofSize(2))).thenReturn(List.of(12L, 20L));
+        when(repository.findIdsPorVencer(HOY, 20L, PageRequest.ofSize(2))).thenReturn(List.of(31L));
+        when(repository.marcarVencidos(anyCollection())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        long marcados = proceso.marcarVencidos(HOY);
+
+        assertEquals(5, marcados);
+        verify(repository).marcarVencidos(List.of(3L, 8L));
+        verify(repository).marcarVencidos(List.of(12L, 20L));
+        verify(repository).marcarVencidos(List.of(31L));
+        verify(repository, times(3)).findIdsPorVencer(eq(HOY), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Test vencimiento: sin préstamos por vencer no ejecuta actualizaciones")
+    void testSinPrestamosPorVencer() {
+        when(repository.findIdsPorVencer(HOY, 0L, PageRequest.ofSize(2))).thenReturn(List.of());
+
+        assertEquals(0, proceso.marcarVencidos(HOY));
+        verify(repository, never()).marcarVencidos(anyCollection());
+    }
+}
@@ -12,6 +12,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
@@ -23,6 +25,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UsuarioController {
 
+    private static final int TAMANIO_MAXIMO_LOTE = 1000;
+
     private final IUsuarioService service;
 
     @Operation(
@@ -41,6 +45,21 @@ public class UsuarioController {
         return service.save(usuario);
     }
 
+    @Operation(
+            summary = "Registrar usuarios por lote",
+            description = "Crea un lote de hasta " + TAMANIO_MAXIMO_LOTE + " usuarios activos en una única transacción con inserciones por lotes y retorna los IDs generados, en el mismo orden del lote. Si algún email está repetido o ya registrado no se guarda ninguno."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Usuarios creados exitosamente.",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = Long.class)))),
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos, lote vacío o mayor a " + TAMANIO_MAXIMO_LOTE + " usuarios, o email repetido/existente.")
+    })
+    @PostMapping("/lote")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<Long> createUsuarios(@RequestBody @NotEmpty @Size(max = TAMANIO_MAXIMO_LOTE) List<@Valid Usuario> usuarios) throws EmailExistenteException {
+        return service.saveAll(usuarios);
+    }
+
     @Operation(
             summary = "Obtener todos los usuarios",
             description = "Retorna una lista completa de todos los usuarios registrados en el sistema."
@@ -53,6 +72,18 @@ public class UsuarioController {
         return service.getAll();
     }
 
+    @Operation(
+            summary = "Obtener usuarios por lote de IDs",
+            description = "Retorna los usuarios cuyos IDs se indican en el parámetro 'ids'. Los IDs inexistentes se omiten."
+    )
+    @ApiResponse(responseCode = "200", description = "Lista de usuarios obtenida exitosamente.",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = Usuario.class))))
+    @GetMapping(params = "ids")
+    @ResponseStatus(HttpStatus.OK)
+    public List<Usuario> getUsuariosByIds(@RequestParam List<Long> ids) {
+        return service.findAllById(ids);
+    }
+
     @Operation(
             summary = "Buscar usuario por ID",
             description = "Retorna los detalles de un usuario específico basado en su ID autogenerado."
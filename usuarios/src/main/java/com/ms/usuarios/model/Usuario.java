@@ -12,10 +12,14 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = Usuario.RESTRICCION_EMAIL_UNICO, columnNames = "email"))
 public class Usuario {
 
+    public static final String RESTRICCION_EMAIL_UNICO = "uk_usuario_email";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuario_seq")
+    @SequenceGenerator(name = "usuario_seq", sequenceName = "usuario_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El nombre no puede estar vacío.")
@@ -24,7 +28,7 @@ public class Usuario {
 
     @NotBlank(message = "El email no puede estar vacío.")
     @Email(message = "Debe proporcionar un formato de email válido.")
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String email;
 
     private Boolean isActivo;
@@ -4,32 +4,106 @@ import com.ms.usuarios.exception.EmailExistenteException;
 import com.ms.usuarios.exception.UsuarioNoEncontradoException;
 import com.ms.usuarios.model.Usuario;
 import com.ms.usuarios.repository.IUsuarioRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 @Service
-@RequiredArgsConstructor
 public class UsuarioService implements IUsuarioService {
 
     private final IUsuarioRepository repository;
+    private final EntityManager entityManager;
+    private final int tamanioLoteEscritura;
     private static final Logger log = LoggerFactory.getLogger(UsuarioService.class);
+    private static final int TAMANIO_LOTE_CONSULTA = 1000;
+
+    public UsuarioService(IUsuarioRepository repository, EntityManager entityManager,
+                          @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int tamanioLoteEscritura) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.tamanioLoteEscritura = tamanioLoteEscritura;
+    }
 
     @Override
-    @Transactional
+    @Transactional(rollbackOn = EmailExistenteException.class)
     public Usuario save(Usuario usuario) throws EmailExistenteException {
-
-        if (repository.existsByEmail(usuario.getEmail())) {
+        usuario.setIsActivo(Boolean.TRUE);
+        try {
+            Usuario guardado = repository.saveAndFlush(usuario);
+            log.info("Usuario guardado correctamente.");
+            return guardado;
+        } catch (DataIntegrityViolationException ex) {
+            if (!esEmailDuplicado(ex)) {
+                throw ex;
+            }
             log.warn("El email ya existe, no se puede generar usuario.");
             throw new EmailExistenteException("El email ya existe");
         }
-        usuario.setIsActivo(Boolean.TRUE);
-        log.info("Usuario guardado correctamente.");
-        return repository.save(usuario);
+    }
+
+    @Override
+    @Transactional(rollbackOn = EmailExistenteException.class)
+    public List<Long> saveAll(List<Usuario> usuarios) throws EmailExistenteException {
+        validateEmailsUnicos(usuarios);
+        usuarios.forEach(usuario -> {
+            usuario.setId(null);
+            usuario.setIsActivo(Boolean.TRUE);
+        });
+        log.info("Guardando lote de {} usuarios.", usuarios.size());
+        List<Long> ids = new ArrayList<>(usuarios.size());
+        try {
+            for (int desde = 0; desde < usuarios.size(); desde += tamanioLoteEscritura) {
+                List<Usuario> bloque = usuarios.subList(desde, Math.min(desde + tamanioLoteEscritura, usuarios.size()));
+                repository.saveAll(bloque);
+                repository.flush();
+                bloque.forEach(usuario -> ids.add(usuario.getId()));
+                entityManager.clear();
+            }
+            return ids;
+        } catch (DataIntegrityViolationException ex) {
+            if (!esEmailDuplicado(ex)) {
+                throw ex;
+            }
+            log.warn("Emails ya existentes, no se pueden generar los usuarios.");
+            throw new EmailExistenteException("Algún email del lote ya existe");
+        }
+    }
+
+    private static boolean esEmailDuplicado(DataIntegrityViolationException ex) {
+        return ex.getCause() instanceof ConstraintViolationException violacion
+                && violacion.getConstraintName() != null
+                && violacion.getConstraintName().toLowerCase(Locale.ROOT).contains(Usuario.RESTRICCION_EMAIL_UNICO);
+    }
+
+    private void validateEmailsUnicos(List<Usuario> usuarios) throws EmailExistenteException {
+        Set<String> emails = new HashSet<>();
+        for (Usuario usuario : usuarios) {
+            if (!emails.add(usuario.getEmail())) {
+                log.warn("El email está repetido en el lote, no se pueden generar los usuarios.");
+                throw new EmailExistenteException("El email " + usuario.getEmail() + " está repetido en el lote");
+            }
+        }
+        List<String> pendientes = new ArrayList<>(emails);
+        for (int desde = 0; desde < pendientes.size(); desde += TAMANIO_LOTE_CONSULTA) {
+            List<String> existentes = repository.findEmailsExistentes(
+                    pendientes.subList(desde, Math.min(desde + TAMANIO_LOTE_CONSULTA, pendientes.size())));
+            if (!existentes.isEmpty()) {
+                log.warn("Emails ya existentes, no se pueden generar los usuarios.");
+                throw new EmailExistenteException("Los emails " + existentes + " ya existen");
+            }
+        }
     }
 
     @Override
@@ -37,6 +111,11 @@ public class UsuarioService implements IUsuarioService {
         return repository.findAll();
     }
 
+    @Override
+    public List<Usuario> findAllById(Collection<Long> ids) {
+        return repository.findAllById(ids);
+    }
+
     @Override
     public Usuario findById(Long id) throws UsuarioNoEncontradoException {
         return repository.findById(id).orElseThrow(()->{
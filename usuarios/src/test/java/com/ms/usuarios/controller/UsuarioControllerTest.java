@@ -16,6 +16,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
@@ -81,6 +82,52 @@ class UsuarioControllerTest {
         verify(service, times(1)).save(any(Usuario.class));
     }
 
+    @Test
+    @DisplayName("POST lote - Debe crear los usuarios del lote y retornar 201 Created")
+    void createUsuarios_SavesBatch_Returns201Created() throws Exception {
+        List<Usuario> lote = List.of(usuarioRequest, new Usuario(null, "Lionel Messi", "messi@test.com", null));
+        given(service.saveAll(any())).willReturn(List.of(1L, 2L));
+
+        mockMvc.perform(post("/api/usuarios/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lote)))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1]", is(2)));
+
+        verify(service, times(1)).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("POST lote - Debe retornar 400 BAD REQUEST si el lote supera el tamaño máximo")
+    void createUsuarios_BatchTooLarge_Returns400BadRequest() throws Exception {
+        List<Usuario> lote = IntStream.range(0, 1001)
+                .mapToObj(i -> new Usuario(null, "Usuario " + i, "usuario" + i + "@test.com", null))
+                .toList();
+
+        mockMvc.perform(post("/api/usuarios/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lote)))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("POST lote - Debe retornar 400 BAD REQUEST si el lote contiene un email ya registrado")
+    void createUsuarios_EmailDuplicate_Returns400BadRequest() throws Exception {
+        given(service.saveAll(any()))
+                .willThrow(new EmailExistenteException("Los emails [" + emailValid + "] ya existen"));
+
+        mockMvc.perform(post("/api/usuarios/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(usuarioRequest))))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("GET - Debe retornar una lista de Usuarios con 200 OK")
     void getAllUsuarios_ReturnsListOfUsuarios_Returns200OK() throws Exception {
@@ -98,6 +145,23 @@ class UsuarioControllerTest {
         verify(service, times(1)).getAll();
     }
 
+    @Test
+    @DisplayName("GET - Debe retornar los Usuarios del lote de IDs con 200 OK")
+    void getUsuariosByIds_ReturnsListOfUsuarios_Returns200OK() throws Exception {
+        given(service.findAllById(List.of(1L, 2L))).willReturn(List.of(usuarioResponse));
+
+        ResultActions response = mockMvc.perform(get("/api/usuarios")
+                .param("ids", "1", "2"));
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].nombreCompleto", is("Josefina Oller")));
+
+        verify(service, times(1)).findAllById(List.of(1L, 2L));
+        verify(service, never()).getAll();
+    }
+
     @Test
     @DisplayName("GET - Debe buscar el usuario por ID y retornarlo con 200 OK")
     void getUsuarioById_ExistingId_Returns200OK() throws Exception {
@@ -1,12 +1,15 @@
 package com.ms.usuarios.repository;
 
 import com.ms.usuarios.model.Usuario;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
 import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -71,24 +74,25 @@ class IUsuarioRepositoryTest {
     }
 
     @Test
-    @DisplayName("existsByEmail: Retorna TRUE si el email existe en la BD")
-    void existsByEmail_ExistingEmail_ReturnsTrue() {
-        String emailExisted = "josefinaoller19@gmail.com";
-        Usuario usuario = new Usuario(null, "Josefina", emailExisted, true);
-        entityManager.persistAndFlush(usuario);
+    @DisplayName("findEmailsExistentes: Retorna solo los emails registrados del lote consultado")
+    void findEmailsExistentes_ReturnsOnlyRegisteredEmails() {
+        entityManager.persistAndFlush(new Usuario(null, "Registrado", "registrado@test.com", true));
 
-        boolean isEmailPresent = repository.existsByEmail(emailExisted);
+        List<String> existentes = repository.findEmailsExistentes(List.of("registrado@test.com", "libre@test.com"));
 
-        assertTrue(isEmailPresent, "Debe retornar true si el email existe.");
+        assertEquals(List.of("registrado@test.com"), existentes);
     }
 
     @Test
-    @DisplayName("existsByEmail: Retorna FALSE si el email no existe en la BD")
-    void existsByEmail_NotExistingEmail_ReturnsFalse() {
-        String emailNotExisted = "noexiste@test.com";
+    @DisplayName("saveAndFlush: La restricción única rechaza un email duplicado")
+    void saveAndFlush_DuplicateEmail_ThrowsDataIntegrityViolation() {
+        entityManager.persistAndFlush(new Usuario(null, "Original", "original@test.com", true));
 
-        boolean isEmailPresent = repository.existsByEmail(emailNotExisted);
+        DataIntegrityViolationException ex = assertThrows(DataIntegrityViolationException.class,
+                () -> repository.saveAndFlush(new Usuario(null, "Copia", "original@test.com", true)));
 
-        assertFalse(isEmailPresent, "Debe retornar false si el email no existe.");
+        ConstraintViolationException violacion = assertInstanceOf(ConstraintViolationException.class, ex.getCause());
+        assertTrue(violacion.getConstraintName().toLowerCase().contains(Usuario.RESTRICCION_EMAIL_UNICO),
+                "La violación debe identificar la restricción única del email.");
     }
 }
@@ -4,30 +4,38 @@ import com.ms.usuarios.exception.EmailExistenteException;
 import com.ms.usuarios.exception.UsuarioNoEncontradoException;
 import com.ms.usuarios.model.Usuario;
 import com.ms.usuarios.repository.IUsuarioRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("Pruebas de la capa Service para Usuario")
 class UsuarioServiceTest {
 
-    @InjectMocks
     private UsuarioService service;
 
     @Mock
     private IUsuarioRepository repository;
 
+    @Mock
+    private EntityManager entityManager;
+
     private Usuario existingUsuario;
     private final Long idExisted = 1L;
     private final Long idNotExisted = 99L;
@@ -36,6 +44,7 @@ class UsuarioServiceTest {
 
     @BeforeEach
     void setUp() {
+        service = new UsuarioService(repository, entityManager, 2);
         existingUsuario = new Usuario(idExisted, "Josefina Oller", emailExisted, true);
     }
 
@@ -45,8 +54,7 @@ class UsuarioServiceTest {
         Usuario newUsuario = new Usuario(null, "Usuario Nuevo", emailNew, null);
         Usuario savedUsuario = new Usuario(2L, "Usuario Nuevo", emailNew, true);
 
-        when(repository.existsByEmail(newUsuario.getEmail())).thenReturn(false);
-        when(repository.save(any(Usuario.class))).thenReturn(savedUsuario);
+        when(repository.saveAndFlush(any(Usuario.class))).thenReturn(savedUsuario);
 
         Usuario result = service.save(newUsuario);
 
@@ -55,8 +63,7 @@ class UsuarioServiceTest {
         assertTrue(result.getIsActivo(), "El usuario debe guardarse con estado activo.");
         assertEquals(2L, result.getId(), "El ID debe ser el generado.");
 
-        verify(repository, times(1)).existsByEmail(newUsuario.getEmail());
-        verify(repository, times(1)).save(newUsuario);
+        verify(repository, times(1)).saveAndFlush(newUsuario);
     }
 
     @Test
@@ -64,13 +71,73 @@ class UsuarioServiceTest {
     void saveUsuario_DuplicateEmail_ThrowsException() {
         Usuario duplicateUsuario = new Usuario(null, "Intento Duplicado", emailExisted, null);
 
-        when(repository.existsByEmail(emailExisted)).thenReturn(true);
+        when(repository.saveAndFlush(duplicateUsuario))
+                .thenThrow(violacion(Usuario.RESTRICCION_EMAIL_UNICO));
 
         assertThrows(EmailExistenteException.class, () -> service.save(duplicateUsuario),
                 "Debe lanzar EmailExistenteException cuando el email ya existe.");
+    }
+
+    @Test
+    @DisplayName("Debe propagar la violación de integridad si no corresponde a la restricción única del email")
+    void saveUsuario_OtherIntegrityViolation_Rethrows() {
+        Usuario usuarioInvalido = new Usuario(null, null, emailNew, null);
+        DataIntegrityViolationException esperada = violacion("nombre_completo_not_null");
+        when(repository.saveAndFlush(usuarioInvalido)).thenThrow(esperada);
+
+        DataIntegrityViolationException ex = assertThrows(DataIntegrityViolationException.class, () -> service.save(usuarioInvalido));
+
+        assertSame(esperada, ex);
+    }
+
+    @Test
+    @DisplayName("Lote: Debe guardar todos los Usuarios activos por bloques y retornar sus IDs si ningún email existe")
+    void saveAll_WithNewEmails_SavesActiveBatch() throws EmailExistenteException {
+        List<Usuario> lote = List.of(
+                new Usuario(5L, "Usuario Nuevo", emailNew, false),
+                new Usuario(null, "Otro Usuario", "otro.usuario@test.com", null),
+                new Usuario(null, "Tercer Usuario", "tercer.usuario@test.com", null)
+        );
+        AtomicLong secuencia = new AtomicLong(100);
+        when(repository.findEmailsExistentes(anyCollection())).thenReturn(List.of());
+        when(repository.saveAll(anyList())).thenAnswer(invocacion -> {
+            List<Usuario> bloque = invocacion.getArgument(0);
+            bloque.forEach(usuario -> usuario.setId(secuencia.incrementAndGet()));
+            return bloque;
+        });
+
+        List<Long> result = service.saveAll(lote);
+
+        assertEquals(List.of(101L, 102L, 103L), result);
+        assertTrue(lote.stream().allMatch(Usuario::getIsActivo), "Todos los usuarios deben guardarse activos.");
+        verify(repository, times(2)).saveAll(anyList());
+        verify(repository, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    @DisplayName("Lote: Debe lanzar EmailExistenteException si un email se repite dentro del lote")
+    void saveAll_DuplicateEmailInBatch_ThrowsException() {
+        List<Usuario> lote = List.of(
+                new Usuario(null, "Usuario Nuevo", emailNew, null),
+                new Usuario(null, "Duplicado", emailNew, null)
+        );
+
+        assertThrows(EmailExistenteException.class, () -> service.saveAll(lote));
 
-        verify(repository, times(1)).existsByEmail(emailExisted);
-        verify(repository, never()).save(any(Usuario.class));
+        verify(repository, never()).findEmailsExistentes(anyCollection());
+        verify(repository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Lote: Debe lanzar EmailExistenteException si algún email ya está registrado")
+    void saveAll_ExistingEmail_ThrowsException() {
+        List<Usuario> lote = List.of(new Usuario(null, "Intento Duplicado", emailExisted, null));
+        when(repository.findEmailsExistentes(anyCollection())).thenReturn(List.of(emailExisted));
+
+        assertThrows(EmailExistenteException.class, () -> service.saveAll(lote));
+
+        verify(repository, never()).saveAll(anyList());
     }
 
     @Test
@@ -115,6 +182,20 @@ class UsuarioServiceTest {
         verify(repository, times(1)).findAll();
     }
 
+    @Test
+    @DisplayName("Debe retornar los Usuarios de un lote de IDs")
+    void findAllById_ReturnsListOfUsuarios() {
+        List<Long> ids = List.of(idExisted, idNotExisted);
+        when(repository.findAllById(ids)).thenReturn(List.of(existingUsuario));
+
+        List<Usuario> result = service.findAllById(ids);
+
+        assertEquals(1, result.size(), "Debe omitir los IDs inexistentes.");
+        assertEquals(emailExisted, result.get(0).getEmail());
+
+        verify(repository, times(1)).findAllById(ids);
+    }
+
     @Test
     @DisplayName("Desactivate: Debe cambiar isActivo a false correctamente")
     void deactivateUsuario_ExistingId_DeactivatesSuccessfully() throws UsuarioNoEncontradoException {
@@ -151,4 +232,9 @@ class UsuarioServiceTest {
         verify(repository, times(1)).findById(idNotExisted);
         verify(repository, never()).deleteById(anyLong());
     }
-}
\ No newline at end of file
+
+    private static DataIntegrityViolationException violacion(String restriccion) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), restriccion));
+    }
+}